@@ -0,0 +1,87 @@
+package com.zoi7.mysql.benchmark;
+
+import com.zoi7.mysql.benchmark.entity.WideEntity;
+import com.zoi7.mysql.comment.Entity;
+import com.zoi7.mysql.comment.Field;
+import com.zoi7.mysql.comment.Id;
+import com.zoi7.mysql.config.DataConfig;
+import com.zoi7.mysql.dialect.MYSQL5Dialect;
+import com.zoi7.mysql.driverManager.DriverManagerDataSource;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * DDL 语句生成: 建表语句, 单个字段定义与索引定义, 基于 120 个字段的宽表实体
+ * 这些方法是 MYSQL5Dialect 的私有方法, 通过反射调用, 不连接数据库;
+ * 联合索引语句已由 getIndexDefinitions 统一生成 (原 getUniteIndexSql)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DdlBenchmark {
+
+    private MYSQL5Dialect dialect;
+    private Method createTable;
+    private Method getColumnSql;
+    private Method getIndexDefinitions;
+    private Entity entity;
+    private List<java.lang.reflect.Field> fields; // 非主键的注解字段
+
+    @Setup
+    public void setUp() throws Exception {
+        DataConfig config = new DataConfig(new String[]{WideEntity.class.getPackage().getName()},
+                "jdbc:mysql://127.0.0.1:3306/bench", "bench", "bench");
+        dialect = new MYSQL5Dialect(config, new DriverManagerDataSource(config));
+        createTable = MYSQL5Dialect.class.getDeclaredMethod("createTable", Entity.class, Class.class);
+        createTable.setAccessible(true);
+        getColumnSql = MYSQL5Dialect.class.getDeclaredMethod("getColumnSql", java.lang.reflect.Field.class);
+        getColumnSql.setAccessible(true);
+        getIndexDefinitions = MYSQL5Dialect.class.getDeclaredMethod("getIndexDefinitions", Class.class);
+        getIndexDefinitions.setAccessible(true);
+        entity = WideEntity.class.getAnnotation(Entity.class);
+        fields = new ArrayList<java.lang.reflect.Field>();
+        for (java.lang.reflect.Field field : WideEntity.class.getDeclaredFields()) {
+            if (field.isAnnotationPresent(Field.class) && !field.isAnnotationPresent(Id.class)) {
+                fields.add(field);
+            }
+        }
+    }
+
+    @Benchmark
+    public Object createTable() throws Exception {
+        return createTable.invoke(dialect, entity, WideEntity.class);
+    }
+
+    /**
+     * 宽表全部非主键字段的字段定义
+     */
+    @Benchmark
+    public void getColumnSql(Blackhole blackhole) throws Exception {
+        for (java.lang.reflect.Field field : fields) {
+            blackhole.consume(getColumnSql.invoke(dialect, field));
+        }
+    }
+
+    @Benchmark
+    public Object getIndexDefinitions() throws Exception {
+        return getIndexDefinitions.invoke(dialect, WideEntity.class);
+    }
+
+}
@@ -0,0 +1,81 @@
+package com.zoi7.mysql.benchmark;
+
+import com.zoi7.mysql.util.generate.EntitiesGenerator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 由表结构生成实体类代码, 列信息按 INFORMATION_SCHEMA.COLUMNS 的格式构造, 不连接数据库
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EntitiesGeneratorBenchmark {
+
+    private static final String[] TYPES = {"varchar", "int", "bigint", "decimal", "datetime", "double", "text", "tinyint"};
+
+    @Param({"20", "120"})
+    public int columns;
+
+    private BenchGenerator generator;
+    private List<Map<String, Object>> columnList;
+
+    @Setup
+    public void setUp() {
+        generator = new BenchGenerator();
+        columnList = new ArrayList<Map<String, Object>>();
+        for (int i = 0; i < columns; i++) {
+            String type = i == 0 ? "bigint" : TYPES[i % TYPES.length];
+            Map<String, Object> column = new HashMap<String, Object>();
+            column.put("COLUMN_NAME", i == 0 ? "id" : "bench_column_name_" + i);
+            column.put("DATA_TYPE", type);
+            column.put("CHARACTER_MAXIMUM_LENGTH", "varchar".equals(type) ? BigInteger.valueOf(64 + i) : null);
+            column.put("IS_NULLABLE", i % 3 == 0 ? "NO" : "YES");
+            column.put("COLUMN_COMMENT", "字段 \"" + i + "\" 的注释");
+            column.put("COLUMN_DEFAULT", "int".equals(type) ? "0" : null);
+            column.put("COLUMN_KEY", i == 0 ? "PRI" : (i % 10 == 0 ? "MUL" : ""));
+            columnList.add(column);
+        }
+    }
+
+    @Benchmark
+    public String parse() {
+        return generator.parse("bench_generated_table", columnList, "基准测试表");
+    }
+
+    /**
+     * 公开 parse
+     */
+    private static class BenchGenerator extends EntitiesGenerator {
+
+        BenchGenerator() {
+            super("target/generated", "com.zoi7.mysql.benchmark.generated", "jdbc:mysql://127.0.0.1:3306/bench",
+                    "com.mysql.cj.jdbc.Driver", "bench", "bench", "bench", "com.zoi7.mysql.benchmark.BaseEntity", "bench");
+        }
+
+        @Override
+        public String parse(String tablename, List<Map<String, Object>> columns, String tableComment) {
+            return super.parse(tablename, columns, tableComment);
+        }
+    }
+
+}
@@ -0,0 +1,56 @@
+package com.zoi7.mysql.benchmark;
+
+import com.zoi7.mysql.benchmark.entity.WideEntity;
+import com.zoi7.mysql.util.FieldUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.lang.reflect.Field;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 属性名转字段名 (驼峰转下划线): 宽表实体的全部属性名
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FieldUtilsBenchmark {
+
+    private String[] names; // 属性名
+
+    @Setup
+    public void setUp() {
+        Field[] fields = WideEntity.class.getDeclaredFields();
+        names = new String[fields.length];
+        for (int i = 0; i < fields.length; i++) {
+            names[i] = fields[i].getName();
+        }
+    }
+
+    @Benchmark
+    public void getColumnByField(Blackhole blackhole) {
+        for (String name : names) {
+            blackhole.consume(FieldUtils.getColumnByField(name, false));
+        }
+    }
+
+    @Benchmark
+    public void getColumnByFieldUppercase(Blackhole blackhole) {
+        for (String name : names) {
+            blackhole.consume(FieldUtils.getColumnByField(name, true));
+        }
+    }
+
+}
@@ -0,0 +1,56 @@
+package com.zoi7.mysql.benchmark;
+
+import com.zoi7.mysql.benchmark.entity.WideEntity;
+import com.zoi7.mysql.util.mybatis.DefaultMapperUtils;
+import com.zoi7.mysql.util.mybatis.MapperConfig;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 生成宽表实体的 Mapper.xml 内容 (不写文件)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MapperXmlBenchmark {
+
+    private final BenchMapperUtils mapperUtils = new BenchMapperUtils();
+    private final MapperConfig config = new MapperConfig(WideEntity.class.getPackage().getName(),
+            "com.zoi7.mysql.benchmark.mapper", "target");
+    private final MapperConfig cacheConfig = new MapperConfig(WideEntity.class.getPackage().getName(),
+            "com.zoi7.mysql.benchmark.mapper", "target", true);
+
+    @Benchmark
+    public String getXmlString() {
+        return mapperUtils.getXmlString(WideEntity.class, config);
+    }
+
+    @Benchmark
+    public String getXmlStringWithCache() {
+        return mapperUtils.getXmlString(WideEntity.class, cacheConfig);
+    }
+
+    /**
+     * 公开 getXmlString
+     */
+    private static class BenchMapperUtils extends DefaultMapperUtils {
+
+        @Override
+        public String getXmlString(Class<?> clazz, MapperConfig config) {
+            return super.getXmlString(clazz, config);
+        }
+    }
+
+}
@@ -0,0 +1,98 @@
+package com.zoi7.mysql.benchmark;
+
+import com.zoi7.mysql.analysis.EntityScanner;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 类扫描: 在合成的 jar 与目录 (默认 10000 个类, 100 个子包, 每 20 个类一个表实体) 上扫描表实体
+ * 旧接口 getClassesByPackageName 通过 Class.forName(className) 以自身的类加载器加载全部类, 无法加载合成类, 不在此测试
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ScanBenchmark {
+
+    private static final String[] PACKAGES = {SyntheticClasses.BASE_PACKAGE};
+
+    @Param({"10000"})
+    public int classes;
+
+    private File root; // 临时目录
+    private URLClassLoader jarLoader; // 只包含合成 jar 的类加载器
+    private URLClassLoader dirLoader; // 只包含合成目录的类加载器
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        root = File.createTempFile("table-helper-scan", "");
+        if (!root.delete() || !root.mkdirs()) {
+            throw new IOException("can not create directory: " + root);
+        }
+        SyntheticClasses synthetic = new SyntheticClasses(classes, 100, 20);
+        File jar = new File(root, "synthetic.jar");
+        synthetic.writeJar(jar);
+        File dir = new File(root, "classes");
+        synthetic.writeDirectory(dir);
+        ClassLoader parent = ScanBenchmark.class.getClassLoader();
+        jarLoader = new URLClassLoader(new URL[]{jar.toURI().toURL()}, parent);
+        dirLoader = new URLClassLoader(new URL[]{dir.toURI().toURL()}, parent);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        jarLoader.close();
+        dirLoader.close();
+        SyntheticClasses.delete(root);
+    }
+
+    /**
+     * 初始化时实际使用的扫描 (ScanService, 不读取编译期索引)
+     */
+    @Benchmark
+    public Set<Class<?>> scanServiceJar() throws Exception {
+        ClassLoader original = switchTo(jarLoader);
+        try {
+            return EntityScanner.scan(PACKAGES, null, true, false, 0);
+        } finally {
+            Thread.currentThread().setContextClassLoader(original);
+        }
+    }
+
+    @Benchmark
+    public Set<Class<?>> scanServiceDirectory() throws Exception {
+        ClassLoader original = switchTo(dirLoader);
+        try {
+            return EntityScanner.scan(PACKAGES, null, false, false, 0);
+        } finally {
+            Thread.currentThread().setContextClassLoader(original);
+        }
+    }
+
+    private static ClassLoader switchTo(ClassLoader loader) {
+        ClassLoader original = Thread.currentThread().getContextClassLoader();
+        Thread.currentThread().setContextClassLoader(loader);
+        return original;
+    }
+
+}
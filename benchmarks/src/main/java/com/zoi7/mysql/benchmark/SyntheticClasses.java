@@ -0,0 +1,160 @@
+package com.zoi7.mysql.benchmark;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+
+/**
+ * 生成扫描用的合成 class 文件
+ * 每个类只有类名, 父类 (java.lang.Object) 与可选的 @Entity(tableName = ...) 注解, 可被 ClassFileReader 解析并被类加载器加载;
+ * 类平均分布在 packages 个子包中, 每 entityEvery 个类中有一个表实体
+ */
+public class SyntheticClasses {
+
+    public static final String BASE_PACKAGE = "com.zoi7.bench.synthetic";
+
+    private static final String ENTITY = "Lcom/zoi7/mysql/comment/Entity;";
+
+    private final int classes; // 类总数
+    private final int packages; // 子包数
+    private final int entityEvery; // 每多少个类中有一个表实体
+
+    public SyntheticClasses(int classes, int packages, int entityEvery) {
+        this.classes = classes;
+        this.packages = packages;
+        this.entityEvery = entityEvery;
+    }
+
+    /**
+     * @return 表实体数
+     */
+    public int getEntities() {
+        return (classes + entityEvery - 1) / entityEvery;
+    }
+
+    /**
+     * 写入 jar
+     * @param jar jar 文件
+     */
+    public void writeJar(File jar) throws IOException {
+        JarOutputStream out = new JarOutputStream(new FileOutputStream(jar));
+        try {
+            // 目录条目, ClassLoader.getResources(包路径) 依赖目录条目才能找到 jar
+            String base = BASE_PACKAGE.replace('.', '/');
+            for (int i = base.indexOf('/'); i > 0; i = base.indexOf('/', i + 1)) {
+                out.putNextEntry(new JarEntry(base.substring(0, i + 1)));
+                out.closeEntry();
+            }
+            out.putNextEntry(new JarEntry(base + "/"));
+            out.closeEntry();
+            for (int i = 0; i < packages; i++) {
+                out.putNextEntry(new JarEntry(base + "/p" + i + "/"));
+                out.closeEntry();
+            }
+            for (int i = 0; i < classes; i++) {
+                String internalName = internalName(i);
+                out.putNextEntry(new JarEntry(internalName + ".class"));
+                out.write(classFile(internalName, i % entityEvery == 0 ? "t_synthetic_" + i : null));
+                out.closeEntry();
+            }
+        } finally {
+            out.close();
+        }
+    }
+
+    /**
+     * 写入目录
+     * @param root 类路径根目录
+     */
+    public void writeDirectory(File root) throws IOException {
+        for (int i = 0; i < classes; i++) {
+            String internalName = internalName(i);
+            File file = new File(root, internalName + ".class");
+            if (!file.getParentFile().isDirectory() && !file.getParentFile().mkdirs()) {
+                throw new IOException("can not create directory: " + file.getParentFile());
+            }
+            OutputStream out = new FileOutputStream(file);
+            try {
+                out.write(classFile(internalName, i % entityEvery == 0 ? "t_synthetic_" + i : null));
+            } finally {
+                out.close();
+            }
+        }
+    }
+
+    private String internalName(int i) {
+        return BASE_PACKAGE.replace('.', '/') + "/p" + (i % packages) + "/Synthetic" + i;
+    }
+
+    /**
+     * 生成 class 文件 (版本 50, 即 Java 6)
+     * @param internalName 类名, 如 com/zoi7/bench/Synthetic1
+     * @param tableName 表名, 为 null 时不是表实体
+     */
+    static byte[] classFile(String internalName, String tableName) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(128);
+        DataOutputStream data = new DataOutputStream(bytes);
+        data.writeInt(0xCAFEBABE);
+        data.writeShort(0); // minor_version
+        data.writeShort(50); // major_version
+        data.writeShort(tableName == null ? 5 : 9); // constant_pool_count
+        data.writeByte(1); // #1 Utf8
+        data.writeUTF(internalName);
+        data.writeByte(7); // #2 Class #1
+        data.writeShort(1);
+        data.writeByte(1); // #3 Utf8
+        data.writeUTF("java/lang/Object");
+        data.writeByte(7); // #4 Class #3
+        data.writeShort(3);
+        if (tableName != null) {
+            data.writeByte(1); // #5
+            data.writeUTF("RuntimeVisibleAnnotations");
+            data.writeByte(1); // #6
+            data.writeUTF(ENTITY);
+            data.writeByte(1); // #7
+            data.writeUTF("tableName");
+            data.writeByte(1); // #8
+            data.writeUTF(tableName);
+        }
+        data.writeShort(0x0021); // ACC_PUBLIC | ACC_SUPER
+        data.writeShort(2); // this_class
+        data.writeShort(4); // super_class
+        data.writeShort(0); // interfaces
+        data.writeShort(0); // fields
+        data.writeShort(0); // methods
+        if (tableName == null) {
+            data.writeShort(0); // attributes
+        } else {
+            data.writeShort(1);
+            data.writeShort(5); // RuntimeVisibleAnnotations
+            data.writeInt(11);
+            data.writeShort(1); // num_annotations
+            data.writeShort(6); // type_index
+            data.writeShort(1); // num_element_value_pairs
+            data.writeShort(7); // tableName
+            data.writeByte('s');
+            data.writeShort(8);
+        }
+        data.flush();
+        return bytes.toByteArray();
+    }
+
+    /**
+     * 删除目录
+     */
+    static void delete(File file) {
+        File[] files = file.listFiles();
+        if (files != null) {
+            for (File child : files) {
+                delete(child);
+            }
+        }
+        file.delete();
+    }
+
+}
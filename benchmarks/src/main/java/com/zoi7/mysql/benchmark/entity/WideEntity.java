@@ -0,0 +1,264 @@
+package com.zoi7.mysql.benchmark.entity;
+
+import com.zoi7.mysql.comment.Entity;
+import com.zoi7.mysql.comment.Field;
+import com.zoi7.mysql.comment.FieldType;
+import com.zoi7.mysql.comment.Id;
+import com.zoi7.mysql.comment.Index;
+import com.zoi7.mysql.comment.UniteIndex;
+
+import java.math.BigDecimal;
+import java.util.Date;
+
+/**
+ * 基准测试用 > 120 个字段的宽表实体, 包含各类字段类型, 单列索引与联合索引
+ */
+@Entity(tableName = "bench_wide_entity", comment = "宽表", indices = {
+        @UniteIndex(fields = {"accountName6", "retryCount7"}),
+        @UniteIndex(fields = {"orderSerialNo2", "lastModifiedTime4", "conversionRate5"}, unique = true)
+})
+public class WideEntity {
+
+    @Id
+    @Field(type = FieldType.BIGINT, comment = "主键")
+    private Long id;
+    @Field(nullable = false, defaultValue = "0", comment = "整数字段 1")
+    private Integer retryCount1;
+    @Field(type = FieldType.BIGINT, unsigned = true, comment = "长整数字段 2")
+    private Long orderSerialNo2;
+    @Field(type = FieldType.DECIMAL, length = 18, decimalLength = 4, defaultValue = "0.0000")
+    private BigDecimal settledAmount3;
+    @Field(nullable = false, comment = "时间字段 4")
+    private Date lastModifiedTime4;
+    @Field(comment = "浮点字段 5")
+    private Double conversionRate5;
+    @Field(type = FieldType.VARCHAR, length = 128, comment = "字符串字段 6")
+    private String accountName6;
+    @Field(nullable = false, defaultValue = "0", comment = "整数字段 7")
+    private Integer retryCount7;
+    @Field(type = FieldType.BIGINT, unsigned = true, comment = "长整数字段 8")
+    private Long orderSerialNo8;
+    @Field(type = FieldType.DECIMAL, length = 18, decimalLength = 4, defaultValue = "0.0000")
+    private BigDecimal settledAmount9;
+    @Field(nullable = false, comment = "时间字段 10", index = @Index)
+    private Date lastModifiedTime10;
+    @Field(comment = "浮点字段 11")
+    private Double conversionRate11;
+    @Field(type = FieldType.VARCHAR, length = 96, comment = "字符串字段 12")
+    private String accountName12;
+    @Field(nullable = false, defaultValue = "0", comment = "整数字段 13")
+    private Integer retryCount13;
+    @Field(type = FieldType.BIGINT, unsigned = true, comment = "长整数字段 14")
+    private Long orderSerialNo14;
+    @Field(type = FieldType.DECIMAL, length = 18, decimalLength = 4, defaultValue = "0.0000")
+    private BigDecimal settledAmount15;
+    @Field(nullable = false, comment = "时间字段 16")
+    private Date lastModifiedTime16;
+    @Field(comment = "浮点字段 17")
+    private Double conversionRate17;
+    @Field(type = FieldType.VARCHAR, length = 64, comment = "字符串字段 18")
+    private String accountName18;
+    @Field(nullable = false, defaultValue = "0", comment = "整数字段 19")
+    private Integer retryCount19;
+    @Field(type = FieldType.BIGINT, unsigned = true, comment = "长整数字段 20", index = @Index)
+    private Long orderSerialNo20;
+    @Field(type = FieldType.DECIMAL, length = 18, decimalLength = 4, defaultValue = "0.0000")
+    private BigDecimal settledAmount21;
+    @Field(nullable = false, comment = "时间字段 22")
+    private Date lastModifiedTime22;
+    @Field(comment = "浮点字段 23")
+    private Double conversionRate23;
+    @Field(type = FieldType.VARCHAR, length = 32, comment = "字符串字段 24")
+    private String accountName24;
+    @Field(nullable = false, defaultValue = "0", comment = "整数字段 25")
+    private Integer retryCount25;
+    @Field(type = FieldType.BIGINT, unsigned = true, comment = "长整数字段 26")
+    private Long orderSerialNo26;
+    @Field(type = FieldType.DECIMAL, length = 18, decimalLength = 4, defaultValue = "0.0000")
+    private BigDecimal settledAmount27;
+    @Field(nullable = false, comment = "时间字段 28")
+    private Date lastModifiedTime28;
+    @Field(comment = "浮点字段 29")
+    private Double conversionRate29;
+    @Field(type = FieldType.VARCHAR, length = 128, comment = "字符串字段 30", index = @Index)
+    private String accountName30;
+    @Field(nullable = false, defaultValue = "0", comment = "整数字段 31")
+    private Integer retryCount31;
+    @Field(type = FieldType.BIGINT, unsigned = true, comment = "长整数字段 32")
+    private Long orderSerialNo32;
+    @Field(type = FieldType.DECIMAL, length = 18, decimalLength = 4, defaultValue = "0.0000")
+    private BigDecimal settledAmount33;
+    @Field(nullable = false, comment = "时间字段 34")
+    private Date lastModifiedTime34;
+    @Field(comment = "浮点字段 35")
+    private Double conversionRate35;
+    @Field(type = FieldType.VARCHAR, length = 96, comment = "字符串字段 36")
+    private String accountName36;
+    @Field(nullable = false, defaultValue = "0", comment = "整数字段 37")
+    private Integer retryCount37;
+    @Field(type = FieldType.BIGINT, unsigned = true, comment = "长整数字段 38")
+    private Long orderSerialNo38;
+    @Field(type = FieldType.DECIMAL, length = 18, decimalLength = 4, defaultValue = "0.0000")
+    private BigDecimal settledAmount39;
+    @Field(nullable = false, comment = "时间字段 40", index = @Index)
+    private Date lastModifiedTime40;
+    @Field(comment = "浮点字段 41")
+    private Double conversionRate41;
+    @Field(type = FieldType.VARCHAR, length = 64, comment = "字符串字段 42")
+    private String accountName42;
+    @Field(nullable = false, defaultValue = "0", comment = "整数字段 43")
+    private Integer retryCount43;
+    @Field(type = FieldType.BIGINT, unsigned = true, comment = "长整数字段 44")
+    private Long orderSerialNo44;
+    @Field(type = FieldType.DECIMAL, length = 18, decimalLength = 4, defaultValue = "0.0000")
+    private BigDecimal settledAmount45;
+    @Field(nullable = false, comment = "时间字段 46")
+    private Date lastModifiedTime46;
+    @Field(comment = "浮点字段 47")
+    private Double conversionRate47;
+    @Field(type = FieldType.VARCHAR, length = 32, comment = "字符串字段 48")
+    private String accountName48;
+    @Field(nullable = false, defaultValue = "0", comment = "整数字段 49")
+    private Integer retryCount49;
+    @Field(type = FieldType.BIGINT, unsigned = true, comment = "长整数字段 50", index = @Index)
+    private Long orderSerialNo50;
+    @Field(type = FieldType.DECIMAL, length = 18, decimalLength = 4, defaultValue = "0.0000")
+    private BigDecimal settledAmount51;
+    @Field(nullable = false, comment = "时间字段 52")
+    private Date lastModifiedTime52;
+    @Field(comment = "浮点字段 53")
+    private Double conversionRate53;
+    @Field(type = FieldType.VARCHAR, length = 128, comment = "字符串字段 54")
+    private String accountName54;
+    @Field(nullable = false, defaultValue = "0", comment = "整数字段 55")
+    private Integer retryCount55;
+    @Field(type = FieldType.BIGINT, unsigned = true, comment = "长整数字段 56")
+    private Long orderSerialNo56;
+    @Field(type = FieldType.DECIMAL, length = 18, decimalLength = 4, defaultValue = "0.0000")
+    private BigDecimal settledAmount57;
+    @Field(nullable = false, comment = "时间字段 58")
+    private Date lastModifiedTime58;
+    @Field(comment = "浮点字段 59")
+    private Double conversionRate59;
+    @Field(type = FieldType.VARCHAR, length = 96, comment = "字符串字段 60", index = @Index)
+    private String accountName60;
+    @Field(nullable = false, defaultValue = "0", comment = "整数字段 61")
+    private Integer retryCount61;
+    @Field(type = FieldType.BIGINT, unsigned = true, comment = "长整数字段 62")
+    private Long orderSerialNo62;
+    @Field(type = FieldType.DECIMAL, length = 18, decimalLength = 4, defaultValue = "0.0000")
+    private BigDecimal settledAmount63;
+    @Field(nullable = false, comment = "时间字段 64")
+    private Date lastModifiedTime64;
+    @Field(comment = "浮点字段 65")
+    private Double conversionRate65;
+    @Field(type = FieldType.VARCHAR, length = 64, comment = "字符串字段 66")
+    private String accountName66;
+    @Field(nullable = false, defaultValue = "0", comment = "整数字段 67")
+    private Integer retryCount67;
+    @Field(type = FieldType.BIGINT, unsigned = true, comment = "长整数字段 68")
+    private Long orderSerialNo68;
+    @Field(type = FieldType.DECIMAL, length = 18, decimalLength = 4, defaultValue = "0.0000")
+    private BigDecimal settledAmount69;
+    @Field(nullable = false, comment = "时间字段 70", index = @Index)
+    private Date lastModifiedTime70;
+    @Field(comment = "浮点字段 71")
+    private Double conversionRate71;
+    @Field(type = FieldType.VARCHAR, length = 32, comment = "字符串字段 72")
+    private String accountName72;
+    @Field(nullable = false, defaultValue = "0", comment = "整数字段 73")
+    private Integer retryCount73;
+    @Field(type = FieldType.BIGINT, unsigned = true, comment = "长整数字段 74")
+    private Long orderSerialNo74;
+    @Field(type = FieldType.DECIMAL, length = 18, decimalLength = 4, defaultValue = "0.0000")
+    private BigDecimal settledAmount75;
+    @Field(nullable = false, comment = "时间字段 76")
+    private Date lastModifiedTime76;
+    @Field(comment = "浮点字段 77")
+    private Double conversionRate77;
+    @Field(type = FieldType.VARCHAR, length = 128, comment = "字符串字段 78")
+    private String accountName78;
+    @Field(nullable = false, defaultValue = "0", comment = "整数字段 79")
+    private Integer retryCount79;
+    @Field(type = FieldType.BIGINT, unsigned = true, comment = "长整数字段 80", index = @Index)
+    private Long orderSerialNo80;
+    @Field(type = FieldType.DECIMAL, length = 18, decimalLength = 4, defaultValue = "0.0000")
+    private BigDecimal settledAmount81;
+    @Field(nullable = false, comment = "时间字段 82")
+    private Date lastModifiedTime82;
+    @Field(comment = "浮点字段 83")
+    private Double conversionRate83;
+    @Field(type = FieldType.VARCHAR, length = 96, comment = "字符串字段 84")
+    private String accountName84;
+    @Field(nullable = false, defaultValue = "0", comment = "整数字段 85")
+    private Integer retryCount85;
+    @Field(type = FieldType.BIGINT, unsigned = true, comment = "长整数字段 86")
+    private Long orderSerialNo86;
+    @Field(type = FieldType.DECIMAL, length = 18, decimalLength = 4, defaultValue = "0.0000")
+    private BigDecimal settledAmount87;
+    @Field(nullable = false, comment = "时间字段 88")
+    private Date lastModifiedTime88;
+    @Field(comment = "浮点字段 89")
+    private Double conversionRate89;
+    @Field(type = FieldType.VARCHAR, length = 64, comment = "字符串字段 90", index = @Index)
+    private String accountName90;
+    @Field(nullable = false, defaultValue = "0", comment = "整数字段 91")
+    private Integer retryCount91;
+    @Field(type = FieldType.BIGINT, unsigned = true, comment = "长整数字段 92")
+    private Long orderSerialNo92;
+    @Field(type = FieldType.DECIMAL, length = 18, decimalLength = 4, defaultValue = "0.0000")
+    private BigDecimal settledAmount93;
+    @Field(nullable = false, comment = "时间字段 94")
+    private Date lastModifiedTime94;
+    @Field(comment = "浮点字段 95")
+    private Double conversionRate95;
+    @Field(type = FieldType.VARCHAR, length = 32, comment = "字符串字段 96")
+    private String accountName96;
+    @Field(nullable = false, defaultValue = "0", comment = "整数字段 97")
+    private Integer retryCount97;
+    @Field(type = FieldType.BIGINT, unsigned = true, comment = "长整数字段 98")
+    private Long orderSerialNo98;
+    @Field(type = FieldType.DECIMAL, length = 18, decimalLength = 4, defaultValue = "0.0000")
+    private BigDecimal settledAmount99;
+    @Field(nullable = false, comment = "时间字段 100", index = @Index)
+    private Date lastModifiedTime100;
+    @Field(comment = "浮点字段 101")
+    private Double conversionRate101;
+    @Field(type = FieldType.VARCHAR, length = 128, comment = "字符串字段 102")
+    private String accountName102;
+    @Field(nullable = false, defaultValue = "0", comment = "整数字段 103")
+    private Integer retryCount103;
+    @Field(type = FieldType.BIGINT, unsigned = true, comment = "长整数字段 104")
+    private Long orderSerialNo104;
+    @Field(type = FieldType.DECIMAL, length = 18, decimalLength = 4, defaultValue = "0.0000")
+    private BigDecimal settledAmount105;
+    @Field(nullable = false, comment = "时间字段 106")
+    private Date lastModifiedTime106;
+    @Field(comment = "浮点字段 107")
+    private Double conversionRate107;
+    @Field(type = FieldType.VARCHAR, length = 96, comment = "字符串字段 108")
+    private String accountName108;
+    @Field(nullable = false, defaultValue = "0", comment = "整数字段 109")
+    private Integer retryCount109;
+    @Field(type = FieldType.BIGINT, unsigned = true, comment = "长整数字段 110", index = @Index)
+    private Long orderSerialNo110;
+    @Field(type = FieldType.DECIMAL, length = 18, decimalLength = 4, defaultValue = "0.0000")
+    private BigDecimal settledAmount111;
+    @Field(nullable = false, comment = "时间字段 112")
+    private Date lastModifiedTime112;
+    @Field(comment = "浮点字段 113")
+    private Double conversionRate113;
+    @Field(type = FieldType.VARCHAR, length = 64, comment = "字符串字段 114")
+    private String accountName114;
+    @Field(nullable = false, defaultValue = "0", comment = "整数字段 115")
+    private Integer retryCount115;
+    @Field(type = FieldType.BIGINT, unsigned = true, comment = "长整数字段 116")
+    private Long orderSerialNo116;
+    @Field(type = FieldType.DECIMAL, length = 18, decimalLength = 4, defaultValue = "0.0000")
+    private BigDecimal settledAmount117;
+    @Field(nullable = false, comment = "时间字段 118")
+    private Date lastModifiedTime118;
+    @Field(comment = "浮点字段 119")
+    private Double conversionRate119;
+
+}
@@ -3,8 +3,18 @@ package com.zoi7.mysql;
 import com.zoi7.mysql.config.Config;
 import com.zoi7.mysql.config.DataConfig;
 import com.zoi7.mysql.dialect.MYSQL5Dialect;
+import com.zoi7.mysql.monitor.SchemaSync;
+import com.zoi7.mysql.report.MigrationReport;
+import com.zoi7.mysql.sync.MultiTargetSync;
+import com.zoi7.mysql.sync.SyncReport;
+import com.zoi7.mysql.sync.TenantReport;
+import com.zoi7.mysql.sync.TenantSync;
 
 import javax.naming.ConfigurationException;
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
 import java.util.Properties;
 
 /**
@@ -15,25 +25,94 @@ import java.util.Properties;
  */
 public class TableInitializer {
 
-    // way1
-    public static void init(String configPath) throws ConfigurationException {
+    private static List<MYSQL5Dialect> maintained = new ArrayList<MYSQL5Dialect>(); // 各次初始化中启动了分区维护的方言, 持有分区维护与连接池
+
+    // way1, 返回初始化报告: 各阶段耗时, 单表与单条语句的执行结果; 也可通过 db.migrationListener 实时接收
+    public static MigrationReport init(String configPath) throws ConfigurationException {
         // 加载配置参数
         Config.loadConfig(configPath);
-        new MYSQL5Dialect().init();
+        return init(new MYSQL5Dialect());
     }
 
     // way2
-    public static void init(Properties properties) throws ConfigurationException {
+    public static MigrationReport init(Properties properties) throws ConfigurationException {
         // 加载配置参数
         Config.loadConfig(properties);
-        new MYSQL5Dialect().init();
+        return init(new MYSQL5Dialect());
     }
 
     // way3
-    public static void init(DataConfig config) {
+    public static MigrationReport init(DataConfig config) {
         // 加载配置参数
         Config.loadConfig(config);
-        new MYSQL5Dialect().init();
+        return init(new MYSQL5Dialect());
+    }
+
+    // way4: 使用外部管理的连接池, 如应用自身的连接池, 避免初始化时额外建立连接
+    public static MigrationReport init(String configPath, DataSource dataSource) throws ConfigurationException {
+        Config.loadConfig(configPath);
+        return init(new MYSQL5Dialect(dataSource));
+    }
+
+    public static MigrationReport init(Properties properties, DataSource dataSource) throws ConfigurationException {
+        Config.loadConfig(properties);
+        return init(new MYSQL5Dialect(dataSource));
+    }
+
+    public static MigrationReport init(DataConfig config, DataSource dataSource) {
+        Config.loadConfig(config);
+        return init(new MYSQL5Dialect(dataSource));
+    }
+
+    // way5: 多个数据源 (如分库) 同步同一套表实体, 表实体只扫描一次, 最多同时初始化 db.syncParallelism 个数据源
+    public static SyncReport init(DataConfig config, List<DataSource> dataSources) {
+        return init(new MultiTargetSync(config, dataSources));
+    }
+
+    public static SyncReport init(DataConfig config, Map<String, DataSource> dataSources) {
+        return init(new MultiTargetSync(config, dataSources));
+    }
+
+    // way6: 库级多租户, 同步各服务器上库名匹配 db.tenantPattern 的所有库, 支持检查点 (db.tenantCheckpoint) 断点续传
+    public static TenantReport initTenants(DataConfig config, List<DataSource> servers) {
+        return new TenantSync(config, servers).execute();
+    }
+
+    public static TenantReport initTenants(DataConfig config, Map<String, DataSource> servers) {
+        return new TenantSync(config, servers).execute();
+    }
+
+    /**
+     * 停止初始化时启动的分区维护 (db.partitionMaintain) 并关闭其创建的连接池 (外部传入的连接池不会被关闭),
+     * 注销 JMX MBean, 应用关闭时调用
+     */
+    public static synchronized void shutdown() {
+        for (MYSQL5Dialect dialect : maintained) {
+            dialect.close();
+        }
+        maintained.clear();
+        SchemaSync.unregister();
+    }
+
+    private static MigrationReport init(MYSQL5Dialect dialect) {
+        MigrationReport report = dialect.init();
+        if (dialect.getPartitionMaintainer() != null && dialect.getPartitionMaintainer().isRunning()) {
+            // 保留之前初始化 (如其他数据源) 启动的分区维护, 统一在 shutdown 时停止
+            synchronized (TableInitializer.class) {
+                maintained.add(dialect);
+            }
+        }
+        return report;
+    }
+
+    private static SyncReport init(MultiTargetSync sync) {
+        SyncReport report = sync.execute();
+        if (!sync.getMaintained().isEmpty()) {
+            synchronized (TableInitializer.class) {
+                maintained.addAll(sync.getMaintained());
+            }
+        }
+        return report;
     }
 
 }
@@ -0,0 +1,199 @@
+package com.zoi7.mysql.analysis;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.*;
+
+/**
+ * class 文件解析
+ * 直接从字节流读取常量池与类上的 RuntimeVisibleAnnotations 属性, 无需加载类,
+ * 不会执行静态初始化, 也不会因为无关类缺少可选依赖而失败
+ */
+public class ClassFileReader {
+
+    private static final int MAGIC = 0xCAFEBABE;
+    private static final String RUNTIME_VISIBLE_ANNOTATIONS = "RuntimeVisibleAnnotations";
+
+    private String className; // 类名, 如 com.zoi7.mysql.User
+    private String superName; // 父类名, java.lang.Object 的父类为 null
+    private Set<String> annotations = new HashSet<String>(); // 类上的运行时注解
+
+    /**
+     * 解析 class 文件
+     * @param in class 文件输入流, 由调用方关闭
+     * @throws IOException 读取失败或不是合法的 class 文件
+     */
+    public ClassFileReader(InputStream in) throws IOException {
+        DataInputStream data = new DataInputStream(in);
+        if (data.readInt() != MAGIC) {
+            throw new IOException("not a class file");
+        }
+        data.readUnsignedShort(); // minor_version
+        data.readUnsignedShort(); // major_version
+        int count = data.readUnsignedShort();
+        String[] utf8 = new String[count];
+        int[] classes = new int[count];
+        for (int i = 1; i < count; i++) {
+            int tag = data.readUnsignedByte();
+            switch (tag) {
+                case 1: // Utf8
+                    utf8[i] = data.readUTF();
+                    break;
+                case 7: // Class
+                    classes[i] = data.readUnsignedShort();
+                    break;
+                case 8: // String
+                case 16: // MethodType
+                case 19: // Module
+                case 20: // Package
+                    skipFully(data, 2);
+                    break;
+                case 15: // MethodHandle
+                    skipFully(data, 3);
+                    break;
+                case 3: // Integer
+                case 4: // Float
+                case 9: // Fieldref
+                case 10: // Methodref
+                case 11: // InterfaceMethodref
+                case 12: // NameAndType
+                case 17: // Dynamic
+                case 18: // InvokeDynamic
+                    skipFully(data, 4);
+                    break;
+                case 5: // Long
+                case 6: // Double
+                    skipFully(data, 8);
+                    i++;
+                    break;
+                default:
+                    throw new IOException("unknown constant pool tag: " + tag);
+            }
+        }
+        data.readUnsignedShort(); // access_flags
+        this.className = toClassName(utf8[classes[data.readUnsignedShort()]]);
+        int superIndex = data.readUnsignedShort();
+        this.superName = superIndex == 0 ? null : toClassName(utf8[classes[superIndex]]);
+        skipFully(data, data.readUnsignedShort() * 2); // interfaces
+        skipMembers(data); // fields
+        skipMembers(data); // methods
+        int attributes = data.readUnsignedShort();
+        for (int i = 0; i < attributes; i++) {
+            String name = utf8[data.readUnsignedShort()];
+            int length = data.readInt();
+            if (RUNTIME_VISIBLE_ANNOTATIONS.equals(name)) {
+                int num = data.readUnsignedShort();
+                for (int j = 0; j < num; j++) {
+                    String descriptor = utf8[data.readUnsignedShort()];
+                    this.annotations.add(toClassName(descriptor.substring(1, descriptor.length() - 1)));
+                    skipElementValuePairs(data);
+                }
+            } else {
+                skipFully(data, length);
+            }
+        }
+    }
+
+    private static void skipMembers(DataInputStream data) throws IOException {
+        int count = data.readUnsignedShort();
+        for (int i = 0; i < count; i++) {
+            skipFully(data, 6); // access_flags, name_index, descriptor_index
+            int attributes = data.readUnsignedShort();
+            for (int j = 0; j < attributes; j++) {
+                skipFully(data, 2);
+                skipFully(data, data.readInt());
+            }
+        }
+    }
+
+    private static void skipElementValuePairs(DataInputStream data) throws IOException {
+        int pairs = data.readUnsignedShort();
+        for (int i = 0; i < pairs; i++) {
+            skipFully(data, 2); // element_name_index
+            skipElementValue(data);
+        }
+    }
+
+    private static void skipElementValue(DataInputStream data) throws IOException {
+        int tag = data.readUnsignedByte();
+        switch (tag) {
+            case 'e':
+                skipFully(data, 4);
+                break;
+            case '@':
+                skipFully(data, 2);
+                skipElementValuePairs(data);
+                break;
+            case '[':
+                int num = data.readUnsignedShort();
+                for (int i = 0; i < num; i++) {
+                    skipElementValue(data);
+                }
+                break;
+            default: // B C D F I J S Z s c
+                skipFully(data, 2);
+                break;
+        }
+    }
+
+    private static void skipFully(DataInputStream data, int length) throws IOException {
+        int skipped = 0;
+        while (skipped < length) {
+            int n = data.skipBytes(length - skipped);
+            if (n <= 0) {
+                throw new IOException("unexpected end of class file");
+            }
+            skipped += n;
+        }
+    }
+
+    private static String toClassName(String internalName) {
+        return internalName.replace('/', '.');
+    }
+
+    public String getClassName() {
+        return className;
+    }
+
+    public String getSuperName() {
+        return superName;
+    }
+
+    public Set<String> getAnnotations() {
+        return annotations;
+    }
+
+    /**
+     * @param annotation 注解类
+     * @return 类上是否直接声明了该注解
+     */
+    public boolean hasAnnotation(Class<?> annotation) {
+        return annotations.contains(annotation.getName());
+    }
+
+    /**
+     * 找出带有指定注解的类
+     * 注解声明了 @Inherited 时, 父类(在已解析的类中)带有该注解的子类同样会被选中
+     * @param readers 已解析的类, 类名 → 解析结果
+     * @param annotation 注解类
+     * @return 类名集合
+     */
+    public static Set<String> findAnnotated(Map<String, ClassFileReader> readers, Class<?> annotation) {
+        boolean inherited = annotation.isAnnotationPresent(java.lang.annotation.Inherited.class);
+        Set<String> result = new TreeSet<String>();
+        for (ClassFileReader reader : readers.values()) {
+            ClassFileReader current = reader;
+            Set<String> visited = new HashSet<String>();
+            while (current != null && visited.add(current.className)) {
+                if (current.hasAnnotation(annotation)) {
+                    result.add(reader.className);
+                    break;
+                }
+                current = inherited && current.superName != null ? readers.get(current.superName) : null;
+            }
+        }
+        return result;
+    }
+
+}
@@ -0,0 +1,97 @@
+package com.zoi7.mysql.analysis;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.util.Enumeration;
+import java.util.HashSet;
+import java.util.Properties;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * 编译期生成的表实体索引
+ * 由 {@link com.zoi7.mysql.processor.EntityIndexProcessor} 在 javac 编译时写入 {@link #LOCATION},
+ * 记录每个 @Entity 类的表名, 运行时直接读取; 含有索引的类路径根目录 (目录或 jar) 无需再扫描,
+ * 其他根目录 (如未生成索引的模块) 仍需扫描
+ */
+public class EntityIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(EntityIndex.class);
+
+    public static final String LOCATION = "META-INF/mysql-table-helper/entity.index";
+
+    private Properties properties = new Properties();
+    private Set<String> classNames = new TreeSet<String>();
+    private Set<String> roots = new HashSet<String>(); // 含有索引的类路径根目录
+
+    private EntityIndex() {
+    }
+
+    /**
+     * 读取类路径下所有的表实体索引
+     * @param classLoader 类加载器
+     * @return 表实体索引, 类路径下没有索引文件时返回 null
+     * @throws IOException 读取失败
+     */
+    public static EntityIndex load(ClassLoader classLoader) throws IOException {
+        Enumeration<URL> resources = classLoader.getResources(LOCATION);
+        if (!resources.hasMoreElements()) {
+            return null;
+        }
+        EntityIndex index = new EntityIndex();
+        while (resources.hasMoreElements()) {
+            URL url = resources.nextElement();
+            log.debug("EntityIndex load > {}", url);
+            index.roots.add(ScanService.getRoot(url, LOCATION));
+            InputStream in = url.openStream();
+            try {
+                index.properties.load(in);
+            } finally {
+                in.close();
+            }
+        }
+        index.classNames.addAll(index.properties.stringPropertyNames());
+        return index;
+    }
+
+    /**
+     * @param packageName 包名, 包含子包
+     * @return 该包下的表实体类名
+     */
+    public Set<String> getClassNames(String packageName) {
+        Set<String> names = new TreeSet<String>();
+        for (String className : classNames) {
+            if (className.startsWith(packageName + ".")) {
+                names.add(className);
+            }
+        }
+        return names;
+    }
+
+    /**
+     * @return 所有表实体类名
+     */
+    public Set<String> getClassNames() {
+        return classNames;
+    }
+
+    /**
+     * @param className 表实体类名
+     * @return 表名
+     */
+    public String getTableName(String className) {
+        return properties.getProperty(className);
+    }
+
+    /**
+     * @return 含有索引的类路径根目录, 格式同 {@link ScanService#getRoot(URL, String)}
+     */
+    public Set<String> getRoots() {
+        return roots;
+    }
+
+}
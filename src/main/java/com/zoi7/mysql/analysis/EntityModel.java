@@ -0,0 +1,98 @@
+package com.zoi7.mysql.analysis;
+
+import com.zoi7.mysql.comment.Entity;
+import com.zoi7.mysql.config.DataConfig;
+import com.zoi7.mysql.monitor.SchemaSync;
+import com.zoi7.mysql.schema.EntityFingerprint;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 扫描得到的表实体模型
+ * 扫描一次后只读, 可在多个数据源 (如分库) 的初始化之间共享, 避免每个数据源重复扫描与计算指纹
+ */
+public class EntityModel {
+
+    private static final Logger log = LoggerFactory.getLogger(EntityModel.class);
+
+    private final Set<Class<?>> classes; // 扫描到的全部类
+    private final List<Class<?>> entities; // 需要检测表结构的表实体 (@Entity(check = true))
+    private final Map<Class<?>, String> fingerprints; // 表实体指纹
+
+    private EntityModel(Set<Class<?>> classes, boolean uppercase) {
+        this.classes = Collections.unmodifiableSet(classes);
+        List<Class<?>> entities = new ArrayList<Class<?>>();
+        Map<Class<?>, String> fingerprints = new HashMap<Class<?>, String>();
+        for (Class<?> clazz : classes) {
+            // 是否表实体, 是否需要检测表结构
+            if (!clazz.isAnnotationPresent(Entity.class) || !clazz.getAnnotation(Entity.class).check()) {
+                continue;
+            }
+            entities.add(clazz);
+            fingerprints.put(clazz, EntityFingerprint.compute(clazz, uppercase));
+        }
+        this.entities = Collections.unmodifiableList(entities);
+        this.fingerprints = Collections.unmodifiableMap(fingerprints);
+    }
+
+    /**
+     * 按配置扫描表实体
+     * @param config 配置
+     * @return 表实体模型
+     */
+    public static EntityModel scan(DataConfig config) throws IOException, ClassNotFoundException {
+        long start = System.currentTimeMillis();
+        Set<Class<?>> classes = EntityScanner.scan(config.getPackages(), config.getExcludePackages(),
+                config.isScanJar(), config.isEntityIndex(), config.getScanThreads());
+        SchemaSync.get().scanned(System.currentTimeMillis() - start, classes.size());
+        log.info("EntityModel scan > packagesSize: {}, classListSize : {}", config.getPackages().length, classes.size());
+        return new EntityModel(classes, config.isUppercase());
+    }
+
+    /**
+     * @param classes 表实体类
+     * @param uppercase 表字段是否大写
+     * @return 表实体模型
+     */
+    public static EntityModel of(Set<Class<?>> classes, boolean uppercase) {
+        return new EntityModel(classes, uppercase);
+    }
+
+    /**
+     * @return 扫描到的全部类, 包括不需要检测表结构的表实体
+     */
+    public Set<Class<?>> getClasses() {
+        return classes;
+    }
+
+    /**
+     * @return 需要检测表结构的表实体
+     */
+    public List<Class<?>> getEntities() {
+        return entities;
+    }
+
+    /**
+     * @param clazz 表实体
+     * @return 表实体指纹
+     */
+    public String getFingerprint(Class<?> clazz) {
+        return fingerprints.get(clazz);
+    }
+
+    /**
+     * @return 整个模型的指纹, 任一表实体变化时改变
+     */
+    public String getFingerprint() {
+        return EntityFingerprint.combine(fingerprints.values());
+    }
+
+}
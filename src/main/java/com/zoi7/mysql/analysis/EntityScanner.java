@@ -0,0 +1,69 @@
+package com.zoi7.mysql.analysis;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * 表实体查找入口
+ * 优先读取编译期生成的 {@link EntityIndex}, 并扫描没有索引的目录与 jar, 两者合并
+ */
+public class EntityScanner {
+
+    private static final Logger log = LoggerFactory.getLogger(EntityScanner.class);
+
+    /**
+     * 查找表实体
+     * @param packages 实体类所在包, 包含子包
+     * @param excludes 排除的包
+     * @param scanJar 是否扫描没有索引的 jar
+     * @param useIndex 是否使用编译期生成的索引
+     * @return 表实体类集合
+     */
+    public static Set<Class<?>> scan(String[] packages, String[] excludes, boolean scanJar, boolean useIndex)
+            throws IOException, ClassNotFoundException {
+        return scan(packages, excludes, scanJar, useIndex, 0);
+    }
+
+    /**
+     * 查找表实体
+     * @param packages 实体类所在包, 包含子包
+     * @param excludes 排除的包
+     * @param scanJar 是否扫描没有索引的 jar
+     * @param useIndex 是否使用编译期生成的索引
+     * @param scanThreads 并发扫描的线程数, 0 为 CPU 核数
+     * @return 表实体类集合
+     */
+    public static Set<Class<?>> scan(String[] packages, String[] excludes, boolean scanJar, boolean useIndex,
+                                     int scanThreads) throws IOException, ClassNotFoundException {
+        ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
+        Set<Class<?>> classes = new HashSet<Class<?>>();
+        EntityIndex index = useIndex ? EntityIndex.load(classLoader) : null;
+        ScanService scanService = new ScanService(packages, excludes, scanJar, scanThreads);
+        if (index != null) {
+            PackageFilter filter = new PackageFilter(packages, excludes);
+            for (String className : index.getClassNames()) {
+                if (filter.accept(className)) {
+                    classes.add(Class.forName(className, false, classLoader));
+                }
+            }
+            log.debug("EntityScanner scan > from index, roots: {}, classes: {}", index.getRoots(), classes.size());
+            // 含有索引的根目录不再扫描, 其他根目录 (未生成索引的模块) 仍需扫描
+            scanService.setSkippedRoots(index.getRoots());
+        }
+        // 解析 class 文件判断是否为表实体, 只加载表实体类; 所有包共享同一次 jar 遍历
+        try {
+            classes.addAll(scanService.scanEntities());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("scan interrupted", e);
+        }
+        log.debug("EntityScanner scan > packages: {}, classes: {}", Arrays.toString(packages), classes.size());
+        return classes;
+    }
+
+}
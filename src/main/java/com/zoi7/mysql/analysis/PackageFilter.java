@@ -0,0 +1,45 @@
+package com.zoi7.mysql.analysis;
+
+/**
+ * 包过滤条件
+ * 类名以任一 include 前缀开头, 且不以任何 exclude 前缀开头时通过 (与原有 jar 扫描的前缀匹配规则一致)
+ */
+public class PackageFilter {
+
+    private String[] includes; // 包含的包
+    private String[] excludes; // 排除的包
+
+    public PackageFilter(String[] includes, String[] excludes) {
+        this.includes = includes == null ? new String[0] : includes;
+        this.excludes = excludes == null ? new String[0] : excludes;
+    }
+
+    /**
+     * @param className 类名
+     * @return 是否通过
+     */
+    public boolean accept(String className) {
+        for (String exclude : excludes) {
+            if (className.startsWith(exclude)) {
+                return false;
+            }
+        }
+        if (includes.length == 0) {
+            return true;
+        }
+        for (String include : includes) {
+            if (className.startsWith(include)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public String[] getIncludes() {
+        return includes;
+    }
+
+    public String[] getExcludes() {
+        return excludes;
+    }
+}
@@ -1,13 +1,18 @@
 package com.zoi7.mysql.analysis;
 
+import com.zoi7.mysql.comment.Entity;
+import com.zoi7.mysql.monitor.FlightEvent;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.net.JarURLConnection;
 import java.net.URL;
 import java.util.Enumeration;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Map;
 import java.util.Set;
 import java.util.jar.JarEntry;
 import java.util.jar.JarFile;
@@ -20,12 +25,19 @@ public class ScanJar {
 
     private static final Logger log = LoggerFactory.getLogger(ScanJar.class);
 
+    /**
+     * 查找 jar 中该包下的表实体, 解析 class 文件判断是否带有 @Entity, 只加载表实体类且不执行其静态初始化;
+     * 多个包请使用 {@link ScanService}, 每个 jar 只遍历一次
+     * @param packageName 包名, 包含子包
+     * @return 表实体类
+     */
     public static Set<Class<?>> getClassesByPackageName(String packageName) throws IOException, ClassNotFoundException {
         log.debug("packageName : {}", packageName);
-        Set<Class<?>> classes = new HashSet<Class<?>>();
+        Object event = FlightEvent.SCAN_JAR.begin();
+        ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
+        Map<String, ClassFileReader> readers = new HashMap<String, ClassFileReader>();
         //通过当前线程得到类加载器从而得到URL的枚举
-        Enumeration<URL> urlEnumeration = Thread.currentThread().getContextClassLoader()
-                .getResources(packageName.replace(".", "/"));
+        Enumeration<URL> urlEnumeration = classLoader.getResources(packageName.replace(".", "/"));
         while (urlEnumeration.hasMoreElements()) {
             //得到的结果大概是：jar:file:/C:/Users/ibm/.m2/repository/junit/junit/4.12/junit-4.12.jar!/org/junit
             URL url = urlEnumeration.nextElement();
@@ -42,16 +54,25 @@ public class ScanJar {
                             JarEntry entry = jarEntryEnumeration.nextElement();
                             String jarEntryName = entry.getName();
                             //这里我们需要过滤不是class文件和不在basePack包名下的类
-                            if (jarEntryName.contains(".class") && jarEntryName.replaceAll("/", ".").startsWith(packageName)) {
-                                String className = jarEntryName.substring(0, jarEntryName.lastIndexOf(".")).replace("/", ".");
-                                Class<?> cls = Class.forName(className);
-                                classes.add(cls);
+                            if (jarEntryName.endsWith(".class") && jarEntryName.replaceAll("/", ".").startsWith(packageName)) {
+                                InputStream in = jarFile.getInputStream(entry);
+                                try {
+                                    ClassFileReader reader = new ClassFileReader(in);
+                                    readers.put(reader.getClassName(), reader);
+                                } finally {
+                                    in.close();
+                                }
                             }
                         }
                     }
                 }
             }
         }
+        Set<Class<?>> classes = new HashSet<Class<?>>();
+        for (String className : ClassFileReader.findAnnotated(readers, Entity.class)) {
+            classes.add(Class.forName(className, false, classLoader));
+        }
+        FlightEvent.SCAN_JAR.commit(event, packageName, readers.size());
         return classes;
     }
 
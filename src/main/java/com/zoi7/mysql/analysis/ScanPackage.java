@@ -3,7 +3,13 @@ package com.zoi7.mysql.analysis;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.zoi7.mysql.comment.Entity;
+import com.zoi7.mysql.monitor.FlightEvent;
+
 import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
 import java.net.URL;
 import java.util.*;
 
@@ -11,9 +17,17 @@ public class ScanPackage {
 
 	private static final Logger log = LoggerFactory.getLogger(ScanPackage.class);
 	
+	/**
+	 * 查找目录中该包下的表实体, 解析 class 文件判断是否带有 @Entity, 只加载表实体类且不执行其静态初始化;
+	 * 多个包请使用 {@link ScanService}
+	 * @param packageName 包名, 包含子包
+	 * @return 表实体类
+	 */
 	public static Set<Class<?>> getClassesByPackageName(String packageName) {
 		log.debug("packageName : {}", packageName);
+		Object event = FlightEvent.SCAN_PACKAGE.begin();
 		Set<Class<?>> classes = new HashSet<Class<?>>();
+		Map<String, ClassFileReader> readers = new HashMap<String, ClassFileReader>();
 		try {
 			ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
 			String path = packageName.replace(".", "/");
@@ -26,28 +40,32 @@ public class ScanPackage {
 			}
 			log.debug("dirsSize : {}", dirs.size());
 			for (File directory : dirs) {
-				classes.addAll(findClasses(directory, packageName));
+				findClasses(directory, packageName, readers);
+			}
+			for (String className : ClassFileReader.findAnnotated(readers, Entity.class)) {
+				classes.add(Class.forName(className, false, classLoader));
 			}
 		} catch (Exception e) {
 			log.error("error", e);
 		}
+		FlightEvent.SCAN_PACKAGE.commit(event, packageName, readers.size());
 		return classes;
 	}
 	
-	private static List<Class<?>> findClasses(File directory, String packageName) throws ClassNotFoundException {
+	private static void findClasses(File directory, String packageName, Map<String, ClassFileReader> readers)
+			throws IOException {
 		log.debug("path : {}, dir : {}, exist: {}, read: {}, write: {}, exec: {}, packageName: {}",
 				directory.getAbsolutePath(), directory.getName(), directory.exists(), directory.canRead(),
 				directory.canWrite(), directory.canExecute(), packageName);
 		File[] arrayOfFile;
-		List<Class<?>> classes = new ArrayList<Class<?>>();
 		if (!directory.exists()) {
 			log.warn("!directory.exists()");
-			return classes;
+			return;
 		}
 		File[] files = directory.listFiles();
 		if (files == null) {
 			log.warn("files is null");
-			return classes;
+			return;
 		}
 		log.debug("filesSize : {}", files.length);
 		int j = (arrayOfFile = files).length; 
@@ -58,14 +76,18 @@ public class ScanPackage {
 				if (fileName.contains(".")) {
 					throw new AssertionError();
 				}
-				classes.addAll(findClasses(file, packageName + '.' + file.getName()));
+				findClasses(file, packageName + '.' + file.getName(), readers);
 			} else if (fileName.endsWith(".class")) {
-				String className = packageName + '.' + fileName.substring(0, fileName.length() - 6);
-				log.debug("addClasses : {}", className);
-				classes.add(Class.forName(className));
+				log.debug("readClass : {}.{}", packageName, fileName);
+				InputStream in = new FileInputStream(file);
+				try {
+					ClassFileReader reader = new ClassFileReader(in);
+					readers.put(reader.getClassName(), reader);
+				} finally {
+					in.close();
+				}
 			}
 		}
-		return classes;
 	}
 
 }
\ No newline at end of file
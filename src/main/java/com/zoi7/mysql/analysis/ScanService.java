@@ -0,0 +1,296 @@
+package com.zoi7.mysql.analysis;
+
+import com.zoi7.mysql.comment.Entity;
+import com.zoi7.mysql.monitor.FlightEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.JarURLConnection;
+import java.net.URL;
+import java.net.URLDecoder;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+
+/**
+ * 多包共享的类路径扫描服务
+ * 先汇总所有配置包对应的 jar 与目录, 每个 jar 只打开并遍历一次, 建立 包名 → 条目 的索引后为所有配置包提供查询,
+ * 多个 jar 与目录并发扫描
+ */
+public class ScanService {
+
+    private static final Logger log = LoggerFactory.getLogger(ScanService.class);
+
+    private String[] packages; // 实体类所在包
+    private PackageFilter filter; // 包过滤条件
+    private boolean scanJar; // 是否扫描 jar
+    private int threads; // 并发扫描线程数, 0 为 CPU 核数
+    private ClassLoader classLoader;
+    private Set<String> skippedRoots = Collections.emptySet(); // 不扫描的类路径根目录, 如含有表实体索引的目录与 jar
+
+    public ScanService(String[] packages, String[] excludes, boolean scanJar, int threads) {
+        this.packages = packages;
+        this.filter = new PackageFilter(packages, excludes);
+        this.scanJar = scanJar;
+        this.threads = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        this.classLoader = Thread.currentThread().getContextClassLoader();
+    }
+
+    /**
+     * @param skippedRoots 不扫描的类路径根目录, 格式同 {@link #getRoot(URL, String)}
+     */
+    public void setSkippedRoots(Set<String> skippedRoots) {
+        this.skippedRoots = skippedRoots;
+    }
+
+    /**
+     * 扫描所有配置包下的表实体
+     * @return 表实体类
+     */
+    public Set<Class<?>> scanEntities() throws IOException, ClassNotFoundException, InterruptedException {
+        long start = System.currentTimeMillis();
+        Map<String, JarURLConnection> jars = new LinkedHashMap<String, JarURLConnection>();
+        Map<File, String> dirs = new LinkedHashMap<File, String>();
+        collectRoots(jars, dirs);
+        final Map<String, ClassFileReader> readers = new ConcurrentHashMap<String, ClassFileReader>();
+        List<Callable<Void>> tasks = new ArrayList<Callable<Void>>();
+        for (final JarURLConnection connection : jars.values()) {
+            tasks.add(new Callable<Void>() {
+                @Override
+                public Void call() throws Exception {
+                    scanJar(connection, readers);
+                    return null;
+                }
+            });
+        }
+        for (final Map.Entry<File, String> dir : dirs.entrySet()) {
+            tasks.add(new Callable<Void>() {
+                @Override
+                public Void call() throws Exception {
+                    Object event = FlightEvent.SCAN_PACKAGE.begin();
+                    int count = scanDirectory(dir.getKey(), dir.getValue(), readers);
+                    FlightEvent.SCAN_PACKAGE.commit(event, dir.getValue(), count);
+                    return null;
+                }
+            });
+        }
+        run(tasks);
+        Set<Class<?>> classes = new HashSet<Class<?>>();
+        for (String className : ClassFileReader.findAnnotated(readers, Entity.class)) {
+            classes.add(Class.forName(className, false, classLoader));
+        }
+        log.debug("ScanService scanEntities > jars: {}, dirs: {}, classFiles: {}, entities: {}, cost: {}ms",
+                jars.size(), dirs.size(), readers.size(), classes.size(), System.currentTimeMillis() - start);
+        return classes;
+    }
+
+    /**
+     * 汇总所有配置包对应的 jar 与目录, 同一 jar 只保留一次, 被其他目录包含的子目录不再重复扫描;
+     * 同一个包可能位于多个目录 (如 classes 与 test-classes, 多模块工程), 目录按路径区分, 每个都要扫描
+     * @param dirs 目录 → 对应的包名
+     */
+    private void collectRoots(Map<String, JarURLConnection> jars, Map<File, String> dirs) throws IOException {
+        for (String package1 : packages) {
+            Enumeration<URL> resources = classLoader.getResources(package1.replace(".", "/"));
+            while (resources.hasMoreElements()) {
+                URL url = resources.nextElement();
+                if (skippedRoots.contains(getRoot(url, package1.replace(".", "/")))) {
+                    continue;
+                }
+                String protocol = url.getProtocol();
+                if ("jar".equalsIgnoreCase(protocol)) {
+                    if (scanJar) {
+                        JarURLConnection connection = (JarURLConnection) url.openConnection();
+                        String key = connection.getJarFileURL().toString();
+                        if (!jars.containsKey(key)) {
+                            jars.put(key, connection);
+                        }
+                    }
+                } else if ("file".equalsIgnoreCase(protocol)) {
+                    File dir = new File(URLDecoder.decode(url.getFile(), "UTF-8"));
+                    if (!dirs.containsKey(dir)) {
+                        dirs.put(dir, package1);
+                    }
+                }
+            }
+        }
+        // 去掉被其他目录包含的子目录
+        Iterator<File> iterator = dirs.keySet().iterator();
+        while (iterator.hasNext()) {
+            File dir = iterator.next();
+            for (File other : dirs.keySet()) {
+                if (other != dir && dir.getPath().startsWith(other.getPath() + File.separator)) {
+                    iterator.remove();
+                    break;
+                }
+            }
+        }
+    }
+
+    /**
+     * 获取资源所在的类路径根目录
+     * @param url 资源地址
+     * @param name 资源名, 如 com/zoi7/mysql
+     * @return jar 为 jar 文件地址, 目录为去掉资源名后的地址
+     */
+    static String getRoot(URL url, String name) throws IOException {
+        String path = url.getFile();
+        if ("jar".equalsIgnoreCase(url.getProtocol())) {
+            int separator = path.indexOf("!/");
+            return separator < 0 ? path : path.substring(0, separator);
+        }
+        path = URLDecoder.decode(path, "UTF-8");
+        if (path.endsWith("/")) {
+            path = path.substring(0, path.length() - 1);
+        }
+        if (path.endsWith("/" + name)) {
+            path = path.substring(0, path.length() - name.length() - 1);
+        }
+        return url.getProtocol() + ":" + path;
+    }
+
+    /**
+     * 扫描 jar: 遍历一次条目建立 包名 → 条目 索引, 再为每个配置包读取其下的 class 文件
+     */
+    private void scanJar(JarURLConnection connection, Map<String, ClassFileReader> readers) throws IOException {
+        Object event = FlightEvent.SCAN_JAR.begin();
+        int count = 0;
+        JarFile jarFile = connection.getJarFile();
+        Map<String, List<JarEntry>> index = new HashMap<String, List<JarEntry>>();
+        Enumeration<JarEntry> entries = jarFile.entries();
+        while (entries.hasMoreElements()) {
+            JarEntry entry = entries.nextElement();
+            String name = entry.getName();
+            if (!name.endsWith(".class")) {
+                continue;
+            }
+            int slash = name.lastIndexOf('/');
+            String packageName = slash < 0 ? "" : name.substring(0, slash).replace('/', '.');
+            List<JarEntry> list = index.get(packageName);
+            if (list == null) {
+                list = new ArrayList<JarEntry>();
+                index.put(packageName, list);
+            }
+            list.add(entry);
+        }
+        for (Map.Entry<String, List<JarEntry>> entry : index.entrySet()) {
+            if (!matchPackage(entry.getKey())) {
+                continue;
+            }
+            for (JarEntry jarEntry : entry.getValue()) {
+                String name = jarEntry.getName();
+                String className = name.substring(0, name.length() - 6).replace('/', '.');
+                if (!filter.accept(className) || readers.containsKey(className)) {
+                    continue;
+                }
+                InputStream in = jarFile.getInputStream(jarEntry);
+                try {
+                    if (read(in, jarFile.getName() + "!/" + name, readers)) {
+                        count++;
+                    }
+                } finally {
+                    in.close();
+                }
+            }
+        }
+        FlightEvent.SCAN_JAR.commit(event, jarFile.getName(), count);
+        log.debug("ScanService scanJar > {}, packages: {}", jarFile.getName(), index.size());
+    }
+
+    /**
+     * @param packageName jar 中的包名
+     * @return 是否属于某个配置包
+     */
+    private boolean matchPackage(String packageName) {
+        for (String package1 : packages) {
+            if (packageName.startsWith(package1)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return 读取的 class 文件数
+     */
+    private int scanDirectory(File directory, String packageName, Map<String, ClassFileReader> readers)
+            throws IOException {
+        File[] files = directory.listFiles();
+        if (files == null) {
+            return 0;
+        }
+        int count = 0;
+        for (File file : files) {
+            String fileName = file.getName();
+            if (file.isDirectory()) {
+                count += scanDirectory(file, packageName + '.' + fileName, readers);
+            } else if (fileName.endsWith(".class")
+                    && filter.accept(packageName + '.' + fileName.substring(0, fileName.length() - 6))) {
+                InputStream in = new FileInputStream(file);
+                try {
+                    if (read(in, file.getPath(), readers)) {
+                        count++;
+                    }
+                } finally {
+                    in.close();
+                }
+            }
+        }
+        return count;
+    }
+
+    /**
+     * 解析 class 文件, 损坏或无法解析的文件记录后跳过, 不影响其他文件的扫描
+     * @param name 文件名, 用于日志
+     * @return 是否解析成功
+     */
+    private boolean read(InputStream in, String name, Map<String, ClassFileReader> readers) {
+        try {
+            ClassFileReader reader = new ClassFileReader(in);
+            readers.put(reader.getClassName(), reader);
+            return true;
+        } catch (Exception e) {
+            log.warn("ScanService read > skip unreadable class file: {}, {}", name, e.toString());
+            return false;
+        }
+    }
+
+    private void run(List<Callable<Void>> tasks) throws IOException, InterruptedException {
+        if (tasks.isEmpty()) {
+            return;
+        }
+        ExecutorService pool = Executors.newFixedThreadPool(Math.min(threads, tasks.size()), new ThreadFactory() {
+            private final AtomicInteger number = new AtomicInteger(1);
+
+            @Override
+            public Thread newThread(Runnable r) {
+                Thread thread = new Thread(r, "table-helper-scan-" + number.getAndIncrement());
+                thread.setDaemon(true);
+                thread.setContextClassLoader(classLoader);
+                return thread;
+            }
+        });
+        try {
+            for (Future<Void> future : pool.invokeAll(tasks)) {
+                try {
+                    future.get();
+                } catch (ExecutionException e) {
+                    Throwable cause = e.getCause();
+                    if (cause instanceof IOException) {
+                        throw (IOException) cause;
+                    }
+                    throw new IOException("scan failed", cause);
+                }
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+}
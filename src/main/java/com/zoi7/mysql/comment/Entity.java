@@ -43,4 +43,23 @@ public @interface Entity {
      */
 	String charset() default "";
 
+    /**
+     * 默认：ALTER
+     * 表已存在时的结构变更方式, 大表可使用 {@link MigrationStrategy#SHADOW} 避免长时间阻塞
+     * @return 变更方式
+     */
+	MigrationStrategy migration() default MigrationStrategy.ALTER;
+
+    /**
+     * 默认：不分区
+     * @return 表分区 see{@link Partition}
+     */
+	Partition partition() default @Partition;
+
+    /**
+     * 默认：使用服务器默认值
+     * @return 表存储选项 see{@link TableOptions}
+     */
+	TableOptions options() default @TableOptions;
+
 }
\ No newline at end of file
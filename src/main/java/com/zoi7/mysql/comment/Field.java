@@ -67,4 +67,12 @@ public @interface Field {
      */
 	boolean unsigned() default false;
 
+    /**
+     * 默认：NONE
+     * 设置后额外生成存储型生成列 字段名_hash = 哈希(字段) 并为其建立索引 (MySQL 5.7+),
+     * 生成的 Mapper.xml 中会增加 findBy属性名, 先按哈希字段再按原字段过滤
+     * @return 哈希伴随字段的算法
+     */
+	HashType hash() default HashType.NONE;
+
 }
\ No newline at end of file
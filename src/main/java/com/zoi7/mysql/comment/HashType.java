@@ -0,0 +1,22 @@
+package com.zoi7.mysql.comment;
+
+/**
+ * 哈希伴随字段的算法
+ * 对 url / 文件路径 / 幂等键等长字符串的等值查询, 以一个紧凑的哈希字段建索引代替对原字段建索引
+ */
+public enum HashType {
+
+    /**
+     * 不生成哈希字段
+     */
+    NONE,
+    /**
+     * CRC32(字段), INT UNSIGNED (4 字节), 冲突概率较高, 查询时需同时比较原字段
+     */
+    CRC32,
+    /**
+     * SHA2(字段, 256) 的前 8 字节, BINARY(8), 冲突概率极低
+     */
+    SHA2_64,
+
+}
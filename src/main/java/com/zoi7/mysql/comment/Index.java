@@ -23,4 +23,22 @@ public @interface Index {
      */
 	boolean unique() default false;
 
+    /**
+     * 用于较长的字符串字段, 如 VARCHAR(1000) 的 url 只索引前 191 个字符, 以缩小索引并避免超过 3072 字节的限制
+     * @return 前缀长度, 默认 0 为整列
+     */
+    int length() default 0;
+
+    /**
+     * MySQL 8.0+ 支持, 低版本会忽略
+     * @return 是否降序, 默认false
+     */
+    boolean desc() default false;
+
+    /**
+     * MySQL 8.0.13+ 支持的函数索引, 设置后索引该表达式而不是字段本身, 如 LOWER(email)
+     * @return 索引表达式
+     */
+    String expression() default "";
+
 }
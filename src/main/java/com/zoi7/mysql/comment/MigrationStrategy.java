@@ -0,0 +1,18 @@
+package com.zoi7.mysql.comment;
+
+/**
+ * update 模式下已存在表的结构变更方式
+ */
+public enum MigrationStrategy {
+
+    /**
+     * 直接执行 ALTER TABLE (可配合 online DDL)
+     */
+    ALTER,
+    /**
+     * 影子表: 新建影子表并执行变更, 通过触发器同步增量, 按主键分块复制数据后 RENAME TABLE 原子切换,
+     * 适用于 ALTER TABLE 需要长时间重建的大表, 要求表有主键
+     */
+    SHADOW,
+
+}
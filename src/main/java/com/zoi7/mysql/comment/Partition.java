@@ -0,0 +1,76 @@
+package com.zoi7.mysql.comment;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+
+/**
+ * 表分区
+ * MySQL 要求主键与所有唯一索引都包含分区列, 按日期分区的表通常需要将日期列也标注为 @Id(autoIncrease = false) 组成联合主键
+ */
+@Target({}) @Retention(RUNTIME)
+public @interface Partition {
+
+    /**
+     * 默认：NONE, 不分区
+     * @return 分区方式
+     */
+    PartitionType type() default PartitionType.NONE;
+
+    /**
+     * 此为数据库表字段名
+     * @return 分区列
+     */
+    String column() default "";
+
+    /**
+     * 仅 RANGE / LIST / HASH 有效, 为空时使用分区列, RANGE 按日期自动分区时默认 TO_DAYS(分区列)
+     * @return 分区表达式, 如 UNIX_TIMESTAMP(create_time)
+     */
+    String expression() default "";
+
+    /**
+     * 仅 HASH / KEY 有效
+     * @return 分区数
+     */
+    int partitions() default 0;
+
+    /**
+     * 仅 RANGE / RANGE_COLUMNS 有效, 设置后按时间跨度自动生成分区
+     * @return 每个分区的时间跨度
+     */
+    PartitionInterval interval() default PartitionInterval.NONE;
+
+    /**
+     * 仅按时间自动分区时有效, 为空时从当前时间所在的分区开始
+     * @return 第一个分区的起始日期, 格式 yyyy-MM-dd
+     */
+    String start() default "";
+
+    /**
+     * 仅按时间自动分区时有效
+     * @return 在当前时间所在的分区之后预先创建的分区数
+     */
+    int ahead() default 3;
+
+    /**
+     * 仅按时间自动分区且开启分区维护 (db.partitionMaintain) 时有效, 0 为永久保留
+     * @return 在当前时间所在的分区之前保留的分区数, 更早的分区会被删除
+     */
+    int retention() default 0;
+
+    /**
+     * 仅 retention 大于 0 时有效
+     * 默认：false, 直接删除过期分区
+     * @return 删除前是否先将过期分区的数据交换 (EXCHANGE PARTITION) 到归档表 表名_分区名
+     */
+    boolean archive() default false;
+
+    /**
+     * 未按时间自动分区的 RANGE / LIST 分区定义, 如 {"p0 VALUES IN (1, 2)", "p1 VALUES IN (3)"}
+     * @return 分区定义
+     */
+    String[] definitions() default {};
+
+}
@@ -0,0 +1,25 @@
+package com.zoi7.mysql.comment;
+
+/**
+ * 按日期 RANGE 分区时每个分区的时间跨度
+ */
+public enum PartitionInterval {
+
+    /**
+     * 不按时间自动生成分区, 使用 {@link Partition#definitions()}
+     */
+    NONE,
+    /**
+     * 每天一个分区, 分区名 pyyyyMMdd
+     */
+    DAY,
+    /**
+     * 每月一个分区, 分区名 pyyyyMM
+     */
+    MONTH,
+    /**
+     * 每年一个分区, 分区名 pyyyy
+     */
+    YEAR,
+
+}
@@ -0,0 +1,37 @@
+package com.zoi7.mysql.comment;
+
+/**
+ * 表分区方式
+ */
+public enum PartitionType {
+
+    /**
+     * 不分区
+     */
+    NONE,
+    /**
+     * PARTITION BY RANGE(表达式), 表达式需返回整数, 如按日期分区时的 TO_DAYS(列)
+     */
+    RANGE,
+    /**
+     * PARTITION BY RANGE COLUMNS(列), 可直接按 DATE / DATETIME / 字符串列分区
+     */
+    RANGE_COLUMNS,
+    /**
+     * PARTITION BY LIST(表达式)
+     */
+    LIST,
+    /**
+     * PARTITION BY LIST COLUMNS(列)
+     */
+    LIST_COLUMNS,
+    /**
+     * PARTITION BY HASH(表达式) PARTITIONS n
+     */
+    HASH,
+    /**
+     * PARTITION BY KEY(列) PARTITIONS n
+     */
+    KEY,
+
+}
@@ -0,0 +1,29 @@
+package com.zoi7.mysql.comment;
+
+/**
+ * InnoDB 行格式
+ */
+public enum RowFormat {
+
+    /**
+     * 不指定, 使用服务器默认值 (innodb_default_row_format)
+     */
+    NONE,
+    /**
+     * 变长字段完全行外存储, MySQL 5.7+ 的默认行格式
+     */
+    DYNAMIC,
+    /**
+     * 在 DYNAMIC 的基础上压缩数据页与索引页, 页大小由 KEY_BLOCK_SIZE 指定, 适用于读多写少的归档表
+     */
+    COMPRESSED,
+    /**
+     * MySQL 5.0 ~ 5.6 的默认行格式
+     */
+    COMPACT,
+    /**
+     * 早期行格式
+     */
+    REDUNDANT,
+
+}
@@ -0,0 +1,54 @@
+package com.zoi7.mysql.comment;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+
+/**
+ * 表存储选项, 未指定的选项使用服务器默认值, update 模式下也不会比对
+ */
+@Target({}) @Retention(RUNTIME)
+public @interface TableOptions {
+
+    /**
+     * @return 存储引擎, 如 InnoDB
+     */
+    String engine() default "";
+
+    /**
+     * @return 行格式
+     */
+    RowFormat rowFormat() default RowFormat.NONE;
+
+    /**
+     * 0 为不指定
+     * @return 压缩页大小(KB), 1 / 2 / 4 / 8 / 16, 配合 {@link RowFormat#COMPRESSED}
+     */
+    int keyBlockSize() default 0;
+
+    /**
+     * 透明页压缩 (MySQL 5.7+, 需要文件系统支持稀疏文件), 修改后只对新写入的页生效, 需要 OPTIMIZE TABLE 才能压缩已有数据
+     * @return 压缩算法, Zlib / LZ4 / None
+     */
+    String compression() default "";
+
+    /**
+     * -1 为不指定
+     * @return 是否持久化统计信息, 0 / 1
+     */
+    int statsPersistent() default -1;
+
+    /**
+     * 0 为不指定
+     * @return 计算持久化统计信息时采样的索引页数
+     */
+    int statsSamplePages() default 0;
+
+    /**
+     * 0 为不指定, update 模式下仅当表的 AUTO_INCREMENT 小于该值时修改
+     * @return 自增主键的起始值
+     */
+    long autoIncrement() default 0;
+
+}
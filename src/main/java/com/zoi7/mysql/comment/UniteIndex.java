@@ -9,14 +9,14 @@ import static java.lang.annotation.RetentionPolicy.RUNTIME;
 public @interface UniteIndex {
 
     /**
-     * 此为实体属性名
+     * 此为实体属性名, 可带前缀长度与排序方向, 如 {"userId", "createTime DESC"}
      * 当设置了 columns 后, fields 设置将无效
      * @return 相关属性名集合
      */
     String[] fields() default {};
 
     /**
-     * 此为数据库表字段名
+     * 此为数据库表字段名, 可带前缀长度与排序方向或使用表达式 (需要外层括号), 如 {"url(191)", "create_time DESC", "(LOWER(email))"}
      * 当设置了 columns 后, fields 设置将无效
      * @return 相连字段名集合
      */
@@ -1,5 +1,6 @@
 package com.zoi7.mysql.config;
 
+import com.zoi7.mysql.report.MigrationListener;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -53,11 +54,155 @@ public class Config {
         String type = tablePros.getProperty("db.auto");
         String showSql = tablePros.getProperty("db.showSql");
         String uppercase = tablePros.getProperty("db.uppercase");
+        try {
+            DataConfig.resolveType(type);
+        } catch (IllegalArgumentException e) {
+            throw new ConfigurationException(e.getMessage());
+        }
         DataConfig config = new DataConfig(dealPackages(packages), dbUrl.trim(), dbUsername.trim(), dbPassword.trim(),
                 type.trim(), Boolean.parseBoolean(showSql.trim()), dbDriverName.trim(), Boolean.parseBoolean(uppercase.trim()));
+        // 可选配置
+        String excludePackages = tablePros.getProperty("db.excludePackages");
+        if (excludePackages != null && excludePackages.trim().length() > 0) {
+            config.setExcludePackages(dealPackages(excludePackages));
+        }
+        String entityIndex = tablePros.getProperty("db.entityIndex");
+        if (entityIndex != null) {
+            config.setEntityIndex(Boolean.parseBoolean(entityIndex.trim()));
+        }
+        String onlineDdl = tablePros.getProperty("db.onlineDdl");
+        if (onlineDdl != null) {
+            config.setOnlineDdl(Boolean.parseBoolean(onlineDdl.trim()));
+        }
+        String scanThreads = tablePros.getProperty("db.scanThreads");
+        if (scanThreads != null) {
+            config.setScanThreads(Integer.parseInt(scanThreads.trim()));
+        }
+        String allowCopy = tablePros.getProperty("db.allowCopy");
+        if (allowCopy != null) {
+            config.setAllowCopy(Boolean.parseBoolean(allowCopy.trim()));
+        }
+        String blockingRowLimit = tablePros.getProperty("db.blockingRowLimit");
+        if (blockingRowLimit != null) {
+            config.setBlockingRowLimit(Long.parseLong(blockingRowLimit.trim()));
+        }
+        String modifyColumn = tablePros.getProperty("db.modifyColumn");
+        if (modifyColumn != null) {
+            config.setModifyColumn(Boolean.parseBoolean(modifyColumn.trim()));
+        }
+        String dropIndex = tablePros.getProperty("db.dropIndex");
+        if (dropIndex != null) {
+            config.setDropIndex(Boolean.parseBoolean(dropIndex.trim()));
+        }
+        String threads = tablePros.getProperty("db.threads");
+        if (threads != null) {
+            config.setThreads(Integer.parseInt(threads.trim()));
+        }
+        String tableTimeout = tablePros.getProperty("db.tableTimeout");
+        if (tableTimeout != null) {
+            config.setTableTimeout(Integer.parseInt(tableTimeout.trim()));
+        }
+        String batchSize = tablePros.getProperty("db.batchSize");
+        if (batchSize != null) {
+            config.setBatchSize(Integer.parseInt(batchSize.trim()));
+        }
+        String fingerprint = tablePros.getProperty("db.fingerprint");
+        if (fingerprint != null) {
+            config.setFingerprint(Boolean.parseBoolean(fingerprint.trim()));
+        }
+        String fingerprintTable = tablePros.getProperty("db.fingerprintTable");
+        if (fingerprintTable != null) {
+            config.setFingerprintTable(fingerprintTable.trim());
+        }
+        String planFile = tablePros.getProperty("db.planFile");
+        if (planFile != null && !"".equals(planFile.trim())) {
+            config.setPlanFile(planFile.trim());
+        }
+        String shadowChunkSize = tablePros.getProperty("db.shadowChunkSize");
+        if (shadowChunkSize != null) {
+            config.setShadowChunkSize(Integer.parseInt(shadowChunkSize.trim()));
+        }
+        String shadowChunkMillis = tablePros.getProperty("db.shadowChunkMillis");
+        if (shadowChunkMillis != null) {
+            config.setShadowChunkMillis(Long.parseLong(shadowChunkMillis.trim()));
+        }
+        String shadowChunkSleep = tablePros.getProperty("db.shadowChunkSleep");
+        if (shadowChunkSleep != null) {
+            config.setShadowChunkSleep(Long.parseLong(shadowChunkSleep.trim()));
+        }
+        String shadowMaxThreadsRunning = tablePros.getProperty("db.shadowMaxThreadsRunning");
+        if (shadowMaxThreadsRunning != null) {
+            config.setShadowMaxThreadsRunning(Integer.parseInt(shadowMaxThreadsRunning.trim()));
+        }
+        String shadowKeepOld = tablePros.getProperty("db.shadowKeepOld");
+        if (shadowKeepOld != null) {
+            config.setShadowKeepOld(Boolean.parseBoolean(shadowKeepOld.trim()));
+        }
+        String partitionMaintain = tablePros.getProperty("db.partitionMaintain");
+        if (partitionMaintain != null) {
+            config.setPartitionMaintain(Boolean.parseBoolean(partitionMaintain.trim()));
+        }
+        String partitionMaintainMinutes = tablePros.getProperty("db.partitionMaintainMinutes");
+        if (partitionMaintainMinutes != null) {
+            config.setPartitionMaintainMinutes(Integer.parseInt(partitionMaintainMinutes.trim()));
+        }
+        String poolMinIdle = tablePros.getProperty("db.poolMinIdle");
+        if (poolMinIdle != null) {
+            config.setPoolMinIdle(Integer.parseInt(poolMinIdle.trim()));
+        }
+        String poolMaxSize = tablePros.getProperty("db.poolMaxSize");
+        if (poolMaxSize != null) {
+            config.setPoolMaxSize(Integer.parseInt(poolMaxSize.trim()));
+        }
+        String poolIdleTimeout = tablePros.getProperty("db.poolIdleTimeout");
+        if (poolIdleTimeout != null) {
+            config.setPoolIdleTimeout(Integer.parseInt(poolIdleTimeout.trim()));
+        }
+        String poolMaxWait = tablePros.getProperty("db.poolMaxWait");
+        if (poolMaxWait != null) {
+            config.setPoolMaxWait(Integer.parseInt(poolMaxWait.trim()));
+        }
+        String poolStatementCacheSize = tablePros.getProperty("db.poolStatementCacheSize");
+        if (poolStatementCacheSize != null) {
+            config.setPoolStatementCacheSize(Integer.parseInt(poolStatementCacheSize.trim()));
+        }
+        String syncParallelism = tablePros.getProperty("db.syncParallelism");
+        if (syncParallelism != null) {
+            config.setSyncParallelism(Integer.parseInt(syncParallelism.trim()));
+        }
+        String tenantPattern = tablePros.getProperty("db.tenantPattern");
+        if (tenantPattern != null) {
+            config.setTenantPattern(tenantPattern.trim());
+        }
+        String tenantParallelism = tablePros.getProperty("db.tenantParallelism");
+        if (tenantParallelism != null) {
+            config.setTenantParallelism(Integer.parseInt(tenantParallelism.trim()));
+        }
+        String tenantCheckpoint = tablePros.getProperty("db.tenantCheckpoint");
+        if (tenantCheckpoint != null) {
+            config.setTenantCheckpoint(tenantCheckpoint.trim());
+        }
+        String migrationListener = tablePros.getProperty("db.migrationListener");
+        if (migrationListener != null && !"".equals(migrationListener.trim())) {
+            config.setMigrationListener(newListener(migrationListener.trim()));
+        }
         loadConfig(config);
     }
 
+    /**
+     * 实例化配置的初始化监听器
+     * @param className 监听器类名, 需有无参构造方法
+     */
+    private static MigrationListener newListener(String className) throws ConfigurationException {
+        try {
+            return (MigrationListener) Class.forName(className).newInstance();
+        } catch (Exception e) {
+            ConfigurationException ex = new ConfigurationException("can not create db.migrationListener: " + className);
+            ex.setRootCause(e);
+            throw ex;
+        }
+    }
+
     /**
      * 加载扫描包配置
      * @param packages 配置的扫描包
@@ -1,5 +1,7 @@
 package com.zoi7.mysql.config;
 
+import com.zoi7.mysql.report.MigrationListener;
+
 import java.io.Serializable;
 import java.util.Arrays;
 
@@ -13,21 +15,54 @@ public class DataConfig implements Serializable {
     public static final String TYPE_NONE = "none"; // 新建表, 如果存在旧表, 则删除
     public static final String TYPE_CREATE = "create"; // 新建表, 如果存在旧表, 则删除
     public static final String TYPE_UPDATE = "update"; // 更新表结构, 如果不存在表, 则创建
+    public static final String TYPE_PLAN = "plan"; // 只生成 update 将执行的迁移计划, 不执行
 
 //    public static final String DEFAULT_DRIVER = "com.mysql.jdbc.Driver";
     public static final String DEFAULT_DRIVER = "com.mysql.cj.jdbc.Driver";
     public static final String DEFAULT_TYPE = TYPE_UPDATE;
     public static final boolean DEFAULT_SHOW_SQL = true;
+    public static final String DEFAULT_FINGERPRINT_TABLE = "table_helper_fingerprint";
 
     private String driver; // 驱动
     private String url; // 数据库连接地址
     private String username; // 用户名
     private String password; // 密码
     private String[] packages; // 实体类所在包, 将包含子包
+    private String[] excludePackages = new String[0]; // 扫描时排除的包
     private String type; // 更新类型
     private boolean showSql; // 是否打印执行的SQL
     private boolean scanJar = true; // 是否扫描jar中的实体
+    private boolean entityIndex = true; // 是否优先使用编译期生成的表实体索引, 无索引时才扫描
+    private int scanThreads = 0; // 无索引时并发扫描 jar/目录 的线程数, 0 为 CPU 核数
     private boolean uppercase = false; // 表字段是否大写, 默认小写
+    private boolean onlineDdl = false; // 是否启用 online DDL (ALGORITHM=INSTANT → INPLACE, LOCK=NONE → COPY)
+    private boolean allowCopy = true; // online DDL 时是否允许退回 ALGORITHM=COPY
+    private long blockingRowLimit = 0; // 行数超过该值的表拒绝执行阻塞的 DDL, 0 为不限制
+    private boolean modifyColumn = false; // update 模式下是否修改定义不一致的字段 (MODIFY COLUMN), 否则只打印警告
+    private boolean dropIndex = false; // update 模式下是否删除表实体中未声明的索引 (不含主键), 否则只打印警告
+    private int threads = 1; // 并行检测/变更表结构的工作线程数, 每个线程独占一个连接
+    private int tableTimeout = 0; // 单表 DDL 超时时间(秒), 0 为不限制
+    private int batchSize = 1; // 每个工作线程合并执行 DDL 的批次大小, 1 为逐条执行
+    private boolean fingerprint = false; // update 模式下是否跳过指纹未变化的表实体
+    private String fingerprintTable = DEFAULT_FINGERPRINT_TABLE; // 保存表实体指纹的跟踪表
+    private String planFile; // plan 模式下迁移计划的输出文件, 为空时只打印日志
+    private int shadowChunkSize = 1000; // 影子表变更时每块复制的初始行数
+    private long shadowChunkMillis = 500; // 影子表变更时每块复制的目标耗时(毫秒), 据此调整块大小, 0 为固定块大小
+    private long shadowChunkSleep = 0; // 影子表变更时每块复制后的休眠时间(毫秒)
+    private int shadowMaxThreadsRunning = 0; // 影子表变更时 Threads_running 超过该值则暂停复制, 0 为不限制
+    private boolean shadowKeepOld = false; // 影子表切换后是否保留原表 (_表名_del)
+    private boolean partitionMaintain = false; // 是否定时维护按时间分区的表: 预先创建后续分区, 删除超过保留期的分区
+    private int partitionMaintainMinutes = 60; // 分区维护的间隔时间(分钟)
+    private int poolMinIdle = 0; // 连接池保持的最少空闲连接数
+    private int poolMaxSize = 8; // 连接池最大连接数, 小于 threads + 1 时按 threads + 1
+    private int poolIdleTimeout = 600; // 空闲连接超过该时间(秒)后关闭, 0 为不关闭
+    private int poolMaxWait = 30; // 获取连接的最长等待时间(秒)
+    private int poolStatementCacheSize = 64; // 每个连接缓存的预编译语句数, 0 为不缓存
+    private int syncParallelism = 4; // 多数据源同步时并发初始化的数据源数, 每个数据源另占 threads 个工作线程
+    private String tenantPattern; // 租户库同步时匹配库名的正则表达式 (完整匹配)
+    private int tenantParallelism = 4; // 租户库同步时每台服务器同时同步的库数
+    private String tenantCheckpoint; // 租户库同步的检查点文件, 中断后重新执行时跳过已完成的库, 为空时不记录
+    private transient MigrationListener migrationListener; // 初始化监听器, 接收阶段耗时与单表, 单条语句的执行结果
 
     public DataConfig(String[] packages, String url, String username, String password) {
         this(packages, url, username, password, DEFAULT_TYPE, DEFAULT_SHOW_SQL, DEFAULT_DRIVER);
@@ -61,7 +96,7 @@ public class DataConfig implements Serializable {
         this.url = url;
         this.username = username;
         this.password = password;
-        this.type = type;
+        this.type = resolveType(type);
         this.showSql = showSql;
         this.driver = driver;
         this.scanJar = scanJar;
@@ -108,12 +143,37 @@ public class DataConfig implements Serializable {
         this.packages = packages;
     }
 
+    public String[] getExcludePackages() {
+        return excludePackages;
+    }
+
+    public void setExcludePackages(String[] excludePackages) {
+        this.excludePackages = excludePackages;
+    }
+
     public String getType() {
         return type;
     }
 
     public void setType(String type) {
-        this.type = type;
+        this.type = resolveType(type);
+    }
+
+    /**
+     * 校验更新类型, 忽略大小写, 未知的类型不能落入 create 而删除已有表
+     * @param type 更新类型, 为 null 时使用默认类型
+     * @return 小写的更新类型
+     */
+    public static String resolveType(String type) {
+        if (type == null) {
+            return DEFAULT_TYPE;
+        }
+        String resolved = type.trim().toLowerCase();
+        if (!TYPE_NONE.equals(resolved) && !TYPE_CREATE.equals(resolved)
+                && !TYPE_UPDATE.equals(resolved) && !TYPE_PLAN.equals(resolved)) {
+            throw new IllegalArgumentException("unknown db.auto: " + type);
+        }
+        return resolved;
     }
 
     public boolean isShowSql() {
@@ -140,6 +200,246 @@ public class DataConfig implements Serializable {
         this.scanJar = scanJar;
     }
 
+    public boolean isEntityIndex() {
+        return entityIndex;
+    }
+
+    public void setEntityIndex(boolean entityIndex) {
+        this.entityIndex = entityIndex;
+    }
+
+    public boolean isOnlineDdl() {
+        return onlineDdl;
+    }
+
+    public void setOnlineDdl(boolean onlineDdl) {
+        this.onlineDdl = onlineDdl;
+    }
+
+    public boolean isAllowCopy() {
+        return allowCopy;
+    }
+
+    public void setAllowCopy(boolean allowCopy) {
+        this.allowCopy = allowCopy;
+    }
+
+    public long getBlockingRowLimit() {
+        return blockingRowLimit;
+    }
+
+    public void setBlockingRowLimit(long blockingRowLimit) {
+        this.blockingRowLimit = blockingRowLimit;
+    }
+
+    public boolean isModifyColumn() {
+        return modifyColumn;
+    }
+
+    public void setModifyColumn(boolean modifyColumn) {
+        this.modifyColumn = modifyColumn;
+    }
+
+    public boolean isDropIndex() {
+        return dropIndex;
+    }
+
+    public void setDropIndex(boolean dropIndex) {
+        this.dropIndex = dropIndex;
+    }
+
+    public int getScanThreads() {
+        return scanThreads;
+    }
+
+    public void setScanThreads(int scanThreads) {
+        this.scanThreads = scanThreads;
+    }
+
+    public int getThreads() {
+        return threads;
+    }
+
+    public void setThreads(int threads) {
+        this.threads = threads;
+    }
+
+    public int getTableTimeout() {
+        return tableTimeout;
+    }
+
+    public void setTableTimeout(int tableTimeout) {
+        this.tableTimeout = tableTimeout;
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public void setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+    }
+
+    public boolean isFingerprint() {
+        return fingerprint;
+    }
+
+    public void setFingerprint(boolean fingerprint) {
+        this.fingerprint = fingerprint;
+    }
+
+    public String getFingerprintTable() {
+        return fingerprintTable;
+    }
+
+    public void setFingerprintTable(String fingerprintTable) {
+        this.fingerprintTable = fingerprintTable;
+    }
+
+    public String getPlanFile() {
+        return planFile;
+    }
+
+    public void setPlanFile(String planFile) {
+        this.planFile = planFile;
+    }
+
+    public int getShadowChunkSize() {
+        return shadowChunkSize;
+    }
+
+    public void setShadowChunkSize(int shadowChunkSize) {
+        this.shadowChunkSize = shadowChunkSize;
+    }
+
+    public long getShadowChunkMillis() {
+        return shadowChunkMillis;
+    }
+
+    public void setShadowChunkMillis(long shadowChunkMillis) {
+        this.shadowChunkMillis = shadowChunkMillis;
+    }
+
+    public long getShadowChunkSleep() {
+        return shadowChunkSleep;
+    }
+
+    public void setShadowChunkSleep(long shadowChunkSleep) {
+        this.shadowChunkSleep = shadowChunkSleep;
+    }
+
+    public int getShadowMaxThreadsRunning() {
+        return shadowMaxThreadsRunning;
+    }
+
+    public void setShadowMaxThreadsRunning(int shadowMaxThreadsRunning) {
+        this.shadowMaxThreadsRunning = shadowMaxThreadsRunning;
+    }
+
+    public boolean isShadowKeepOld() {
+        return shadowKeepOld;
+    }
+
+    public void setShadowKeepOld(boolean shadowKeepOld) {
+        this.shadowKeepOld = shadowKeepOld;
+    }
+
+    public boolean isPartitionMaintain() {
+        return partitionMaintain;
+    }
+
+    public void setPartitionMaintain(boolean partitionMaintain) {
+        this.partitionMaintain = partitionMaintain;
+    }
+
+    public int getPartitionMaintainMinutes() {
+        return partitionMaintainMinutes;
+    }
+
+    public void setPartitionMaintainMinutes(int partitionMaintainMinutes) {
+        this.partitionMaintainMinutes = partitionMaintainMinutes;
+    }
+
+    public int getPoolMinIdle() {
+        return poolMinIdle;
+    }
+
+    public void setPoolMinIdle(int poolMinIdle) {
+        this.poolMinIdle = poolMinIdle;
+    }
+
+    public int getPoolMaxSize() {
+        return poolMaxSize;
+    }
+
+    public void setPoolMaxSize(int poolMaxSize) {
+        this.poolMaxSize = poolMaxSize;
+    }
+
+    public int getPoolIdleTimeout() {
+        return poolIdleTimeout;
+    }
+
+    public void setPoolIdleTimeout(int poolIdleTimeout) {
+        this.poolIdleTimeout = poolIdleTimeout;
+    }
+
+    public int getPoolMaxWait() {
+        return poolMaxWait;
+    }
+
+    public void setPoolMaxWait(int poolMaxWait) {
+        this.poolMaxWait = poolMaxWait;
+    }
+
+    public int getPoolStatementCacheSize() {
+        return poolStatementCacheSize;
+    }
+
+    public void setPoolStatementCacheSize(int poolStatementCacheSize) {
+        this.poolStatementCacheSize = poolStatementCacheSize;
+    }
+
+    public int getSyncParallelism() {
+        return syncParallelism;
+    }
+
+    public void setSyncParallelism(int syncParallelism) {
+        this.syncParallelism = syncParallelism;
+    }
+
+    public String getTenantPattern() {
+        return tenantPattern;
+    }
+
+    public void setTenantPattern(String tenantPattern) {
+        this.tenantPattern = tenantPattern;
+    }
+
+    public int getTenantParallelism() {
+        return tenantParallelism;
+    }
+
+    public void setTenantParallelism(int tenantParallelism) {
+        this.tenantParallelism = tenantParallelism;
+    }
+
+    public String getTenantCheckpoint() {
+        return tenantCheckpoint;
+    }
+
+    public void setTenantCheckpoint(String tenantCheckpoint) {
+        this.tenantCheckpoint = tenantCheckpoint;
+    }
+
+    public MigrationListener getMigrationListener() {
+        return migrationListener;
+    }
+
+    public void setMigrationListener(MigrationListener migrationListener) {
+        this.migrationListener = migrationListener;
+    }
+
     @Override
     public String toString() {
         return "DataConfig{" +
@@ -148,10 +448,41 @@ public class DataConfig implements Serializable {
                 ", username='" + username + '\'' +
                 ", password=****" +
                 ", packages=" + Arrays.toString(packages) +
+                ", excludePackages=" + Arrays.toString(excludePackages) +
                 ", type='" + type + '\'' +
                 ", showSql=" + showSql +
                 ", scanJar=" + scanJar +
+                ", entityIndex=" + entityIndex +
+                ", scanThreads=" + scanThreads +
                 ", uppercase=" + uppercase +
+                ", onlineDdl=" + onlineDdl +
+                ", allowCopy=" + allowCopy +
+                ", blockingRowLimit=" + blockingRowLimit +
+                ", modifyColumn=" + modifyColumn +
+                ", dropIndex=" + dropIndex +
+                ", threads=" + threads +
+                ", tableTimeout=" + tableTimeout +
+                ", batchSize=" + batchSize +
+                ", fingerprint=" + fingerprint +
+                ", fingerprintTable='" + fingerprintTable + '\'' +
+                ", planFile='" + planFile + '\'' +
+                ", shadowChunkSize=" + shadowChunkSize +
+                ", shadowChunkMillis=" + shadowChunkMillis +
+                ", shadowChunkSleep=" + shadowChunkSleep +
+                ", shadowMaxThreadsRunning=" + shadowMaxThreadsRunning +
+                ", shadowKeepOld=" + shadowKeepOld +
+                ", partitionMaintain=" + partitionMaintain +
+                ", partitionMaintainMinutes=" + partitionMaintainMinutes +
+                ", poolMinIdle=" + poolMinIdle +
+                ", poolMaxSize=" + poolMaxSize +
+                ", poolIdleTimeout=" + poolIdleTimeout +
+                ", poolMaxWait=" + poolMaxWait +
+                ", poolStatementCacheSize=" + poolStatementCacheSize +
+                ", syncParallelism=" + syncParallelism +
+                ", tenantPattern='" + tenantPattern + '\'' +
+                ", tenantParallelism=" + tenantParallelism +
+                ", tenantCheckpoint='" + tenantCheckpoint + '\'' +
+                ", migrationListener=" + migrationListener +
                 '}';
     }
 }
@@ -0,0 +1,53 @@
+package com.zoi7.mysql.ddl;
+
+/**
+ * ALTER TABLE 变更子句的类型, 用于预估所需的 DDL 算法
+ */
+public enum ChangeType {
+
+    /**
+     * 在表末尾新增字段
+     */
+    ADD_COLUMN,
+    /**
+     * 新增存储型生成列, 需要复制表
+     */
+    ADD_STORED_COLUMN,
+    /**
+     * 新增普通/唯一索引
+     */
+    ADD_INDEX,
+    /**
+     * 删除索引
+     */
+    DROP_INDEX,
+    /**
+     * 修改字段: 仅默认值变化
+     */
+    MODIFY_DEFAULT,
+    /**
+     * 修改字段: VARCHAR 加长且长度字节数不变 (变更前后同在 255 字节以内或同在 256 字节以上)
+     */
+    MODIFY_VARCHAR_EXTEND,
+    /**
+     * 修改字段: 是否可为空变化
+     */
+    MODIFY_NULLABLE,
+    /**
+     * 修改字段: 类型/长度/精度/符号等其他变化, 需要复制表
+     */
+    MODIFY_TYPE,
+    /**
+     * 修改表选项: 仅修改元数据, 如 COMPRESSION / STATS_PERSISTENT / STATS_SAMPLE_PAGES / AUTO_INCREMENT
+     */
+    MODIFY_TABLE_OPTION,
+    /**
+     * 修改表选项: 需要重建表, 如 ROW_FORMAT / KEY_BLOCK_SIZE
+     */
+    MODIFY_ROW_FORMAT,
+    /**
+     * 修改存储引擎, 需要复制表
+     */
+    MODIFY_ENGINE,
+
+}
@@ -0,0 +1,120 @@
+package com.zoi7.mysql.ddl;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 表实体中字段的期望定义, 与生成的字段 sql 一一对应, 用于和数据库中现有字段比对
+ */
+public class ColumnDefinition {
+
+    private static final Pattern TYPE_PATTERN = Pattern.compile("^\\s*(\\w+)\\s*(?:\\((\\d+)\\s*(?:,\\s*(\\d+))?\\))?");
+    // 不能指定字面量默认值的类型
+    private static final Set<String> NO_DEFAULT_TYPES = new HashSet<String>(Arrays.asList("tinytext", "text",
+            "mediumtext", "longtext", "tinyblob", "blob", "mediumblob", "longblob", "json", "geometry"));
+
+    private String name; // 字段名
+    private String dataType; // 类型, 小写, 与 INFORMATION_SCHEMA.COLUMNS.DATA_TYPE 一致, 如 int / varchar
+    private int length = -1; // 长度/精度, 未指定为 -1
+    private int scale = -1; // 小数位, 未指定为 -1
+    private boolean unsigned; // 是否无符号
+    private boolean nullable; // 是否可为空
+    private String defaultValue; // 默认值, 未指定为 null
+    private boolean autoIncrement; // 是否自增
+
+    /**
+     * @param name 字段名
+     * @param typeLength 字段类型描述, 如 VARCHAR(50) / DECIMAL(10, 2) / INTEGER
+     */
+    public ColumnDefinition(String name, String typeLength) {
+        this.name = name.trim();
+        Matcher matcher = TYPE_PATTERN.matcher(typeLength);
+        if (!matcher.find()) {
+            throw new IllegalArgumentException("can not resolve column type: " + typeLength);
+        }
+        String type = matcher.group(1).toLowerCase();
+        this.dataType = "integer".equals(type) ? "int" : type;
+        if (matcher.group(2) != null) {
+            this.length = Integer.parseInt(matcher.group(2));
+        }
+        if (matcher.group(3) != null) {
+            this.scale = Integer.parseInt(matcher.group(3));
+        }
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getDataType() {
+        return dataType;
+    }
+
+    public int getLength() {
+        return length;
+    }
+
+    public int getScale() {
+        return scale;
+    }
+
+    /**
+     * @return 是否为 TEXT / BLOB 等不能指定字面量默认值的类型
+     */
+    public boolean isNoDefault() {
+        return NO_DEFAULT_TYPES.contains(dataType);
+    }
+
+    public boolean isUnsigned() {
+        return unsigned;
+    }
+
+    public ColumnDefinition setUnsigned(boolean unsigned) {
+        this.unsigned = unsigned;
+        return this;
+    }
+
+    public boolean isNullable() {
+        return nullable;
+    }
+
+    public ColumnDefinition setNullable(boolean nullable) {
+        this.nullable = nullable;
+        return this;
+    }
+
+    public String getDefaultValue() {
+        return defaultValue;
+    }
+
+    public ColumnDefinition setDefaultValue(String defaultValue) {
+        this.defaultValue = defaultValue;
+        return this;
+    }
+
+    public boolean isAutoIncrement() {
+        return autoIncrement;
+    }
+
+    public ColumnDefinition setAutoIncrement(boolean autoIncrement) {
+        this.autoIncrement = autoIncrement;
+        return this;
+    }
+
+    @Override
+    public String toString() {
+        return "ColumnDefinition{" +
+                "name='" + name + '\'' +
+                ", dataType='" + dataType + '\'' +
+                ", length=" + length +
+                ", scale=" + scale +
+                ", unsigned=" + unsigned +
+                ", nullable=" + nullable +
+                ", defaultValue='" + defaultValue + '\'' +
+                ", autoIncrement=" + autoIncrement +
+                '}';
+    }
+}
@@ -0,0 +1,199 @@
+package com.zoi7.mysql.ddl;
+
+import com.zoi7.mysql.schema.ColumnInfo;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 字段差异
+ * 比对表实体中字段的期望定义与数据库中的现有字段, 找出类型/长度/精度/符号/是否可为空/默认值/自增的差异,
+ * 并将整体变更归类为 {@link ChangeType} 中代价最高的一类
+ */
+public class ColumnDiff {
+
+    private static final Pattern LENGTH_PATTERN = Pattern.compile("\\((\\d+)\\s*(?:,\\s*(\\d+))?\\)");
+    private static final int ONE_LENGTH_BYTE_LIMIT = 255; // VARCHAR 最大字节数不超过该值时使用 1 个长度字节
+
+    private String column; // 字段名
+    private ChangeType type; // 变更类型
+    private List<String> differences = new ArrayList<String>(); // 差异描述
+
+    private ColumnDiff(String column) {
+        this.column = column;
+    }
+
+    /**
+     * 比对字段
+     * @param expected 表实体中的期望定义
+     * @param actual 数据库中的现有字段
+     * @return 差异, 无差异时返回 null
+     */
+    public static ColumnDiff compare(ColumnDefinition expected, ColumnInfo actual) {
+        ColumnDiff diff = new ColumnDiff(actual.getName());
+        String actualType = actual.getDataType().toLowerCase();
+        String columnType = actual.getColumnType() == null ? "" : actual.getColumnType().toLowerCase();
+        if (!expected.getDataType().equals(actualType)) {
+            diff.add(ChangeType.MODIFY_TYPE, "type " + actualType + " → " + expected.getDataType());
+        } else {
+            compareLength(diff, expected, actual, columnType);
+        }
+        boolean unsigned = columnType.contains("unsigned");
+        if (expected.isUnsigned() != unsigned) {
+            diff.add(ChangeType.MODIFY_TYPE, "unsigned " + unsigned + " → " + expected.isUnsigned());
+        }
+        if (expected.isNullable() != actual.isNullable()) {
+            diff.add(ChangeType.MODIFY_NULLABLE, "nullable " + actual.isNullable() + " → " + expected.isNullable());
+        }
+        boolean autoIncrement = actual.getExtra() != null && actual.getExtra().toLowerCase().contains("auto_increment");
+        if (expected.isAutoIncrement() != autoIncrement) {
+            diff.add(ChangeType.MODIFY_TYPE, "auto_increment " + autoIncrement + " → " + expected.isAutoIncrement());
+        }
+        compareDefault(diff, expected, actual);
+        return diff.type == null ? null : diff;
+    }
+
+    private static void compareLength(ColumnDiff diff, ColumnDefinition expected, ColumnInfo actual, String columnType) {
+        String dataType = expected.getDataType();
+        if ("varchar".equals(dataType) || "char".equals(dataType)) {
+            long length = actual.getCharLength();
+            if (length <= 0) {
+                length = parseLength(columnType, 1);
+            }
+            if (length < 0 || expected.getLength() == length) {
+                return;
+            }
+            String description = "length " + length + " → " + expected.getLength();
+            if (expected.getLength() < length || !"varchar".equals(dataType)) {
+                // 缩短可能截断数据
+                diff.add(ChangeType.MODIFY_TYPE, description);
+                return;
+            }
+            long bytesPerChar = length > 0 && actual.getOctetLength() > 0 ? actual.getOctetLength() / length : 4;
+            boolean oneByteBefore = length * bytesPerChar <= ONE_LENGTH_BYTE_LIMIT;
+            boolean oneByteAfter = expected.getLength() * bytesPerChar <= ONE_LENGTH_BYTE_LIMIT;
+            diff.add(oneByteBefore == oneByteAfter ? ChangeType.MODIFY_VARCHAR_EXTEND : ChangeType.MODIFY_TYPE,
+                    description);
+        } else if ("decimal".equals(dataType) || "float".equals(dataType) || "double".equals(dataType)) {
+            long length = parseLength(columnType, 1);
+            long scale = parseLength(columnType, 2);
+            // 数据库未记录精度时 (如 MySQL 8.0.17+ 的 FLOAT/DOUBLE) 不比对
+            if (length < 0) {
+                return;
+            }
+            if (expected.getLength() != length || expected.getScale() != scale) {
+                diff.add(ChangeType.MODIFY_TYPE, "precision (" + length + "," + scale + ") → ("
+                        + expected.getLength() + "," + expected.getScale() + ")");
+            }
+        }
+    }
+
+    private static void compareDefault(ColumnDiff diff, ColumnDefinition expected, ColumnInfo actual) {
+        // TEXT / BLOB 等类型不能指定默认值, 不比对
+        if (expected.isNoDefault()) {
+            return;
+        }
+        String actualDefault = normalizeDefault(actual.getDefaultValue());
+        String expectedDefault = expected.getDefaultValue();
+        // 时间类型由数据库自动维护的默认值 (CURRENT_TIMESTAMP / ON UPDATE) 不比对
+        if (expectedDefault == null && actualDefault != null
+                && actualDefault.toUpperCase().startsWith("CURRENT_TIMESTAMP")) {
+            return;
+        }
+        if (actual.getExtra() != null && actual.getExtra().toUpperCase().contains("ON UPDATE")) {
+            return;
+        }
+        if (!sameDefault(expectedDefault, actualDefault)) {
+            diff.add(ChangeType.MODIFY_DEFAULT, "default " + quote(actualDefault) + " → " + quote(expectedDefault));
+        }
+    }
+
+    /**
+     * 统一 MySQL 与 MariaDB 的 COLUMN_DEFAULT 格式 (MariaDB 10.2.7+ 字符串带引号, 无默认值为 NULL)
+     */
+    private static String normalizeDefault(String value) {
+        if (value == null || "NULL".equals(value)) {
+            return null;
+        }
+        if (value.length() >= 2 && value.startsWith("'") && value.endsWith("'")) {
+            return value.substring(1, value.length() - 1).replace("''", "'");
+        }
+        return value;
+    }
+
+    private static boolean sameDefault(String expected, String actual) {
+        if (expected == null || actual == null) {
+            return expected == null && actual == null;
+        }
+        if (expected.equals(actual)) {
+            return true;
+        }
+        try {
+            return new BigDecimal(expected.trim()).compareTo(new BigDecimal(actual.trim())) == 0;
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+
+    private static long parseLength(String columnType, int group) {
+        Matcher matcher = LENGTH_PATTERN.matcher(columnType);
+        if (!matcher.find() || matcher.group(group) == null) {
+            return -1;
+        }
+        return Long.parseLong(matcher.group(group));
+    }
+
+    private static String quote(String value) {
+        return value == null ? "null" : "'" + value + "'";
+    }
+
+    private void add(ChangeType type, String difference) {
+        this.differences.add(difference);
+        if (this.type == null || rank(type) > rank(this.type)) {
+            this.type = type;
+        }
+    }
+
+    /**
+     * @return 变更代价, 越大代价越高
+     */
+    private static int rank(ChangeType type) {
+        switch (type) {
+            case MODIFY_DEFAULT:
+                return 1;
+            case MODIFY_VARCHAR_EXTEND:
+                return 2;
+            case MODIFY_NULLABLE:
+                return 3;
+            default:
+                return 4;
+        }
+    }
+
+    public String getColumn() {
+        return column;
+    }
+
+    public ChangeType getType() {
+        return type;
+    }
+
+    public List<String> getDifferences() {
+        return differences;
+    }
+
+    /**
+     * @return 是否需要重建表
+     */
+    public boolean isRebuild() {
+        return type == ChangeType.MODIFY_TYPE || type == ChangeType.MODIFY_NULLABLE;
+    }
+
+    @Override
+    public String toString() {
+        return column + " " + differences + " [" + type + "]";
+    }
+}
@@ -0,0 +1,25 @@
+package com.zoi7.mysql.ddl;
+
+/**
+ * ALTER TABLE 使用的算法 (ALGORITHM 子句)
+ */
+public enum DdlAlgorithm {
+
+    /**
+     * 未指定, 由 MySQL 自行选择
+     */
+    DEFAULT,
+    /**
+     * 仅修改元数据 (MySQL 8.0.12+)
+     */
+    INSTANT,
+    /**
+     * 原地变更, 配合 LOCK=NONE 不阻塞读写
+     */
+    INPLACE,
+    /**
+     * 复制表, 期间阻塞写入
+     */
+    COPY,
+
+}
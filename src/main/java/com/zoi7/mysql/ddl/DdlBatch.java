@@ -0,0 +1,145 @@
+package com.zoi7.mysql.ddl;
+
+import com.zoi7.mysql.config.DataConfig;
+import com.zoi7.mysql.report.MigrationReport;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.BatchUpdateException;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * DDL 批量执行
+ * 把不需要 online DDL 降级重试的语句 (DROP / CREATE, 及未启用 online DDL 时的 ALTER) 跨表合并为一个 JDBC 批次,
+ * url 中配置 rewriteBatchedStatements=true 时驱动会把整个批次以多语句的方式一次发送, 减少网络往返.
+ * 批次失败时不重放已执行过的语句: 失败语句所在的表记为失败, 其后续语句不再执行;
+ * 只有根据 updateCounts 能确定驱动未执行 (在失败处停止) 且所在表没有失败的语句才逐条执行.
+ * 合并执行的语句只记录整个批次的耗时 (MigrationReport.batch), 不记录单条耗时
+ */
+public class DdlBatch {
+
+    private static final Logger log = LoggerFactory.getLogger(DdlBatch.class);
+
+    private DataConfig config;
+    private OnlineDdlExecutor executor;
+    private MigrationReport report; // 记录单条语句的执行结果
+    private List<DdlStatement> pending = new ArrayList<DdlStatement>();
+
+    public DdlBatch(DataConfig config, OnlineDdlExecutor executor) {
+        this(config, executor, new MigrationReport(null));
+    }
+
+    public DdlBatch(DataConfig config, OnlineDdlExecutor executor, MigrationReport report) {
+        this.config = config;
+        this.executor = executor;
+        this.report = report;
+    }
+
+    /**
+     * @param ddl 语句
+     * @return 该语句是否可以加入批次
+     */
+    public boolean accept(DdlStatement ddl) {
+        return config.getBatchSize() > 1 && !ddl.isShadow() && (!ddl.isAlter() || !config.isOnlineDdl())
+                && !executor.isRejected(ddl);
+    }
+
+    public void add(DdlStatement ddl) {
+        this.pending.add(ddl);
+    }
+
+    public boolean isFull() {
+        return pending.size() >= config.getBatchSize();
+    }
+
+    public boolean isEmpty() {
+        return pending.isEmpty();
+    }
+
+    /**
+     * 执行当前批次
+     * @param statement statement
+     * @return 失败的表, 每张表只记录第一条失败的语句
+     */
+    public List<TableFailure> flush(Statement statement) {
+        if (pending.isEmpty()) {
+            return Collections.emptyList();
+        }
+        int[] counts = null;
+        SQLException error = null;
+        long start = System.currentTimeMillis();
+        try {
+            for (DdlStatement ddl : pending) {
+                if (config.isShowSql()) {
+                    log.info(ddl.getSql());
+                }
+                statement.addBatch(ddl.getSql());
+            }
+            counts = statement.executeBatch();
+        } catch (BatchUpdateException e) {
+            counts = e.getUpdateCounts();
+            error = e;
+        } catch (SQLException e) {
+            error = e;
+        } finally {
+            try {
+                statement.clearBatch();
+            } catch (SQLException e) {
+                log.warn("DdlBatch clearBatch failed", e);
+            }
+        }
+        long elapsed = System.currentTimeMillis() - start;
+        log.debug("DdlBatch flush > statements: {}, cost: {}ms, error: {}",
+                pending.size(), elapsed, error == null ? null : error.getMessage());
+        report.batch(elapsed);
+        Map<String, TableFailure> failures = new LinkedHashMap<String, TableFailure>();
+        for (int i = 0; i < pending.size(); i++) {
+            DdlStatement ddl = pending.get(i);
+            String tableName = ddl.getTableName();
+            // 已执行成功 (驱动在失败后继续执行时, 可能包括失败表的后续语句)
+            if (error == null || (counts != null && i < counts.length && counts[i] != Statement.EXECUTE_FAILED)) {
+                ddl.setElapsed(-1);
+                ddl.setBatched(true);
+                ddl.setExecutedSql(ddl.getSql());
+                ddl.setRows(counts != null && i < counts.length && counts[i] >= 0 ? counts[i] : -1);
+                report.statement(ddl, null);
+                log.debug("DdlBatch > table: {}, batched", tableName);
+                continue;
+            }
+            // 执行失败, 或驱动未返回 updateCounts 无法确定是否已执行: 都记为失败, 不重试
+            if (counts == null || i < counts.length) {
+                fail(ddl, error, failures);
+                continue;
+            }
+            // 驱动在失败处停止, 该语句确定未执行; 所在表已失败时不再执行
+            if (failures.containsKey(tableName)) {
+                report.statement(ddl, new SQLException("not executed, a previous statement of table "
+                        + tableName + " failed in the batch"));
+                continue;
+            }
+            try {
+                executor.execute(statement, ddl);
+                report.statement(ddl, null);
+            } catch (SQLException e) {
+                fail(ddl, e, failures);
+            }
+        }
+        pending.clear();
+        return new ArrayList<TableFailure>(failures.values());
+    }
+
+    private void fail(DdlStatement ddl, SQLException e, Map<String, TableFailure> failures) {
+        report.statement(ddl, e);
+        log.error("DdlBatch > table: " + ddl.getTableName() + " failed: " + ddl.getSql(), e);
+        if (!failures.containsKey(ddl.getTableName())) {
+            failures.put(ddl.getTableName(), new TableFailure(ddl.getTableName(), e));
+        }
+    }
+
+}
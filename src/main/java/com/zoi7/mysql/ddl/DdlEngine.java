@@ -0,0 +1,221 @@
+package com.zoi7.mysql.ddl;
+
+import com.zoi7.mysql.config.DataConfig;
+import com.zoi7.mysql.report.MigrationReport;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 表结构检测与变更的执行引擎
+ * 使用有界的工作线程池, 每个工作线程独占一个连接, 各自领取表任务完成检测并执行变更,
+ * 单表失败不影响其他表, 所有失败在结束时统一汇总
+ */
+public class DdlEngine {
+
+    private static final Logger log = LoggerFactory.getLogger(DdlEngine.class);
+
+    private DataSource dataSource;
+    private DataConfig config;
+    private OnlineDdlExecutor executor;
+    private MigrationReport report; // 记录单表检测与单条语句的执行
+
+    public DdlEngine(DataSource dataSource, DataConfig config) {
+        this(dataSource, config, new MigrationReport(null));
+    }
+
+    /**
+     * @param dataSource 数据库连接
+     * @param config 配置
+     * @param report 记录单表检测耗时与单条语句的执行结果
+     */
+    public DdlEngine(DataSource dataSource, DataConfig config, MigrationReport report) {
+        this.dataSource = dataSource;
+        this.config = config;
+        this.executor = new OnlineDdlExecutor(config);
+        this.report = report;
+    }
+
+    /**
+     * 执行所有表任务
+     * @param tasks 表任务
+     * @return 失败的表
+     */
+    public List<TableFailure> execute(List<? extends TableTask> tasks) throws InterruptedException {
+        final Queue<TableTask> queue = new ConcurrentLinkedQueue<TableTask>(tasks);
+        final List<TableFailure> failures = Collections.synchronizedList(new ArrayList<TableFailure>());
+        int workers = Math.max(1, Math.min(config.getThreads(), tasks.size()));
+        log.debug("DdlEngine execute > tables: {}, workers: {}", tasks.size(), workers);
+        ExecutorService pool = Executors.newFixedThreadPool(workers, new WorkerThreadFactory());
+        try {
+            List<Future<Void>> futures = new ArrayList<Future<Void>>();
+            for (int i = 0; i < workers; i++) {
+                futures.add(pool.submit(new Callable<Void>() {
+                    @Override
+                    public Void call() throws Exception {
+                        work(queue, failures);
+                        return null;
+                    }
+                }));
+            }
+            Throwable workerError = null;
+            for (Future<Void> future : futures) {
+                try {
+                    future.get();
+                } catch (ExecutionException e) {
+                    workerError = e.getCause();
+                    log.error("DdlEngine worker failed", workerError);
+                }
+            }
+            // 所有工作线程都无法工作时, 剩余的表全部记为失败
+            TableTask task;
+            while ((task = queue.poll()) != null) {
+                failures.add(new TableFailure(task.getTableName(), workerError));
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        return new ArrayList<TableFailure>(failures);
+    }
+
+    /**
+     * 工作线程: 独占一个连接, 循环领取表任务
+     */
+    private void work(Queue<TableTask> queue, List<TableFailure> failures) throws SQLException {
+        Connection connection = dataSource.getConnection();
+        try {
+            Statement statement = connection.createStatement();
+            DdlBatch batch = new DdlBatch(config, executor, report);
+            TableTask task;
+            while ((task = queue.poll()) != null) {
+                // 单表截止时间, 该表逐条执行的语句共享 db.tableTimeout
+                long deadline = config.getTableTimeout() > 0 ?
+                        System.currentTimeMillis() + config.getTableTimeout() * 1000L : 0;
+                try {
+                    TablePlan plan = check(task);
+                    for (DdlStatement ddl : plan.getStatements()) {
+                        if (batch.accept(ddl)) {
+                            batch.add(ddl);
+                            if (batch.isFull() && flush(batch, statement, failures, task.getTableName())) {
+                                break;
+                            }
+                            continue;
+                        }
+                        // 需要逐条执行的语句, 先执行前面已合并的批次以保证顺序
+                        if (flush(batch, statement, failures, task.getTableName())) {
+                            break;
+                        }
+                        execute(statement, ddl, deadline);
+                    }
+                } catch (Exception e) {
+                    log.error("DdlEngine > table: " + task.getTableName() + " failed", e);
+                    failures.add(new TableFailure(task.getTableName(), e));
+                }
+            }
+            if (!batch.isEmpty()) {
+                setBatchTimeout(statement);
+                failures.addAll(batch.flush(statement));
+            }
+            statement.close();
+        } finally {
+            connection.close();
+        }
+    }
+
+    /**
+     * 检测单张表, 记录检测耗时
+     */
+    private TablePlan check(TableTask task) throws Exception {
+        long start = System.currentTimeMillis();
+        TablePlan plan;
+        try {
+            plan = task.check();
+        } catch (Exception e) {
+            report.table(task.getTableName(), System.currentTimeMillis() - start, 0, e);
+            throw e;
+        }
+        report.table(task.getTableName(), System.currentTimeMillis() - start, plan.getStatements().size(), null);
+        return plan;
+    }
+
+    /**
+     * 逐条执行语句, 记录执行结果
+     * @param deadline 单表截止时间, 0 为不限制; 语句的超时时间为该表剩余的时间
+     */
+    private void execute(Statement statement, DdlStatement ddl, long deadline) throws SQLException {
+        try {
+            if (deadline > 0) {
+                long remaining = deadline - System.currentTimeMillis();
+                if (remaining <= 0) {
+                    throw new SQLTimeoutException("表[" + ddl.getTableName() + "]变更超过 db.tableTimeout "
+                            + config.getTableTimeout() + "s, 未执行: " + ddl.getSql());
+                }
+                statement.setQueryTimeout((int) ((remaining + 999) / 1000));
+            }
+            executor.execute(statement, ddl);
+        } catch (SQLException e) {
+            report.statement(ddl, e);
+            throw e;
+        }
+        report.statement(ddl, null);
+    }
+
+    /**
+     * 执行已合并的批次
+     * @return 当前表是否在批次中失败
+     */
+    private boolean flush(DdlBatch batch, Statement statement, List<TableFailure> failures, String tableName)
+            throws SQLException {
+        if (batch.isEmpty()) {
+            return false;
+        }
+        setBatchTimeout(statement);
+        boolean failed = false;
+        for (TableFailure failure : batch.flush(statement)) {
+            failures.add(failure);
+            failed |= failure.getTableName().equals(tableName);
+        }
+        return failed;
+    }
+
+    /**
+     * 合并执行的批次包含多张表的语句, 整个批次 (及批次中失败后逐条执行的语句) 按一张表计时
+     */
+    private void setBatchTimeout(Statement statement) throws SQLException {
+        if (config.getTableTimeout() > 0) {
+            statement.setQueryTimeout(config.getTableTimeout());
+        }
+    }
+
+    private static class WorkerThreadFactory implements ThreadFactory {
+
+        private static final AtomicInteger POOL_NUMBER = new AtomicInteger(1);
+        private final int poolNumber = POOL_NUMBER.getAndIncrement();
+        private final AtomicInteger threadNumber = new AtomicInteger(1);
+
+        @Override
+        public Thread newThread(Runnable r) {
+            Thread thread = new Thread(r, "table-helper-" + poolNumber + "-ddl-" + threadNumber.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+
+}
@@ -0,0 +1,111 @@
+package com.zoi7.mysql.ddl;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * DDL 算法预估
+ * 根据数据库版本与变更子句的类型, 预估 ALTER TABLE 能使用的最优算法以及是否需要重建表,
+ * 一条语句中任一子句不支持 INSTANT 时整条语句退化为 INPLACE, 此时新增字段等操作会重建表
+ */
+public class DdlEstimator {
+
+    private static final Pattern VERSION_PATTERN = Pattern.compile("^(\\d+)\\.(\\d+)\\.(\\d+)");
+
+    private int version; // 版本号, 如 8.0.32 → 80032
+    private boolean mariaDb; // 是否为 MariaDB
+
+    /**
+     * @param version 数据库版本, 即 SELECT VERSION() 的结果, 无法识别时按最保守的规则预估
+     */
+    public DdlEstimator(String version) {
+        if (version != null) {
+            Matcher matcher = VERSION_PATTERN.matcher(version);
+            if (matcher.find()) {
+                this.version = Integer.parseInt(matcher.group(1)) * 10000
+                        + Integer.parseInt(matcher.group(2)) * 100 + Integer.parseInt(matcher.group(3));
+            }
+            this.mariaDb = version.toLowerCase().contains("mariadb");
+        }
+    }
+
+    /**
+     * @param type 变更类型
+     * @return 该变更单独执行时可用的最优算法
+     */
+    public DdlAlgorithm getAlgorithm(ChangeType type) {
+        switch (type) {
+            case ADD_COLUMN:
+                // MySQL 8.0.12+ / MariaDB 10.3.2+ 支持在表末尾即时新增字段
+                return supportsInstantAddColumn() ? DdlAlgorithm.INSTANT : DdlAlgorithm.INPLACE;
+            case ADD_INDEX:
+            case DROP_INDEX:
+                return DdlAlgorithm.INPLACE;
+            case MODIFY_DEFAULT:
+                // MySQL 8.0 / MariaDB 10.3.2+ 修改默认值只修改元数据
+                return supportsInstantDefault() ? DdlAlgorithm.INSTANT : DdlAlgorithm.INPLACE;
+            case MODIFY_VARCHAR_EXTEND:
+            case MODIFY_NULLABLE:
+            case MODIFY_TABLE_OPTION:
+            case MODIFY_ROW_FORMAT:
+                return DdlAlgorithm.INPLACE;
+            default:
+                return DdlAlgorithm.COPY;
+        }
+    }
+
+    /**
+     * @param type 变更类型
+     * @return 以 INPLACE 方式执行时是否需要重建表
+     */
+    public boolean isRebuildInplace(ChangeType type) {
+        return type == ChangeType.ADD_COLUMN || type == ChangeType.MODIFY_NULLABLE
+                || type == ChangeType.MODIFY_ROW_FORMAT;
+    }
+
+    /**
+     * 预估一条合并后的 ALTER TABLE 语句, 结果写入语句中
+     * @param ddl 语句
+     * @param changeSet 语句对应的变更集合
+     */
+    public void estimate(DdlStatement ddl, TableChangeSet changeSet) {
+        DdlAlgorithm algorithm = DdlAlgorithm.INSTANT;
+        for (ChangeType type : changeSet.getTypes()) {
+            DdlAlgorithm current = getAlgorithm(type);
+            if (current.ordinal() > algorithm.ordinal()) {
+                algorithm = current;
+            }
+        }
+        boolean rebuild = algorithm == DdlAlgorithm.COPY;
+        if (algorithm == DdlAlgorithm.INPLACE) {
+            for (ChangeType type : changeSet.getTypes()) {
+                rebuild |= isRebuildInplace(type);
+            }
+        }
+        ddl.setEstimatedAlgorithm(algorithm);
+        ddl.setRebuild(rebuild);
+    }
+
+    /**
+     * @return 是否支持降序索引 (MySQL 8.0+ / MariaDB 10.8+), 不支持时 DESC 会被忽略
+     */
+    public boolean supportsDescendingIndex() {
+        return mariaDb ? version >= 100801 : version >= 80000;
+    }
+
+    /**
+     * @return 是否支持函数索引 (MySQL 8.0.13+)
+     */
+    public boolean supportsFunctionalIndex() {
+        return !mariaDb && version >= 80013;
+    }
+
+    private boolean supportsInstantDefault() {
+        return mariaDb ? version >= 100302 : version >= 80000;
+    }
+
+    private boolean supportsInstantAddColumn() {
+        return mariaDb ? version >= 100302 : version >= 80012;
+    }
+
+}
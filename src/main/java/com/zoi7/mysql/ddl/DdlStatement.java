@@ -0,0 +1,170 @@
+package com.zoi7.mysql.ddl;
+
+import com.zoi7.mysql.comment.MigrationStrategy;
+import com.zoi7.mysql.schema.TableInfo;
+
+/**
+ * 一条待执行的 DDL 语句
+ */
+public class DdlStatement {
+
+    private String tableName; // 表名
+    private String sql; // 原始语句 (不含 ALGORITHM/LOCK 子句)
+    private boolean alter; // 是否为 ALTER TABLE 语句
+    private long tableRows; // 表的预估行数
+    private long dataLength; // 表的数据大小(字节)
+    private long indexLength; // 表的索引大小(字节)
+    private DdlAlgorithm estimatedAlgorithm = DdlAlgorithm.DEFAULT; // 预估可用的最优算法
+    private boolean rebuild; // 预估是否需要重建表
+    private TableChangeSet changeSet; // ALTER TABLE 对应的变更集合
+    private MigrationStrategy strategy = MigrationStrategy.ALTER; // 变更方式
+    private DdlAlgorithm algorithm = DdlAlgorithm.DEFAULT; // 实际使用的算法
+    private String executedSql; // 实际执行的语句
+    private long elapsed; // 执行耗时(毫秒), 合并执行时为 -1, 只记录整个批次的耗时
+    private boolean batched; // 是否通过批量执行
+    private long rows = -1; // 影响的行数 (复制表时为复制的行数), -1 为未知
+
+    public DdlStatement(String tableName, String sql) {
+        this(tableName, sql, false, 0);
+    }
+
+    public DdlStatement(String tableName, String sql, boolean alter, long tableRows) {
+        this.tableName = tableName;
+        this.sql = stripSemicolon(sql);
+        this.alter = alter;
+        this.tableRows = tableRows;
+        this.executedSql = this.sql;
+    }
+
+    /**
+     * 去掉语句末尾的分号, 合并执行 (rewriteBatchedStatements) 时由驱动以分号拼接, 末尾的分号会产生空语句
+     */
+    private static String stripSemicolon(String sql) {
+        int end = sql.length();
+        while (end > 0 && (sql.charAt(end - 1) == ';' || Character.isWhitespace(sql.charAt(end - 1)))) {
+            end--;
+        }
+        return sql.substring(0, end);
+    }
+
+    /**
+     * 构建合并后的 ALTER TABLE 语句
+     * @param changeSet 单表变更集合
+     * @param table 数据库中现有的表结构
+     * @return 语句
+     */
+    public static DdlStatement alter(TableChangeSet changeSet, TableInfo table) {
+        DdlStatement ddl = new DdlStatement(changeSet.getTableName(), changeSet.toSql(), true, table.getRows());
+        ddl.dataLength = table.getDataLength();
+        ddl.indexLength = table.getIndexLength();
+        ddl.changeSet = changeSet;
+        return ddl;
+    }
+
+    public String getTableName() {
+        return tableName;
+    }
+
+    public String getSql() {
+        return sql;
+    }
+
+    public boolean isAlter() {
+        return alter;
+    }
+
+    public long getTableRows() {
+        return tableRows;
+    }
+
+    public long getDataLength() {
+        return dataLength;
+    }
+
+    public long getIndexLength() {
+        return indexLength;
+    }
+
+    public DdlAlgorithm getEstimatedAlgorithm() {
+        return estimatedAlgorithm;
+    }
+
+    public void setEstimatedAlgorithm(DdlAlgorithm estimatedAlgorithm) {
+        this.estimatedAlgorithm = estimatedAlgorithm;
+    }
+
+    public boolean isRebuild() {
+        return rebuild;
+    }
+
+    public void setRebuild(boolean rebuild) {
+        this.rebuild = rebuild;
+    }
+
+    public TableChangeSet getChangeSet() {
+        return changeSet;
+    }
+
+    public MigrationStrategy getStrategy() {
+        return strategy;
+    }
+
+    public void setStrategy(MigrationStrategy strategy) {
+        this.strategy = strategy;
+    }
+
+    /**
+     * @return 是否通过影子表变更
+     */
+    public boolean isShadow() {
+        return strategy == MigrationStrategy.SHADOW && changeSet != null;
+    }
+
+    public DdlAlgorithm getAlgorithm() {
+        return algorithm;
+    }
+
+    public void setAlgorithm(DdlAlgorithm algorithm) {
+        this.algorithm = algorithm;
+    }
+
+    public String getExecutedSql() {
+        return executedSql;
+    }
+
+    public void setExecutedSql(String executedSql) {
+        this.executedSql = executedSql;
+    }
+
+    public long getElapsed() {
+        return elapsed;
+    }
+
+    public void setElapsed(long elapsed) {
+        this.elapsed = elapsed;
+    }
+
+    public boolean isBatched() {
+        return batched;
+    }
+
+    public void setBatched(boolean batched) {
+        this.batched = batched;
+    }
+
+    public long getRows() {
+        return rows;
+    }
+
+    public void setRows(long rows) {
+        this.rows = rows;
+    }
+
+    @Override
+    public String toString() {
+        if (isShadow()) {
+            return executedSql + " [SHADOW]";
+        }
+        return alter ? executedSql + " [ALGORITHM=" + algorithm + "]" : executedSql;
+    }
+}
@@ -0,0 +1,195 @@
+package com.zoi7.mysql.ddl;
+
+import com.zoi7.mysql.schema.IndexInfo;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 索引定义, 来源于表实体注解 (@Id / @Field(index) / @Entity(indices)) 或数据库中的现有索引,
+ * 由若干键部分组成, 见 {@link KeyPart}
+ */
+public class IndexDefinition {
+
+    private String name; // 索引名, 为空时由 MySQL 自动命名
+    private boolean unique; // 是否唯一
+    private boolean primary; // 是否主键
+    private List<KeyPart> keyParts = new ArrayList<KeyPart>(); // 键部分
+
+    /**
+     * @param name 索引名, 为空时由 MySQL 自动命名
+     * @param unique 是否唯一
+     * @param keyParts 键部分, 如 user_id / url(191) / create_time DESC / (LOWER(email))
+     */
+    public IndexDefinition(String name, boolean unique, String... keyParts) {
+        this.name = name == null || "".equals(name.trim()) ? null : name.trim();
+        this.unique = unique;
+        for (String keyPart : keyParts) {
+            this.keyParts.add(KeyPart.parse(keyPart));
+        }
+    }
+
+    /**
+     * @param name 索引名, 为空时由 MySQL 自动命名
+     * @param unique 是否唯一
+     * @param keyParts 键部分
+     */
+    public IndexDefinition(String name, boolean unique, List<KeyPart> keyParts) {
+        this.name = name == null || "".equals(name.trim()) ? null : name.trim();
+        this.unique = unique;
+        this.keyParts.addAll(keyParts);
+    }
+
+    /**
+     * @param columns 主键列
+     * @return 主键定义
+     */
+    public static IndexDefinition primary(String... columns) {
+        IndexDefinition index = new IndexDefinition(IndexInfo.PRIMARY, true, columns);
+        index.primary = true;
+        return index;
+    }
+
+    /**
+     * @param info 数据库中的现有索引
+     * @return 索引定义
+     */
+    public static IndexDefinition of(IndexInfo info) {
+        List<KeyPart> keyParts = new ArrayList<KeyPart>();
+        for (int i = 0; i < info.getColumns().size(); i++) {
+            boolean desc = i < info.getDescs().size() && info.getDescs().get(i);
+            String expression = i < info.getExpressions().size() ? info.getExpressions().get(i) : null;
+            if (info.getColumns().get(i) == null && expression != null) {
+                keyParts.add(KeyPart.expression(expression, desc));
+            } else {
+                int subPart = i < info.getSubParts().size() ? info.getSubParts().get(i) : 0;
+                keyParts.add(KeyPart.column(info.getColumns().get(i), subPart, desc));
+            }
+        }
+        IndexDefinition index = new IndexDefinition(info.getName(), info.isUnique(), keyParts);
+        index.primary = info.isPrimary();
+        return index;
+    }
+
+    /**
+     * @return 索引的比对键, 小写, 各键部分 (含前缀长度与排序方向) 按顺序以逗号连接
+     */
+    public String getKey() {
+        StringBuilder sb = new StringBuilder();
+        for (KeyPart keyPart : keyParts) {
+            sb.append(sb.length() == 0 ? "" : ",").append(keyPart.getKey());
+        }
+        return sb.toString();
+    }
+
+    /**
+     * @return 去掉降序后的索引定义, 用于不支持降序索引的数据库 (DESC 会被忽略)
+     */
+    public IndexDefinition withoutDesc() {
+        List<KeyPart> ascending = new ArrayList<KeyPart>();
+        for (KeyPart keyPart : keyParts) {
+            ascending.add(keyPart.isExpression() ? KeyPart.expression(keyPart.getExpression(), false) :
+                    KeyPart.column(keyPart.getColumn(), keyPart.getLength(), false));
+        }
+        IndexDefinition index = new IndexDefinition(name, unique, ascending);
+        index.primary = primary;
+        return index;
+    }
+
+    /**
+     * @param other 另一个索引
+     * @return 本索引的列是否为另一个索引的列的最左前缀 (不含完全相同)
+     */
+    public boolean isLeftPrefixOf(IndexDefinition other) {
+        if (keyParts.size() >= other.keyParts.size()) {
+            return false;
+        }
+        for (int i = 0; i < keyParts.size(); i++) {
+            if (!keyParts.get(i).getKey().equals(other.keyParts.get(i).getKey())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @param info 数据库中的现有索引
+     * @return 键部分与唯一性是否一致
+     */
+    public boolean matches(IndexInfo info) {
+        return unique == info.isUnique() && getKey().equals(of(info).getKey());
+    }
+
+    /**
+     * @return 新增索引的子句, 如 UNIQUE INDEX name(a,b)
+     */
+    public String toSql() {
+        StringBuilder sb = new StringBuilder(unique ? "UNIQUE INDEX " : "INDEX ");
+        if (name != null) {
+            sb.append(name);
+        }
+        sb.append("(");
+        for (int i = 0; i < keyParts.size(); i++) {
+            sb.append(i == 0 ? "" : ",").append(keyParts.get(i).toSql());
+        }
+        return sb.append(")").toString();
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public boolean isUnique() {
+        return unique;
+    }
+
+    public boolean isPrimary() {
+        return primary;
+    }
+
+    /**
+     * @return 各键部分的列名, 表达式键部分为 (表达式)
+     */
+    public List<String> getColumns() {
+        List<String> columns = new ArrayList<String>();
+        for (KeyPart keyPart : keyParts) {
+            columns.add(keyPart.isExpression() ? "(" + keyPart.getExpression() + ")" : keyPart.getColumn());
+        }
+        return columns;
+    }
+
+    public List<KeyPart> getKeyParts() {
+        return keyParts;
+    }
+
+    /**
+     * @return 是否包含降序键部分
+     */
+    public boolean hasDesc() {
+        for (KeyPart keyPart : keyParts) {
+            if (keyPart.isDesc()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return 是否包含表达式键部分
+     */
+    public boolean hasExpression() {
+        for (KeyPart keyPart : keyParts) {
+            if (keyPart.isExpression()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public String toString() {
+        return (primary ? "PRIMARY KEY" : (unique ? "UNIQUE " : "") + (name == null ? "INDEX" : name))
+                + Arrays.toString(keyParts.toArray());
+    }
+}
@@ -0,0 +1,123 @@
+package com.zoi7.mysql.ddl;
+
+import com.zoi7.mysql.schema.IndexInfo;
+import com.zoi7.mysql.schema.TableInfo;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * 索引比对
+ * 比对表实体声明的索引与数据库中的现有索引 (按列顺序与唯一性匹配, 不要求索引名一致),
+ * 找出缺失的索引与未声明的索引, 并检查变更后的索引集合中完全重复与最左前缀冗余的索引
+ */
+public class IndexReconciler {
+
+    private List<IndexDefinition> missing = new ArrayList<IndexDefinition>(); // 需要新增的索引
+    private List<IndexInfo> undeclared = new ArrayList<IndexInfo>(); // 未在表实体中声明的索引 (不含主键)
+    private List<IndexDefinition> conflicts = new ArrayList<IndexDefinition>(); // 与保留的现有索引重名, 无法新增的索引
+    private List<String> redundancies = new ArrayList<String>(); // 重复/冗余索引的描述
+
+    private IndexReconciler() {
+    }
+
+    /**
+     * 比对索引
+     * @param expected 表实体声明的索引 (含主键)
+     * @param table 数据库中现有的表结构
+     * @param dropUndeclared 是否删除未声明的索引
+     * @return 比对结果
+     */
+    public static IndexReconciler reconcile(List<IndexDefinition> expected, TableInfo table, boolean dropUndeclared) {
+        IndexReconciler result = new IndexReconciler();
+        Set<IndexInfo> matched = new HashSet<IndexInfo>();
+        for (IndexDefinition index : expected) {
+            // 主键不在这里变更
+            if (index.isPrimary()) {
+                continue;
+            }
+            IndexInfo found = null;
+            for (IndexInfo info : table.getIndices()) {
+                if (!info.isPrimary() && !matched.contains(info) && index.matches(info)) {
+                    found = info;
+                    break;
+                }
+            }
+            if (found != null) {
+                matched.add(found);
+            } else {
+                result.missing.add(index);
+            }
+        }
+        for (IndexInfo info : table.getIndices()) {
+            if (!info.isPrimary() && !matched.contains(info)) {
+                result.undeclared.add(info);
+            }
+        }
+        // 变更后保留的现有索引
+        List<IndexDefinition> remaining = new ArrayList<IndexDefinition>();
+        Set<String> remainingNames = new HashSet<String>();
+        for (IndexInfo info : table.getIndices()) {
+            if (!dropUndeclared || info.isPrimary() || matched.contains(info)) {
+                remaining.add(IndexDefinition.of(info));
+                remainingNames.add(info.getName().toLowerCase());
+            }
+        }
+        for (IndexDefinition index : new ArrayList<IndexDefinition>(result.missing)) {
+            if (index.getName() != null && remainingNames.contains(index.getName().toLowerCase())) {
+                result.missing.remove(index);
+                result.conflicts.add(index);
+            }
+        }
+        List<IndexDefinition> all = new ArrayList<IndexDefinition>(remaining);
+        all.addAll(result.missing);
+        result.redundancies = findRedundancies(all);
+        return result;
+    }
+
+    /**
+     * 检查完全重复与最左前缀冗余的索引
+     * 非唯一索引的列是另一个索引的最左前缀时, 查询均可使用后者, 前者只会增加写入开销
+     * @param indices 索引集合
+     * @return 描述
+     */
+    public static List<String> findRedundancies(List<IndexDefinition> indices) {
+        List<String> redundancies = new ArrayList<String>();
+        for (int i = 0; i < indices.size(); i++) {
+            IndexDefinition a = indices.get(i);
+            for (int j = 0; j < indices.size(); j++) {
+                IndexDefinition b = indices.get(j);
+                if (i == j) {
+                    continue;
+                }
+                if (a.getKey().equals(b.getKey())) {
+                    if (i < j) {
+                        redundancies.add("duplicate index: " + a + " and " + b);
+                    }
+                } else if (!a.isUnique() && !a.isPrimary() && a.isLeftPrefixOf(b)) {
+                    redundancies.add("redundant index: " + a + " is a left prefix of " + b);
+                }
+            }
+        }
+        return redundancies;
+    }
+
+    public List<IndexDefinition> getMissing() {
+        return missing;
+    }
+
+    public List<IndexInfo> getUndeclared() {
+        return undeclared;
+    }
+
+    public List<IndexDefinition> getConflicts() {
+        return conflicts;
+    }
+
+    public List<String> getRedundancies() {
+        return redundancies;
+    }
+
+}
@@ -0,0 +1,125 @@
+package com.zoi7.mysql.ddl;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 索引的键部分: 列 (可带前缀长度) 或表达式 (MySQL 8.0.13+ 函数索引), 以及排序方向 (MySQL 8.0+ 降序索引)
+ * 书写格式与 MySQL 一致, 如 user_id / url(191) / create_time DESC / (LOWER(email))
+ */
+public class KeyPart {
+
+    private static final Pattern COLUMN_PATTERN =
+            Pattern.compile("^([^\\s(]+)\\s*(?:\\(\\s*(\\d+)\\s*\\))?\\s*(ASC|DESC)?$", Pattern.CASE_INSENSITIVE);
+    private static final Pattern ORDER_PATTERN = Pattern.compile("\\s+(ASC|DESC)$", Pattern.CASE_INSENSITIVE);
+
+    private String column; // 列名, 表达式键部分为 null
+    private String expression; // 表达式 (不含外层括号), 列键部分为 null
+    private int length; // 前缀长度, 0 为整列
+    private boolean desc; // 是否降序
+
+    private KeyPart() {
+    }
+
+    /**
+     * @param column 列名
+     * @param length 前缀长度, 0 为整列
+     * @param desc 是否降序
+     * @return 列键部分
+     */
+    public static KeyPart column(String column, int length, boolean desc) {
+        KeyPart part = new KeyPart();
+        part.column = column.trim();
+        part.length = Math.max(0, length);
+        part.desc = desc;
+        return part;
+    }
+
+    /**
+     * @param expression 表达式, 如 LOWER(email)
+     * @param desc 是否降序
+     * @return 表达式键部分
+     */
+    public static KeyPart expression(String expression, boolean desc) {
+        KeyPart part = new KeyPart();
+        part.expression = expression.trim();
+        part.desc = desc;
+        return part;
+    }
+
+    /**
+     * @param keyPart 键部分, 如 url(191) / create_time DESC / (LOWER(email))
+     * @return 键部分
+     */
+    public static KeyPart parse(String keyPart) {
+        String value = keyPart.trim();
+        boolean desc = false;
+        Matcher order = ORDER_PATTERN.matcher(value);
+        if (value.startsWith("(") && order.find()) {
+            desc = "DESC".equalsIgnoreCase(order.group(1));
+            value = value.substring(0, order.start()).trim();
+        }
+        if (value.startsWith("(") && value.endsWith(")")) {
+            return expression(value.substring(1, value.length() - 1), desc);
+        }
+        Matcher matcher = COLUMN_PATTERN.matcher(value);
+        if (!matcher.find()) {
+            throw new IllegalArgumentException("can not resolve index key part: " + keyPart);
+        }
+        return column(matcher.group(1), matcher.group(2) == null ? 0 : Integer.parseInt(matcher.group(2)),
+                "DESC".equalsIgnoreCase(matcher.group(3)));
+    }
+
+    /**
+     * @param column 列名
+     * @return 列名替换后的键部分, 表达式键部分返回自身
+     */
+    public KeyPart withColumn(String column) {
+        return isExpression() ? this : column(column, length, desc);
+    }
+
+    /**
+     * @return 键部分的比对键, 小写, 忽略表达式中的空白与反引号
+     */
+    public String getKey() {
+        String key = isExpression() ? "(" + normalize(expression) + ")" : column.toLowerCase();
+        return key + (length > 0 ? "(" + length + ")" : "") + (desc ? " desc" : "");
+    }
+
+    /**
+     * @return 索引定义中的键部分, 如 url(191) / create_time DESC / (LOWER(email))
+     */
+    public String toSql() {
+        String sql = isExpression() ? "(" + expression + ")" : column;
+        return sql + (length > 0 ? "(" + length + ")" : "") + (desc ? " DESC" : "");
+    }
+
+    private static String normalize(String expression) {
+        return expression.replace("`", "").replaceAll("\\s+", "").toLowerCase();
+    }
+
+    public boolean isExpression() {
+        return expression != null;
+    }
+
+    public String getColumn() {
+        return column;
+    }
+
+    public String getExpression() {
+        return expression;
+    }
+
+    public int getLength() {
+        return length;
+    }
+
+    public boolean isDesc() {
+        return desc;
+    }
+
+    @Override
+    public String toString() {
+        return toSql();
+    }
+}
@@ -0,0 +1,152 @@
+package com.zoi7.mysql.ddl;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 迁移计划 (plan 模式)
+ * 记录 update 模式将会执行的全部语句, 每条语句附带表的预估行数/数据大小/索引大小以及预估的 DDL 算法,
+ * 用于发布前发现需要长时间重建的大表
+ */
+public class MigrationPlan {
+
+    private String version; // 数据库版本
+    private List<TablePlan> tables = new ArrayList<TablePlan>(); // 需要变更的表
+    private List<TableFailure> failures = new ArrayList<TableFailure>(); // 检测失败的表
+
+    public MigrationPlan(String version) {
+        this.version = version;
+    }
+
+    /**
+     * @param plan 单张表的待执行语句, 无需变更且无差异的表忽略
+     */
+    public void add(TablePlan plan) {
+        if (!plan.isEmpty() || !plan.getWarnings().isEmpty()) {
+            this.tables.add(plan);
+        }
+    }
+
+    public void addFailure(TableFailure failure) {
+        this.failures.add(failure);
+    }
+
+    public String getVersion() {
+        return version;
+    }
+
+    public List<TablePlan> getTables() {
+        return tables;
+    }
+
+    public List<TableFailure> getFailures() {
+        return failures;
+    }
+
+    /**
+     * @return 所有待执行语句
+     */
+    public List<DdlStatement> getStatements() {
+        List<DdlStatement> statements = new ArrayList<DdlStatement>();
+        for (TablePlan table : tables) {
+            statements.addAll(table.getStatements());
+        }
+        return statements;
+    }
+
+    /**
+     * @return 预估需要重建表的语句
+     */
+    public List<DdlStatement> getRebuilds() {
+        List<DdlStatement> rebuilds = new ArrayList<DdlStatement>();
+        for (DdlStatement ddl : getStatements()) {
+            if (ddl.isRebuild()) {
+                rebuilds.add(ddl);
+            }
+        }
+        return rebuilds;
+    }
+
+    /**
+     * @return 文本格式的计划, 语句部分可直接执行
+     */
+    public String format() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("-- mysql-table-helper migration plan\n");
+        sb.append("-- server: ").append(version)
+                .append(", tables: ").append(tables.size())
+                .append(", statements: ").append(getStatements().size())
+                .append(", rebuilds: ").append(getRebuilds().size())
+                .append(", failures: ").append(failures.size()).append('\n');
+        for (TablePlan table : tables) {
+            for (String warning : table.getWarnings()) {
+                sb.append("\n-- table: ").append(table.getTableName()).append(", ").append(warning).append('\n');
+            }
+            for (DdlStatement ddl : table.getStatements()) {
+                sb.append('\n');
+                sb.append("-- table: ").append(ddl.getTableName());
+                if (ddl.isAlter()) {
+                    sb.append(", rows: ").append(ddl.getTableRows())
+                            .append(", data: ").append(formatSize(ddl.getDataLength()))
+                            .append(", index: ").append(formatSize(ddl.getIndexLength()))
+                            .append(", algorithm: ").append(ddl.getEstimatedAlgorithm())
+                            .append(ddl.isRebuild() ? ", REBUILD" : "")
+                            .append(ddl.isShadow() ? ", strategy: SHADOW" : "");
+                }
+                sb.append('\n');
+                String sql = ddl.getSql().trim();
+                sb.append(sql).append(sql.endsWith(";") ? "" : ";").append('\n');
+            }
+        }
+        for (TableFailure failure : failures) {
+            sb.append("\n-- failed: ").append(failure).append('\n');
+        }
+        return sb.toString();
+    }
+
+    /**
+     * 写入文件 (UTF-8)
+     * @param file 文件
+     * @throws IOException 写入失败
+     */
+    public void write(File file) throws IOException {
+        File parent = file.getAbsoluteFile().getParentFile();
+        if (parent != null && !parent.exists() && !parent.mkdirs()) {
+            throw new IOException("create directory " + parent + " failed");
+        }
+        Writer writer = new OutputStreamWriter(new FileOutputStream(file), "UTF-8");
+        try {
+            writer.write(format());
+        } finally {
+            writer.close();
+        }
+    }
+
+    private static String formatSize(long bytes) {
+        if (bytes < 1024) {
+            return bytes + " B";
+        }
+        String[] units = {"KB", "MB", "GB", "TB"};
+        double size = bytes;
+        int unit = -1;
+        while (size >= 1024 && unit < units.length - 1) {
+            size /= 1024;
+            unit++;
+        }
+        return String.format("%.1f %s", size, units[unit]);
+    }
+
+    @Override
+    public String toString() {
+        return "MigrationPlan{" +
+                "version='" + version + '\'' +
+                ", tables=" + tables.size() +
+                ", failures=" + failures.size() +
+                '}';
+    }
+}
@@ -0,0 +1,128 @@
+package com.zoi7.mysql.ddl;
+
+import com.zoi7.mysql.config.DataConfig;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * DDL 执行器
+ * 启用 online DDL 时, ALTER TABLE 依次尝试 ALGORITHM=INSTANT → ALGORITHM=INPLACE, LOCK=NONE,
+ * 仅在配置允许时才退回 ALGORITHM=COPY, 并记录每条语句实际使用的算法;
+ * 无论是否启用 online DDL, 阻塞写入的 ALTER 都受 db.blockingRowLimit 限制;
+ * 指定了影子表变更方式的语句交由 {@link ShadowTableMigrator} 执行
+ */
+public class OnlineDdlExecutor {
+
+    private static final Logger log = LoggerFactory.getLogger(OnlineDdlExecutor.class);
+
+    /**
+     * 表示当前算法不被支持, 可以降级重试的错误码
+     * 1845 ER_ALTER_OPERATION_NOT_SUPPORTED
+     * 1846 ER_ALTER_OPERATION_NOT_SUPPORTED_REASON
+     * 1800 ER_UNKNOWN_ALTER_ALGORITHM (低版本不认识 INSTANT)
+     * 1801 ER_UNKNOWN_ALTER_LOCK
+     */
+    private static final int[] FALLBACK_ERRORS = {1845, 1846, 1800, 1801};
+
+    private DataConfig config;
+    private ShadowTableMigrator shadowMigrator;
+
+    public OnlineDdlExecutor(DataConfig config) {
+        this.config = config;
+        this.shadowMigrator = new ShadowTableMigrator(config);
+    }
+
+    /**
+     * 执行一条 DDL
+     * @param statement statement
+     * @param ddl 语句
+     * @throws SQLException 执行失败, 或被策略拒绝
+     */
+    public void execute(Statement statement, DdlStatement ddl) throws SQLException {
+        if (ddl.isShadow()) {
+            shadowMigrator.migrate(statement, ddl);
+            return;
+        }
+        if (!ddl.isAlter()) {
+            run(statement, ddl, ddl.getSql(), DdlAlgorithm.DEFAULT);
+            return;
+        }
+        if (!config.isOnlineDdl()) {
+            // 由 MySQL 自行选择算法, 预估需要复制表 (阻塞写入) 的语句同样受行数限制
+            if (isRejected(ddl)) {
+                throw new SQLException("表[" + ddl.getTableName() + "]预估行数 " + ddl.getTableRows()
+                        + " 超过阻塞 DDL 限制 " + config.getBlockingRowLimit() + ", 拒绝执行预估为 COPY 的变更");
+            }
+            run(statement, ddl, ddl.getSql(), DdlAlgorithm.DEFAULT);
+            return;
+        }
+        try {
+            run(statement, ddl, ddl.getSql() + ",\n\tALGORITHM=INSTANT", DdlAlgorithm.INSTANT);
+            return;
+        } catch (SQLException e) {
+            checkFallback(ddl, DdlAlgorithm.INSTANT, e);
+        }
+        try {
+            run(statement, ddl, ddl.getSql() + ",\n\tALGORITHM=INPLACE, LOCK=NONE", DdlAlgorithm.INPLACE);
+            return;
+        } catch (SQLException e) {
+            checkFallback(ddl, DdlAlgorithm.INPLACE, e);
+            if (!config.isAllowCopy()) {
+                throw new SQLException("表[" + ddl.getTableName() + "]无法以非阻塞方式变更, 且未允许 ALGORITHM=COPY", e);
+            }
+        }
+        if (exceedsBlockingRowLimit(ddl)) {
+            throw new SQLException("表[" + ddl.getTableName() + "]预估行数 " + ddl.getTableRows()
+                    + " 超过阻塞 DDL 限制 " + config.getBlockingRowLimit() + ", 拒绝执行 ALGORITHM=COPY");
+        }
+        run(statement, ddl, ddl.getSql() + ",\n\tALGORITHM=COPY", DdlAlgorithm.COPY);
+    }
+
+    /**
+     * 判断未启用 online DDL 时是否拒绝执行该语句: 预估为阻塞写入的 ALTER (非 INSTANT, 也非可以 LOCK=NONE 的 INPLACE)
+     * 且表的预估行数超过 db.blockingRowLimit; 启用 online DDL 时在实际退回 COPY 前检查
+     * @param ddl 语句
+     * @return 是否拒绝执行
+     */
+    public boolean isRejected(DdlStatement ddl) {
+        return ddl.isAlter() && !config.isOnlineDdl() && ddl.getEstimatedAlgorithm() == DdlAlgorithm.COPY
+                && exceedsBlockingRowLimit(ddl);
+    }
+
+    private boolean exceedsBlockingRowLimit(DdlStatement ddl) {
+        long limit = config.getBlockingRowLimit();
+        return limit > 0 && ddl.getTableRows() > limit;
+    }
+
+    private void run(Statement statement, DdlStatement ddl, String sql, DdlAlgorithm algorithm) throws SQLException {
+        if (config.isShowSql()) {
+            log.info(sql);
+        }
+        long start = System.currentTimeMillis();
+        statement.execute(sql);
+        ddl.setElapsed(System.currentTimeMillis() - start);
+        ddl.setRows(statement.getUpdateCount());
+        ddl.setBatched(false);
+        ddl.setExecutedSql(sql);
+        ddl.setAlgorithm(algorithm);
+        log.debug("OnlineDdlExecutor > table: {}, cost: {}ms", ddl.getTableName(), ddl.getElapsed());
+    }
+
+    /**
+     * 判断是否可以降级重试, 不可以则直接抛出
+     */
+    private void checkFallback(DdlStatement ddl, DdlAlgorithm algorithm, SQLException e) throws SQLException {
+        for (int code : FALLBACK_ERRORS) {
+            if (code == e.getErrorCode()) {
+                log.info("OnlineDdlExecutor > table: {}, ALGORITHM={} not supported: {}",
+                        ddl.getTableName(), algorithm, e.getMessage());
+                return;
+            }
+        }
+        throw e;
+    }
+
+}
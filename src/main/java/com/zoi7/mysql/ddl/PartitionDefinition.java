@@ -0,0 +1,356 @@
+package com.zoi7.mysql.ddl;
+
+import com.zoi7.mysql.comment.Partition;
+import com.zoi7.mysql.comment.PartitionInterval;
+import com.zoi7.mysql.comment.PartitionType;
+import com.zoi7.mysql.schema.TableInfo;
+
+import java.sql.SQLException;
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 表分区定义, 来源于 @Entity(partition)
+ * 生成建表语句中的 PARTITION BY 子句, 按时间自动分区时计算每个分区的名称与边界,
+ * 并检查主键与唯一索引是否包含分区列 (MySQL 的硬性要求)
+ */
+public class PartitionDefinition {
+
+    private static final int MAX_PARTITIONS = 8192; // MySQL 单表分区数上限
+    private static final String DATE_FORMAT = "yyyy-MM-dd";
+    private static final String MAX_VALUE_PARTITION = "pmax"; // 按时间自动分区时最后的 MAXVALUE 分区
+
+    private String tableName; // 表名
+    private PartitionType type; // 分区方式
+    private String column; // 分区列
+    private String expression; // 分区表达式, COLUMNS / KEY 方式为分区列
+    private int partitions; // HASH / KEY 分区数
+    private PartitionInterval interval; // 按时间自动分区的跨度
+    private Date start; // 第一个分区的起始日期, 为空时从当前时间所在的分区开始
+    private int ahead; // 预先创建的分区数
+    private int retention; // 保留的历史分区数, 0 为永久保留
+    private boolean archive; // 删除前是否将过期分区交换到归档表
+    private List<String> definitions = new ArrayList<String>(); // 手动指定的分区定义
+
+    private PartitionDefinition() {
+    }
+
+    /**
+     * @param tableName 表名
+     * @param partition 分区注解
+     * @return 分区定义, 不分区时返回 null
+     * @throws SQLException 分区注解配置错误
+     */
+    public static PartitionDefinition of(String tableName, Partition partition) throws SQLException {
+        if (partition.type() == PartitionType.NONE) {
+            return null;
+        }
+        PartitionDefinition definition = new PartitionDefinition();
+        definition.tableName = tableName;
+        definition.type = partition.type();
+        definition.column = partition.column().trim();
+        definition.partitions = partition.partitions();
+        definition.interval = partition.interval();
+        definition.ahead = Math.max(0, partition.ahead());
+        definition.retention = Math.max(0, partition.retention());
+        definition.archive = partition.archive();
+        for (String value : partition.definitions()) {
+            if (!"".equals(value.trim())) {
+                definition.definitions.add(value.trim());
+            }
+        }
+        if ("".equals(definition.column)) {
+            throw new SQLException("表[" + tableName + "]分区列未指定!");
+        }
+        String expression = partition.expression().trim();
+        switch (definition.type) {
+            case HASH:
+            case KEY:
+                if (definition.partitions <= 0) {
+                    throw new SQLException("表[" + tableName + "]未指定分区数!");
+                }
+                if (definition.interval != PartitionInterval.NONE) {
+                    throw new SQLException("表[" + tableName + "]" + definition.type + " 分区不支持按时间自动分区!");
+                }
+                break;
+            case LIST:
+            case LIST_COLUMNS:
+                if (definition.definitions.isEmpty()) {
+                    throw new SQLException("表[" + tableName + "]未指定分区定义!");
+                }
+                if (definition.interval != PartitionInterval.NONE) {
+                    throw new SQLException("表[" + tableName + "]" + definition.type + " 分区不支持按时间自动分区!");
+                }
+                break;
+            default:
+                if (definition.interval == PartitionInterval.NONE && definition.definitions.isEmpty()) {
+                    throw new SQLException("表[" + tableName + "]未指定分区定义或分区时间跨度!");
+                }
+                if (definition.interval != PartitionInterval.NONE && "".equals(expression)) {
+                    expression = "TO_DAYS(" + definition.column + ")";
+                }
+                break;
+        }
+        if (definition.type == PartitionType.RANGE_COLUMNS || definition.type == PartitionType.LIST_COLUMNS
+                || definition.type == PartitionType.KEY || "".equals(expression)) {
+            expression = definition.column;
+        }
+        definition.expression = expression;
+        if (definition.isInterval() && !columnPattern(definition.column).matcher(expression).find()) {
+            throw new SQLException("表[" + tableName + "]分区表达式 " + expression + " 未包含分区列 " + definition.column);
+        }
+        if (!"".equals(partition.start().trim())) {
+            try {
+                definition.start = new SimpleDateFormat(DATE_FORMAT).parse(partition.start().trim());
+            } catch (ParseException e) {
+                throw new SQLException("表[" + tableName + "]分区起始日期格式错误 (yyyy-MM-dd): " + partition.start());
+            }
+        }
+        return definition;
+    }
+
+    /**
+     * @param now 当前时间, 按时间自动分区时用于计算需要创建的分区
+     * @return 建表语句中的 PARTITION BY 子句
+     * @throws SQLException 分区数超过上限
+     */
+    public String toSql(Date now) throws SQLException {
+        StringBuilder sb = new StringBuilder("PARTITION BY ").append(getMethod())
+                .append("(").append(expression).append(")");
+        if (type == PartitionType.HASH || type == PartitionType.KEY) {
+            return sb.append(" PARTITIONS ").append(partitions).toString();
+        }
+        List<String> values = new ArrayList<String>();
+        if (isInterval()) {
+            Date end = getPeriodStart(now);
+            for (int i = 0; i < ahead; i++) {
+                end = nextPeriod(end);
+            }
+            Date first = getPeriodStart(start == null ? now : start);
+            if (first.after(end)) {
+                end = first;
+            }
+            for (Date period = first; !period.after(end); period = nextPeriod(period)) {
+                values.add(getPartitionSql(period));
+                if (values.size() > MAX_PARTITIONS) {
+                    throw new SQLException("表[" + tableName + "]分区数超过上限 " + MAX_PARTITIONS + ", 请调整分区起始日期或时间跨度");
+                }
+            }
+            // 超出已创建分区的数据写入 MAXVALUE 分区, 不会因没有对应分区而插入失败; 分区维护时通过 REORGANIZE 拆分
+            values.add(getMaxValueSql(MAX_VALUE_PARTITION));
+        } else {
+            for (String definition : definitions) {
+                values.add(definition.toUpperCase().startsWith("PARTITION ") ? definition : "PARTITION " + definition);
+            }
+        }
+        sb.append(" (");
+        for (int i = 0; i < values.size(); i++) {
+            sb.append(i == 0 ? "\n\t" : ",\n\t").append(values.get(i));
+        }
+        return sb.append("\n)").toString();
+    }
+
+    /**
+     * @return 与 INFORMATION_SCHEMA.PARTITIONS.PARTITION_METHOD 一致的分区方式, 如 RANGE COLUMNS
+     */
+    public String getMethod() {
+        return type.name().replace('_', ' ');
+    }
+
+    /**
+     * @return 是否按时间自动分区
+     */
+    public boolean isInterval() {
+        return interval != PartitionInterval.NONE;
+    }
+
+    /**
+     * @param date 时间
+     * @return 时间所在分区的起始时间
+     */
+    public Date getPeriodStart(Date date) {
+        Calendar calendar = Calendar.getInstance();
+        calendar.setTime(date);
+        calendar.set(Calendar.HOUR_OF_DAY, 0);
+        calendar.set(Calendar.MINUTE, 0);
+        calendar.set(Calendar.SECOND, 0);
+        calendar.set(Calendar.MILLISECOND, 0);
+        if (interval == PartitionInterval.MONTH || interval == PartitionInterval.YEAR) {
+            calendar.set(Calendar.DAY_OF_MONTH, 1);
+        }
+        if (interval == PartitionInterval.YEAR) {
+            calendar.set(Calendar.MONTH, Calendar.JANUARY);
+        }
+        return calendar.getTime();
+    }
+
+    /**
+     * @param periodStart 分区的起始时间
+     * @return 下一个分区的起始时间, 即该分区的边界 (不含)
+     */
+    public Date nextPeriod(Date periodStart) {
+        return addPeriods(periodStart, 1);
+    }
+
+    /**
+     * @param periodStart 分区的起始时间
+     * @param periods 分区数, 可为负数
+     * @return 之后 (或之前) 第 periods 个分区的起始时间
+     */
+    public Date addPeriods(Date periodStart, int periods) {
+        Calendar calendar = Calendar.getInstance();
+        calendar.setTime(periodStart);
+        switch (interval) {
+            case DAY:
+                calendar.add(Calendar.DAY_OF_MONTH, periods);
+                break;
+            case MONTH:
+                calendar.add(Calendar.MONTH, periods);
+                break;
+            default:
+                calendar.add(Calendar.YEAR, periods);
+                break;
+        }
+        return calendar.getTime();
+    }
+
+    /**
+     * @param periodStart 分区的起始时间
+     * @return 分区名, 如 p202610
+     */
+    public String getPartitionName(Date periodStart) {
+        return "p" + new SimpleDateFormat(getNamePattern()).format(periodStart);
+    }
+
+    /**
+     * @param partitionName 分区名
+     * @return 按时间自动生成的分区名对应的分区起始时间, 非自动生成的分区名返回 null
+     */
+    public Date parsePartitionName(String partitionName) {
+        String pattern = getNamePattern();
+        if (partitionName == null || partitionName.length() != pattern.length() + 1
+                || !partitionName.matches("[pP]\\d+")) {
+            return null;
+        }
+        SimpleDateFormat format = new SimpleDateFormat(pattern);
+        format.setLenient(false);
+        try {
+            return format.parse(partitionName.substring(1));
+        } catch (ParseException e) {
+            return null;
+        }
+    }
+
+    private String getNamePattern() {
+        return interval == PartitionInterval.DAY ? "yyyyMMdd" :
+                (interval == PartitionInterval.MONTH ? "yyyyMM" : "yyyy");
+    }
+
+    /**
+     * @param periodStart 分区的起始时间
+     * @return 分区定义, 如 PARTITION p202610 VALUES LESS THAN ('2026-11-01')
+     */
+    public String getPartitionSql(Date periodStart) {
+        String boundary = "'" + new SimpleDateFormat(DATE_FORMAT).format(nextPeriod(periodStart)) + "'";
+        if (type == PartitionType.RANGE) {
+            boundary = columnPattern(column).matcher(expression).replaceAll(Matcher.quoteReplacement(boundary));
+        }
+        return "PARTITION " + getPartitionName(periodStart) + " VALUES LESS THAN (" + boundary + ")";
+    }
+
+    /**
+     * @param partitionName 分区名
+     * @return 上限为 MAXVALUE 的分区定义
+     */
+    public String getMaxValueSql(String partitionName) {
+        return "PARTITION " + partitionName + " VALUES LESS THAN "
+                + (type == PartitionType.RANGE ? "MAXVALUE" : "(MAXVALUE)");
+    }
+
+    /**
+     * MySQL 要求主键与所有唯一索引都包含分区列
+     * @param indices 索引
+     * @return 未包含分区列的主键/唯一索引
+     */
+    public List<IndexDefinition> findViolations(Collection<IndexDefinition> indices) {
+        List<IndexDefinition> violations = new ArrayList<IndexDefinition>();
+        for (IndexDefinition index : indices) {
+            if (!index.isPrimary() && !index.isUnique()) {
+                continue;
+            }
+            boolean contains = false;
+            for (String indexColumn : index.getColumns()) {
+                contains |= indexColumn.equalsIgnoreCase(column);
+            }
+            if (!contains) {
+                violations.add(index);
+            }
+        }
+        return violations;
+    }
+
+    /**
+     * @param table 数据库中现有的表结构
+     * @return 现有分区的方式与表达式是否与定义一致
+     */
+    public boolean matches(TableInfo table) {
+        if (!table.isPartitioned()) {
+            return false;
+        }
+        String method = table.getPartitions().get(0).getMethod();
+        String actual = table.getPartitions().get(0).getExpression();
+        return getMethod().equalsIgnoreCase(method) && normalize(expression).equals(normalize(actual));
+    }
+
+    private static String normalize(String expression) {
+        return expression == null ? "" : expression.replace("`", "").replace(" ", "").toLowerCase();
+    }
+
+    private static Pattern columnPattern(String column) {
+        return Pattern.compile("(?<![\\w`])`?" + Pattern.quote(column) + "`?(?![\\w`])", Pattern.CASE_INSENSITIVE);
+    }
+
+    public String getTableName() {
+        return tableName;
+    }
+
+    public PartitionType getType() {
+        return type;
+    }
+
+    public String getColumn() {
+        return column;
+    }
+
+    public String getExpression() {
+        return expression;
+    }
+
+    public PartitionInterval getInterval() {
+        return interval;
+    }
+
+    public int getAhead() {
+        return ahead;
+    }
+
+    public int getRetention() {
+        return retention;
+    }
+
+    public boolean isArchive() {
+        return archive;
+    }
+
+    @Override
+    public String toString() {
+        return getMethod() + "(" + expression + ")" + (isInterval() ? " every " + interval : "");
+    }
+}
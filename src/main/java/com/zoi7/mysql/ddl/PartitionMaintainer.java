@@ -0,0 +1,298 @@
+package com.zoi7.mysql.ddl;
+
+import com.zoi7.mysql.config.DataConfig;
+import com.zoi7.mysql.schema.PartitionInfo;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 按时间分区的表的分区维护
+ * 预先创建当前时间之后 ahead 个分区, 删除超过保留期 (retention) 的分区 (可先交换到归档表),
+ * 删除分区只修改元数据, 代替按时间条件 DELETE 历史数据产生的长事务与大量 undo 日志.
+ * 初始化完成后执行一次, 之后按 db.partitionMaintainMinutes 定时执行
+ */
+public class PartitionMaintainer {
+
+    private static final Logger log = LoggerFactory.getLogger(PartitionMaintainer.class);
+
+    private static final String PARTITIONS_SQL = "SELECT PARTITION_NAME, PARTITION_METHOD, PARTITION_EXPRESSION, " +
+            "PARTITION_DESCRIPTION, TABLE_ROWS FROM INFORMATION_SCHEMA.PARTITIONS " +
+            "WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = ? AND PARTITION_NAME IS NOT NULL " +
+            "ORDER BY PARTITION_ORDINAL_POSITION, SUBPARTITION_ORDINAL_POSITION";
+    private static final String TABLE_EXISTS_SQL = "SELECT 1 FROM INFORMATION_SCHEMA.TABLES " +
+            "WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = ?";
+    private static final int MAX_NAME_LENGTH = 64; // MySQL 表名最大长度
+
+    private DataSource dataSource; // 数据库连接
+    private DataConfig config;
+    private List<PartitionDefinition> definitions; // 需要维护的分区表
+    private ScheduledExecutorService scheduler; // 定时维护线程
+
+    /**
+     * @param dataSource 数据库连接
+     * @param config 配置
+     * @param definitions 需要维护的分区表, 只处理按时间自动分区的表
+     */
+    public PartitionMaintainer(DataSource dataSource, DataConfig config, List<PartitionDefinition> definitions) {
+        this.dataSource = dataSource;
+        this.config = config;
+        this.definitions = new ArrayList<PartitionDefinition>();
+        for (PartitionDefinition definition : definitions) {
+            if (definition.isInterval()) {
+                this.definitions.add(definition);
+            }
+        }
+    }
+
+    /**
+     * 启动定时维护, 首次执行在一个间隔之后
+     */
+    public synchronized void start() {
+        if (scheduler != null || definitions.isEmpty()) {
+            return;
+        }
+        long minutes = Math.max(1, config.getPartitionMaintainMinutes());
+        scheduler = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable r) {
+                Thread thread = new Thread(r, "table-helper-partition");
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+        scheduler.scheduleWithFixedDelay(new Runnable() {
+            @Override
+            public void run() {
+                maintain();
+            }
+        }, minutes, minutes, TimeUnit.MINUTES);
+        log.info("PartitionMaintainer started > tables: {}, interval: {}min", definitions.size(), minutes);
+    }
+
+    /**
+     * 停止定时维护
+     */
+    public synchronized void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            scheduler = null;
+            log.info("PartitionMaintainer stopped");
+        }
+    }
+
+    /**
+     * @return 定时维护是否在运行
+     */
+    public synchronized boolean isRunning() {
+        return scheduler != null;
+    }
+
+    /**
+     * 维护所有分区表, 单表失败不影响其他表
+     */
+    public void maintain() {
+        Date now = new Date();
+        for (PartitionDefinition definition : definitions) {
+            Connection connection = null;
+            try {
+                connection = dataSource.getConnection();
+                maintain(connection, definition, now);
+            } catch (Exception e) {
+                log.error("PartitionMaintainer maintain > table: " + definition.getTableName() + " failed", e);
+            } finally {
+                if (connection != null) {
+                    try {
+                        connection.close();
+                    } catch (SQLException e) {
+                        log.error("PartitionMaintainer maintain > close connection failed", e);
+                    }
+                }
+            }
+        }
+    }
+
+    private void maintain(Connection connection, PartitionDefinition definition, Date now) throws SQLException {
+        String table = definition.getTableName();
+        List<PartitionInfo> partitions = loadPartitions(connection, table);
+        if (partitions.isEmpty()) {
+            log.warn("PartitionMaintainer maintain > table: {} is not partitioned, skip", table);
+            return;
+        }
+        Statement statement = connection.createStatement();
+        try {
+            String addSql = getAddSql(definition, partitions, now);
+            if (addSql != null) {
+                execute(statement, addSql);
+            }
+            for (PartitionInfo partition : getExpired(definition, partitions, now)) {
+                if (definition.isArchive() && !archive(connection, statement, table, partition.getName())) {
+                    continue;
+                }
+                execute(statement, "ALTER TABLE " + table + " DROP PARTITION " + partition.getName());
+                log.info("PartitionMaintainer maintain > table: {}, partition {} dropped, rows: {}",
+                        table, partition.getName(), partition.getRows());
+            }
+        } finally {
+            statement.close();
+        }
+    }
+
+    /**
+     * 生成预先创建分区的语句: 从最后一个按时间命名的分区之后, 直到当前时间之后第 ahead 个分区,
+     * 最后一个分区为 MAXVALUE 时通过 REORGANIZE PARTITION 拆分
+     * @param definition 分区定义
+     * @param partitions 现有分区
+     * @param now 当前时间
+     * @return 语句, 无需创建时返回 null
+     */
+    static String getAddSql(PartitionDefinition definition, List<PartitionInfo> partitions, Date now) {
+        Date target = definition.addPeriods(definition.getPeriodStart(now), definition.getAhead());
+        Date latest = null;
+        for (PartitionInfo partition : partitions) {
+            Date period = definition.parsePartitionName(partition.getName());
+            if (period != null && (latest == null || period.after(latest))) {
+                latest = period;
+            }
+        }
+        List<String> values = new ArrayList<String>();
+        Date period = latest == null ? definition.getPeriodStart(now) : definition.nextPeriod(latest);
+        for (; !period.after(target); period = definition.nextPeriod(period)) {
+            values.add(definition.getPartitionSql(period));
+        }
+        if (values.isEmpty()) {
+            return null;
+        }
+        PartitionInfo last = partitions.get(partitions.size() - 1);
+        boolean maxValue = last.getDescription() != null && last.getDescription().toUpperCase().contains("MAXVALUE");
+        StringBuilder sql = new StringBuilder("ALTER TABLE ").append(definition.getTableName());
+        if (maxValue) {
+            sql.append(" REORGANIZE PARTITION ").append(last.getName()).append(" INTO (");
+            values.add(definition.getMaxValueSql(last.getName()));
+        } else {
+            sql.append(" ADD PARTITION (");
+        }
+        for (int i = 0; i < values.size(); i++) {
+            sql.append(i == 0 ? "" : ", ").append(values.get(i));
+        }
+        return sql.append(")").toString();
+    }
+
+    /**
+     * 找出超过保留期的分区: 按时间命名且早于当前时间所在分区之前第 retention 个分区的分区, 至少保留一个分区
+     * @param definition 分区定义
+     * @param partitions 现有分区
+     * @param now 当前时间
+     * @return 过期分区
+     */
+    static List<PartitionInfo> getExpired(PartitionDefinition definition, List<PartitionInfo> partitions, Date now) {
+        List<PartitionInfo> expired = new ArrayList<PartitionInfo>();
+        if (definition.getRetention() <= 0) {
+            return expired;
+        }
+        Date cutoff = definition.addPeriods(definition.getPeriodStart(now), -definition.getRetention());
+        for (PartitionInfo partition : partitions) {
+            Date period = definition.parsePartitionName(partition.getName());
+            if (period != null && period.before(cutoff)) {
+                expired.add(partition);
+            }
+        }
+        if (!expired.isEmpty() && expired.size() == partitions.size()) {
+            expired.remove(expired.size() - 1);
+        }
+        return expired;
+    }
+
+    /**
+     * 将过期分区的数据交换到归档表 表名_分区名
+     * 归档表已存在时 (如上次交换后删除分区失败), 只有分区已为空才继续删除, 避免将归档数据交换回原表
+     * @return 是否可以删除该分区
+     */
+    private boolean archive(Connection connection, Statement statement, String table, String partition)
+            throws SQLException {
+        String archive = table + "_" + partition;
+        if (archive.length() > MAX_NAME_LENGTH) {
+            throw new SQLException("archive table name too long: " + archive);
+        }
+        if (!tableExists(connection, archive)) {
+            execute(statement, "CREATE TABLE " + archive + " LIKE " + table);
+            execute(statement, "ALTER TABLE " + archive + " REMOVE PARTITIONING");
+            execute(statement, "ALTER TABLE " + table + " EXCHANGE PARTITION " + partition + " WITH TABLE " + archive);
+            log.info("PartitionMaintainer archive > table: {}, partition {} archived to {}", table, partition, archive);
+            return true;
+        }
+        ResultSet rs = statement.executeQuery("SELECT 1 FROM " + table + " PARTITION (" + partition + ") LIMIT 1");
+        try {
+            if (rs.next()) {
+                log.warn("PartitionMaintainer archive > table: {}, archive table {} already exists and partition {} " +
+                        "is not empty, skip", table, archive, partition);
+                return false;
+            }
+        } finally {
+            rs.close();
+        }
+        return true;
+    }
+
+    private static boolean tableExists(Connection connection, String table) throws SQLException {
+        PreparedStatement statement = connection.prepareStatement(TABLE_EXISTS_SQL);
+        try {
+            statement.setString(1, table);
+            ResultSet rs = statement.executeQuery();
+            try {
+                return rs.next();
+            } finally {
+                rs.close();
+            }
+        } finally {
+            statement.close();
+        }
+    }
+
+    private static List<PartitionInfo> loadPartitions(Connection connection, String table) throws SQLException {
+        List<PartitionInfo> partitions = new ArrayList<PartitionInfo>();
+        PreparedStatement statement = connection.prepareStatement(PARTITIONS_SQL);
+        try {
+            statement.setString(1, table);
+            ResultSet rs = statement.executeQuery();
+            try {
+                while (rs.next()) {
+                    String name = rs.getString("PARTITION_NAME");
+                    // 子分区各占一行, 只记录所属分区
+                    if (!partitions.isEmpty() && partitions.get(partitions.size() - 1).getName().equals(name)) {
+                        continue;
+                    }
+                    partitions.add(new PartitionInfo(name, rs.getString("PARTITION_METHOD"),
+                            rs.getString("PARTITION_EXPRESSION"), rs.getString("PARTITION_DESCRIPTION"),
+                            rs.getLong("TABLE_ROWS")));
+                }
+            } finally {
+                rs.close();
+            }
+        } finally {
+            statement.close();
+        }
+        return partitions;
+    }
+
+    private void execute(Statement statement, String sql) throws SQLException {
+        if (config.isShowSql()) {
+            log.info(sql);
+        }
+        statement.execute(sql);
+    }
+
+}
@@ -0,0 +1,439 @@
+package com.zoi7.mysql.ddl;
+
+import com.zoi7.mysql.config.DataConfig;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 影子表变更
+ * 1. CREATE TABLE 影子表 LIKE 原表, 并在影子表上执行 ALTER TABLE (空表, 瞬间完成)
+ * 2. 在原表上创建 INSERT / UPDATE / DELETE 触发器, 将并发写入同步到影子表
+ * 3. 按主键顺序分块 INSERT IGNORE ... SELECT 复制存量数据, 块大小根据每块耗时自适应, 并按配置限流
+ * 4. RENAME TABLE 原表 → 旧表, 影子表 → 原表, 原子切换后删除触发器与旧表
+ * 切换前任一步骤失败都会清理影子表与触发器, 原表不受影响
+ */
+public class ShadowTableMigrator {
+
+    private static final Logger log = LoggerFactory.getLogger(ShadowTableMigrator.class);
+
+    private static final int MIN_CHUNK_SIZE = 100;
+    private static final int MAX_CHUNK_SIZE = 50000;
+    private static final long PROGRESS_INTERVAL = 10000; // 进度日志间隔(毫秒)
+    private static final int RENAME_RETRIES = 3; // RENAME TABLE 等待元数据锁超时的重试次数
+    private static final int RENAME_LOCK_WAIT = 5; // RENAME TABLE 等待元数据锁的超时时间(秒)
+
+    private DataConfig config;
+
+    public ShadowTableMigrator(DataConfig config) {
+        this.config = config;
+    }
+
+    /**
+     * 通过影子表执行变更
+     * @param statement 工作线程的 statement
+     * @param ddl 语句, 需包含变更集合
+     * @throws SQLException 变更失败
+     */
+    public void migrate(Statement statement, DdlStatement ddl) throws SQLException {
+        long start = System.currentTimeMillis();
+        Connection connection = statement.getConnection();
+        String table = ddl.getTableName().trim();
+        String shadow = name(table, "_gho");
+        String old = name(table, "_del");
+        String[] triggers = {name(table, "_ins"), name(table, "_upd"), name(table, "_del_t")};
+        // 清理上次中断残留的影子表与触发器
+        cleanup(statement, shadow, triggers);
+        boolean swapped = false;
+        try {
+            List<String> keys = getPrimaryKey(connection, table);
+            if (keys.isEmpty()) {
+                throw new SQLException("表[" + table + "]没有主键, 无法使用影子表变更");
+            }
+            execute(statement, "CREATE TABLE " + shadow + " LIKE " + table);
+            execute(statement, ddl.getChangeSet().toSql(shadow));
+            List<String> columns = getCommonColumns(connection, table, shadow);
+            createTriggers(statement, table, shadow, triggers, keys, columns);
+            ddl.setRows(copy(connection, table, shadow, keys, columns, ddl.getTableRows()));
+            swap(statement, table, shadow, old);
+            swapped = true;
+        } finally {
+            if (!swapped) {
+                try {
+                    cleanup(statement, shadow, triggers);
+                } catch (SQLException e) {
+                    log.error("ShadowTableMigrator > table: " + table + " cleanup failed", e);
+                }
+            }
+        }
+        // 已切换完成, 清理失败不影响结果
+        try {
+            dropTriggers(statement, triggers);
+            if (config.isShadowKeepOld()) {
+                log.info("ShadowTableMigrator > table: {}, old table kept as {}", table, old);
+            } else {
+                execute(statement, "DROP TABLE IF EXISTS " + old);
+            }
+        } catch (SQLException e) {
+            log.warn("ShadowTableMigrator > table: " + table + " swapped, but cleanup failed", e);
+        }
+        ddl.setExecutedSql(ddl.getChangeSet().toSql(shadow));
+        ddl.setElapsed(System.currentTimeMillis() - start);
+        log.info("ShadowTableMigrator > table: {} migrated, cost: {}ms", table, ddl.getElapsed());
+    }
+
+    /**
+     * 生成辅助对象名, 超过 64 个字符时截断表名部分
+     */
+    private static String name(String table, String suffix) {
+        String name = "_" + table;
+        if (name.length() + suffix.length() > 64) {
+            name = name.substring(0, 64 - suffix.length());
+        }
+        return name + suffix;
+    }
+
+    private void cleanup(Statement statement, String shadow, String[] triggers) throws SQLException {
+        dropTriggers(statement, triggers);
+        execute(statement, "DROP TABLE IF EXISTS " + shadow);
+    }
+
+    private void dropTriggers(Statement statement, String[] triggers) throws SQLException {
+        for (String trigger : triggers) {
+            execute(statement, "DROP TRIGGER IF EXISTS " + trigger);
+        }
+    }
+
+    private List<String> getPrimaryKey(Connection connection, String table) throws SQLException {
+        List<String> keys = new ArrayList<String>();
+        PreparedStatement ps = connection.prepareStatement("SELECT COLUMN_NAME FROM INFORMATION_SCHEMA.STATISTICS " +
+                "WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = ? AND INDEX_NAME = 'PRIMARY' ORDER BY SEQ_IN_INDEX");
+        try {
+            ps.setString(1, table);
+            ResultSet rs = ps.executeQuery();
+            while (rs.next()) {
+                keys.add(rs.getString(1));
+            }
+            rs.close();
+        } finally {
+            ps.close();
+        }
+        return keys;
+    }
+
+    /**
+     * @return 原表与影子表共有的非生成列, 按原表字段顺序
+     */
+    private List<String> getCommonColumns(Connection connection, String table, String shadow) throws SQLException {
+        List<String> columns = getColumns(connection, table);
+        columns.retainAll(getColumns(connection, shadow));
+        return columns;
+    }
+
+    private List<String> getColumns(Connection connection, String table) throws SQLException {
+        List<String> columns = new ArrayList<String>();
+        PreparedStatement ps = connection.prepareStatement("SELECT COLUMN_NAME, EXTRA FROM INFORMATION_SCHEMA.COLUMNS " +
+                "WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = ? ORDER BY ORDINAL_POSITION");
+        try {
+            ps.setString(1, table);
+            ResultSet rs = ps.executeQuery();
+            while (rs.next()) {
+                String extra = rs.getString(2);
+                // 生成列由数据库计算, 不能写入
+                if (extra == null || !extra.toUpperCase().contains("GENERATED")) {
+                    columns.add(rs.getString(1).toLowerCase());
+                }
+            }
+            rs.close();
+        } finally {
+            ps.close();
+        }
+        return columns;
+    }
+
+    private void createTriggers(Statement statement, String table, String shadow, String[] triggers,
+                                List<String> keys, List<String> columns) throws SQLException {
+        for (String sql : triggerSql(table, shadow, triggers, keys, columns)) {
+            execute(statement, sql);
+        }
+    }
+
+    /**
+     * 将原表的并发写入同步到影子表: INSERT 写入新行, UPDATE 按旧主键删除后写入新行, DELETE 按旧主键删除
+     * @return 依次为 INSERT / UPDATE / DELETE 触发器的建立语句
+     */
+    static String[] triggerSql(String table, String shadow, String[] triggers, List<String> keys,
+                               List<String> columns) {
+        String columnList = join(columns, "", ", ");
+        String replace = "REPLACE INTO " + shadow + " (" + columnList + ") VALUES (" + join(columns, "NEW.", ", ") + ")";
+        StringBuilder where = new StringBuilder();
+        for (String key : keys) {
+            where.append(where.length() == 0 ? "" : " AND ").append(key).append(" <=> OLD.").append(key);
+        }
+        String delete = "DELETE IGNORE FROM " + shadow + " WHERE " + where;
+        return new String[]{
+                "CREATE TRIGGER " + triggers[0] + " AFTER INSERT ON " + table + " FOR EACH ROW " + replace,
+                "CREATE TRIGGER " + triggers[1] + " AFTER UPDATE ON " + table
+                        + " FOR EACH ROW BEGIN " + delete + "; " + replace + "; END",
+                "CREATE TRIGGER " + triggers[2] + " AFTER DELETE ON " + table + " FOR EACH ROW " + delete};
+    }
+
+    /**
+     * 查询本块末尾主键: 从上一块的末尾开始, 跳过 offset 行
+     * @param first 是否为第一块, 第一块没有上一块的末尾主键
+     * @return 语句, 参数依次为上一块的末尾主键 (非第一块时) 与 offset
+     */
+    static String boundSql(String table, List<String> keys, boolean first) {
+        String keyList = join(keys, "", ", ");
+        if (first) {
+            return "SELECT " + keyList + " FROM " + table + " ORDER BY " + keyList + " LIMIT 1 OFFSET ?";
+        }
+        return "SELECT " + keyList + " FROM " + table + " WHERE (" + keyList + ") > (" + repeat("?", keys.size())
+                + ") ORDER BY " + keyList + " LIMIT 1 OFFSET ?";
+    }
+
+    /**
+     * 复制一块数据, 主键范围为 (上一块末尾, 本块末尾]
+     * @param lower 是否有下界 (上一块的末尾主键), 第一块没有
+     * @param upper 是否有上界 (本块的末尾主键), 最后一块没有
+     * @return 语句, 参数依次为下界与上界的主键
+     */
+    static String copySql(String table, String shadow, List<String> keys, List<String> columns,
+                          boolean lower, boolean upper) {
+        String keyTuple = "(" + join(keys, "", ", ") + ")";
+        String placeholders = "(" + repeat("?", keys.size()) + ")";
+        String columnList = join(columns, "", ", ");
+        StringBuilder sql = new StringBuilder("INSERT IGNORE INTO " + shadow + " (" + columnList + ") SELECT "
+                + columnList + " FROM " + table + " FORCE INDEX (PRIMARY) WHERE ");
+        if (lower) {
+            sql.append(keyTuple).append(" > ").append(placeholders);
+        }
+        if (upper) {
+            sql.append(lower ? " AND " : "").append(keyTuple).append(" <= ").append(placeholders);
+        }
+        if (!lower && !upper) {
+            sql.append("1 = 1");
+        }
+        return sql.append(" LOCK IN SHARE MODE").toString();
+    }
+
+    /**
+     * @return 原子切换原表与影子表的语句
+     */
+    static String renameSql(String table, String shadow, String old) {
+        return "RENAME TABLE " + table + " TO " + old + ", " + shadow + " TO " + table;
+    }
+
+    /**
+     * 按主键顺序分块复制存量数据
+     * @return 复制的行数
+     */
+    private long copy(Connection connection, String table, String shadow, List<String> keys, List<String> columns,
+                      long estimatedRows) throws SQLException {
+        String boundFirst = boundSql(table, keys, true);
+        String boundNext = boundSql(table, keys, false);
+        int chunkSize = Math.max(MIN_CHUNK_SIZE, Math.min(MAX_CHUNK_SIZE, config.getShadowChunkSize()));
+        long copied = 0;
+        long start = System.currentTimeMillis();
+        long lastProgress = start;
+        Object[] last = null;
+        while (true) {
+            throttle(connection);
+            long chunkStart = System.currentTimeMillis();
+            Object[] end = findBound(connection, last == null ? boundFirst : boundNext, last, chunkSize - 1);
+            List<Object> params = new ArrayList<Object>();
+            if (last != null) {
+                addAll(params, last);
+            }
+            if (end != null) {
+                addAll(params, end);
+            }
+            PreparedStatement ps = connection.prepareStatement(copySql(table, shadow, keys, columns,
+                    last != null, end != null));
+            int rows;
+            try {
+                for (int i = 0; i < params.size(); i++) {
+                    ps.setObject(i + 1, params.get(i));
+                }
+                rows = ps.executeUpdate();
+            } finally {
+                ps.close();
+            }
+            copied += rows;
+            long now = System.currentTimeMillis();
+            chunkSize = adjustChunkSize(chunkSize, now - chunkStart);
+            if (now - lastProgress >= PROGRESS_INTERVAL || end == null) {
+                lastProgress = now;
+                logProgress(table, copied, estimatedRows, now - start);
+            }
+            if (end == null) {
+                return copied;
+            }
+            last = end;
+            if (config.getShadowChunkSleep() > 0) {
+                sleep(config.getShadowChunkSleep());
+            }
+        }
+    }
+
+    /**
+     * @return 自 last 之后第 offset+1 行的主键, 剩余行数不足时返回 null
+     */
+    private Object[] findBound(Connection connection, String sql, Object[] last, int offset) throws SQLException {
+        PreparedStatement ps = connection.prepareStatement(sql);
+        try {
+            int index = 1;
+            if (last != null) {
+                for (Object value : last) {
+                    ps.setObject(index++, value);
+                }
+            }
+            ps.setInt(index, offset);
+            ResultSet rs = ps.executeQuery();
+            try {
+                if (!rs.next()) {
+                    return null;
+                }
+                Object[] bound = new Object[rs.getMetaData().getColumnCount()];
+                for (int i = 0; i < bound.length; i++) {
+                    bound[i] = rs.getObject(i + 1);
+                }
+                return bound;
+            } finally {
+                rs.close();
+            }
+        } finally {
+            ps.close();
+        }
+    }
+
+    /**
+     * 根据本块耗时调整下一块的大小, 使每块耗时接近目标值, 单次最多放大/缩小一倍
+     */
+    int adjustChunkSize(int chunkSize, long elapsed) {
+        long target = config.getShadowChunkMillis();
+        if (target <= 0) {
+            return chunkSize;
+        }
+        double ratio = elapsed <= 0 ? 2 : (double) target / elapsed;
+        ratio = Math.max(0.5, Math.min(2, ratio));
+        return (int) Math.max(MIN_CHUNK_SIZE, Math.min(MAX_CHUNK_SIZE, chunkSize * ratio));
+    }
+
+    /**
+     * Threads_running 超过配置值时暂停复制, 直到负载回落
+     */
+    private void throttle(Connection connection) throws SQLException {
+        int max = config.getShadowMaxThreadsRunning();
+        if (max <= 0) {
+            return;
+        }
+        while (true) {
+            long running = 0;
+            Statement statement = connection.createStatement();
+            try {
+                ResultSet rs = statement.executeQuery("SHOW GLOBAL STATUS LIKE 'Threads_running'");
+                if (rs.next()) {
+                    running = rs.getLong(2);
+                }
+                rs.close();
+            } finally {
+                statement.close();
+            }
+            if (running <= max) {
+                return;
+            }
+            log.info("ShadowTableMigrator throttle > Threads_running: {} > {}, pause", running, max);
+            sleep(1000);
+        }
+    }
+
+    private void logProgress(String table, long copied, long estimatedRows, long elapsed) {
+        double rate = elapsed <= 0 ? 0 : copied * 1000.0 / elapsed;
+        String eta = "-";
+        if (rate > 0 && estimatedRows > copied) {
+            eta = ((long) ((estimatedRows - copied) / rate)) + "s";
+        }
+        String percent = estimatedRows > 0 ? String.format("%.1f%%", Math.min(100.0, copied * 100.0 / estimatedRows)) : "-";
+        log.info("ShadowTableMigrator copy > table: {}, copied: {}/{} ({}), rate: {} rows/s, elapsed: {}s, eta: {}",
+                table, copied, estimatedRows, percent, (long) rate, elapsed / 1000, eta);
+    }
+
+    /**
+     * 原子切换, 等待元数据锁超时时重试
+     */
+    private void swap(Statement statement, String table, String shadow, String old) throws SQLException {
+        execute(statement, "DROP TABLE IF EXISTS " + old);
+        long lockWait = 0;
+        ResultSet rs = statement.executeQuery("SELECT @@SESSION.lock_wait_timeout");
+        if (rs.next()) {
+            lockWait = rs.getLong(1);
+        }
+        rs.close();
+        execute(statement, "SET SESSION lock_wait_timeout = " + RENAME_LOCK_WAIT);
+        try {
+            for (int i = 1; ; i++) {
+                try {
+                    execute(statement, renameSql(table, shadow, old));
+                    return;
+                } catch (SQLException e) {
+                    // 1205: Lock wait timeout exceeded
+                    if (e.getErrorCode() != 1205 || i >= RENAME_RETRIES) {
+                        throw e;
+                    }
+                    log.warn("ShadowTableMigrator swap > table: {}, lock wait timeout, retry {}", table, i);
+                }
+            }
+        } finally {
+            if (lockWait > 0) {
+                execute(statement, "SET SESSION lock_wait_timeout = " + lockWait);
+            }
+        }
+    }
+
+    private void execute(Statement statement, String sql) throws SQLException {
+        if (config.isShowSql()) {
+            log.info(sql);
+        }
+        statement.execute(sql);
+    }
+
+    private static void sleep(long millis) throws SQLException {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("shadow migration interrupted");
+        }
+    }
+
+    private static void addAll(List<Object> list, Object[] values) {
+        for (Object value : values) {
+            list.add(value);
+        }
+    }
+
+    private static String join(List<String> values, String prefix, String separator) {
+        StringBuilder sb = new StringBuilder();
+        for (String value : values) {
+            sb.append(sb.length() == 0 ? "" : separator).append(prefix).append(value);
+        }
+        return sb.toString();
+    }
+
+    private static String repeat(String value, int count) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            sb.append(i == 0 ? "" : ", ").append(value);
+        }
+        return sb.toString();
+    }
+
+}
@@ -0,0 +1,115 @@
+package com.zoi7.mysql.ddl;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 单表的待变更集合
+ * 同一张表的所有变更合并为一条 ALTER TABLE 语句, 保证每次部署每张表最多重建一次
+ */
+public class TableChangeSet {
+
+    private String tableName; // 表名
+    private List<String> clauses = new ArrayList<String>(); // 变更子句
+    private List<ChangeType> types = new ArrayList<ChangeType>(); // 变更子句的类型, 与 clauses 一一对应
+
+    public TableChangeSet(String tableName) {
+        this.tableName = tableName;
+    }
+
+    /**
+     * 新增字段
+     * @param columnSql 字段定义
+     */
+    public void addColumn(String columnSql) {
+        addColumn(columnSql, ChangeType.ADD_COLUMN);
+    }
+
+    /**
+     * 新增字段
+     * @param columnSql 字段定义
+     * @param type 变更类型, 如 {@link ChangeType#ADD_STORED_COLUMN}
+     */
+    public void addColumn(String columnSql, ChangeType type) {
+        add(type, "ADD COLUMN " + columnSql.trim());
+    }
+
+    /**
+     * 新增索引
+     * @param indexSql 索引定义, 如 INDEX name(column)
+     */
+    public void addIndex(String indexSql) {
+        add(ChangeType.ADD_INDEX, "ADD " + indexSql.trim());
+    }
+
+    /**
+     * 删除索引
+     * @param indexName 索引名
+     */
+    public void dropIndex(String indexName) {
+        add(ChangeType.DROP_INDEX, "DROP INDEX " + indexName);
+    }
+
+    /**
+     * 修改字段
+     * @param columnSql 完整的字段定义
+     * @param type 变更类型
+     */
+    public void modifyColumn(String columnSql, ChangeType type) {
+        add(type, "MODIFY COLUMN " + columnSql.trim());
+    }
+
+    /**
+     * 修改表选项
+     * @param optionSql 表选项, 如 ROW_FORMAT=COMPRESSED
+     * @param type 变更类型
+     */
+    public void tableOption(String optionSql, ChangeType type) {
+        add(type, optionSql.trim());
+    }
+
+    private void add(ChangeType type, String clause) {
+        this.types.add(type);
+        this.clauses.add(clause);
+    }
+
+    public String getTableName() {
+        return tableName;
+    }
+
+    public List<String> getClauses() {
+        return clauses;
+    }
+
+    public List<ChangeType> getTypes() {
+        return types;
+    }
+
+    public boolean isEmpty() {
+        return clauses.isEmpty();
+    }
+
+    /**
+     * @return 合并后的 ALTER TABLE 语句
+     */
+    public String toSql() {
+        return toSql(tableName);
+    }
+
+    /**
+     * @param targetTable 执行变更的表, 如影子表
+     * @return 作用于指定表的 ALTER TABLE 语句
+     */
+    public String toSql(String targetTable) {
+        StringBuilder sql = new StringBuilder("ALTER TABLE ").append(targetTable);
+        for (int i = 0; i < clauses.size(); i++) {
+            sql.append(i == 0 ? "\n\t" : ",\n\t").append(clauses.get(i));
+        }
+        return sql.toString();
+    }
+
+    @Override
+    public String toString() {
+        return toSql();
+    }
+}
@@ -0,0 +1,28 @@
+package com.zoi7.mysql.ddl;
+
+/**
+ * 单张表检测或变更失败的记录
+ */
+public class TableFailure {
+
+    private String tableName; // 表名
+    private Throwable cause; // 失败原因
+
+    public TableFailure(String tableName, Throwable cause) {
+        this.tableName = tableName;
+        this.cause = cause;
+    }
+
+    public String getTableName() {
+        return tableName;
+    }
+
+    public Throwable getCause() {
+        return cause;
+    }
+
+    @Override
+    public String toString() {
+        return tableName + ": " + cause;
+    }
+}
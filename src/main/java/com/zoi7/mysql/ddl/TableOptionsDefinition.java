@@ -0,0 +1,168 @@
+package com.zoi7.mysql.ddl;
+
+import com.zoi7.mysql.comment.RowFormat;
+import com.zoi7.mysql.comment.TableOptions;
+import com.zoi7.mysql.schema.TableInfo;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 表存储选项定义, 来源于 @Entity(options)
+ * 生成建表语句中的表选项, 并与数据库中现有表的 ENGINE / ROW_FORMAT / CREATE_OPTIONS / AUTO_INCREMENT 比对,
+ * 只比对表实体中指定了的选项
+ */
+public class TableOptionsDefinition {
+
+    private String engine; // 存储引擎, 未指定为 null
+    private RowFormat rowFormat; // 行格式
+    private int keyBlockSize; // 压缩页大小(KB), 0 为未指定
+    private String compression; // 透明页压缩算法, 未指定为 null
+    private int statsPersistent; // 是否持久化统计信息, -1 为未指定
+    private int statsSamplePages; // 统计信息采样页数, 0 为未指定
+    private long autoIncrement; // 自增起始值, 0 为未指定
+
+    private TableOptionsDefinition() {
+    }
+
+    /**
+     * @param options 表选项注解
+     * @return 表选项定义
+     */
+    public static TableOptionsDefinition of(TableOptions options) {
+        TableOptionsDefinition definition = new TableOptionsDefinition();
+        definition.engine = "".equals(options.engine().trim()) ? null : options.engine().trim();
+        definition.rowFormat = options.rowFormat();
+        definition.keyBlockSize = options.keyBlockSize();
+        definition.compression = "".equals(options.compression().trim()) ? null : options.compression().trim();
+        definition.statsPersistent = options.statsPersistent();
+        definition.statsSamplePages = options.statsSamplePages();
+        definition.autoIncrement = options.autoIncrement();
+        return definition;
+    }
+
+    /**
+     * @return 建表语句中的表选项, 如 ENGINE=InnoDB ROW_FORMAT=COMPRESSED KEY_BLOCK_SIZE=8, 未指定任何选项时为空字符串
+     */
+    public String toSql() {
+        StringBuilder sb = new StringBuilder();
+        for (String option : getOptions()) {
+            sb.append(sb.length() == 0 ? "" : " ").append(option);
+        }
+        return sb.toString();
+    }
+
+    private List<String> getOptions() {
+        List<String> options = new ArrayList<String>();
+        if (engine != null) {
+            options.add(engineSql());
+        }
+        if (rowFormat != RowFormat.NONE) {
+            options.add(rowFormatSql());
+        }
+        if (keyBlockSize > 0) {
+            options.add(keyBlockSizeSql());
+        }
+        if (compression != null) {
+            options.add(compressionSql());
+        }
+        if (statsPersistent >= 0) {
+            options.add(statsPersistentSql());
+        }
+        if (statsSamplePages > 0) {
+            options.add(statsSamplePagesSql());
+        }
+        if (autoIncrement > 0) {
+            options.add(autoIncrementSql());
+        }
+        return options;
+    }
+
+    /**
+     * 比对表选项, 不一致的选项加入变更集合
+     * @param table 数据库中现有的表结构
+     * @param changeSet 表的变更集合
+     * @return 差异描述
+     */
+    public List<String> compare(TableInfo table, TableChangeSet changeSet) {
+        List<String> differences = new ArrayList<String>();
+        if (engine != null && !engine.equalsIgnoreCase(table.getEngine())) {
+            changeSet.tableOption(engineSql(), ChangeType.MODIFY_ENGINE);
+            differences.add("engine " + table.getEngine() + " → " + engine);
+        }
+        if (rowFormat != RowFormat.NONE && !rowFormat.name().equalsIgnoreCase(table.getRowFormat())) {
+            changeSet.tableOption(rowFormatSql(), ChangeType.MODIFY_ROW_FORMAT);
+            differences.add("row_format " + table.getRowFormat() + " → " + rowFormat);
+        }
+        if (keyBlockSize > 0 && keyBlockSize != parseInt(table.getCreateOption("key_block_size"), 0)) {
+            changeSet.tableOption(keyBlockSizeSql(), ChangeType.MODIFY_ROW_FORMAT);
+            differences.add("key_block_size " + table.getCreateOption("key_block_size") + " → " + keyBlockSize);
+        }
+        if (compression != null) {
+            String actual = table.getCreateOption("compression");
+            if (!compression.equalsIgnoreCase(actual == null ? "None" : actual)) {
+                changeSet.tableOption(compressionSql(), ChangeType.MODIFY_TABLE_OPTION);
+                differences.add("compression " + actual + " → " + compression + " (run OPTIMIZE TABLE to compress existing pages)");
+            }
+        }
+        if (statsPersistent >= 0 && statsPersistent != parseInt(table.getCreateOption("stats_persistent"), -1)) {
+            changeSet.tableOption(statsPersistentSql(), ChangeType.MODIFY_TABLE_OPTION);
+            differences.add("stats_persistent " + table.getCreateOption("stats_persistent") + " → " + statsPersistent);
+        }
+        if (statsSamplePages > 0 && statsSamplePages != parseInt(table.getCreateOption("stats_sample_pages"), 0)) {
+            changeSet.tableOption(statsSamplePagesSql(), ChangeType.MODIFY_TABLE_OPTION);
+            differences.add("stats_sample_pages " + table.getCreateOption("stats_sample_pages") + " → " + statsSamplePages);
+        }
+        // 自增值只会随写入增长, 仅在小于指定值时修改; 没有自增字段的表 AUTO_INCREMENT 为 NULL, 不做比较
+        if (autoIncrement > 0 && table.hasAutoIncrementColumn() && table.getAutoIncrement() != null
+                && table.getAutoIncrement() < autoIncrement) {
+            changeSet.tableOption(autoIncrementSql(), ChangeType.MODIFY_TABLE_OPTION);
+            differences.add("auto_increment " + table.getAutoIncrement() + " → " + autoIncrement);
+        }
+        return differences;
+    }
+
+    private static int parseInt(String value, int defaultValue) {
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            return defaultValue;
+        }
+    }
+
+    private String engineSql() {
+        return "ENGINE=" + engine;
+    }
+
+    private String rowFormatSql() {
+        return "ROW_FORMAT=" + rowFormat.name();
+    }
+
+    private String keyBlockSizeSql() {
+        return "KEY_BLOCK_SIZE=" + keyBlockSize;
+    }
+
+    private String compressionSql() {
+        return "COMPRESSION='" + compression + "'";
+    }
+
+    private String statsPersistentSql() {
+        return "STATS_PERSISTENT=" + statsPersistent;
+    }
+
+    private String statsSamplePagesSql() {
+        return "STATS_SAMPLE_PAGES=" + statsSamplePages;
+    }
+
+    private String autoIncrementSql() {
+        return "AUTO_INCREMENT=" + autoIncrement;
+    }
+
+    @Override
+    public String toString() {
+        return toSql();
+    }
+}
@@ -0,0 +1,53 @@
+package com.zoi7.mysql.ddl;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 单张表检测后得出的待执行语句
+ */
+public class TablePlan {
+
+    private String tableName; // 表名
+    private List<DdlStatement> statements = new ArrayList<DdlStatement>();
+    private List<String> warnings = new ArrayList<String>(); // 检测到但未处理的差异
+
+    public TablePlan(String tableName) {
+        this.tableName = tableName;
+    }
+
+    public void add(DdlStatement statement) {
+        if (statement != null) {
+            this.statements.add(statement);
+        }
+    }
+
+    public void addWarning(String warning) {
+        this.warnings.add(warning);
+    }
+
+    public List<String> getWarnings() {
+        return warnings;
+    }
+
+    public String getTableName() {
+        return tableName;
+    }
+
+    public List<DdlStatement> getStatements() {
+        return statements;
+    }
+
+    public boolean isEmpty() {
+        return statements.isEmpty();
+    }
+
+    @Override
+    public String toString() {
+        return "TablePlan{" +
+                "tableName='" + tableName + '\'' +
+                ", statements=" + statements.size() +
+                ", warnings=" + warnings.size() +
+                '}';
+    }
+}
@@ -0,0 +1,20 @@
+package com.zoi7.mysql.ddl;
+
+/**
+ * 单张表的检测任务, 由 {@link DdlEngine} 的工作线程执行
+ */
+public interface TableTask {
+
+    /**
+     * @return 表名
+     */
+    String getTableName();
+
+    /**
+     * 检测表结构, 得出需要执行的语句
+     * @return 待执行语句, 无需变更时返回空计划
+     * @throws Exception 检测失败
+     */
+    TablePlan check() throws Exception;
+
+}
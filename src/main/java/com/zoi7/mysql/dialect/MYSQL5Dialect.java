@@ -1,22 +1,30 @@
 package com.zoi7.mysql.dialect;
 
-import com.zoi7.mysql.analysis.ScanJar;
-import com.zoi7.mysql.analysis.ScanPackage;
+import com.zoi7.mysql.analysis.EntityModel;
 import com.zoi7.mysql.comment.*;
 import com.zoi7.mysql.config.Config;
 import com.zoi7.mysql.config.DataConfig;
-import com.zoi7.mysql.driverManager.DriverManagerDataSource;
+import com.zoi7.mysql.ddl.*;
+import com.zoi7.mysql.driverManager.PooledDataSource;
+import com.zoi7.mysql.monitor.FlightEvent;
+import com.zoi7.mysql.monitor.SchemaSync;
+import com.zoi7.mysql.report.MigrationPhase;
+import com.zoi7.mysql.report.MigrationReport;
+import com.zoi7.mysql.schema.ColumnInfo;
+import com.zoi7.mysql.schema.EntityFingerprint;
+import com.zoi7.mysql.schema.IndexInfo;
+import com.zoi7.mysql.schema.FingerprintStore;
+import com.zoi7.mysql.schema.SchemaSnapshot;
+import com.zoi7.mysql.schema.TableInfo;
 import com.zoi7.mysql.util.FieldUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import javax.sql.DataSource;
+import java.io.File;
+import java.io.IOException;
 import java.sql.*;
-import java.util.ArrayList;
-import java.util.HashSet;
-import java.util.List;
-import java.util.Set;
-import java.util.regex.Pattern;
+import java.util.*;
 
 import static com.zoi7.mysql.comment.FieldType.*;
 import static com.zoi7.mysql.config.DataConfig.*;
@@ -25,91 +33,366 @@ public class MYSQL5Dialect {
 
     private static final Logger log = LoggerFactory.getLogger(MYSQL5Dialect.class);
 
-    private List<String> sqlList = new ArrayList<String>();
-    private List<String> alterUpdates = new ArrayList<String>();
-
     private DataConfig config;
-    private DataSource dataSource; // 数据库连接
-    private Connection connect;
+    private DataSource dataSource; // 数据库连接池
+    private boolean ownDataSource; // 连接池是否由本类创建, 外部传入的连接池不会被关闭
+    private SchemaSnapshot snapshot; // 表结构快照, 仅 update/plan 模式
+    private DdlEstimator estimator; // DDL 算法预估, 仅 update/plan 模式
+    private MigrationPlan plan; // 迁移计划, 仅 plan 模式
+    private PartitionMaintainer partitionMaintainer; // 分区维护, 仅开启 db.partitionMaintain 时
+    private List<TableFailure> failures = new ArrayList<TableFailure>(); // 检测或变更失败的表
+    private Exception error; // 导致初始化中止的异常
+    private MigrationReport report; // 初始化报告
 
-    {
-        this.config = Config.config;
-        this.dataSource = new DriverManagerDataSource(config);
+    public MYSQL5Dialect() {
+        this(null);
+    }
+
+    /**
+     * @param dataSource 外部管理的连接池 (如应用自身的连接池), 连接用完即归还, 不会被关闭;
+     *                   为 null 时按配置创建连接池, 初始化结束后关闭
+     */
+    public MYSQL5Dialect(DataSource dataSource) {
+        this(Config.config, dataSource);
+    }
+
+    /**
+     * 使用独立的配置, 不读取 Config.config, 多个实例可在同一 JVM 中并发初始化不同的数据源
+     * @param config 配置
+     * @param dataSource 外部管理的连接池, 为 null 时按配置创建连接池, 初始化结束后关闭
+     */
+    public MYSQL5Dialect(DataConfig config, DataSource dataSource) {
+        this.config = config;
+        this.ownDataSource = dataSource == null;
+        this.dataSource = dataSource == null ? new PooledDataSource(config) : dataSource;
     }
 
     /**
      * 初始化入口
+     * @return 初始化报告
      */
-    public void init() {
+    public MigrationReport init() {
+        return init(null);
+    }
+
+    /**
+     * 初始化入口
+     * @param model 已扫描的表实体模型, 多个数据源可共享同一模型; 为 null 时按配置扫描
+     * @return 初始化报告
+     */
+    public MigrationReport init(EntityModel model) {
+        this.report = new MigrationReport(this.config.getMigrationListener());
+        long start = System.currentTimeMillis();
+        long phaseStart = start;
+        Connection connect = null;
         try {
             if (TYPE_NONE.equals(this.config.getType())) {
-                return;
-            }
-            this.connect = this.dataSource.getConnection();
-            Set<Class<?>> clazzSet = new HashSet<Class<?>>();
-            for (String package1 : this.config.getPackages()) {
-                clazzSet.addAll(ScanPackage.getClassesByPackageName(package1));
-                if (this.config.isScanJar()) {
-                    clazzSet.addAll(ScanJar.getClassesByPackageName(package1));
+                return this.report;
+            }
+            if (!TYPE_CREATE.equals(this.config.getType()) && !TYPE_UPDATE.equals(this.config.getType())
+                    && !TYPE_PLAN.equals(this.config.getType())) {
+                throw new IllegalStateException("unknown db.auto: " + this.config.getType());
+            }
+            if (model == null) {
+                model = EntityModel.scan(this.config);
+                phaseStart = phase(MigrationPhase.SCAN, phaseStart);
+            }
+            log.info("MYSQL5Dialect init > auto : {}, entities : {}", this.config.getType(), model.getEntities().size());
+            List<EntityTask> tasks = new ArrayList<EntityTask>();
+            for (Class<?> clazz : model.getEntities()) {
+                tasks.add(new EntityTask(clazz, model.getFingerprint(clazz)));
+            }
+            FingerprintStore fingerprintStore = this.config.isFingerprint() ?
+                    new FingerprintStore(this.config.getFingerprintTable()) : null;
+            boolean planOnly = TYPE_PLAN.equals(this.config.getType());
+            if (TYPE_UPDATE.equals(this.config.getType()) || planOnly) {
+                connect = this.dataSource.getConnection();
+                // 一次性读取当前库的表结构, 之后的比对均在内存中完成
+                this.snapshot = SchemaSnapshot.load(connect);
+                this.estimator = new DdlEstimator(this.snapshot.getVersion());
+                // 跳过指纹未变化且表仍存在的表实体
+                if (fingerprintStore != null) {
+                    tasks = skipUnchanged(tasks, fingerprintStore.load(connect));
                 }
-            }
-            log.info("MYSQL5Dialect init > packagesSize: {}, auto : {}, classListSize : {}",
-                    this.config.getPackages().length, this.config.getType(), clazzSet.size());
-            if (TYPE_CREATE.equals(this.config.getType())) {
-                create(clazzSet);
-            } else if (TYPE_UPDATE.equals(this.config.getType())) {
-                update(clazzSet);
-            }
-            this.sqlList.addAll(this.alterUpdates);
-            Statement statement = this.connect.createStatement();
-            for (String sql : this.sqlList) {
-                if (this.config.isShowSql()) {
-                    log.info(sql);
+                connect.close();
+                connect = null;
+                phaseStart = phase(MigrationPhase.METADATA, phaseStart);
+            }
+            // plan 模式只生成迁移计划, 不执行任何语句
+            if (planOnly) {
+                this.plan = plan(tasks);
+                phase(MigrationPhase.PLAN, phaseStart);
+                return this.report;
+            }
+            // 所有表实体均未变化时跳过同步与指纹, 仍需执行分区维护
+            if (tasks.isEmpty()) {
+                this.failures = new ArrayList<TableFailure>();
+                log.info("MYSQL5Dialect init finished, all entities unchanged...");
+            } else {
+                this.failures = new DdlEngine(this.dataSource, this.config, this.report).execute(tasks);
+                phaseStart = phase(MigrationPhase.SYNC, phaseStart);
+                if (this.failures.isEmpty()) {
+                    log.info("MYSQL5Dialect init finished...");
+                } else {
+                    log.error("MYSQL5Dialect init finished, {} of {} tables failed:", this.failures.size(), tasks.size());
+                    for (TableFailure failure : this.failures) {
+                        log.error("  > {}", failure);
+                    }
                 }
-                statement.execute(sql);
             }
-            this.connect.close();
-            log.info("MYSQL5Dialect init finished...");
+            // 记录成功的表实体指纹
+            if (fingerprintStore != null && !tasks.isEmpty()) {
+                connect = this.dataSource.getConnection();
+                saveFingerprints(tasks, fingerprintStore, connect);
+                phaseStart = phase(MigrationPhase.FINGERPRINT, phaseStart);
+            }
+            // 维护按时间分区的表, 包括未检测表结构的表实体
+            if (this.config.isPartitionMaintain()) {
+                this.partitionMaintainer = new PartitionMaintainer(this.dataSource, this.config,
+                        getPartitionDefinitions(model.getClasses()));
+                this.partitionMaintainer.maintain();
+                this.partitionMaintainer.start();
+                phase(MigrationPhase.PARTITION, phaseStart);
+            }
         } catch (Exception e) {
-            e.printStackTrace();
+            this.error = e;
             log.error("init throw an error", e);
         } finally {
-            if (this.connect != null) {
+            if (connect != null) {
                 try {
-                    this.connect.close();
+                    connect.close();
                 } catch (Exception e) {
                     log.error("init > close connection failed", e);
                 }
             }
+            // 分区维护仍在运行时保留连接池
+            if (this.partitionMaintainer == null || !this.partitionMaintainer.isRunning()) {
+                closeDataSource();
+            }
+            this.report.finish(System.currentTimeMillis() - start, this.failures, this.error);
+            log.debug("MYSQL5Dialect init report > {}", this.report);
+            if (!TYPE_NONE.equals(this.config.getType())) {
+                SchemaSync.get().finished(this.report);
+            }
         }
+        return this.report;
     }
 
     /**
-     * 重新创建表
-     * @param clazzSet 表实体列表
+     * 记录阶段耗时
+     * @return 下一阶段的开始时间
+     */
+    private long phase(MigrationPhase phase, long phaseStart) {
+        long now = System.currentTimeMillis();
+        this.report.phase(phase, now - phaseStart);
+        return now;
+    }
+
+    /**
+     * 停止分区维护并关闭本类创建的连接池
+     */
+    public void close() {
+        if (this.partitionMaintainer != null) {
+            this.partitionMaintainer.stop();
+        }
+        closeDataSource();
+    }
+
+    private void closeDataSource() {
+        if (this.ownDataSource) {
+            ((PooledDataSource) this.dataSource).close();
+        }
+    }
+
+    /**
+     * @return 检测或变更失败的表
+     */
+    public List<TableFailure> getFailures() {
+        return failures;
+    }
+
+    /**
+     * @return 最近一次初始化的报告, 未初始化时为 null
+     */
+    public MigrationReport getReport() {
+        return report;
+    }
+
+    /**
+     * @return 导致初始化中止的异常, 正常结束时为 null
+     */
+    public Exception getError() {
+        return error;
+    }
+
+    /**
+     * @return 分区维护, 未开启 db.partitionMaintain 时为 null
+     */
+    public PartitionMaintainer getPartitionMaintainer() {
+        return partitionMaintainer;
+    }
+
+    /**
+     * 获取表实体中按时间自动分区的定义
+     * @param clazzSet 扫描到的类
+     * @return 分区定义
      */
-    private void create(Set<Class<?>> clazzSet) throws SQLException {
-        log.debug("MYSQL5Dialect create...");
+    private List<PartitionDefinition> getPartitionDefinitions(Set<Class<?>> clazzSet) {
+        List<PartitionDefinition> definitions = new ArrayList<PartitionDefinition>();
         for (Class<?> clazz : clazzSet) {
-            Entity entity; // 表实体
-            String tableName;
-            // 是否表实体
             if (!clazz.isAnnotationPresent(Entity.class)) {
                 continue;
             }
-            // 是否需要检测表结构, 如果不需, 则跳过该表实体
-            if (!(entity = clazz.getAnnotation(Entity.class)).check()) {
-                continue;
+            Entity entity = clazz.getAnnotation(Entity.class);
+            try {
+                PartitionDefinition definition = PartitionDefinition.of(entity.tableName(), entity.partition());
+                if (definition != null && definition.isInterval()) {
+                    definitions.add(definition);
+                }
+            } catch (SQLException e) {
+                log.error("MYSQL5Dialect getPartitionDefinitions > " + clazz.getName(), e);
             }
-            // 验证表名
-            if ("".equals((tableName = entity.tableName()).trim())) {
-                throw new RuntimeException(clazz.getName() + " 未指定或指定了错误的表名 : " + tableName);
+        }
+        return definitions;
+    }
+
+    /**
+     * @return 迁移计划, 仅 plan 模式
+     */
+    public MigrationPlan getPlan() {
+        return plan;
+    }
+
+    /**
+     * 生成迁移计划
+     * @param tasks 表任务
+     * @return 迁移计划
+     */
+    private MigrationPlan plan(List<EntityTask> tasks) throws IOException {
+        MigrationPlan plan = new MigrationPlan(this.snapshot.getVersion());
+        for (EntityTask task : tasks) {
+            long start = System.currentTimeMillis();
+            try {
+                TablePlan tablePlan = task.check();
+                plan.add(tablePlan);
+                this.report.table(task.getTableName(), System.currentTimeMillis() - start,
+                        tablePlan.getStatements().size(), null);
+            } catch (Exception e) {
+                log.error("MYSQL5Dialect plan > table: " + task.getTableName() + " failed", e);
+                plan.addFailure(new TableFailure(task.getTableName(), e));
+                this.report.table(task.getTableName(), System.currentTimeMillis() - start, 0, e);
+            }
+        }
+        log.info("MYSQL5Dialect plan finished, tables: {}, statements: {}, rebuilds: {}\n{}",
+                plan.getTables().size(), plan.getStatements().size(), plan.getRebuilds().size(), plan.format());
+        if (this.config.getPlanFile() != null) {
+            plan.write(new File(this.config.getPlanFile()));
+            log.info("MYSQL5Dialect plan > written to {}", this.config.getPlanFile());
+        }
+        return plan;
+    }
+
+    /**
+     * 过滤掉指纹与已保存指纹一致的表实体
+     * 指纹中加入影响 DDL 的配置与服务器版本, 二者变化后重新检测; 表已不存在时同样重新检测
+     * @param tasks 表任务
+     * @param stored 已保存的指纹
+     * @return 需要检测的表任务
+     */
+    private List<EntityTask> skipUnchanged(List<EntityTask> tasks, Map<String, String> stored) {
+        String settings = getDdlSettings();
+        List<EntityTask> changed = new ArrayList<EntityTask>();
+        for (EntityTask task : tasks) {
+            task.fingerprint = EntityFingerprint.withSettings(task.fingerprint, settings);
+            if (!task.fingerprint.equals(stored.get(task.getTableName().trim().toLowerCase()))
+                    || !this.snapshot.hasTable(task.getTableName().trim())) {
+                changed.add(task);
+            }
+        }
+        log.info("MYSQL5Dialect skipUnchanged > entities: {}, changed: {}", tasks.size(), changed.size());
+        return changed;
+    }
+
+    /**
+     * @return 影响生成 DDL 的配置与服务器版本
+     */
+    private String getDdlSettings() {
+        return "modifyColumn=" + this.config.isModifyColumn() +
+                ",dropIndex=" + this.config.isDropIndex() +
+                ",onlineDdl=" + this.config.isOnlineDdl() +
+                ",allowCopy=" + this.config.isAllowCopy() +
+                ",blockingRowLimit=" + this.config.getBlockingRowLimit() +
+                ",version=" + this.snapshot.getVersion();
+    }
+
+    /**
+     * 保存检测成功且没有警告 (存在未处理的差异) 的表实体指纹
+     */
+    private void saveFingerprints(List<EntityTask> tasks, FingerprintStore store, Connection connect) throws SQLException {
+        Set<String> failed = new HashSet<String>();
+        for (TableFailure failure : this.failures) {
+            failed.add(failure.getTableName());
+        }
+        Map<String, String> fingerprints = new HashMap<String, String>();
+        Map<String, String> entities = new HashMap<String, String>();
+        for (EntityTask task : tasks) {
+            if (!failed.contains(task.getTableName()) && task.checked && !task.warned) {
+                String key = task.getTableName().trim().toLowerCase();
+                fingerprints.put(key, task.fingerprint);
+                entities.put(key, task.clazz.getName());
             }
-            // 删除原有表
-            this.sqlList.add("DROP TABLE IF EXISTS " + tableName + ";");
-            // 创建新表
-            createTable(entity, clazz);
         }
+        store.save(connect, fingerprints, entities);
+    }
+
+    /**
+     * 单张表实体的检测任务
+     */
+    private class EntityTask implements TableTask {
+
+        private Class<?> clazz; // 表实体
+        private String fingerprint; // 表实体指纹
+        private volatile boolean checked; // 是否已完成检测
+        private volatile boolean warned; // 检测结果是否有警告
+
+        EntityTask(Class<?> clazz, String fingerprint) {
+            this.clazz = clazz;
+            this.fingerprint = fingerprint;
+        }
+
+        @Override
+        public String getTableName() {
+            return clazz.getAnnotation(Entity.class).tableName();
+        }
+
+        @Override
+        public TablePlan check() throws Exception {
+            TablePlan plan = TYPE_CREATE.equals(config.getType()) ? create(clazz) : update(clazz, snapshot);
+            this.warned = !plan.getWarnings().isEmpty();
+            this.checked = true;
+            return plan;
+        }
+    }
+
+    /**
+     * 重新创建表
+     * @param clazz 表实体
+     * @return 待执行语句
+     */
+    private TablePlan create(Class<?> clazz) throws SQLException {
+        Entity entity = clazz.getAnnotation(Entity.class); // 表实体
+        String tableName = entity.tableName();
+        log.debug("MYSQL5Dialect create > tableName: {}", tableName);
+        // 验证表名
+        if ("".equals(tableName.trim())) {
+            throw new RuntimeException(clazz.getName() + " 未指定或指定了错误的表名 : " + tableName);
+        }
+        TablePlan plan = new TablePlan(tableName);
+        // 删除原有表
+        plan.add(new DdlStatement(tableName, "DROP TABLE IF EXISTS " + tableName + ";"));
+        // 创建新表
+        plan.add(createTable(entity, clazz));
+        return plan;
     }
 
     /**
@@ -117,10 +400,10 @@ public class MYSQL5Dialect {
      * @param entity 表信息
      * @param clazz 表实体
      */
-    private void createTable(Entity entity, Class<?> clazz) throws SQLException {
+    private DdlStatement createTable(Entity entity, Class<?> clazz) throws SQLException {
         String tableName = entity.tableName();
         log.debug("MYSQL5Dialect createTable: {}", tableName);
-        String idField = null;
+        List<String> idFields = new ArrayList<String>();
         boolean firstColumn = true;
         StringBuilder sql = new StringBuilder("CREATE TABLE IF NOT EXISTS " + tableName + "(\n");
         // 遍历字段
@@ -129,46 +412,38 @@ public class MYSQL5Dialect {
             if (!field.isAnnotationPresent(Field.class)) {
                 continue;
             }
-            // 验证字段名
-            Field fieldAnnotation = field.getAnnotation(Field.class);
             // 如果是不是第一个字段, 则sql先加','
             if (firstColumn) {
                 firstColumn = false;
             } else {
                 sql.append(",\n");
             }
-            // 如果是id字段 > 标记 & not null
+            // 如果是id字段 > 标记 & not null, 多个id字段组成联合主键
             if (field.isAnnotationPresent(Id.class)) {
-                if (idField == null) {
-                    idField = FieldUtils.getColumn(field, config.isUppercase());
-                }
-                FieldType type = FieldUtils.getType(field);
-                sql.append("\t")
-                        .append(FieldUtils.getColumn(field, config.isUppercase()))
-                        .append(" ")
-                        .append(getTypeLength(type, fieldAnnotation.length(), fieldAnnotation.decimalLength()))
-                        .append(isInteger(type) && fieldAnnotation.unsigned() ? " UNSIGNED " : "")
-                        .append(" NOT NULL ");
-                if (FieldUtils.isAutoIncrease(field)) {
-                    sql.append(" AUTO_INCREMENT ");
-                }
+                idFields.add(FieldUtils.getColumn(field, config.isUppercase()));
+                sql.append("\t").append(getIdColumnSql(field));
             }
             // 普通字段
             else {
                 sql.append("\t").append(getColumnSql(field));
-                // if 有索引
-                if (fieldAnnotation.index().index()) {
-                    sql.append(",\n\t");
-                    sql.append(getIndexSql(field));
-                }
+            }
+            // if 有哈希伴随字段 (含 id 字段)
+            if (FieldUtils.getHashColumn(field, config.isUppercase()) != null) {
+                sql.append(",\n\t").append(getHashColumnSql(field));
             }
         }
-        if (idField != null) {
-            sql.append(", PRIMARY KEY (").append(idField).append(")");
+        if (!idFields.isEmpty()) {
+            sql.append(", PRIMARY KEY (");
+            for (int i = 0; i < idFields.size(); i++) {
+                sql.append(i == 0 ? "" : ",").append(idFields.get(i));
+            }
+            sql.append(")");
         }
-        // if 存在联合索引
-        if (entity.indices().length > 0) {
-            sql.append(getUniteIndexSql(entity));
+        // 字段索引与联合索引
+        for (IndexDefinition index : getIndexDefinitions(clazz)) {
+            if (!index.isPrimary()) {
+                sql.append(",\n\t").append(index.toSql());
+            }
         }
         sql.append("\n) COMMENT \"");
         sql.append(entity.comment());
@@ -177,104 +452,267 @@ public class MYSQL5Dialect {
         if (!"".equals(entity.charset())) {
             sql.append(" DEFAULT CHARSET = ").append(entity.charset());
         }
+        // if 指定了表选项
+        String options = TableOptionsDefinition.of(entity.options()).toSql();
+        if (!"".equals(options)) {
+            sql.append(" ").append(options);
+        }
+        // if 指定了分区
+        PartitionDefinition partition = PartitionDefinition.of(tableName, entity.partition());
+        if (partition != null) {
+            checkPartitionIndices(partition, getIndexDefinitions(clazz));
+            sql.append("\n").append(partition.toSql(new java.util.Date()));
+        }
         sql.append(";");
-        this.sqlList.add(sql.toString());
+        return new DdlStatement(tableName, sql.toString());
     }
 
     /**
      * 更新表结构
-     * @param clazzSet 表实体列表
+     * @param clazz 表实体
+     * @param snapshot 表结构快照
+     * @return 待执行语句
      */
-    private void update(Set<Class<?>> clazzSet) throws Exception {
-        log.debug("MYSQL5Dialect update...");
-        for (Class<?> clazz : clazzSet) {
-            Entity entity; // 表实体
-            String tableName;
-            // 是否表实体
-            if (!clazz.isAnnotationPresent(Entity.class)) {
-                continue;
-            }
-            // 是否需要检测表结构, 如果不需, 则跳过该表实体
-            if (!(entity = clazz.getAnnotation(Entity.class)).check()) {
-                continue;
-            }
-            // 验证表名
-            if ("".equals((tableName = entity.tableName().trim()))) {
-                throw new RuntimeException(clazz.getName() + " 未指定或指定了错误的表名 : " + tableName);
-            }
-            // 如果表不存在, 则新建表
-            if (!checkTableExist(tableName)) {
-                createTable(entity, clazz);
-            }
-            // 如果表已存在, 则检查并更新字段
-            else {
-                checkForAddColumn(clazz);
-            }
+    private TablePlan update(Class<?> clazz, SchemaSnapshot snapshot) throws SQLException {
+        Entity entity = clazz.getAnnotation(Entity.class); // 表实体
+        String tableName;
+        // 验证表名
+        if ("".equals((tableName = entity.tableName().trim()))) {
+            throw new RuntimeException(clazz.getName() + " 未指定或指定了错误的表名 : " + tableName);
+        }
+        log.debug("MYSQL5Dialect update > tableName: {}", tableName);
+        Object event = FlightEvent.UPDATE_TABLE.begin();
+        TablePlan plan = new TablePlan(tableName);
+        TableInfo table = snapshot.getTable(tableName);
+        // 如果表不存在, 则新建表
+        if (table == null) {
+            plan.add(createTable(entity, clazz));
+        }
+        // 如果表已存在, 则检查并更新字段
+        else {
+            checkPartition(clazz, table, plan);
+            plan.add(checkForAddColumn(clazz, table, plan));
+        }
+        FlightEvent.UPDATE_TABLE.commit(event, tableName, plan.getStatements().size());
+        return plan;
+    }
+
+    /**
+     * 检查已存在表的分区: 主键与唯一索引必须包含分区列, 分区方式与表达式与声明不一致时只报告, 不自动转换
+     * @param clazz 表实体
+     * @param table 数据库中现有的表结构
+     * @param plan 表的待执行语句, 用于记录未处理的差异
+     */
+    private void checkPartition(Class<?> clazz, TableInfo table, TablePlan plan) throws SQLException {
+        PartitionDefinition partition = PartitionDefinition.of(table.getName(), clazz.getAnnotation(Entity.class).partition());
+        if (partition == null) {
+            if (table.isPartitioned()) {
+                log.warn("MYSQL5Dialect checkPartition > table: {} is partitioned but the entity declares no partition",
+                        table.getName());
+                plan.addWarning("table is partitioned but the entity declares no partition");
+            }
+            return;
+        }
+        checkPartitionIndices(partition, getIndexDefinitions(clazz));
+        if (partition.matches(table)) {
+            return;
+        }
+        String warning;
+        if (!table.isPartitioned()) {
+            List<IndexDefinition> existing = new ArrayList<IndexDefinition>();
+            for (IndexInfo index : table.getIndices()) {
+                existing.add(IndexDefinition.of(index));
+            }
+            List<IndexDefinition> violations = partition.findViolations(existing);
+            warning = "table is not partitioned, declared " + partition + ", converting requires ALTER TABLE ... "
+                    + "PARTITION BY (table rebuild), not applied"
+                    + (violations.isEmpty() ? "" : "; existing keys without partition column: " + violations);
+        } else {
+            warning = "partition mismatch, declared " + partition + ", actual "
+                    + table.getPartitions().get(0).getMethod() + "(" + table.getPartitions().get(0).getExpression()
+                    + "), not applied";
+        }
+        log.warn("MYSQL5Dialect checkPartition > table: {}, {}", table.getName(), warning);
+        plan.addWarning(warning);
+    }
+
+    /**
+     * 检查表实体声明的主键与唯一索引是否包含分区列
+     * @param partition 分区定义
+     * @param indices 表实体声明的索引
+     * @throws SQLException 存在未包含分区列的主键/唯一索引
+     */
+    private void checkPartitionIndices(PartitionDefinition partition, List<IndexDefinition> indices) throws SQLException {
+        List<IndexDefinition> violations = partition.findViolations(indices);
+        if (!violations.isEmpty()) {
+            throw new SQLException("表[" + partition.getTableName() + "]按 " + partition.getColumn()
+                    + " 分区, 主键与唯一索引必须包含分区列: " + violations);
         }
     }
 
     /**
      * 检测表中是否含有该字段, 如不包含, 则新增该字段
      * @param clazz 表实体
+     * @param table 数据库中现有的表结构
+     * @param plan 表的待执行语句, 用于记录未处理的差异
+     * @return 合并后的 ALTER TABLE 语句, 无需变更时返回 null
      */
-    private void checkForAddColumn(Class<?> clazz) throws Exception {
-        log.debug("MYSQL5Dialect checkForAddColumn ...");
+    private DdlStatement checkForAddColumn(Class<?> clazz, TableInfo table, TablePlan plan) throws SQLException {
+        log.debug("MYSQL5Dialect checkForAddColumn > tableName: {}", table.getName());
+        // 该表的所有变更合并为一条 ALTER TABLE
+        TableChangeSet changeSet = new TableChangeSet(clazz.getAnnotation(Entity.class).tableName());
         // 遍历字段
         for (java.lang.reflect.Field field : clazz.getDeclaredFields()) {
-            PreparedStatement ps;
-            ResultSet resultSet;
             // 非注解字段 > 跳过
             if (!field.isAnnotationPresent(Field.class)) {
                 continue;
             }
-            // 检查字段是否存在
-            String assertField = "DESCRIBE " + (clazz.getAnnotation(Entity.class)).tableName() + " " + FieldUtils.getColumn(field, config.isUppercase());
-            ps = this.connect.prepareStatement(assertField, ResultSet.TYPE_SCROLL_INSENSITIVE, ResultSet.CONCUR_READ_ONLY);
-            resultSet = ps.executeQuery();
+            ColumnInfo column = table.getColumn(FieldUtils.getColumn(field, config.isUppercase()));
             // 不存在则新增字段
-            if (!resultSet.last()) {
-                String tableName = clazz.getAnnotation(Entity.class).tableName();
-                String alterSql = "ALTER TABLE " + tableName + " ADD COLUMN " + getColumnSql(field);
-                this.alterUpdates.add(alterSql);
-                Field field1 = field.getAnnotation(Field.class);
-                if (field1.index().index()) {
-                    String indexSql = "ALTER TABLE " + tableName + " ADD " + getIndexSql(field);
-                    this.alterUpdates.add(indexSql);
+            if (column == null) {
+                changeSet.addColumn(getColumnSql(field));
+            }
+            // 已存在则比对字段定义
+            else {
+                ColumnDiff diff = ColumnDiff.compare(getColumnDefinition(field), column);
+                if (diff != null && config.isModifyColumn()) {
+                    changeSet.modifyColumn(field.isAnnotationPresent(Id.class) ?
+                            getIdColumnSql(field) : getColumnSql(field), diff.getType());
+                } else if (diff != null) {
+                    log.warn("MYSQL5Dialect checkForAddColumn > table: {}, column drift not applied " +
+                            "(db.modifyColumn = false): {}", table.getName(), diff);
+                    plan.addWarning("column drift not applied: " + diff);
                 }
             }
-            ps.close();
-            resultSet.close();
+            // 哈希伴随字段不存在则新增
+            String hashColumn = FieldUtils.getHashColumn(field, config.isUppercase());
+            if (hashColumn != null && !table.hasColumn(hashColumn)) {
+                changeSet.addColumn(getHashColumnSql(field), ChangeType.ADD_STORED_COLUMN);
+            }
         }
+        // 比对索引, 新增字段的索引也在这里补齐
+        checkIndices(clazz, table, changeSet, plan);
+        // 比对表选项
+        for (String difference : TableOptionsDefinition.of(clazz.getAnnotation(Entity.class).options())
+                .compare(table, changeSet)) {
+            log.info("MYSQL5Dialect checkForAddColumn > table: {}, table option drift: {}", table.getName(), difference);
+        }
+        if (changeSet.isEmpty()) {
+            return null;
+        }
+        DdlStatement ddl = DdlStatement.alter(changeSet, table);
+        this.estimator.estimate(ddl, changeSet);
+        ddl.setStrategy(clazz.getAnnotation(Entity.class).migration());
+        return ddl;
     }
 
     /**
-     * 检查表是否存在
-     * @param name 表名
-     * @return 是否存在
+     * 比对索引: 新增缺失的索引, 按配置删除未声明的索引, 并报告重复/冗余的索引
+     * @param clazz 表实体
+     * @param table 数据库中现有的表结构
+     * @param changeSet 表的变更集合
+     * @param plan 表的待执行语句, 用于记录未处理的差异
      */
-    private boolean checkTableExist(String name) {
-        log.debug("MYSQL5Dialect checkTableExist > tableName: {}", name);
-        PreparedStatement ps;
-        ResultSet resultSet;
-        try {
-            String sql = "DESC " + name;
-            ps = this.connect.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
-            resultSet = ps.executeQuery();
-            boolean hasRow = resultSet.last();
-            ps.close();
-            resultSet.close();
-            return hasRow;
-        } catch (SQLException e1) {
-            String message = e1.getMessage();
-            if (message != null &&
-                    (message.contains("1146") || Pattern.matches("Table '.*' doesn't exist", message))) {
-                return false;
+    private void checkIndices(Class<?> clazz, TableInfo table, TableChangeSet changeSet, TablePlan plan)
+            throws SQLException {
+        List<IndexDefinition> expected = new ArrayList<IndexDefinition>();
+        for (IndexDefinition index : getIndexDefinitions(clazz)) {
+            // 低版本不支持函数索引, 跳过; 不支持降序索引时 DESC 被忽略, 按升序比对
+            if (index.hasExpression() && !this.estimator.supportsFunctionalIndex()) {
+                log.warn("MYSQL5Dialect checkIndices > table: {}, functional index requires MySQL 8.0.13+, skip: {}",
+                        table.getName(), index);
+                plan.addWarning("functional index not supported, skip: " + index);
+                continue;
+            }
+            expected.add(index.hasDesc() && !this.estimator.supportsDescendingIndex() ? index.withoutDesc() : index);
+        }
+        IndexReconciler result = IndexReconciler.reconcile(expected, table, config.isDropIndex());
+        for (IndexInfo index : result.getUndeclared()) {
+            if (config.isDropIndex()) {
+                changeSet.dropIndex(index.getName());
             } else {
-                throw new RuntimeException(e1);
+                log.warn("MYSQL5Dialect checkIndices > table: {}, undeclared index not dropped (db.dropIndex = false): {}",
+                        table.getName(), IndexDefinition.of(index));
+                plan.addWarning("undeclared index not dropped: " + IndexDefinition.of(index));
             }
-        } catch (Exception e) {
-            throw new RuntimeException(e);
         }
+        for (IndexDefinition index : result.getMissing()) {
+            changeSet.addIndex(index.toSql());
+        }
+        for (IndexDefinition index : result.getConflicts()) {
+            log.warn("MYSQL5Dialect checkIndices > table: {}, index name already used by another index: {}",
+                    table.getName(), index);
+            plan.addWarning("index not added, name already used: " + index);
+        }
+        for (String redundancy : result.getRedundancies()) {
+            log.warn("MYSQL5Dialect checkIndices > table: {}, {}", table.getName(), redundancy);
+            plan.addWarning(redundancy);
+        }
+    }
+
+    /**
+     * 获取表实体声明的索引, 与建表语句中的索引保持一致
+     * @param clazz 表实体
+     * @return 索引定义 (含主键)
+     */
+    private List<IndexDefinition> getIndexDefinitions(Class<?> clazz) throws SQLException {
+        Entity entity = clazz.getAnnotation(Entity.class);
+        List<IndexDefinition> indices = new ArrayList<IndexDefinition>();
+        List<String> idColumns = new ArrayList<String>();
+        for (java.lang.reflect.Field field : clazz.getDeclaredFields()) {
+            if (!field.isAnnotationPresent(Field.class)) {
+                continue;
+            }
+            String column = FieldUtils.getColumn(field, config.isUppercase());
+            if (field.isAnnotationPresent(Id.class)) {
+                idColumns.add(column);
+            } else {
+                Index index = field.getAnnotation(Field.class).index();
+                if (index.index()) {
+                    KeyPart keyPart = "".equals(index.expression().trim()) ?
+                            KeyPart.column(column, index.length(), index.desc()) :
+                            KeyPart.expression(index.expression(), index.desc());
+                    indices.add(new IndexDefinition(index.name(), index.unique(), Collections.singletonList(keyPart)));
+                }
+            }
+            // 哈希伴随字段的索引 (含 id 字段), 与建表及 update 模式保持一致
+            String hashColumn = FieldUtils.getHashColumn(field, config.isUppercase());
+            if (hashColumn != null) {
+                indices.add(new IndexDefinition(hashColumn, false, hashColumn));
+            }
+        }
+        if (!idColumns.isEmpty()) {
+            indices.add(0, IndexDefinition.primary(idColumns.toArray(new String[0])));
+        }
+        for (UniteIndex index : entity.indices()) {
+            if (index.columns().length == 0 && index.fields().length == 0) {
+                throw new SQLException("表[" + entity.tableName() + "]联合索引的列名未指定!");
+            }
+            List<KeyPart> keyParts = new ArrayList<KeyPart>();
+            if (index.columns().length > 0) {
+                for (String column : index.columns()) {
+                    keyParts.add(KeyPart.parse(column));
+                }
+            } else {
+                for (String field : index.fields()) {
+                    KeyPart keyPart = KeyPart.parse(field);
+                    keyParts.add(keyPart.withColumn(FieldUtils.getColumnByField(keyPart.getColumn(), config.isUppercase())));
+                }
+            }
+            // 未指定索引名时以列名连接命名, 只含表达式时由 MySQL 自动命名
+            String name = index.name();
+            if ("".equals(name)) {
+                StringBuilder sb = new StringBuilder();
+                for (KeyPart keyPart : keyParts) {
+                    if (!keyPart.isExpression()) {
+                        sb.append(sb.length() == 0 ? "" : "_").append(keyPart.getColumn());
+                    }
+                }
+                name = sb.toString();
+            }
+            indices.add(new IndexDefinition(name, index.unique(), keyParts));
+        }
+        return indices;
     }
 
     /**
@@ -296,69 +734,50 @@ public class MYSQL5Dialect {
     }
 
     /**
-     * 获取索引对应的 sql语句
-     * @param field 字段
-     * @return sql
+     * 获取主键字段相对应的sql语句
+     * @param field 主键属性
+     * @return 字段sql
      */
-    private String getIndexSql(java.lang.reflect.Field field) {
+    private String getIdColumnSql(java.lang.reflect.Field field) {
         Field fieldAnnotation = field.getAnnotation(Field.class);
-        // 字段名
-        String column = FieldUtils.getColumn(field, config.isUppercase());
-        String indexString = "";
-        Index index = fieldAnnotation.index();
-        if (index.index()) {
-            indexString += index.unique()? "UNIQUE INDEX " : "INDEX ";
-            if (!"".equals(index.name())) {
-                indexString += index.name();
-            }
-            indexString += "(" + column + ") ";
-        }
-        return indexString;
+        FieldType type = FieldUtils.getType(field);
+        return FieldUtils.getColumn(field, config.isUppercase()) +
+                " " +
+                getTypeLength(type, fieldAnnotation.length(), fieldAnnotation.decimalLength()) +
+                (isInteger(type) && fieldAnnotation.unsigned() ? " UNSIGNED " : "") +
+                " NOT NULL " +
+                (FieldUtils.isAutoIncrease(field) ? " AUTO_INCREMENT " : "");
     }
 
     /**
-     * 获取联合索引对应的 sql语句
-     * @param entity 表实体注解
-     * @return sql
+     * 获取哈希伴随字段相对应的sql语句
+     * @param field 设置了 hash 的属性
+     * @return 存储型生成列的 sql
      */
-    private String getUniteIndexSql(Entity entity) throws SQLException {
-        StringBuilder indexString = new StringBuilder();
-        // 联合索引集合
-        UniteIndex[] indices = entity.indices();
-        for (UniteIndex index : indices) {
-            if (index.columns().length == 0 && index.fields().length == 0) {
-                throw new SQLException("表[" + entity.tableName() + "]联合索引的列名未指定!");
-            }
-            String[] columns = index.columns();
-            String[] fields = index.fields();
+    private String getHashColumnSql(java.lang.reflect.Field field) {
+        HashType hash = field.getAnnotation(Field.class).hash();
+        String column = FieldUtils.getColumn(field, config.isUppercase());
+        return FieldUtils.getHashColumn(field, config.isUppercase()) + " " + FieldUtils.getHashColumnType(hash)
+                + " GENERATED ALWAYS AS (" + FieldUtils.getHashExpression(hash, column) + ") STORED"
+                + " COMMENT \"" + hash + "(" + column + ")\"";
+    }
 
-            StringBuilder columnSb = new StringBuilder();
-            if (columns.length > 0) {
-                for (int i = 0; i < columns.length; i++) {
-                    columnSb.append(columns[i]);
-                    if (i < columns.length - 1) {
-                        columnSb.append(",");
-                    }
-                }
-            } else {
-                for (int i = 0; i < fields.length; i++) {
-                    columnSb.append(FieldUtils.getColumnByField(fields[i], config.isUppercase()));
-                    if (i < fields.length - 1) {
-                        columnSb.append(",");
-                    }
-                }
-            }
-            indexString.append(",\n\t");
-            indexString.append(index.unique()? "UNIQUE INDEX " : "INDEX ");
-            if (!"".equals(index.name())) {
-                indexString.append(index.name());
-            } else {
-                String cs = columnSb.toString();
-                indexString.append(cs.replace(",", "_").replace(" ", ""));
-            }
-            indexString.append("(").append(columnSb.toString()).append(")");
+    /**
+     * 获取字段的期望定义, 与 {@link #getColumnSql} / {@link #getIdColumnSql} 生成的 sql 保持一致
+     * @param field 属性
+     * @return 字段定义
+     */
+    private ColumnDefinition getColumnDefinition(java.lang.reflect.Field field) {
+        Field fieldAnnotation = field.getAnnotation(Field.class);
+        FieldType type = FieldUtils.getType(field);
+        ColumnDefinition definition = new ColumnDefinition(FieldUtils.getColumn(field, config.isUppercase()),
+                getTypeLength(type, fieldAnnotation.length(), fieldAnnotation.decimalLength()))
+                .setUnsigned(isInteger(type) && fieldAnnotation.unsigned());
+        if (field.isAnnotationPresent(Id.class)) {
+            return definition.setNullable(false).setAutoIncrement(FieldUtils.isAutoIncrease(field));
         }
-        return indexString.toString();
+        return definition.setNullable(fieldAnnotation.nullable())
+                .setDefaultValue(needDefault(field) ? fieldAnnotation.defaultValue() : null);
     }
 
     /**
@@ -454,6 +873,11 @@ public class MYSQL5Dialect {
         Field fieldAnnotation = field.getAnnotation(Field.class);
         FieldType type = FieldUtils.getType(field);
         if (!fieldAnnotation.nullable()) {
+            // TEXT / BLOB 等类型不能指定默认值
+            String typeLength = getTypeLength(type, fieldAnnotation.length(), fieldAnnotation.decimalLength());
+            if (new ColumnDefinition(field.getName(), typeLength).isNoDefault()) {
+                return false;
+            }
             String defVal = fieldAnnotation.defaultValue();
             return isChar(type) || !"".equals(defVal);
         }
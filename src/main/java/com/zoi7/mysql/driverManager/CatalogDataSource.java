@@ -0,0 +1,90 @@
+package com.zoi7.mysql.driverManager;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.logging.Logger;
+
+/**
+ * 切换默认库的数据源
+ * 从目标数据源 (通常是一台 MySQL 服务器的连接池) 获取连接后切换到指定库 (Connection.setCatalog),
+ * 关闭连接前恢复原来的库再归还, 用于同一台服务器上多个租户库共享连接池
+ */
+public class CatalogDataSource extends AbstractDataSource {
+
+    private final DataSource target; // 目标数据源
+    private final String catalog; // 切换到的库
+
+    /**
+     * @param target 目标数据源
+     * @param catalog 切换到的库
+     */
+    public CatalogDataSource(DataSource target, String catalog) {
+        this.target = target;
+        this.catalog = catalog;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return wrap(target.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return wrap(target.getConnection(username, password));
+    }
+
+    private Connection wrap(final Connection connection) throws SQLException {
+        final String original = connection.getCatalog();
+        try {
+            connection.setCatalog(catalog);
+        } catch (SQLException e) {
+            connection.close();
+            throw e;
+        }
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class},
+                new InvocationHandler() {
+                    @Override
+                    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+                        if ("close".equals(method.getName()) && !connection.isClosed()) {
+                            try {
+                                if (original != null) {
+                                    connection.setCatalog(original);
+                                }
+                            } finally {
+                                connection.close();
+                            }
+                            return null;
+                        }
+                        try {
+                            return method.invoke(connection, args);
+                        } catch (InvocationTargetException e) {
+                            throw e.getCause();
+                        }
+                    }
+                });
+    }
+
+    public String getCatalog() {
+        return catalog;
+    }
+
+    public <T> T unwrap(Class<T> iface) throws SQLException {
+        if (iface.isInstance(this)) {
+            return iface.cast(this);
+        }
+        return target.unwrap(iface);
+    }
+
+    public boolean isWrapperFor(Class<?> iface) throws SQLException {
+        return iface.isInstance(this) || target.isWrapperFor(iface);
+    }
+
+    public Logger getParentLogger() {
+        return null;
+    }
+}
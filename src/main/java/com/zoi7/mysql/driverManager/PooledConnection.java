@@ -0,0 +1,315 @@
+package com.zoi7.mysql.driverManager;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 连接池中的物理连接
+ * 每次借出生成一个新的代理连接, 代理连接 close() 时归还连接池而不关闭物理连接;
+ * 物理连接上按 SQL 缓存预编译语句 (LRU), 代理语句 close() 时只清空参数, 供之后借出时复用,
+ * 配合 useServerPrepStmts=true 可复用服务端预编译结果
+ */
+class PooledConnection {
+
+    private final PooledDataSource pool;
+    private final Connection physical; // 物理连接
+    private final String catalog; // 创建时的默认库, 归还时恢复
+    private final Map<String, CachedStatement> statements; // 预编译语句缓存, 按访问顺序淘汰
+    private long lastUsed; // 最近一次归还的时间
+    private Lease lease; // 当前借出的代理连接
+
+    PooledConnection(PooledDataSource pool, Connection physical, final int statementCacheSize) throws SQLException {
+        this.pool = pool;
+        this.physical = physical;
+        this.catalog = physical.getCatalog();
+        this.lastUsed = System.currentTimeMillis();
+        this.statements = new LinkedHashMap<String, CachedStatement>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedStatement> eldest) {
+                if (size() <= statementCacheSize) {
+                    return false;
+                }
+                // 正在使用的语句在其 close() 时关闭
+                eldest.getValue().evict();
+                return true;
+            }
+        };
+    }
+
+    /**
+     * @return 新的代理连接
+     */
+    Connection lease() {
+        lease = new Lease();
+        return lease.proxy;
+    }
+
+    /**
+     * @param timeout 超时时间(秒)
+     * @return 物理连接是否可用
+     */
+    boolean isValid(int timeout) {
+        try {
+            return physical.isValid(timeout);
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    /**
+     * 归还前重置连接状态: 关闭本次借出期间未关闭的语句, 回滚未提交的事务, 恢复自动提交与默认库
+     * @return 连接是否可以继续使用
+     */
+    boolean reset() {
+        try {
+            lease.closeStatements();
+            if (!physical.getAutoCommit()) {
+                physical.rollback();
+                physical.setAutoCommit(true);
+            }
+            if (catalog != null && !catalog.equals(physical.getCatalog())) {
+                physical.setCatalog(catalog);
+            }
+            return !physical.isClosed();
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    /**
+     * 关闭缓存的语句与物理连接
+     */
+    void close() {
+        for (CachedStatement cached : statements.values()) {
+            cached.evict();
+        }
+        statements.clear();
+        try {
+            physical.close();
+        } catch (SQLException e) {
+            // 物理连接可能已断开, 忽略
+        }
+    }
+
+    long getLastUsed() {
+        return lastUsed;
+    }
+
+    void touch() {
+        lastUsed = System.currentTimeMillis();
+    }
+
+    int getCachedStatements() {
+        return statements.size();
+    }
+
+    private PreparedStatement prepare(String sql) throws SQLException {
+        CachedStatement cached = statements.get(sql);
+        if (cached != null && !cached.inUse) {
+            cached.inUse = true;
+            return cached.proxy;
+        }
+        PreparedStatement statement = physical.prepareStatement(sql);
+        // 同一 SQL 同时打开多个时, 后打开的不缓存
+        if (cached != null) {
+            return (PreparedStatement) lease.track(statement, PreparedStatement.class);
+        }
+        cached = new CachedStatement(statement);
+        cached.inUse = true;
+        statements.put(sql, cached);
+        return cached.proxy;
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * 一次借出的代理连接
+     */
+    private class Lease implements InvocationHandler {
+
+        private final Connection proxy;
+        private final List<StatementHandler> opened = new ArrayList<StatementHandler>(); // 本次借出打开的未缓存语句
+        private boolean closed;
+
+        Lease() {
+            this.proxy = (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                    new Class<?>[]{Connection.class}, this);
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            if ("equals".equals(name)) {
+                return proxy == args[0];
+            } else if ("hashCode".equals(name)) {
+                return System.identityHashCode(proxy);
+            } else if ("toString".equals(name)) {
+                return "Pooled" + physical;
+            } else if ("isClosed".equals(name)) {
+                return closed;
+            } else if ("close".equals(name)) {
+                if (!closed) {
+                    closed = true;
+                    pool.release(PooledConnection.this);
+                }
+                return null;
+            }
+            if (closed) {
+                throw new SQLException("connection is closed");
+            }
+            if ("prepareStatement".equals(name) && args.length == 1 && pool.getStatementCacheSize() > 0) {
+                return prepare((String) args[0]);
+            }
+            Object result = PooledConnection.invoke(physical, method, args);
+            if (result instanceof Statement) {
+                return track((Statement) result, method.getReturnType());
+            }
+            return result;
+        }
+
+        Object track(Statement statement, Class<?> type) {
+            StatementHandler handler = new StatementHandler(statement, this);
+            opened.add(handler);
+            return Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{type}, handler);
+        }
+
+        void closeStatements() {
+            for (StatementHandler handler : opened) {
+                try {
+                    handler.target.close();
+                } catch (SQLException e) {
+                    // 忽略
+                }
+            }
+            opened.clear();
+            Iterator<CachedStatement> iterator = statements.values().iterator();
+            while (iterator.hasNext()) {
+                CachedStatement cached = iterator.next();
+                if (cached.inUse && !cached.release()) {
+                    iterator.remove();
+                }
+            }
+        }
+    }
+
+    /**
+     * 缓存的预编译语句
+     */
+    private class CachedStatement {
+
+        private final PreparedStatement target;
+        private final PreparedStatement proxy;
+        private boolean inUse; // 是否已被取出使用
+        private boolean evicted; // 是否已被淘汰
+
+        CachedStatement(PreparedStatement target) {
+            this.target = target;
+            this.proxy = (PreparedStatement) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                    new Class<?>[]{PreparedStatement.class}, new StatementHandler(target, this));
+        }
+
+        /**
+         * 放回缓存, 失败时关闭
+         * @return 是否放回
+         */
+        boolean release() {
+            inUse = false;
+            if (evicted) {
+                close();
+                return false;
+            }
+            try {
+                target.clearParameters();
+                target.clearBatch();
+                return true;
+            } catch (SQLException e) {
+                evicted = true;
+                close();
+                return false;
+            }
+        }
+
+        void evict() {
+            evicted = true;
+            if (!inUse) {
+                close();
+            }
+        }
+
+        private void close() {
+            try {
+                target.close();
+            } catch (SQLException e) {
+                // 忽略
+            }
+        }
+    }
+
+    /**
+     * 代理语句: getConnection() 返回代理连接, 缓存的语句 close() 时放回缓存
+     */
+    private class StatementHandler implements InvocationHandler {
+
+        private final Statement target;
+        private final Lease owner; // 打开该语句的代理连接, 缓存的语句为 null
+        private final CachedStatement cached; // 缓存项, 未缓存的语句为 null
+
+        StatementHandler(Statement target, Lease owner) {
+            this.target = target;
+            this.owner = owner;
+            this.cached = null;
+        }
+
+        StatementHandler(PreparedStatement target, CachedStatement cached) {
+            this.target = target;
+            this.owner = null;
+            this.cached = cached;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            if ("equals".equals(name)) {
+                return proxy == args[0];
+            } else if ("hashCode".equals(name)) {
+                return System.identityHashCode(proxy);
+            } else if ("toString".equals(name)) {
+                return target.toString();
+            } else if ("getConnection".equals(name)) {
+                return owner == null ? lease.proxy : owner.proxy;
+            } else if (cached != null && "isClosed".equals(name)) {
+                return !cached.inUse;
+            } else if ("close".equals(name)) {
+                if (cached == null) {
+                    owner.opened.remove(this);
+                    target.close();
+                } else if (cached.inUse && !cached.release()) {
+                    statements.values().remove(cached);
+                }
+                return null;
+            }
+            if (cached != null && !cached.inUse) {
+                throw new SQLException("statement is closed");
+            }
+            return PooledConnection.invoke(target, method, args);
+        }
+    }
+
+}
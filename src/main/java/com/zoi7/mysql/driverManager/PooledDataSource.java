@@ -0,0 +1,313 @@
+package com.zoi7.mysql.driverManager;
+
+import com.zoi7.mysql.config.DataConfig;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+/**
+ * 轻量的连接池
+ * 复用物理连接, 代替 DriverManagerDataSource 每次获取连接都重新建立 TCP 连接与认证;
+ * 借出时校验连接 (Connection.isValid), 空闲超时的连接由后台线程关闭并保持最少空闲连接数,
+ * 每个连接缓存预编译语句, 连接 MySQL 时默认开启 useServerPrepStmts 以复用服务端预编译结果
+ */
+public class PooledDataSource extends AbstractDataSource {
+
+    private static final int VALIDATION_TIMEOUT = 3; // 借出时校验连接的超时时间(秒)
+    private static final long MAX_EVICT_INTERVAL = 30000; // 空闲检查的最大间隔(毫秒)
+
+    private final DataSource target; // 创建物理连接的数据源
+    private int minIdle; // 保持的最少空闲连接数
+    private int maxSize; // 最大连接数
+    private long idleTimeout; // 空闲超时时间(毫秒), 0 为不关闭
+    private long maxWait; // 获取连接的最长等待时间(毫秒)
+    private int statementCacheSize; // 每个连接缓存的预编译语句数, 0 为不缓存
+
+    private final Object lock = new Object();
+    private final LinkedList<PooledConnection> idle = new LinkedList<PooledConnection>(); // 空闲连接, 最近归还的在前
+    private int total; // 已创建 (含创建中) 的连接数
+    private boolean closed;
+    private ScheduledExecutorService evictor; // 空闲检查线程
+
+    /**
+     * @param config 配置, 最大连接数至少为 threads + 1 (工作线程各占一个连接, 另加主线程)
+     */
+    public PooledDataSource(DataConfig config) {
+        this(newTarget(config), config);
+    }
+
+    /**
+     * @param target 创建物理连接的数据源
+     * @param config 配置
+     */
+    public PooledDataSource(DataSource target, DataConfig config) {
+        this.target = target;
+        this.minIdle = Math.max(0, config.getPoolMinIdle());
+        this.maxSize = Math.max(Math.max(1, config.getPoolMaxSize()), config.getThreads() + 1);
+        this.idleTimeout = Math.max(0, config.getPoolIdleTimeout()) * 1000L;
+        this.maxWait = Math.max(0, config.getPoolMaxWait()) * 1000L;
+        this.statementCacheSize = Math.max(0, config.getPoolStatementCacheSize());
+    }
+
+    private static DataSource newTarget(DataConfig config) {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(config);
+        String url = config.getUrl();
+        if (config.getPoolStatementCacheSize() > 0 && url != null && url.startsWith("jdbc:mysql:")
+                && !url.contains("useServerPrepStmts")) {
+            Properties properties = new Properties();
+            properties.setProperty("useServerPrepStmts", "true");
+            dataSource.setConnectionProperties(properties);
+        }
+        return dataSource;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        long deadline = System.currentTimeMillis() + maxWait;
+        while (true) {
+            PooledConnection connection;
+            synchronized (lock) {
+                while (!closed && idle.isEmpty() && total >= maxSize) {
+                    long remaining = deadline - System.currentTimeMillis();
+                    if (remaining <= 0) {
+                        throw new SQLException("PooledDataSource getConnection > no connection available in "
+                                + maxWait + "ms, maxSize: " + maxSize);
+                    }
+                    try {
+                        lock.wait(remaining);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new SQLException("PooledDataSource getConnection > interrupted");
+                    }
+                }
+                if (closed) {
+                    throw new SQLException("PooledDataSource getConnection > pool is closed");
+                }
+                startEvictor();
+                connection = idle.pollFirst();
+                if (connection == null) {
+                    total++;
+                }
+            }
+            if (connection == null) {
+                return create().lease();
+            }
+            if (connection.isValid(VALIDATION_TIMEOUT)) {
+                return connection.lease();
+            }
+            logger.warn("PooledDataSource getConnection > discard invalid connection");
+            discard(connection);
+        }
+    }
+
+    /**
+     * 不经过连接池, 直接以指定用户创建物理连接
+     */
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return target.getConnection(username, password);
+    }
+
+    /**
+     * 创建物理连接, 调用前已计入 total
+     */
+    private PooledConnection create() throws SQLException {
+        try {
+            return new PooledConnection(this, target.getConnection(), statementCacheSize);
+        } catch (SQLException e) {
+            synchronized (lock) {
+                total--;
+                lock.notifyAll();
+            }
+            throw e;
+        } catch (RuntimeException e) {
+            synchronized (lock) {
+                total--;
+                lock.notifyAll();
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * 代理连接 close() 时归还, 状态无法重置或连接池已关闭时关闭物理连接
+     */
+    void release(PooledConnection connection) {
+        boolean healthy = connection.reset();
+        synchronized (lock) {
+            if (healthy && !closed) {
+                connection.touch();
+                idle.addFirst(connection);
+                lock.notifyAll();
+                return;
+            }
+        }
+        discard(connection);
+    }
+
+    private void discard(PooledConnection connection) {
+        synchronized (lock) {
+            total--;
+            lock.notifyAll();
+        }
+        connection.close();
+    }
+
+    private void startEvictor() {
+        if (evictor != null || (idleTimeout <= 0 && minIdle <= 0)) {
+            return;
+        }
+        long interval = idleTimeout > 0 ? Math.min(MAX_EVICT_INTERVAL, Math.max(1000, idleTimeout / 2)) : MAX_EVICT_INTERVAL;
+        evictor = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable r) {
+                Thread thread = new Thread(r, "table-helper-pool");
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+        evictor.scheduleWithFixedDelay(new Runnable() {
+            @Override
+            public void run() {
+                evict();
+            }
+        }, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 关闭空闲超时的连接 (最久未使用的优先), 并补足最少空闲连接数
+     */
+    void evict() {
+        List<PooledConnection> expired = new ArrayList<PooledConnection>();
+        int missing;
+        synchronized (lock) {
+            if (closed) {
+                return;
+            }
+            if (idleTimeout > 0) {
+                long now = System.currentTimeMillis();
+                Iterator<PooledConnection> iterator = idle.descendingIterator();
+                while (iterator.hasNext() && idle.size() > minIdle) {
+                    PooledConnection connection = iterator.next();
+                    if (now - connection.getLastUsed() < idleTimeout) {
+                        break;
+                    }
+                    iterator.remove();
+                    expired.add(connection);
+                }
+                total -= expired.size();
+            }
+            missing = Math.min(minIdle - idle.size(), maxSize - total);
+            total += Math.max(0, missing);
+        }
+        for (PooledConnection connection : expired) {
+            connection.close();
+        }
+        for (int i = 0; i < missing; i++) {
+            try {
+                PooledConnection connection = create();
+                synchronized (lock) {
+                    if (!closed) {
+                        idle.addLast(connection);
+                        lock.notifyAll();
+                        continue;
+                    }
+                }
+                discard(connection);
+            } catch (SQLException e) {
+                // create 失败时已归还本次的计数, 归还剩余未创建的计数
+                synchronized (lock) {
+                    total -= missing - i - 1;
+                }
+                logger.error("PooledDataSource evict > create connection failed", e);
+                return;
+            }
+        }
+    }
+
+    /**
+     * 关闭连接池: 关闭空闲连接, 借出中的连接在归还时关闭
+     */
+    public void close() {
+        List<PooledConnection> connections;
+        synchronized (lock) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            connections = new ArrayList<PooledConnection>(idle);
+            idle.clear();
+            total -= connections.size();
+            lock.notifyAll();
+            if (evictor != null) {
+                evictor.shutdownNow();
+                evictor = null;
+            }
+        }
+        for (PooledConnection connection : connections) {
+            connection.close();
+        }
+    }
+
+    public boolean isClosed() {
+        synchronized (lock) {
+            return closed;
+        }
+    }
+
+    /**
+     * @return 借出中的连接数
+     */
+    public int getActive() {
+        synchronized (lock) {
+            return total - idle.size();
+        }
+    }
+
+    /**
+     * @return 空闲连接数
+     */
+    public int getIdle() {
+        synchronized (lock) {
+            return idle.size();
+        }
+    }
+
+    public int getMinIdle() {
+        return minIdle;
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    public int getStatementCacheSize() {
+        return statementCacheSize;
+    }
+
+    public <T> T unwrap(Class<T> iface) throws SQLException {
+        if (iface.isInstance(this)) {
+            return iface.cast(this);
+        }
+        throw new SQLException("PooledDataSource can not unwrap as " + iface.getName());
+    }
+
+    public boolean isWrapperFor(Class<?> iface) throws SQLException {
+        return iface.isInstance(this);
+    }
+
+    public Logger getParentLogger() {
+        return null;
+    }
+}
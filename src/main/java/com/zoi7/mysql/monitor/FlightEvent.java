@@ -0,0 +1,132 @@
+package com.zoi7.mysql.monitor;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * JDK Flight Recorder 自定义事件
+ * 编译级别为 1.6, 不能直接继承 jdk.jfr.Event, 因此通过反射调用 jdk.jfr.EventFactory 动态定义事件;
+ * 运行时没有 JFR (JDK 8u262 之前或非 OpenJDK 的 JVM) 时 begin 返回 null, 埋点不产生任何开销.
+ * 每个事件包含耗时 (JFR 自带), 目标 (jar, 包名, 表名等) 与数量两个字段, 归入 "table-helper" 分类
+ */
+public final class FlightEvent {
+
+    private static final Logger log = LoggerFactory.getLogger(FlightEvent.class);
+
+    private static final String CATEGORY = "table-helper";
+
+    public static final FlightEvent SCAN_JAR = new FlightEvent("com.zoi7.mysql.ScanJar", "Scan Jar", "Jar", "Class Files");
+    public static final FlightEvent SCAN_PACKAGE = new FlightEvent("com.zoi7.mysql.ScanPackage", "Scan Package", "Package", "Class Files");
+    public static final FlightEvent UPDATE_TABLE = new FlightEvent("com.zoi7.mysql.UpdateTable", "Update Table", "Table", "Statements");
+    public static final FlightEvent GENERATE_ENTITIES = new FlightEvent("com.zoi7.mysql.GenerateEntities", "Generate Entities", "Database", "Tables");
+    public static final FlightEvent MAKE_MAPPERS = new FlightEvent("com.zoi7.mysql.MakeMappers", "Make Mappers", "Package", "Entities");
+
+    private static Method newEvent; // EventFactory.newEvent()
+    private static Method begin; // Event.begin()
+    private static Method set; // Event.set(int, Object)
+    private static Method commit; // Event.commit()
+
+    private final String name; // 事件名
+    private Object factory; // jdk.jfr.EventFactory, 运行时没有 JFR 时为 null
+
+    private FlightEvent(String name, String label, String target, String count) {
+        this.name = name;
+        try {
+            this.factory = create(name, label, target, count);
+        } catch (Throwable e) {
+            log.debug("FlightEvent > {} disabled: {}", name, e.toString());
+        }
+    }
+
+    /**
+     * 开始计时
+     * @return 事件, 运行时没有 JFR 时为 null
+     */
+    public Object begin() {
+        if (factory == null) {
+            return null;
+        }
+        try {
+            Object event = newEvent.invoke(factory);
+            begin.invoke(event);
+            return event;
+        } catch (Throwable e) {
+            disable(e);
+            return null;
+        }
+    }
+
+    /**
+     * 结束计时并提交, JFR 未录制该事件时由 JFR 丢弃
+     * @param event begin 返回的事件, 可为 null
+     * @param target 目标, 如 jar, 包名, 表名
+     * @param count 数量, 如 class 文件数, 语句数
+     */
+    public void commit(Object event, String target, long count) {
+        if (event == null) {
+            return;
+        }
+        try {
+            set.invoke(event, 0, target);
+            set.invoke(event, 1, count);
+            commit.invoke(event);
+        } catch (Throwable e) {
+            disable(e);
+        }
+    }
+
+    /**
+     * @return 运行时是否支持 JFR
+     */
+    public boolean isAvailable() {
+        return factory != null;
+    }
+
+    private void disable(Throwable e) {
+        factory = null;
+        log.warn("FlightEvent > " + name + " disabled", e);
+    }
+
+    /**
+     * 相当于:
+     * EventFactory.create(Arrays.asList(new AnnotationElement(Name.class, name), ...), Arrays.asList(new ValueDescriptor(...)))
+     */
+    private static synchronized Object create(String name, String label, String target, String count) throws Exception {
+        Class<?> factoryClass = Class.forName("jdk.jfr.EventFactory");
+        Class<?> elementClass = Class.forName("jdk.jfr.AnnotationElement");
+        Class<?> descriptorClass = Class.forName("jdk.jfr.ValueDescriptor");
+        Class<?> nameClass = Class.forName("jdk.jfr.Name");
+        Class<?> labelClass = Class.forName("jdk.jfr.Label");
+        Class<?> categoryClass = Class.forName("jdk.jfr.Category");
+        Constructor<?> element = elementClass.getConstructor(Class.class, Object.class);
+        Constructor<?> descriptor = descriptorClass.getConstructor(Class.class, String.class, List.class);
+
+        List<Object> annotations = new ArrayList<Object>();
+        annotations.add(element.newInstance(nameClass, name));
+        annotations.add(element.newInstance(labelClass, label));
+        annotations.add(element.newInstance(categoryClass, new String[]{CATEGORY}));
+        Object targetLabel = element.newInstance(labelClass, target);
+        Object countLabel = element.newInstance(labelClass, count);
+        List<Object> fields = Arrays.asList(
+                descriptor.newInstance(String.class, "target", Collections.singletonList(targetLabel)),
+                descriptor.newInstance(long.class, "count", Collections.singletonList(countLabel)));
+        Object factory = factoryClass.getMethod("create", List.class, List.class).invoke(null, annotations, fields);
+
+        if (newEvent == null) {
+            Class<?> eventClass = Class.forName("jdk.jfr.Event");
+            begin = eventClass.getMethod("begin");
+            set = eventClass.getMethod("set", int.class, Object.class);
+            commit = eventClass.getMethod("commit");
+            newEvent = factoryClass.getMethod("newEvent");
+        }
+        return factory;
+    }
+
+}
@@ -0,0 +1,270 @@
+package com.zoi7.mysql.monitor;
+
+import com.zoi7.mysql.report.MigrationPhase;
+import com.zoi7.mysql.report.MigrationReport;
+import com.zoi7.mysql.report.StatementRecord;
+import com.zoi7.mysql.report.TableRecord;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 表结构同步的运行时计数, 首次使用时注册到平台 MBeanServer (com.zoi7.mysql:type=SchemaSync),
+ * 可通过 JConsole / JMC 等查看各阶段的次数与最近一次的耗时
+ */
+public class SchemaSync implements SchemaSyncMBean {
+
+    private static final Logger log = LoggerFactory.getLogger(SchemaSync.class);
+
+    public static final String OBJECT_NAME = "com.zoi7.mysql:type=SchemaSync";
+
+    private static final SchemaSync INSTANCE = new SchemaSync();
+    private static ObjectName registered; // 由本类注册的名称, 未注册时为 null
+
+    private final AtomicLong runs = new AtomicLong();
+    private final AtomicLong failedRuns = new AtomicLong();
+    private volatile long lastRunMillis;
+    private volatile long lastRunTimestamp;
+    private volatile String lastError;
+    private final AtomicLong scans = new AtomicLong();
+    private volatile long lastScanClasses;
+    private volatile long lastScanMillis;
+    private final AtomicLong totalScanMillis = new AtomicLong();
+    private volatile long lastMetadataMillis;
+    private final AtomicLong totalMetadataMillis = new AtomicLong();
+    private final AtomicLong tables = new AtomicLong();
+    private final AtomicLong failedTables = new AtomicLong();
+    private volatile long lastDiffMillis;
+    private final AtomicLong totalDiffMillis = new AtomicLong();
+    private final AtomicLong statements = new AtomicLong();
+    private final AtomicLong failedStatements = new AtomicLong();
+    private volatile long lastDdlMillis;
+    private final AtomicLong totalDdlMillis = new AtomicLong();
+
+    static {
+        register();
+    }
+
+    SchemaSync() {
+    }
+
+    /**
+     * @return 全局实例
+     */
+    public static SchemaSync get() {
+        return INSTANCE;
+    }
+
+    /**
+     * 注册 MBean, 同一 JVM 中已有其他类加载器注册 (如同一容器中的多个应用) 或没有权限时跳过
+     */
+    private static synchronized void register() {
+        if (registered != null) {
+            return;
+        }
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = new ObjectName(OBJECT_NAME);
+            if (!server.isRegistered(name)) {
+                server.registerMBean(INSTANCE, name);
+                registered = name;
+            }
+        } catch (Exception e) {
+            log.debug("SchemaSync register > skipped: {}", e.toString());
+        } catch (LinkageError e) {
+            log.debug("SchemaSync register > skipped: {}", e.toString());
+        }
+    }
+
+    /**
+     * 注销本类注册的 MBean, 避免平台 MBeanServer 持有实例导致重新部署后类加载器无法回收;
+     * 由 TableInitializer.shutdown() 调用, 之后再次初始化时重新注册
+     */
+    public static synchronized void unregister() {
+        if (registered == null) {
+            return;
+        }
+        try {
+            ManagementFactory.getPlatformMBeanServer().unregisterMBean(registered);
+        } catch (Exception e) {
+            log.debug("SchemaSync unregister > skipped: {}", e.toString());
+        } finally {
+            registered = null;
+        }
+    }
+
+    /**
+     * 记录一次表实体扫描
+     * @param elapsed 耗时(毫秒)
+     * @param classes 扫描到的类数
+     */
+    public void scanned(long elapsed, int classes) {
+        scans.incrementAndGet();
+        lastScanClasses = classes;
+        lastScanMillis = elapsed;
+        totalScanMillis.addAndGet(elapsed);
+    }
+
+    /**
+     * 记录一次初始化
+     * @param report 初始化报告
+     */
+    public void finished(MigrationReport report) {
+        register();
+        runs.incrementAndGet();
+        if (!report.isSuccess()) {
+            failedRuns.incrementAndGet();
+        }
+        lastRunMillis = report.getElapsed();
+        lastRunTimestamp = System.currentTimeMillis();
+        lastError = report.getError() == null ? null : report.getError().toString();
+
+        long metadata = report.getPhase(MigrationPhase.METADATA);
+        lastMetadataMillis = metadata;
+        totalMetadataMillis.addAndGet(metadata);
+
+        long diff = 0;
+        for (TableRecord table : report.getTables()) {
+            diff += table.getElapsed();
+            tables.incrementAndGet();
+            if (table.getError() != null) {
+                failedTables.incrementAndGet();
+            }
+        }
+        lastDiffMillis = diff;
+        totalDiffMillis.addAndGet(diff);
+
+        long ddl = report.getStatementElapsed();
+        for (StatementRecord statement : report.getStatements()) {
+            statements.incrementAndGet();
+            if (statement.getError() != null) {
+                failedStatements.incrementAndGet();
+            }
+        }
+        lastDdlMillis = ddl;
+        totalDdlMillis.addAndGet(ddl);
+    }
+
+    @Override
+    public long getRuns() {
+        return runs.get();
+    }
+
+    @Override
+    public long getFailedRuns() {
+        return failedRuns.get();
+    }
+
+    @Override
+    public long getLastRunMillis() {
+        return lastRunMillis;
+    }
+
+    @Override
+    public long getLastRunTimestamp() {
+        return lastRunTimestamp;
+    }
+
+    @Override
+    public String getLastError() {
+        return lastError;
+    }
+
+    @Override
+    public long getScans() {
+        return scans.get();
+    }
+
+    @Override
+    public long getLastScanClasses() {
+        return lastScanClasses;
+    }
+
+    @Override
+    public long getLastScanMillis() {
+        return lastScanMillis;
+    }
+
+    @Override
+    public long getTotalScanMillis() {
+        return totalScanMillis.get();
+    }
+
+    @Override
+    public long getLastMetadataMillis() {
+        return lastMetadataMillis;
+    }
+
+    @Override
+    public long getTotalMetadataMillis() {
+        return totalMetadataMillis.get();
+    }
+
+    @Override
+    public long getTables() {
+        return tables.get();
+    }
+
+    @Override
+    public long getFailedTables() {
+        return failedTables.get();
+    }
+
+    @Override
+    public long getLastDiffMillis() {
+        return lastDiffMillis;
+    }
+
+    @Override
+    public long getTotalDiffMillis() {
+        return totalDiffMillis.get();
+    }
+
+    @Override
+    public long getStatements() {
+        return statements.get();
+    }
+
+    @Override
+    public long getFailedStatements() {
+        return failedStatements.get();
+    }
+
+    @Override
+    public long getLastDdlMillis() {
+        return lastDdlMillis;
+    }
+
+    @Override
+    public long getTotalDdlMillis() {
+        return totalDdlMillis.get();
+    }
+
+    @Override
+    public void reset() {
+        runs.set(0);
+        failedRuns.set(0);
+        lastRunMillis = 0;
+        lastRunTimestamp = 0;
+        lastError = null;
+        scans.set(0);
+        lastScanClasses = 0;
+        lastScanMillis = 0;
+        totalScanMillis.set(0);
+        lastMetadataMillis = 0;
+        totalMetadataMillis.set(0);
+        tables.set(0);
+        failedTables.set(0);
+        lastDiffMillis = 0;
+        totalDiffMillis.set(0);
+        statements.set(0);
+        failedStatements.set(0);
+        lastDdlMillis = 0;
+        totalDdlMillis.set(0);
+    }
+
+}
@@ -0,0 +1,62 @@
+package com.zoi7.mysql.monitor;
+
+/**
+ * 表结构同步的 JMX 接口, 注册为 com.zoi7.mysql:type=SchemaSync
+ * 耗时单位均为毫秒; 检测与 DDL 耗时为各表, 各语句耗时之和, 多线程同步时可能大于实际经过的时间
+ */
+public interface SchemaSyncMBean {
+
+    /** 初始化次数 */
+    long getRuns();
+
+    /** 中止或有表失败的初始化次数 */
+    long getFailedRuns();
+
+    /** 最近一次初始化的总耗时 */
+    long getLastRunMillis();
+
+    /** 最近一次初始化结束的时间戳, 未初始化时为 0 */
+    long getLastRunTimestamp();
+
+    /** 最近一次初始化中止的原因, 没有时为 null */
+    String getLastError();
+
+    /** 扫描表实体的次数 */
+    long getScans();
+
+    /** 最近一次扫描到的类数 */
+    long getLastScanClasses();
+
+    long getLastScanMillis();
+
+    long getTotalScanMillis();
+
+    /** 最近一次读取表结构元数据 (连接, 指纹, 快照) 的耗时 */
+    long getLastMetadataMillis();
+
+    long getTotalMetadataMillis();
+
+    /** 检测 (对比表结构) 过的表数 */
+    long getTables();
+
+    /** 检测失败的表数 */
+    long getFailedTables();
+
+    long getLastDiffMillis();
+
+    long getTotalDiffMillis();
+
+    /** 执行的 DDL 语句数 */
+    long getStatements();
+
+    /** 执行失败的 DDL 语句数 */
+    long getFailedStatements();
+
+    long getLastDdlMillis();
+
+    long getTotalDdlMillis();
+
+    /** 清零所有计数 */
+    void reset();
+
+}
@@ -0,0 +1,137 @@
+package com.zoi7.mysql.processor;
+
+import com.zoi7.mysql.analysis.EntityIndex;
+import com.zoi7.mysql.comment.Entity;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.TypeElement;
+import javax.tools.Diagnostic;
+import javax.tools.FileObject;
+import javax.tools.StandardLocation;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * 表实体索引注解处理器 (JSR 269)
+ * 编译时收集所有 @Entity 类, 写入 {@link EntityIndex#LOCATION}, 运行时读取该索引即可定位表实体,
+ * 不再需要扫描并加载该模块的所有类; 增量编译时保留上次索引中仍然存在的表实体
+ */
+@SupportedAnnotationTypes("com.zoi7.mysql.comment.Entity")
+public class EntityIndexProcessor extends AbstractProcessor {
+
+    private Map<String, String> entries = new TreeMap<String, String>();
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        if (roundEnv.processingOver()) {
+            writeIndex();
+            return false;
+        }
+        for (Element element : roundEnv.getElementsAnnotatedWith(Entity.class)) {
+            if (element.getKind() == ElementKind.CLASS) {
+                collect((TypeElement) element);
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 收集表实体信息
+     * @param type 表实体
+     */
+    private void collect(TypeElement type) {
+        String className = processingEnv.getElementUtils().getBinaryName(type).toString();
+        entries.put(className, type.getAnnotation(Entity.class).tableName());
+    }
+
+    /**
+     * 写入索引文件
+     */
+    private void writeIndex() {
+        boolean existed = mergePrevious();
+        if (entries.isEmpty() && !existed) {
+            return;
+        }
+        try {
+            FileObject file = processingEnv.getFiler()
+                    .createResource(StandardLocation.CLASS_OUTPUT, "", EntityIndex.LOCATION);
+            Writer writer = new OutputStreamWriter(file.openOutputStream(), "ISO-8859-1");
+            try {
+                writer.write("# generated by mysql-table-helper, do not edit\n");
+                for (Map.Entry<String, String> entry : entries.entrySet()) {
+                    writer.write(entry.getKey() + "=" + escape(entry.getValue()) + "\n");
+                }
+            } finally {
+                writer.close();
+            }
+        } catch (IOException e) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+                    "write " + EntityIndex.LOCATION + " failed: " + e.getMessage());
+        }
+    }
+
+    /**
+     * 增量编译只处理改动的源文件, 合并上次生成的索引中仍然存在且仍为表实体的类, 已删除的类不再保留
+     * @return 上次生成的索引是否存在
+     */
+    private boolean mergePrevious() {
+        Properties previous = new Properties();
+        try {
+            FileObject file = processingEnv.getFiler()
+                    .getResource(StandardLocation.CLASS_OUTPUT, "", EntityIndex.LOCATION);
+            InputStream in = file.openInputStream();
+            try {
+                previous.load(in);
+            } finally {
+                in.close();
+            }
+        } catch (IOException e) {
+            // 首次编译, 没有上次的索引
+            return false;
+        }
+        for (String className : previous.stringPropertyNames()) {
+            if (entries.containsKey(className)) {
+                continue;
+            }
+            TypeElement type = processingEnv.getElementUtils().getTypeElement(className.replace('$', '.'));
+            if (type != null && type.getAnnotation(Entity.class) != null) {
+                collect(type);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 按 Properties 格式转义
+     */
+    private static String escape(String value) {
+        StringBuilder sb = new StringBuilder();
+        for (char c : value.toCharArray()) {
+            if (c == '\\') {
+                sb.append("\\\\");
+            } else if (c < 0x20 || c > 0x7e) {
+                sb.append(String.format("\\u%04x", (int) c));
+            } else {
+                sb.append(c);
+            }
+        }
+        return sb.toString();
+    }
+
+}
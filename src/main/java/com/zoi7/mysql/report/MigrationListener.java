@@ -0,0 +1,35 @@
+package com.zoi7.mysql.report;
+
+/**
+ * 初始化事件监听器, 与 MigrationReport 记录的内容相同, 可用于实时推送到监控系统
+ * 通过 DataConfig.setMigrationListener 或配置 db.migrationListener (类名, 需有无参构造) 注册;
+ * 单表检测与语句执行事件在工作线程中回调, 实现需要线程安全. 监听器抛出的异常只记录日志, 不影响初始化
+ */
+public interface MigrationListener {
+
+    /**
+     * 阶段结束
+     * @param phase 阶段
+     * @param elapsed 耗时(毫秒)
+     */
+    void onPhase(MigrationPhase phase, long elapsed);
+
+    /**
+     * 单张表检测结束
+     * @param table 检测结果
+     */
+    void onTable(TableRecord table);
+
+    /**
+     * 单条语句执行结束
+     * @param statement 执行结果
+     */
+    void onStatement(StatementRecord statement);
+
+    /**
+     * 初始化结束
+     * @param report 报告
+     */
+    void onFinished(MigrationReport report);
+
+}
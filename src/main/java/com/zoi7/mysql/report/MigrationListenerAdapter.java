@@ -0,0 +1,24 @@
+package com.zoi7.mysql.report;
+
+/**
+ * 空实现的监听器, 只需关心部分事件时继承
+ */
+public abstract class MigrationListenerAdapter implements MigrationListener {
+
+    @Override
+    public void onPhase(MigrationPhase phase, long elapsed) {
+    }
+
+    @Override
+    public void onTable(TableRecord table) {
+    }
+
+    @Override
+    public void onStatement(StatementRecord statement) {
+    }
+
+    @Override
+    public void onFinished(MigrationReport report) {
+    }
+
+}
@@ -0,0 +1,15 @@
+package com.zoi7.mysql.report;
+
+/**
+ * 初始化的阶段
+ */
+public enum MigrationPhase {
+
+    SCAN, // 扫描表实体 (共享已扫描的模型时没有该阶段)
+    METADATA, // 读取指纹与表结构快照 (INFORMATION_SCHEMA)
+    PLAN, // plan 模式: 检测所有表并生成迁移计划
+    SYNC, // 检测表结构并执行 DDL, 单表检测耗时与单条语句耗时见 MigrationReport.getTables / getStatements
+    FINGERPRINT, // 保存表实体指纹
+    PARTITION // 分区维护
+
+}
@@ -0,0 +1,280 @@
+package com.zoi7.mysql.report;
+
+import com.zoi7.mysql.ddl.DdlStatement;
+import com.zoi7.mysql.ddl.TableFailure;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 初始化报告: 各阶段耗时, 单表检测耗时, 单条语句的耗时与影响行数, 以及失败原因
+ * 记录的同时转发给监听器, 工作线程并发写入, 读取在初始化结束之后
+ */
+public class MigrationReport {
+
+    private static final Logger log = LoggerFactory.getLogger(MigrationReport.class);
+
+    private final MigrationListener listener; // 监听器, 可为 null
+    private final Map<MigrationPhase, Long> phases = new EnumMap<MigrationPhase, Long>(MigrationPhase.class); // 阶段耗时
+    private final List<TableRecord> tables = new ArrayList<TableRecord>(); // 单表检测记录
+    private final List<StatementRecord> statements = new ArrayList<StatementRecord>(); // 语句执行记录
+    private final List<TableFailure> failures = new ArrayList<TableFailure>(); // 检测或变更失败的表
+    private int batches; // 合并执行的批次数
+    private long batchElapsed; // 合并执行的批次总耗时(毫秒)
+    private long elapsed; // 总耗时(毫秒)
+    private Throwable error; // 导致初始化中止的异常
+
+    /**
+     * @param listener 监听器, 可为 null
+     */
+    public MigrationReport(MigrationListener listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * 记录阶段耗时
+     * @param phase 阶段
+     * @param elapsed 耗时(毫秒)
+     */
+    public void phase(MigrationPhase phase, long elapsed) {
+        synchronized (this) {
+            Long previous = phases.get(phase);
+            phases.put(phase, previous == null ? elapsed : previous + elapsed);
+        }
+        if (listener != null) {
+            try {
+                listener.onPhase(phase, elapsed);
+            } catch (RuntimeException e) {
+                log.warn("MigrationListener onPhase failed", e);
+            }
+        }
+    }
+
+    /**
+     * 记录单表检测结果
+     * @param tableName 表名
+     * @param elapsed 检测耗时(毫秒)
+     * @param statements 生成的语句数
+     * @param error 检测失败的原因
+     */
+    public void table(String tableName, long elapsed, int statements, Throwable error) {
+        TableRecord record = new TableRecord(tableName, elapsed, statements, error);
+        synchronized (this) {
+            tables.add(record);
+        }
+        if (listener != null) {
+            try {
+                listener.onTable(record);
+            } catch (RuntimeException e) {
+                log.warn("MigrationListener onTable failed", e);
+            }
+        }
+    }
+
+    /**
+     * 记录语句执行结果
+     * @param ddl 语句
+     * @param error 执行失败的原因
+     */
+    public void statement(DdlStatement ddl, Throwable error) {
+        StatementRecord record = new StatementRecord(ddl, error);
+        synchronized (this) {
+            statements.add(record);
+        }
+        if (listener != null) {
+            try {
+                listener.onStatement(record);
+            } catch (RuntimeException e) {
+                log.warn("MigrationListener onStatement failed", e);
+            }
+        }
+    }
+
+    /**
+     * 记录一个合并执行的批次, 批次中的语句另行通过 statement 记录, 不含单条耗时
+     * @param elapsed 批次耗时(毫秒)
+     */
+    public synchronized void batch(long elapsed) {
+        batches++;
+        batchElapsed += elapsed;
+    }
+
+    /**
+     * 初始化结束
+     * @param elapsed 总耗时(毫秒)
+     * @param failures 检测或变更失败的表
+     * @param error 导致初始化中止的异常
+     */
+    public void finish(long elapsed, List<TableFailure> failures, Throwable error) {
+        synchronized (this) {
+            this.elapsed = elapsed;
+            this.failures.addAll(failures);
+            this.error = error;
+        }
+        if (listener != null) {
+            try {
+                listener.onFinished(this);
+            } catch (RuntimeException e) {
+                log.warn("MigrationListener onFinished failed", e);
+            }
+        }
+    }
+
+    /**
+     * @return 各阶段耗时(毫秒), 按阶段顺序
+     */
+    public synchronized Map<MigrationPhase, Long> getPhases() {
+        return Collections.unmodifiableMap(new EnumMap<MigrationPhase, Long>(phases));
+    }
+
+    /**
+     * @param phase 阶段
+     * @return 阶段耗时(毫秒), 未经历该阶段时为 0
+     */
+    public synchronized long getPhase(MigrationPhase phase) {
+        Long elapsed = phases.get(phase);
+        return elapsed == null ? 0 : elapsed;
+    }
+
+    public synchronized List<TableRecord> getTables() {
+        return Collections.unmodifiableList(new ArrayList<TableRecord>(tables));
+    }
+
+    public synchronized List<StatementRecord> getStatements() {
+        return Collections.unmodifiableList(new ArrayList<StatementRecord>(statements));
+    }
+
+    /**
+     * @return 检测失败的表
+     */
+    public synchronized List<TableRecord> getFailedTables() {
+        List<TableRecord> failed = new ArrayList<TableRecord>();
+        for (TableRecord table : tables) {
+            if (table.getError() != null) {
+                failed.add(table);
+            }
+        }
+        return failed;
+    }
+
+    /**
+     * @return 执行失败的语句
+     */
+    public synchronized List<StatementRecord> getFailedStatements() {
+        List<StatementRecord> failed = new ArrayList<StatementRecord>();
+        for (StatementRecord statement : statements) {
+            if (statement.getError() != null) {
+                failed.add(statement);
+            }
+        }
+        return failed;
+    }
+
+    public synchronized int getBatches() {
+        return batches;
+    }
+
+    /**
+     * @return 合并执行的批次总耗时(毫秒)
+     */
+    public synchronized long getBatchElapsed() {
+        return batchElapsed;
+    }
+
+    /**
+     * @return 所有语句的执行耗时之和(毫秒), 包括合并执行的批次
+     */
+    public synchronized long getStatementElapsed() {
+        long total = batchElapsed;
+        for (StatementRecord statement : statements) {
+            total += Math.max(0, statement.getElapsed());
+        }
+        return total;
+    }
+
+    /**
+     * @return 所有语句影响的行数之和, 不含未知
+     */
+    public synchronized long getRows() {
+        long rows = 0;
+        for (StatementRecord statement : statements) {
+            rows += Math.max(0, statement.getRows());
+        }
+        return rows;
+    }
+
+    /**
+     * @return 检测或变更失败的表, 包括工作线程无法获取连接而未检测的表
+     */
+    public synchronized List<TableFailure> getFailures() {
+        return Collections.unmodifiableList(new ArrayList<TableFailure>(failures));
+    }
+
+    /**
+     * @return 是否没有中止, 且所有表都检测并变更成功
+     */
+    public synchronized boolean isSuccess() {
+        return error == null && failures.isEmpty();
+    }
+
+    public synchronized long getElapsed() {
+        return elapsed;
+    }
+
+    public synchronized Throwable getError() {
+        return error;
+    }
+
+    /**
+     * @param top 列出的最慢的表与语句数
+     * @return 多行文本: 汇总, 各阶段耗时, 最慢的表与语句, 失败原因
+     */
+    public synchronized String format(int top) {
+        StringBuilder sb = new StringBuilder();
+        sb.append("elapsed: ").append(elapsed).append("ms, tables: ").append(tables.size())
+                .append(", statements: ").append(statements.size()).append(", rows: ").append(getRows())
+                .append(", batches: ").append(batches).append(" (").append(batchElapsed).append("ms)")
+                .append(", failed tables: ").append(failures.size());
+        if (error != null) {
+            sb.append("\n  error: ").append(error);
+        }
+        for (Map.Entry<MigrationPhase, Long> phase : phases.entrySet()) {
+            sb.append("\n  ").append(phase.getKey()).append(": ").append(phase.getValue()).append("ms");
+        }
+        List<TableRecord> slowTables = new ArrayList<TableRecord>(tables);
+        Collections.sort(slowTables, new Comparator<TableRecord>() {
+            @Override
+            public int compare(TableRecord o1, TableRecord o2) {
+                return o1.getElapsed() < o2.getElapsed() ? 1 : (o1.getElapsed() == o2.getElapsed() ? 0 : -1);
+            }
+        });
+        for (int i = 0; i < Math.min(top, slowTables.size()); i++) {
+            sb.append("\n  table ").append(slowTables.get(i));
+        }
+        List<StatementRecord> slowStatements = new ArrayList<StatementRecord>(statements);
+        Collections.sort(slowStatements, new Comparator<StatementRecord>() {
+            @Override
+            public int compare(StatementRecord o1, StatementRecord o2) {
+                return o1.getElapsed() < o2.getElapsed() ? 1 : (o1.getElapsed() == o2.getElapsed() ? 0 : -1);
+            }
+        });
+        for (int i = 0; i < Math.min(top, slowStatements.size()); i++) {
+            sb.append("\n  statement ").append(slowStatements.get(i));
+        }
+        for (TableFailure failure : failures) {
+            sb.append("\n  failed ").append(failure);
+        }
+        return sb.toString();
+    }
+
+    @Override
+    public String toString() {
+        return format(5);
+    }
+}
@@ -0,0 +1,68 @@
+package com.zoi7.mysql.report;
+
+import com.zoi7.mysql.ddl.DdlAlgorithm;
+import com.zoi7.mysql.ddl.DdlStatement;
+
+/**
+ * 单条语句的执行记录
+ */
+public class StatementRecord {
+
+    private String tableName; // 表名
+    private String sql; // 实际执行的语句, 失败时为原始语句
+    private DdlAlgorithm algorithm; // 实际使用的算法
+    private boolean batched; // 是否通过批量执行
+    private boolean shadow; // 是否通过影子表变更
+    private long elapsed; // 耗时(毫秒), 合并执行时为 -1, 只记录整个批次的耗时
+    private long rows; // 影响的行数, -1 为未知
+    private Throwable error; // 执行失败的原因
+
+    public StatementRecord(DdlStatement ddl, Throwable error) {
+        this.tableName = ddl.getTableName();
+        this.sql = error == null && ddl.getExecutedSql() != null ? ddl.getExecutedSql() : ddl.getSql();
+        this.algorithm = ddl.getAlgorithm();
+        this.batched = ddl.isBatched();
+        this.shadow = ddl.isShadow();
+        this.elapsed = error == null ? ddl.getElapsed() : 0;
+        this.rows = error == null ? ddl.getRows() : -1;
+        this.error = error;
+    }
+
+    public String getTableName() {
+        return tableName;
+    }
+
+    public String getSql() {
+        return sql;
+    }
+
+    public DdlAlgorithm getAlgorithm() {
+        return algorithm;
+    }
+
+    public boolean isBatched() {
+        return batched;
+    }
+
+    public boolean isShadow() {
+        return shadow;
+    }
+
+    public long getElapsed() {
+        return elapsed;
+    }
+
+    public long getRows() {
+        return rows;
+    }
+
+    public Throwable getError() {
+        return error;
+    }
+
+    @Override
+    public String toString() {
+        return tableName + ": " + (batched ? "batched" : elapsed + "ms") + ", rows: " + rows + (error == null ? "" : ", error: " + error)
+                + "\n    " + sql.replace("\n", " ");
+    }
+}
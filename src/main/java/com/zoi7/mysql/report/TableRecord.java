@@ -0,0 +1,40 @@
+package com.zoi7.mysql.report;
+
+/**
+ * 单张表的检测记录
+ */
+public class TableRecord {
+
+    private String tableName; // 表名
+    private long elapsed; // 检测耗时(毫秒), 包括反射解析表实体与比对表结构, 不含执行 DDL
+    private int statements; // 生成的语句数
+    private Throwable error; // 检测失败的原因
+
+    public TableRecord(String tableName, long elapsed, int statements, Throwable error) {
+        this.tableName = tableName;
+        this.elapsed = elapsed;
+        this.statements = statements;
+        this.error = error;
+    }
+
+    public String getTableName() {
+        return tableName;
+    }
+
+    public long getElapsed() {
+        return elapsed;
+    }
+
+    public int getStatements() {
+        return statements;
+    }
+
+    public Throwable getError() {
+        return error;
+    }
+
+    @Override
+    public String toString() {
+        return tableName + ": " + elapsed + "ms, statements: " + statements + (error == null ? "" : ", error: " + error);
+    }
+}
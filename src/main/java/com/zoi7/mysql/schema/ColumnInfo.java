@@ -0,0 +1,87 @@
+package com.zoi7.mysql.schema;
+
+/**
+ * 数据库中现有字段的结构信息 (来源 INFORMATION_SCHEMA.COLUMNS)
+ */
+public class ColumnInfo {
+
+    private String name; // 字段名
+    private int position; // 字段顺序
+    private String dataType; // 类型, 如 varchar
+    private String columnType; // 完整类型, 如 varchar(50) / int(10) unsigned
+    private boolean nullable; // 是否可为空
+    private String defaultValue; // 默认值
+    private String comment; // 注释
+    private String extra; // 附加信息, 如 auto_increment
+    private long charLength; // 字符类型的最大字符数 (CHARACTER_MAXIMUM_LENGTH)
+    private long octetLength; // 字符类型的最大字节数 (CHARACTER_OCTET_LENGTH)
+
+    public ColumnInfo(String name, int position, String dataType, String columnType, boolean nullable,
+                      String defaultValue, String comment, String extra) {
+        this(name, position, dataType, columnType, nullable, defaultValue, comment, extra, 0, 0);
+    }
+
+    public ColumnInfo(String name, int position, String dataType, String columnType, boolean nullable,
+                      String defaultValue, String comment, String extra, long charLength, long octetLength) {
+        this.name = name;
+        this.position = position;
+        this.dataType = dataType;
+        this.columnType = columnType;
+        this.nullable = nullable;
+        this.defaultValue = defaultValue;
+        this.comment = comment;
+        this.extra = extra;
+        this.charLength = charLength;
+        this.octetLength = octetLength;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getPosition() {
+        return position;
+    }
+
+    public String getDataType() {
+        return dataType;
+    }
+
+    public String getColumnType() {
+        return columnType;
+    }
+
+    public boolean isNullable() {
+        return nullable;
+    }
+
+    public String getDefaultValue() {
+        return defaultValue;
+    }
+
+    public String getComment() {
+        return comment;
+    }
+
+    public String getExtra() {
+        return extra;
+    }
+
+    public long getCharLength() {
+        return charLength;
+    }
+
+    public long getOctetLength() {
+        return octetLength;
+    }
+
+    @Override
+    public String toString() {
+        return "ColumnInfo{" +
+                "name='" + name + '\'' +
+                ", columnType='" + columnType + '\'' +
+                ", nullable=" + nullable +
+                ", defaultValue='" + defaultValue + '\'' +
+                '}';
+    }
+}
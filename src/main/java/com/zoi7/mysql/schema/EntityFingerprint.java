@@ -0,0 +1,132 @@
+package com.zoi7.mysql.schema;
+
+import com.zoi7.mysql.comment.Entity;
+import com.zoi7.mysql.comment.Field;
+import com.zoi7.mysql.comment.Id;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Array;
+import java.lang.reflect.Method;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * 表实体指纹
+ * 根据 @Entity / @Field / @Id (含 @Index / @UniteIndex) 的全部注解属性计算稳定的哈希值,
+ * 注解属性按名称排序后参与计算, 与 JVM 的注解 toString 实现无关
+ */
+public class EntityFingerprint {
+
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    /**
+     * 计算表实体指纹
+     * @param clazz 表实体
+     * @param uppercase 表字段是否大写
+     * @return 32位十六进制 MD5
+     */
+    public static String compute(Class<?> clazz, boolean uppercase) {
+        StringBuilder sb = new StringBuilder();
+        sb.append("uppercase=").append(uppercase).append('\n');
+        describe(sb, clazz.getAnnotation(Entity.class));
+        sb.append('\n');
+        for (java.lang.reflect.Field field : clazz.getDeclaredFields()) {
+            if (!field.isAnnotationPresent(Field.class)) {
+                continue;
+            }
+            sb.append(field.getName()).append(':').append(field.getType().getName()).append(':');
+            describe(sb, field.getAnnotation(Field.class));
+            if (field.isAnnotationPresent(Id.class)) {
+                describe(sb, field.getAnnotation(Id.class));
+            }
+            sb.append('\n');
+        }
+        return md5(sb.toString());
+    }
+
+    private static void describe(StringBuilder sb, Object value) {
+        if (value == null) {
+            sb.append("null");
+        } else if (value instanceof Annotation) {
+            Annotation annotation = (Annotation) value;
+            Method[] methods = annotation.annotationType().getDeclaredMethods();
+            Arrays.sort(methods, new Comparator<Method>() {
+                @Override
+                public int compare(Method o1, Method o2) {
+                    return o1.getName().compareTo(o2.getName());
+                }
+            });
+            sb.append('@').append(annotation.annotationType().getSimpleName()).append('(');
+            for (Method method : methods) {
+                sb.append(method.getName()).append('=');
+                try {
+                    method.setAccessible(true);
+                    describe(sb, method.invoke(annotation));
+                } catch (Exception e) {
+                    throw new IllegalStateException("read annotation " + annotation.annotationType() + " failed", e);
+                }
+                sb.append(',');
+            }
+            sb.append(')');
+        } else if (value.getClass().isArray()) {
+            sb.append('[');
+            for (int i = 0; i < Array.getLength(value); i++) {
+                describe(sb, Array.get(value, i));
+                sb.append(',');
+            }
+            sb.append(']');
+        } else if (value instanceof Class) {
+            sb.append(((Class<?>) value).getName());
+        } else {
+            sb.append(String.valueOf(value).replace("\\", "\\\\").replace(",", "\\,"));
+        }
+    }
+
+    /**
+     * 在表实体指纹中加入影响生成 DDL 的配置 (如 modifyColumn, dropIndex) 与服务器版本
+     * @param fingerprint 表实体指纹
+     * @param settings 配置与服务器版本
+     * @return 32位十六进制 MD5
+     */
+    public static String withSettings(String fingerprint, String settings) {
+        return md5(fingerprint + '\n' + settings);
+    }
+
+    /**
+     * 合并多个表实体的指纹, 与顺序无关
+     * @param fingerprints 表实体指纹
+     * @return 32位十六进制 MD5
+     */
+    public static String combine(Collection<String> fingerprints) {
+        List<String> sorted = new ArrayList<String>(fingerprints);
+        Collections.sort(sorted);
+        StringBuilder sb = new StringBuilder();
+        for (String fingerprint : sorted) {
+            sb.append(fingerprint).append('\n');
+        }
+        return md5(sb.toString());
+    }
+
+    private static String md5(String content) {
+        try {
+            byte[] digest = MessageDigest.getInstance("MD5").digest(content.getBytes("UTF-8"));
+            char[] chars = new char[digest.length * 2];
+            for (int i = 0; i < digest.length; i++) {
+                chars[i * 2] = HEX[(digest[i] >> 4) & 0xf];
+                chars[i * 2 + 1] = HEX[digest[i] & 0xf];
+            }
+            return new String(chars);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        } catch (java.io.UnsupportedEncodingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+}
@@ -0,0 +1,95 @@
+package com.zoi7.mysql.schema;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 表实体指纹的存储
+ * 指纹保存在目标库的一张跟踪表中, 启动时一次查询读取全部指纹, 与当前实体指纹一致的表可直接跳过检测
+ */
+public class FingerprintStore {
+
+    private static final Logger log = LoggerFactory.getLogger(FingerprintStore.class);
+
+    private String tableName; // 跟踪表表名
+
+    public FingerprintStore(String tableName) {
+        this.tableName = tableName;
+    }
+
+    /**
+     * 读取已保存的指纹
+     * @param connection 数据库连接
+     * @return 表名(小写) → 指纹, 跟踪表不存在时返回空集合
+     * @throws SQLException 查询失败
+     */
+    public Map<String, String> load(Connection connection) throws SQLException {
+        Map<String, String> fingerprints = new HashMap<String, String>();
+        Statement statement = connection.createStatement();
+        try {
+            ResultSet rs = statement.executeQuery("SELECT table_name, fingerprint FROM " + tableName);
+            while (rs.next()) {
+                fingerprints.put(rs.getString(1).toLowerCase(), rs.getString(2));
+            }
+            rs.close();
+        } catch (SQLException e) {
+            // 1146: Table doesn't exist
+            if (e.getErrorCode() != 1146) {
+                throw e;
+            }
+            log.debug("FingerprintStore load > table {} not exists", tableName);
+        } finally {
+            statement.close();
+        }
+        return fingerprints;
+    }
+
+    /**
+     * 保存指纹, 跟踪表不存在时自动创建
+     * @param connection 数据库连接
+     * @param fingerprints 表名 → 指纹
+     * @param entities 表名 → 实体类名
+     * @throws SQLException 保存失败
+     */
+    public void save(Connection connection, Map<String, String> fingerprints, Map<String, String> entities)
+            throws SQLException {
+        if (fingerprints.isEmpty()) {
+            return;
+        }
+        Statement statement = connection.createStatement();
+        try {
+            statement.execute("CREATE TABLE IF NOT EXISTS " + tableName + "(\n" +
+                    "\ttable_name VARCHAR(64) NOT NULL,\n" +
+                    "\tentity VARCHAR(255) NOT NULL,\n" +
+                    "\tfingerprint CHAR(32) NOT NULL,\n" +
+                    "\tupdate_time DATETIME NOT NULL,\n" +
+                    "\tPRIMARY KEY (table_name)\n" +
+                    ") COMMENT \"mysql-table-helper 表实体指纹\"");
+        } finally {
+            statement.close();
+        }
+        PreparedStatement ps = connection.prepareStatement("REPLACE INTO " + tableName +
+                " (table_name, entity, fingerprint, update_time) VALUES (?, ?, ?, NOW())");
+        try {
+            for (Map.Entry<String, String> entry : fingerprints.entrySet()) {
+                ps.setString(1, entry.getKey());
+                ps.setString(2, entities.get(entry.getKey()));
+                ps.setString(3, entry.getValue());
+                ps.addBatch();
+            }
+            ps.executeBatch();
+        } finally {
+            ps.close();
+        }
+        log.debug("FingerprintStore save > {} fingerprints", fingerprints.size());
+    }
+
+}
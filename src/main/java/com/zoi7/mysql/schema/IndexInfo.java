@@ -0,0 +1,71 @@
+package com.zoi7.mysql.schema;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 数据库中现有索引的结构信息 (来源 INFORMATION_SCHEMA.STATISTICS)
+ */
+public class IndexInfo {
+
+    public static final String PRIMARY = "PRIMARY";
+
+    private String name; // 索引名
+    private boolean unique; // 是否唯一
+    private List<String> columns = new ArrayList<String>(); // 索引列, 按 SEQ_IN_INDEX 排序, 函数索引的键部分为 null
+    private List<Integer> subParts = new ArrayList<Integer>(); // 前缀长度 (SUB_PART), 整列为 0
+    private List<Boolean> descs = new ArrayList<Boolean>(); // 是否降序 (COLLATION = 'D')
+    private List<String> expressions = new ArrayList<String>(); // 函数索引的表达式 (EXPRESSION), 列键部分为 null
+
+    public IndexInfo(String name, boolean unique) {
+        this.name = name;
+        this.unique = unique;
+    }
+
+    void addColumn(String column, int subPart, boolean desc, String expression) {
+        this.columns.add(column);
+        this.subParts.add(subPart);
+        this.descs.add(desc);
+        this.expressions.add(expression);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public boolean isUnique() {
+        return unique;
+    }
+
+    public boolean isPrimary() {
+        return PRIMARY.equalsIgnoreCase(name);
+    }
+
+    public List<String> getColumns() {
+        return columns;
+    }
+
+    public List<Integer> getSubParts() {
+        return subParts;
+    }
+
+    public List<Boolean> getDescs() {
+        return descs;
+    }
+
+    public List<String> getExpressions() {
+        return expressions;
+    }
+
+    @Override
+    public String toString() {
+        return "IndexInfo{" +
+                "name='" + name + '\'' +
+                ", unique=" + unique +
+                ", columns=" + columns +
+                ", subParts=" + subParts +
+                ", descs=" + descs +
+                ", expressions=" + expressions +
+                '}';
+    }
+}
@@ -0,0 +1,52 @@
+package com.zoi7.mysql.schema;
+
+/**
+ * 数据库中现有分区的结构信息 (来源 INFORMATION_SCHEMA.PARTITIONS)
+ */
+public class PartitionInfo {
+
+    private String name; // 分区名
+    private String method; // 分区方式, 如 RANGE / RANGE COLUMNS / HASH
+    private String expression; // 分区表达式或列
+    private String description; // 分区边界, RANGE 为 LESS THAN 的值, LIST 为值列表
+    private long rows; // 预估行数
+
+    public PartitionInfo(String name, String method, String expression, String description, long rows) {
+        this.name = name;
+        this.method = method;
+        this.expression = expression;
+        this.description = description;
+        this.rows = rows;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getMethod() {
+        return method;
+    }
+
+    public String getExpression() {
+        return expression;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public long getRows() {
+        return rows;
+    }
+
+    @Override
+    public String toString() {
+        return "PartitionInfo{" +
+                "name='" + name + '\'' +
+                ", method='" + method + '\'' +
+                ", expression='" + expression + '\'' +
+                ", description='" + description + '\'' +
+                ", rows=" + rows +
+                '}';
+    }
+}
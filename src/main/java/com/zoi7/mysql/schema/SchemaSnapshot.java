@@ -0,0 +1,193 @@
+package com.zoi7.mysql.schema;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 当前数据库的表结构快照
+ * 通过少量基于集合的 INFORMATION_SCHEMA 查询一次性读取整个库的表/字段/索引,
+ * 之后的表结构比对全部在内存中完成, 避免每个字段一次 DESCRIBE 的网络往返
+ */
+public class SchemaSnapshot {
+
+    private static final Logger log = LoggerFactory.getLogger(SchemaSnapshot.class);
+
+    private static final String TABLES_SQL = "SELECT TABLE_NAME, TABLE_ROWS, DATA_LENGTH, INDEX_LENGTH, ENGINE, ROW_FORMAT, " +
+            "CREATE_OPTIONS, AUTO_INCREMENT FROM INFORMATION_SCHEMA.TABLES " +
+            "WHERE TABLE_SCHEMA = DATABASE()";
+    private static final String COLUMNS_SQL = "SELECT TABLE_NAME, COLUMN_NAME, ORDINAL_POSITION, DATA_TYPE, COLUMN_TYPE, " +
+            "IS_NULLABLE, COLUMN_DEFAULT, COLUMN_COMMENT, EXTRA, CHARACTER_MAXIMUM_LENGTH, CHARACTER_OCTET_LENGTH " +
+            "FROM INFORMATION_SCHEMA.COLUMNS " +
+            "WHERE TABLE_SCHEMA = DATABASE() ORDER BY TABLE_NAME, ORDINAL_POSITION";
+    private static final String STATISTICS_SQL = "SELECT TABLE_NAME, INDEX_NAME, NON_UNIQUE, COLUMN_NAME, SUB_PART, " +
+            "COLLATION%s FROM INFORMATION_SCHEMA.STATISTICS " +
+            "WHERE TABLE_SCHEMA = DATABASE() ORDER BY TABLE_NAME, INDEX_NAME, SEQ_IN_INDEX";
+    private static final int ER_BAD_FIELD_ERROR = 1054; // MySQL 8.0.13 以下 / MariaDB 没有 STATISTICS.EXPRESSION
+    private static final String PARTITIONS_SQL = "SELECT TABLE_NAME, PARTITION_NAME, PARTITION_METHOD, PARTITION_EXPRESSION, " +
+            "PARTITION_DESCRIPTION, TABLE_ROWS FROM INFORMATION_SCHEMA.PARTITIONS " +
+            "WHERE TABLE_SCHEMA = DATABASE() AND PARTITION_NAME IS NOT NULL " +
+            "ORDER BY TABLE_NAME, PARTITION_ORDINAL_POSITION, SUBPARTITION_ORDINAL_POSITION";
+
+    private String version; // 数据库版本, 如 8.0.32
+    private Map<String, TableInfo> tables = new LinkedHashMap<String, TableInfo>();
+
+    private SchemaSnapshot() {
+    }
+
+    /**
+     * 读取当前连接所在库的表结构
+     * @param connection 数据库连接
+     * @return 表结构快照
+     * @throws SQLException 查询失败
+     */
+    public static SchemaSnapshot load(Connection connection) throws SQLException {
+        long start = System.currentTimeMillis();
+        SchemaSnapshot snapshot = new SchemaSnapshot();
+        Statement statement = connection.createStatement();
+        try {
+            snapshot.loadVersion(statement);
+            snapshot.loadTables(statement);
+            snapshot.loadColumns(statement);
+            snapshot.loadIndices(statement);
+            snapshot.loadPartitions(statement);
+        } finally {
+            statement.close();
+        }
+        log.debug("SchemaSnapshot load > version: {}, tables: {}, cost: {}ms", snapshot.version, snapshot.tables.size(),
+                System.currentTimeMillis() - start);
+        return snapshot;
+    }
+
+    private void loadVersion(Statement statement) throws SQLException {
+        ResultSet rs = statement.executeQuery("SELECT VERSION()");
+        try {
+            if (rs.next()) {
+                this.version = rs.getString(1);
+            }
+        } finally {
+            rs.close();
+        }
+    }
+
+    private void loadTables(Statement statement) throws SQLException {
+        ResultSet rs = statement.executeQuery(TABLES_SQL);
+        try {
+            while (rs.next()) {
+                String name = rs.getString("TABLE_NAME");
+                TableInfo table = new TableInfo(name);
+                table.setRows(rs.getLong("TABLE_ROWS"));
+                table.setDataLength(rs.getLong("DATA_LENGTH"));
+                table.setIndexLength(rs.getLong("INDEX_LENGTH"));
+                table.setEngine(rs.getString("ENGINE"));
+                table.setRowFormat(rs.getString("ROW_FORMAT"));
+                table.setCreateOptions(rs.getString("CREATE_OPTIONS"));
+                long autoIncrement = rs.getLong("AUTO_INCREMENT");
+                table.setAutoIncrement(rs.wasNull() ? null : autoIncrement);
+                this.tables.put(name.toLowerCase(), table);
+            }
+        } finally {
+            rs.close();
+        }
+    }
+
+    private void loadColumns(Statement statement) throws SQLException {
+        ResultSet rs = statement.executeQuery(COLUMNS_SQL);
+        try {
+            while (rs.next()) {
+                TableInfo table = getTable(rs.getString("TABLE_NAME"));
+                if (table == null) {
+                    continue;
+                }
+                table.addColumn(new ColumnInfo(rs.getString("COLUMN_NAME"), rs.getInt("ORDINAL_POSITION"),
+                        rs.getString("DATA_TYPE"), rs.getString("COLUMN_TYPE"),
+                        "YES".equalsIgnoreCase(rs.getString("IS_NULLABLE")), rs.getString("COLUMN_DEFAULT"),
+                        rs.getString("COLUMN_COMMENT"), rs.getString("EXTRA"),
+                        rs.getLong("CHARACTER_MAXIMUM_LENGTH"), rs.getLong("CHARACTER_OCTET_LENGTH")));
+            }
+        } finally {
+            rs.close();
+        }
+    }
+
+    private void loadIndices(Statement statement) throws SQLException {
+        boolean expression = true;
+        ResultSet rs;
+        try {
+            rs = statement.executeQuery(String.format(STATISTICS_SQL, ", EXPRESSION"));
+        } catch (SQLException e) {
+            if (e.getErrorCode() != ER_BAD_FIELD_ERROR) {
+                throw e;
+            }
+            expression = false;
+            rs = statement.executeQuery(String.format(STATISTICS_SQL, ""));
+        }
+        try {
+            while (rs.next()) {
+                TableInfo table = getTable(rs.getString("TABLE_NAME"));
+                if (table == null) {
+                    continue;
+                }
+                IndexInfo index = table.getOrAddIndex(rs.getString("INDEX_NAME"), rs.getInt("NON_UNIQUE") == 0);
+                index.addColumn(rs.getString("COLUMN_NAME"), rs.getInt("SUB_PART"), "D".equals(rs.getString("COLLATION")),
+                        expression ? rs.getString("EXPRESSION") : null);
+            }
+        } finally {
+            rs.close();
+        }
+    }
+
+    private void loadPartitions(Statement statement) throws SQLException {
+        ResultSet rs = statement.executeQuery(PARTITIONS_SQL);
+        try {
+            while (rs.next()) {
+                TableInfo table = getTable(rs.getString("TABLE_NAME"));
+                if (table == null) {
+                    continue;
+                }
+                // 子分区各占一行, 只记录所属分区
+                String name = rs.getString("PARTITION_NAME");
+                if (table.getPartition(name) != null) {
+                    continue;
+                }
+                table.addPartition(new PartitionInfo(name, rs.getString("PARTITION_METHOD"),
+                        rs.getString("PARTITION_EXPRESSION"), rs.getString("PARTITION_DESCRIPTION"),
+                        rs.getLong("TABLE_ROWS")));
+            }
+        } finally {
+            rs.close();
+        }
+    }
+
+    /**
+     * @param tableName 表名
+     * @return 表结构, 表不存在时返回 null
+     */
+    public TableInfo getTable(String tableName) {
+        return this.tables.get(tableName.toLowerCase());
+    }
+
+    /**
+     * @param tableName 表名
+     * @return 表是否存在
+     */
+    public boolean hasTable(String tableName) {
+        return this.tables.containsKey(tableName.toLowerCase());
+    }
+
+    public String getVersion() {
+        return version;
+    }
+
+    public Collection<TableInfo> getTables() {
+        return tables.values();
+    }
+
+}
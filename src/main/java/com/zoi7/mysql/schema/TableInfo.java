@@ -0,0 +1,221 @@
+package com.zoi7.mysql.schema;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 数据库中现有表的结构信息
+ * 字段/索引均以小写名称为键, 与 MySQL 对字段名大小写不敏感的规则保持一致
+ */
+public class TableInfo {
+
+    private String name; // 表名
+    private long rows; // 预估行数 (TABLE_ROWS)
+    private long dataLength; // 数据大小(字节) (DATA_LENGTH)
+    private long indexLength; // 索引大小(字节) (INDEX_LENGTH)
+    private String engine; // 存储引擎 (ENGINE)
+    private String rowFormat; // 行格式 (ROW_FORMAT)
+    private Map<String, String> createOptions = new HashMap<String, String>(); // 建表选项 (CREATE_OPTIONS), 键为小写
+    private Long autoIncrement; // 下一个自增值 (AUTO_INCREMENT), 没有自增字段时为 null
+    private Map<String, ColumnInfo> columns = new LinkedHashMap<String, ColumnInfo>();
+    private Map<String, IndexInfo> indices = new LinkedHashMap<String, IndexInfo>();
+    private List<PartitionInfo> partitions = new ArrayList<PartitionInfo>(); // 分区, 按 PARTITION_ORDINAL_POSITION 排序
+
+    public TableInfo(String name) {
+        this.name = name;
+    }
+
+    void addColumn(ColumnInfo column) {
+        this.columns.put(column.getName().toLowerCase(), column);
+    }
+
+    IndexInfo getOrAddIndex(String indexName, boolean unique) {
+        String key = indexName.toLowerCase();
+        IndexInfo index = this.indices.get(key);
+        if (index == null) {
+            index = new IndexInfo(indexName, unique);
+            this.indices.put(key, index);
+        }
+        return index;
+    }
+
+    void addPartition(PartitionInfo partition) {
+        this.partitions.add(partition);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public long getRows() {
+        return rows;
+    }
+
+    void setRows(long rows) {
+        this.rows = rows;
+    }
+
+    public long getDataLength() {
+        return dataLength;
+    }
+
+    void setDataLength(long dataLength) {
+        this.dataLength = dataLength;
+    }
+
+    public long getIndexLength() {
+        return indexLength;
+    }
+
+    void setIndexLength(long indexLength) {
+        this.indexLength = indexLength;
+    }
+
+    public String getEngine() {
+        return engine;
+    }
+
+    void setEngine(String engine) {
+        this.engine = engine;
+    }
+
+    public String getRowFormat() {
+        return rowFormat;
+    }
+
+    void setRowFormat(String rowFormat) {
+        this.rowFormat = rowFormat;
+    }
+
+    /**
+     * @param option 选项名, 如 key_block_size
+     * @return 建表时指定的选项值, 未指定时返回 null
+     */
+    public String getCreateOption(String option) {
+        return createOptions.get(option.toLowerCase());
+    }
+
+    /**
+     * 解析 CREATE_OPTIONS, 如 row_format=COMPRESSED KEY_BLOCK_SIZE=8 COMPRESSION="zlib" partitioned
+     */
+    void setCreateOptions(String createOptions) {
+        this.createOptions.clear();
+        if (createOptions == null) {
+            return;
+        }
+        for (String option : createOptions.trim().split("\\s+")) {
+            int index = option.indexOf('=');
+            if (index <= 0) {
+                continue;
+            }
+            String value = option.substring(index + 1);
+            if (value.length() >= 2 && (value.startsWith("\"") || value.startsWith("'"))) {
+                value = value.substring(1, value.length() - 1);
+            }
+            this.createOptions.put(option.substring(0, index).toLowerCase(), value);
+        }
+    }
+
+    /**
+     * @return 下一个自增值, 没有自增字段时为 null
+     */
+    public Long getAutoIncrement() {
+        return autoIncrement;
+    }
+
+    void setAutoIncrement(Long autoIncrement) {
+        this.autoIncrement = autoIncrement;
+    }
+
+    /**
+     * @return 是否包含自增字段
+     */
+    public boolean hasAutoIncrementColumn() {
+        for (ColumnInfo column : this.columns.values()) {
+            if (column.getExtra() != null && column.getExtra().toLowerCase().contains("auto_increment")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @param column 字段名
+     * @return 是否包含该字段
+     */
+    public boolean hasColumn(String column) {
+        return this.columns.containsKey(column.toLowerCase());
+    }
+
+    /**
+     * @param column 字段名
+     * @return 字段信息, 不存在时返回 null
+     */
+    public ColumnInfo getColumn(String column) {
+        return this.columns.get(column.toLowerCase());
+    }
+
+    public Collection<ColumnInfo> getColumns() {
+        return columns.values();
+    }
+
+    /**
+     * @param indexName 索引名
+     * @return 索引信息, 不存在时返回 null
+     */
+    public IndexInfo getIndex(String indexName) {
+        return this.indices.get(indexName.toLowerCase());
+    }
+
+    public Collection<IndexInfo> getIndices() {
+        return indices.values();
+    }
+
+    /**
+     * @param partitionName 分区名
+     * @return 分区信息, 不存在时返回 null
+     */
+    public PartitionInfo getPartition(String partitionName) {
+        for (PartitionInfo partition : partitions) {
+            if (partition.getName().equalsIgnoreCase(partitionName)) {
+                return partition;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return 分区, 未分区时为空
+     */
+    public List<PartitionInfo> getPartitions() {
+        return partitions;
+    }
+
+    /**
+     * @return 是否为分区表
+     */
+    public boolean isPartitioned() {
+        return !partitions.isEmpty();
+    }
+
+    @Override
+    public String toString() {
+        return "TableInfo{" +
+                "name='" + name + '\'' +
+                ", rows=" + rows +
+                ", dataLength=" + dataLength +
+                ", indexLength=" + indexLength +
+                ", engine='" + engine + '\'' +
+                ", rowFormat='" + rowFormat + '\'' +
+                ", createOptions=" + createOptions +
+                ", autoIncrement=" + autoIncrement +
+                ", columns=" + columns.size() +
+                ", indices=" + indices.size() +
+                ", partitions=" + partitions.size() +
+                '}';
+    }
+}
@@ -0,0 +1,176 @@
+package com.zoi7.mysql.sync;
+
+import com.zoi7.mysql.analysis.EntityModel;
+import com.zoi7.mysql.config.DataConfig;
+import com.zoi7.mysql.dialect.MYSQL5Dialect;
+import com.zoi7.mysql.report.MigrationReport;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.zoi7.mysql.config.DataConfig.TYPE_PLAN;
+import static com.zoi7.mysql.config.DataConfig.TYPE_UPDATE;
+
+/**
+ * 多数据源同步: 将同一套表实体同步到多个数据源 (如分库)
+ * 表实体只扫描一次, 各数据源使用独立的 MYSQL5Dialect 实例与同一份配置, 最多同时初始化 db.syncParallelism 个数据源,
+ * 单个数据源失败不影响其他数据源
+ */
+public class MultiTargetSync {
+
+    private static final Logger log = LoggerFactory.getLogger(MultiTargetSync.class);
+
+    private DataConfig config;
+    private Map<String, DataSource> targets; // 数据源, 按名称
+    private List<MYSQL5Dialect> maintained = Collections.synchronizedList(new ArrayList<MYSQL5Dialect>()); // 启动了分区维护的方言
+
+    /**
+     * @param config 配置, 所有数据源共享
+     * @param dataSources 数据源, 依次命名为 #0, #1 ...
+     */
+    public MultiTargetSync(DataConfig config, List<DataSource> dataSources) {
+        this.config = config;
+        this.targets = new LinkedHashMap<String, DataSource>();
+        for (int i = 0; i < dataSources.size(); i++) {
+            this.targets.put("#" + i, dataSources.get(i));
+        }
+    }
+
+    /**
+     * @param config 配置, 所有数据源共享
+     * @param targets 数据源, 按名称
+     */
+    public MultiTargetSync(DataConfig config, Map<String, DataSource> targets) {
+        this.config = config;
+        this.targets = new LinkedHashMap<String, DataSource>(targets);
+    }
+
+    /**
+     * 扫描表实体并同步所有数据源
+     * @return 汇总报告
+     */
+    public SyncReport execute() {
+        long start = System.currentTimeMillis();
+        checkType(config);
+        EntityModel model;
+        try {
+            model = EntityModel.scan(config);
+        } catch (Exception e) {
+            log.error("MultiTargetSync execute > scan failed", e);
+            List<TargetResult> results = new ArrayList<TargetResult>();
+            for (String name : targets.keySet()) {
+                results.add(new TargetResult(name, 0, null, e));
+            }
+            return new SyncReport(results, System.currentTimeMillis() - start);
+        }
+        List<TargetResult> results = execute(model);
+        SyncReport report = new SyncReport(results, System.currentTimeMillis() - start);
+        if (report.isSuccess()) {
+            log.info("MultiTargetSync finished, {}", report.format());
+        } else {
+            log.error("MultiTargetSync finished, {}", report.format());
+        }
+        return report;
+    }
+
+    /**
+     * 使用已扫描的表实体模型同步所有数据源
+     * @param model 表实体模型
+     * @return 各数据源的结果, 按数据源传入的顺序
+     */
+    public List<TargetResult> execute(final EntityModel model) {
+        checkType(config);
+        int parallelism = Math.max(1, Math.min(config.getSyncParallelism(), targets.size()));
+        log.info("MultiTargetSync execute > targets: {}, parallelism: {}", targets.size(), parallelism);
+        ExecutorService pool = Executors.newFixedThreadPool(parallelism, new SyncThreadFactory());
+        List<TargetResult> results = new ArrayList<TargetResult>();
+        try {
+            Map<String, Future<TargetResult>> futures = new LinkedHashMap<String, Future<TargetResult>>();
+            for (final Map.Entry<String, DataSource> target : targets.entrySet()) {
+                futures.put(target.getKey(), pool.submit(new Callable<TargetResult>() {
+                    @Override
+                    public TargetResult call() {
+                        return sync(target.getKey(), target.getValue(), model);
+                    }
+                }));
+            }
+            for (Map.Entry<String, Future<TargetResult>> future : futures.entrySet()) {
+                try {
+                    results.add(future.getValue().get());
+                } catch (ExecutionException e) {
+                    results.add(new TargetResult(future.getKey(), 0, null, e.getCause()));
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    results.add(new TargetResult(future.getKey(), 0, null, e));
+                }
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        return results;
+    }
+
+    /**
+     * 多个库同步只支持 update 与 plan, 避免 create 删除所有库中的表
+     * @param config 配置
+     */
+    static void checkType(DataConfig config) {
+        if (!TYPE_UPDATE.equals(config.getType()) && !TYPE_PLAN.equals(config.getType())) {
+            throw new IllegalArgumentException("db.auto must be update or plan when syncing multiple targets: "
+                    + config.getType());
+        }
+    }
+
+    /**
+     * 同步单个数据源
+     */
+    private TargetResult sync(String name, DataSource dataSource, EntityModel model) {
+        long start = System.currentTimeMillis();
+        log.info("MultiTargetSync sync > target: {} started", name);
+        MYSQL5Dialect dialect = new MYSQL5Dialect(config, dataSource);
+        MigrationReport report = dialect.init(model);
+        if (dialect.getPartitionMaintainer() != null && dialect.getPartitionMaintainer().isRunning()) {
+            maintained.add(dialect);
+        }
+        TargetResult result = new TargetResult(name, System.currentTimeMillis() - start, report);
+        if (result.isSuccess()) {
+            log.info("MultiTargetSync sync > {}", result);
+        } else {
+            log.error("MultiTargetSync sync > {}", result);
+        }
+        return result;
+    }
+
+    /**
+     * @return 启动了分区维护的方言, 应用关闭时需调用 close()
+     */
+    public List<MYSQL5Dialect> getMaintained() {
+        return new ArrayList<MYSQL5Dialect>(maintained);
+    }
+
+    private static class SyncThreadFactory implements ThreadFactory {
+
+        private final AtomicInteger threadNumber = new AtomicInteger(1);
+
+        @Override
+        public Thread newThread(Runnable r) {
+            Thread thread = new Thread(r, "table-helper-sync-" + threadNumber.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+
+}
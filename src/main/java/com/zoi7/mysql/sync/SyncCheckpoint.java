@@ -0,0 +1,136 @@
+package com.zoi7.mysql.sync;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.RandomAccessFile;
+import java.io.Writer;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * 同步检查点文件
+ * 首行记录表实体模型的指纹, 之后每行一个已成功同步的库; 每完成一个库追加一行并落盘,
+ * 中断后重新执行时跳过已完成的库. 模型指纹不一致 (表实体已变化) 时丢弃原有记录重新开始
+ */
+public class SyncCheckpoint {
+
+    private static final String HEADER = "# table-helper checkpoint, model: ";
+
+    private File file; // 检查点文件
+    private Set<String> completed = new HashSet<String>(); // 已完成的库
+    private FileOutputStream out;
+    private Writer writer;
+
+    private SyncCheckpoint(File file) {
+        this.file = file;
+    }
+
+    /**
+     * 打开检查点文件, 不存在或模型指纹不一致时新建
+     * @param file 检查点文件
+     * @param fingerprint 表实体模型的指纹
+     * @return 检查点
+     */
+    public static SyncCheckpoint open(File file, String fingerprint) throws IOException {
+        SyncCheckpoint checkpoint = new SyncCheckpoint(file);
+        if (file.isFile()) {
+            trimIncompleteLine(file);
+        }
+        boolean resume = file.isFile() && checkpoint.load(fingerprint);
+        if (file.getParentFile() != null && !file.getParentFile().exists() && !file.getParentFile().mkdirs()) {
+            throw new IOException("can not create directory: " + file.getParentFile());
+        }
+        checkpoint.out = new FileOutputStream(file, resume);
+        checkpoint.writer = new OutputStreamWriter(checkpoint.out, "UTF-8");
+        if (!resume) {
+            checkpoint.write(HEADER + fingerprint);
+        }
+        return checkpoint;
+    }
+
+    private boolean load(String fingerprint) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(new FileInputStream(file), "UTF-8"));
+        try {
+            String header = reader.readLine();
+            if (header == null || !header.equals(HEADER + fingerprint)) {
+                return false;
+            }
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.trim().length() > 0) {
+                    completed.add(line.trim());
+                }
+            }
+            return true;
+        } finally {
+            reader.close();
+        }
+    }
+
+    /**
+     * 截掉中断时写了一半 (不以换行结尾) 的最后一行, 该库会被重新同步
+     */
+    private static void trimIncompleteLine(File file) throws IOException {
+        RandomAccessFile raf = new RandomAccessFile(file, "rw");
+        try {
+            long length = raf.length();
+            while (length > 0) {
+                raf.seek(length - 1);
+                if (raf.read() == '\n') {
+                    break;
+                }
+                length--;
+            }
+            if (length < raf.length()) {
+                raf.setLength(length);
+            }
+        } finally {
+            raf.close();
+        }
+    }
+
+    /**
+     * @param key 库的标识, 如 服务器/库名
+     * @return 是否已完成
+     */
+    public synchronized boolean isCompleted(String key) {
+        return completed.contains(key);
+    }
+
+    /**
+     * 记录已完成的库并落盘
+     * @param key 库的标识
+     */
+    public synchronized void complete(String key) throws IOException {
+        if (completed.add(key)) {
+            write(key);
+        }
+    }
+
+    /**
+     * @return 已完成的库数
+     */
+    public synchronized int getCompleted() {
+        return completed.size();
+    }
+
+    private void write(String line) throws IOException {
+        writer.write(line);
+        writer.write('\n');
+        writer.flush();
+        out.getFD().sync();
+    }
+
+    public synchronized void close() throws IOException {
+        writer.close();
+    }
+
+    public File getFile() {
+        return file;
+    }
+}
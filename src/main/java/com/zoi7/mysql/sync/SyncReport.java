@@ -0,0 +1,65 @@
+package com.zoi7.mysql.sync;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 多个数据源的汇总同步报告, 结果按数据源传入的顺序排列
+ */
+public class SyncReport {
+
+    private List<TargetResult> results; // 各数据源的结果
+    private long elapsed; // 总耗时(毫秒), 含扫描
+
+    public SyncReport(List<TargetResult> results, long elapsed) {
+        this.results = Collections.unmodifiableList(new ArrayList<TargetResult>(results));
+        this.elapsed = elapsed;
+    }
+
+    /**
+     * @return 是否所有数据源都同步成功
+     */
+    public boolean isSuccess() {
+        return getFailed().isEmpty();
+    }
+
+    /**
+     * @return 同步失败 (中止或有表失败) 的数据源
+     */
+    public List<TargetResult> getFailed() {
+        List<TargetResult> failed = new ArrayList<TargetResult>();
+        for (TargetResult result : results) {
+            if (!result.isSuccess()) {
+                failed.add(result);
+            }
+        }
+        return failed;
+    }
+
+    public List<TargetResult> getResults() {
+        return results;
+    }
+
+    public long getElapsed() {
+        return elapsed;
+    }
+
+    /**
+     * @return 多行文本, 首行为汇总, 之后每个数据源一行
+     */
+    public String format() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("targets: ").append(results.size()).append(", failed: ").append(getFailed().size())
+                .append(", elapsed: ").append(elapsed).append("ms");
+        for (TargetResult result : results) {
+            sb.append("\n  ").append(result);
+        }
+        return sb.toString();
+    }
+
+    @Override
+    public String toString() {
+        return format();
+    }
+}
@@ -0,0 +1,74 @@
+package com.zoi7.mysql.sync;
+
+import com.zoi7.mysql.ddl.TableFailure;
+import com.zoi7.mysql.report.MigrationReport;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 单个数据源的同步结果
+ */
+public class TargetResult {
+
+    private String name; // 数据源名称
+    private long elapsed; // 耗时(毫秒)
+    private List<TableFailure> failures = new ArrayList<TableFailure>(); // 检测或变更失败的表
+    private Throwable error; // 导致同步中止的异常
+    private MigrationReport report; // 初始化报告, 未开始初始化时为 null
+
+    public TargetResult(String name, long elapsed, List<TableFailure> failures, Throwable error) {
+        this.name = name;
+        this.elapsed = elapsed;
+        if (failures != null) {
+            this.failures.addAll(failures);
+        }
+        this.error = error;
+    }
+
+    /**
+     * @param name 数据源名称
+     * @param elapsed 耗时(毫秒)
+     * @param report 初始化报告
+     */
+    public TargetResult(String name, long elapsed, MigrationReport report) {
+        this(name, elapsed, report.getFailures(), report.getError());
+        this.report = report;
+    }
+
+    /**
+     * @return 是否全部表同步成功
+     */
+    public boolean isSuccess() {
+        return error == null && failures.isEmpty();
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public long getElapsed() {
+        return elapsed;
+    }
+
+    public List<TableFailure> getFailures() {
+        return failures;
+    }
+
+    public Throwable getError() {
+        return error;
+    }
+
+    public MigrationReport getReport() {
+        return report;
+    }
+
+    @Override
+    public String toString() {
+        if (error != null) {
+            return name + ": ERROR " + error + " (" + elapsed + "ms)";
+        }
+        return name + ": " + (failures.isEmpty() ? "OK" : failures.size() + " tables failed " + failures)
+                + " (" + elapsed + "ms)";
+    }
+}
@@ -0,0 +1,49 @@
+package com.zoi7.mysql.sync;
+
+import java.util.List;
+
+/**
+ * 租户库同步报告, 结果只包含本次执行同步的库, 检查点中已完成而跳过的库只计数
+ */
+public class TenantReport extends SyncReport {
+
+    private int matched; // 匹配的库数
+    private int skipped; // 检查点中已完成而跳过的库数
+
+    public TenantReport(List<TargetResult> results, long elapsed, int matched, int skipped) {
+        super(results, elapsed);
+        this.matched = matched;
+        this.skipped = skipped;
+    }
+
+    public int getMatched() {
+        return matched;
+    }
+
+    public int getSkipped() {
+        return skipped;
+    }
+
+    /**
+     * @return 每秒同步的库数
+     */
+    public double getThroughput() {
+        return getElapsed() <= 0 ? 0 : getResults().size() * 1000.0 / getElapsed();
+    }
+
+    /**
+     * @return 多行文本, 首行为汇总, 之后每个失败的库一行
+     */
+    @Override
+    public String format() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("schemas: ").append(matched).append(", skipped: ").append(skipped)
+                .append(", synced: ").append(getResults().size()).append(", failed: ").append(getFailed().size())
+                .append(", elapsed: ").append(getElapsed()).append("ms")
+                .append(", throughput: ").append(String.format("%.2f", getThroughput())).append("/s");
+        for (TargetResult result : getFailed()) {
+            sb.append("\n  ").append(result);
+        }
+        return sb.toString();
+    }
+}
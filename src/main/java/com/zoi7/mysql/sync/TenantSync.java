@@ -0,0 +1,300 @@
+package com.zoi7.mysql.sync;
+
+import com.zoi7.mysql.analysis.EntityModel;
+import com.zoi7.mysql.config.DataConfig;
+import com.zoi7.mysql.dialect.MYSQL5Dialect;
+import com.zoi7.mysql.report.MigrationReport;
+import com.zoi7.mysql.driverManager.CatalogDataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.sql.DataSource;
+import java.io.File;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Pattern;
+
+/**
+ * 租户库同步: 库级多租户 (每个租户一个库) 时, 将同一套表实体同步到各服务器上库名匹配 db.tenantPattern 的所有库
+ * 表实体只扫描一次, 每个库通过 CatalogDataSource 复用所在服务器的连接池, 每台服务器最多同时同步 db.tenantParallelism 个库;
+ * 配置 db.tenantCheckpoint 后每完成一个库记录到检查点文件, 中断后重新执行时跳过已完成的库.
+ * 分区维护 (db.partitionMaintain) 只在同步时对每个库执行一次, 不启动定时维护
+ */
+public class TenantSync {
+
+    private static final Logger log = LoggerFactory.getLogger(TenantSync.class);
+
+    private static final String SCHEMAS_SQL = "SELECT SCHEMA_NAME FROM INFORMATION_SCHEMA.SCHEMATA ORDER BY SCHEMA_NAME";
+    private static final Set<String> SYSTEM_SCHEMAS = new HashSet<String>(
+            Arrays.asList("mysql", "information_schema", "performance_schema", "sys"));
+    private static final long PROGRESS_INTERVAL = 10000; // 打印进度的最小间隔(毫秒)
+
+    private DataConfig config;
+    private Map<String, DataSource> servers; // 各服务器的数据源, 按名称
+
+    private int total; // 本次需要同步的库数
+    private final AtomicInteger done = new AtomicInteger(); // 已同步的库数
+    private final AtomicInteger failed = new AtomicInteger(); // 失败的库数
+    private long start; // 开始同步的时间
+    private volatile long lastProgress; // 上次打印进度的时间
+
+    /**
+     * @param config 配置, 所有库共享
+     * @param servers 各服务器的数据源, 依次命名为 #0, #1 ...
+     */
+    public TenantSync(DataConfig config, List<DataSource> servers) {
+        this.config = config;
+        this.servers = new LinkedHashMap<String, DataSource>();
+        for (int i = 0; i < servers.size(); i++) {
+            this.servers.put("#" + i, servers.get(i));
+        }
+    }
+
+    /**
+     * @param config 配置, 所有库共享
+     * @param servers 各服务器的数据源, 按名称; 名称会写入检查点, 重新执行时需保持一致
+     */
+    public TenantSync(DataConfig config, Map<String, DataSource> servers) {
+        this.config = config;
+        this.servers = new LinkedHashMap<String, DataSource>(servers);
+    }
+
+    /**
+     * 扫描表实体并同步所有匹配的库
+     * @return 同步报告
+     */
+    public TenantReport execute() {
+        long begin = System.currentTimeMillis();
+        MultiTargetSync.checkType(config);
+        if (config.getTenantPattern() == null || config.getTenantPattern().trim().length() == 0) {
+            throw new IllegalArgumentException("db.tenantPattern must not be empty");
+        }
+        Pattern pattern = Pattern.compile(config.getTenantPattern().trim());
+        List<TargetResult> results = new ArrayList<TargetResult>();
+        // 列出各服务器上匹配的库
+        Map<String, List<String>> schemas = new LinkedHashMap<String, List<String>>();
+        int matched = 0;
+        for (Map.Entry<String, DataSource> server : servers.entrySet()) {
+            try {
+                List<String> names = filterSchemas(listSchemas(server.getValue()), pattern);
+                schemas.put(server.getKey(), names);
+                matched += names.size();
+            } catch (SQLException e) {
+                log.error("TenantSync execute > server: " + server.getKey() + " list schemas failed", e);
+                results.add(new TargetResult(server.getKey(), 0, null, e));
+            }
+        }
+        SyncCheckpoint checkpoint = null;
+        try {
+            EntityModel model = EntityModel.scan(config);
+            if (config.getTenantCheckpoint() != null) {
+                checkpoint = SyncCheckpoint.open(new File(config.getTenantCheckpoint()), model.getFingerprint());
+            }
+            // 跳过检查点中已完成的库
+            int skipped = 0;
+            if (checkpoint != null) {
+                for (Map.Entry<String, List<String>> server : schemas.entrySet()) {
+                    List<String> pending = new ArrayList<String>();
+                    for (String schema : server.getValue()) {
+                        if (checkpoint.isCompleted(getKey(server.getKey(), schema))) {
+                            skipped++;
+                        } else {
+                            pending.add(schema);
+                        }
+                    }
+                    server.setValue(pending);
+                }
+            }
+            log.info("TenantSync execute > servers: {}, schemas: {}, skipped: {}, parallelism per server: {}",
+                    servers.size(), matched, skipped, config.getTenantParallelism());
+            results.addAll(sync(model, schemas, checkpoint));
+            TenantReport report = new TenantReport(results, System.currentTimeMillis() - begin, matched, skipped);
+            if (report.isSuccess()) {
+                log.info("TenantSync finished, {}", report.format());
+            } else {
+                log.error("TenantSync finished, {}", report.format());
+            }
+            return report;
+        } catch (Exception e) {
+            log.error("TenantSync execute failed", e);
+            results.add(new TargetResult("*", System.currentTimeMillis() - begin, null, e));
+            return new TenantReport(results, System.currentTimeMillis() - begin, matched, 0);
+        } finally {
+            if (checkpoint != null) {
+                try {
+                    checkpoint.close();
+                } catch (IOException e) {
+                    log.error("TenantSync execute > close checkpoint failed", e);
+                }
+            }
+        }
+    }
+
+    /**
+     * 每台服务器一个线程池, 所有服务器同时进行
+     */
+    private List<TargetResult> sync(final EntityModel model, Map<String, List<String>> schemas,
+                                    final SyncCheckpoint checkpoint) {
+        this.total = 0;
+        for (List<String> names : schemas.values()) {
+            this.total += names.size();
+        }
+        this.start = System.currentTimeMillis();
+        this.lastProgress = this.start;
+        List<ExecutorService> pools = new ArrayList<ExecutorService>();
+        Map<String, Future<TargetResult>> futures = new LinkedHashMap<String, Future<TargetResult>>();
+        List<TargetResult> results = new ArrayList<TargetResult>();
+        try {
+            for (Map.Entry<String, List<String>> server : schemas.entrySet()) {
+                if (server.getValue().isEmpty()) {
+                    continue;
+                }
+                final String serverName = server.getKey();
+                final DataSource dataSource = servers.get(serverName);
+                int parallelism = Math.max(1, Math.min(config.getTenantParallelism(), server.getValue().size()));
+                ExecutorService pool = Executors.newFixedThreadPool(parallelism, new TenantThreadFactory(serverName));
+                pools.add(pool);
+                for (final String schema : server.getValue()) {
+                    futures.put(getKey(serverName, schema), pool.submit(new Callable<TargetResult>() {
+                        @Override
+                        public TargetResult call() throws Exception {
+                            return sync(model, serverName, dataSource, schema, checkpoint);
+                        }
+                    }));
+                }
+            }
+            for (Map.Entry<String, Future<TargetResult>> future : futures.entrySet()) {
+                try {
+                    results.add(future.getValue().get());
+                } catch (ExecutionException e) {
+                    results.add(new TargetResult(future.getKey(), 0, null, e.getCause()));
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    results.add(new TargetResult(future.getKey(), 0, null, e));
+                }
+            }
+        } finally {
+            for (ExecutorService pool : pools) {
+                pool.shutdownNow();
+            }
+        }
+        return results;
+    }
+
+    /**
+     * 同步单个库, 成功后记录检查点
+     */
+    private TargetResult sync(EntityModel model, String server, DataSource dataSource, String schema,
+                              SyncCheckpoint checkpoint) throws IOException {
+        long begin = System.currentTimeMillis();
+        String key = getKey(server, schema);
+        MYSQL5Dialect dialect = new MYSQL5Dialect(config, new CatalogDataSource(dataSource, schema));
+        MigrationReport report = dialect.init(model);
+        // 每个库只维护一次分区, 不为数千个库各启动一个定时线程
+        if (dialect.getPartitionMaintainer() != null) {
+            dialect.getPartitionMaintainer().stop();
+        }
+        TargetResult result = new TargetResult(key, System.currentTimeMillis() - begin, report);
+        if (result.isSuccess()) {
+            if (checkpoint != null) {
+                checkpoint.complete(key);
+            }
+        } else {
+            failed.incrementAndGet();
+            log.error("TenantSync sync > {}", result);
+        }
+        progress(done.incrementAndGet());
+        return result;
+    }
+
+    /**
+     * 按间隔打印进度: 已完成数, 失败数, 吞吐量与预计剩余时间
+     */
+    private void progress(int current) {
+        long now = System.currentTimeMillis();
+        if (current < total && now - lastProgress < PROGRESS_INTERVAL) {
+            return;
+        }
+        lastProgress = now;
+        long elapsed = Math.max(1, now - start);
+        double throughput = current * 1000.0 / elapsed;
+        long eta = throughput > 0 ? (long) ((total - current) / throughput) : -1;
+        log.info("TenantSync progress > {}/{} ({}%), failed: {}, {}/s, eta: {}s", current, total,
+                String.format("%.1f", current * 100.0 / Math.max(1, total)), failed.get(),
+                String.format("%.2f", throughput), eta);
+    }
+
+    /**
+     * @param schemas 库名
+     * @param pattern 库名的正则表达式, 完整匹配
+     * @return 匹配的库, 不含系统库
+     */
+    static List<String> filterSchemas(List<String> schemas, Pattern pattern) {
+        List<String> matched = new ArrayList<String>();
+        for (String schema : schemas) {
+            if (!SYSTEM_SCHEMAS.contains(schema.toLowerCase()) && pattern.matcher(schema).matches()) {
+                matched.add(schema);
+            }
+        }
+        return matched;
+    }
+
+    private static List<String> listSchemas(DataSource dataSource) throws SQLException {
+        List<String> schemas = new ArrayList<String>();
+        Connection connection = dataSource.getConnection();
+        try {
+            Statement statement = connection.createStatement();
+            try {
+                ResultSet rs = statement.executeQuery(SCHEMAS_SQL);
+                while (rs.next()) {
+                    schemas.add(rs.getString(1));
+                }
+                rs.close();
+            } finally {
+                statement.close();
+            }
+        } finally {
+            connection.close();
+        }
+        return schemas;
+    }
+
+    private static String getKey(String server, String schema) {
+        return server + "/" + schema;
+    }
+
+    private static class TenantThreadFactory implements ThreadFactory {
+
+        private final String server;
+        private final AtomicInteger threadNumber = new AtomicInteger(1);
+
+        TenantThreadFactory(String server) {
+            this.server = server;
+        }
+
+        @Override
+        public Thread newThread(Runnable r) {
+            Thread thread = new Thread(r, "table-helper-tenant-" + server + "-" + threadNumber.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+
+}
@@ -2,6 +2,7 @@ package com.zoi7.mysql.util;
 
 import com.zoi7.mysql.comment.Field;
 import com.zoi7.mysql.comment.FieldType;
+import com.zoi7.mysql.comment.HashType;
 import com.zoi7.mysql.comment.Id;
 
 import java.math.BigDecimal;
@@ -67,6 +68,38 @@ public class FieldUtils {
         return uppercase ? field.toUpperCase() : field;
     }
 
+    /**
+     * 获取哈希伴随字段名
+     * @param field 属性
+     * @param uppercase 是否大写
+     * @return 字段名_hash, 未设置 hash 时返回 null
+     */
+    public static String getHashColumn(java.lang.reflect.Field field, boolean uppercase) {
+        if (!field.isAnnotationPresent(Field.class) || field.getAnnotation(Field.class).hash() == HashType.NONE) {
+            return null;
+        }
+        return getColumn(field, uppercase) + (uppercase ? "_HASH" : "_hash");
+    }
+
+    /**
+     * 获取哈希伴随字段的类型
+     * @param hash 哈希算法
+     * @return 字段类型
+     */
+    public static String getHashColumnType(HashType hash) {
+        return hash == HashType.CRC32 ? "INT UNSIGNED" : "BINARY(8)";
+    }
+
+    /**
+     * 获取哈希表达式
+     * @param hash 哈希算法
+     * @param value 被哈希的字段名或参数, 如 url / #{param1}
+     * @return 表达式
+     */
+    public static String getHashExpression(HashType hash, String value) {
+        return hash == HashType.CRC32 ? "CRC32(" + value + ")" : "UNHEX(LEFT(SHA2(" + value + ", 256), 16))";
+    }
+
     /**
      * 获取字段指定的类型
      * @param field 字段
@@ -1,6 +1,7 @@
 package com.zoi7.mysql.util.generate;
 
 import com.zoi7.mysql.comment.FieldType;
+import com.zoi7.mysql.monitor.FlightEvent;
 
 import java.io.File;
 import java.io.FileWriter;
@@ -65,6 +66,7 @@ public class EntitiesGenerator {
     }
 
     public void generate() {
+        Object event = FlightEvent.GENERATE_ENTITIES.begin();
         List<String> tableNames = sqlHelper.get(
                 "SELECT * FROM INFORMATION_SCHEMA.TABLES where TABLE_SCHEMA='" + database + "';", "TABLE_NAME");
         Connection con = null;
@@ -88,6 +90,7 @@ public class EntitiesGenerator {
         } catch (SQLException e) {
             e.printStackTrace();
         }
+        FlightEvent.GENERATE_ENTITIES.commit(event, database, tableNames.size());
     }
 
     private void generate(String tablename, Connection con) {
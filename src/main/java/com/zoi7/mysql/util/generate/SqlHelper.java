@@ -1,5 +1,8 @@
 package com.zoi7.mysql.util.generate;
 
+import com.zoi7.mysql.config.DataConfig;
+import com.zoi7.mysql.driverManager.PooledDataSource;
+
 import java.sql.*;
 import java.util.ArrayList;
 import java.util.List;
@@ -17,6 +20,8 @@ public class SqlHelper {
 
     private String driverName;
 
+    private PooledDataSource dataSource; // 连接池, 首次获取连接时创建, closeConnection 时关闭
+
     public SqlHelper(String url, String driverName, String username, String password) {
         this.url = url;
         this.driverName = driverName;
@@ -30,6 +35,7 @@ public class SqlHelper {
 
     public void setUrl(String url) {
         this.url = url;
+        closeDataSource();
     }
 
     public String getUsername() {
@@ -38,6 +44,7 @@ public class SqlHelper {
 
     public void setUsername(String username) {
         this.username = username;
+        closeDataSource();
     }
 
     public String getPassword() {
@@ -46,6 +53,7 @@ public class SqlHelper {
 
     public void setPassword(String password) {
         this.password = password;
+        closeDataSource();
     }
 
     @SuppressWarnings("unchecked")
@@ -74,16 +82,14 @@ public class SqlHelper {
     }
 
     public Statement getStatement() throws ClassNotFoundException, SQLException{
-        Class.forName(driverName);
-        Connection con = DriverManager.getConnection(url, username, password);
+        Connection con = getDataSource().getConnection();
         Statement statement = con.createStatement();
         return statement;
     }
 
     public Connection getConnection() throws ClassNotFoundException, SQLException {
         if (connection == null) {
-            Class.forName(driverName);
-            connection = DriverManager.getConnection(url, username, password);
+            connection = getDataSource().getConnection();
         }
 
         return connection;
@@ -92,11 +98,13 @@ public class SqlHelper {
     public void closeConnection(Connection conn) throws ClassNotFoundException, SQLException {
         if (connection != null) {
             connection.close();
+            connection = null;
         }
 
         if (conn != null) {
             conn.close();
         }
+        closeDataSource();
 
         System.out.println("-----------Connection closed now-----------");
     }
@@ -110,4 +118,24 @@ public class SqlHelper {
             }
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * 获取连接池, 连接归还后复用, 避免每次查询都重新建立连接
+     */
+    private synchronized PooledDataSource getDataSource() throws ClassNotFoundException {
+        if (dataSource == null) {
+            Class.forName(driverName);
+            DataConfig config = new DataConfig(new String[0], url, username, password);
+            config.setDriver(driverName);
+            dataSource = new PooledDataSource(config);
+        }
+        return dataSource;
+    }
+
+    private synchronized void closeDataSource() {
+        if (dataSource != null) {
+            dataSource.close();
+            dataSource = null;
+        }
+    }
+}
@@ -1,8 +1,9 @@
 package com.zoi7.mysql.util.mybatis;
 
-import com.zoi7.mysql.analysis.ScanPackage;
+import com.zoi7.mysql.analysis.EntityScanner;
 import com.zoi7.mysql.comment.Entity;
 import com.zoi7.mysql.comment.FieldType;
+import com.zoi7.mysql.monitor.FlightEvent;
 import com.zoi7.mysql.util.FieldUtils;
 
 import java.io.File;
@@ -18,11 +19,18 @@ import java.util.Set;
 public abstract class AbstractMapperUtils<T extends MapperConfig> {
 
     public void makeAll(T config) throws IOException {
-        Set<Class<?>> classSet = ScanPackage.getClassesByPackageName(config.getEntityPackage());
+        Object event = FlightEvent.MAKE_MAPPERS.begin();
+        Set<Class<?>> classSet;
+        try {
+            classSet = EntityScanner.scan(new String[]{config.getEntityPackage()}, null, false, true);
+        } catch (ClassNotFoundException e) {
+            throw new IOException("load entity class failed", e);
+        }
         System.out.println(classSet.size());
         for (Class<?> clazz : classSet) {
             doMakeXml(clazz, config);
         }
+        FlightEvent.MAKE_MAPPERS.commit(event, config.getEntityPackage(), classSet.size());
     }
 
     private void doMakeXml(Class<?> clazz, T config) throws IOException {
@@ -1,6 +1,7 @@
 package com.zoi7.mysql.util.mybatis;
 
 import com.zoi7.mysql.comment.Entity;
+import com.zoi7.mysql.comment.HashType;
 import com.zoi7.mysql.comment.Id;
 import com.zoi7.mysql.util.FieldUtils;
 
@@ -241,6 +242,24 @@ public class DefaultMapperUtils extends AbstractMapperUtils<MapperConfig> {
             System.err.println("isField is not appoint!");
         }
 
+        // 设置了哈希伴随字段的属性: 先按哈希字段走索引, 再按原字段排除哈希冲突
+        for (Field field : fields) {
+            String hashColumn = FieldUtils.getHashColumn(field, config.isUppercase());
+            if (hashColumn == null) {
+                continue;
+            }
+            HashType hash = field.getAnnotation(com.zoi7.mysql.comment.Field.class).hash();
+            String name = field.getName();
+            xml.append("\t<select id=\"findBy").append(Character.toUpperCase(name.charAt(0))).append(name.substring(1))
+                    .append("\" parameterType=\"string\" resultMap=\"resultList\">\n");
+            xml.append("\t\tselect * from <include refid=\"table_name\"/>\n");
+            xml.append("\t\t<where>\n");
+            xml.append("\t\t\t").append(hashColumn).append(" = ").append(FieldUtils.getHashExpression(hash, "#{param1}")).append("\n");
+            xml.append("\t\t\tand ").append(FieldUtils.getColumn(field, config.isUppercase())).append(" = #{param1}\n");
+            xml.append("\t\t</where>\n");
+            xml.append("\t</select>\n\n");
+        }
+
         xml.append("\t<select id=\"findAllCount\" resultType=\"int\">\n");
         xml.append("\t\tselect count(*) from <include refid=\"table_name\"/>\n");
         xml.append("\t</select>\n\n");
@@ -0,0 +1,73 @@
+package com.zoi7.mysql.analysis;
+
+import com.zoi7.mysql.comment.Entity;
+import com.zoi7.mysql.example.base.BaseEntity;
+import com.zoi7.mysql.example.entity.User;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.InputStream;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * class 文件解析测试
+ */
+public class ClassFileReaderTest {
+
+    @Test
+    public void testRead() throws Exception {
+        ClassFileReader reader = read(User.class);
+        Assert.assertEquals(User.class.getName(), reader.getClassName());
+        Assert.assertEquals(Object.class.getName(), reader.getSuperName());
+        Assert.assertTrue(reader.hasAnnotation(Entity.class));
+        Assert.assertFalse(read(BaseEntity.class).hasAnnotation(Entity.class));
+    }
+
+    @Test
+    public void testInherited() throws Exception {
+        Map<String, ClassFileReader> readers = new HashMap<String, ClassFileReader>();
+        for (Class<?> clazz : new Class<?>[]{User.class, SubUser.class, BaseEntity.class}) {
+            readers.put(clazz.getName(), read(clazz));
+        }
+        Set<String> entities = ClassFileReader.findAnnotated(readers, Entity.class);
+        Assert.assertTrue(entities.contains(User.class.getName()));
+        Assert.assertTrue(entities.contains(SubUser.class.getName()));
+        Assert.assertFalse(entities.contains(BaseEntity.class.getName()));
+    }
+
+    @Test
+    public void testScanPackage() throws Exception {
+        Set<Class<?>> classes = new ScanService(new String[]{"com.zoi7.mysql"},
+                new String[]{"com.zoi7.mysql.example.entity.UserWithCharset"}, false, 1).scanEntities();
+        Assert.assertTrue(classes.contains(User.class));
+        Assert.assertTrue(classes.contains(SubUser.class));
+        Assert.assertFalse(classes.contains(ClassFileReaderTest.class));
+        Assert.assertFalse(classes.contains(com.zoi7.mysql.example.entity.UserWithCharset.class));
+    }
+
+    /**
+     * 单包扫描同样只返回表实体
+     */
+    @Test
+    public void testLegacyScan() throws Exception {
+        Set<Class<?>> classes = ScanPackage.getClassesByPackageName("com.zoi7.mysql.example");
+        Assert.assertTrue(classes.contains(User.class));
+        Assert.assertFalse(classes.contains(BaseEntity.class));
+        Assert.assertTrue(ScanJar.getClassesByPackageName("org.junit").isEmpty());
+    }
+
+    private static ClassFileReader read(Class<?> clazz) throws Exception {
+        InputStream in = clazz.getResourceAsStream("/" + clazz.getName().replace('.', '/') + ".class");
+        try {
+            return new ClassFileReader(in);
+        } finally {
+            in.close();
+        }
+    }
+
+    public static class SubUser extends User {
+    }
+
+}
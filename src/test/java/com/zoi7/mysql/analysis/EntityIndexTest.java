@@ -0,0 +1,88 @@
+package com.zoi7.mysql.analysis;
+
+import com.zoi7.mysql.example.entity.User;
+import com.zoi7.mysql.example.entity.User1;
+import com.zoi7.mysql.example.entity.UserWithCharset;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.URL;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.Set;
+
+/**
+ * 测试编译期生成的表实体索引 (测试代码编译时由 EntityIndexProcessor 生成)
+ */
+public class EntityIndexTest {
+
+    @Test
+    public void testLoad() throws Exception {
+        EntityIndex index = EntityIndex.load(Thread.currentThread().getContextClassLoader());
+        Assert.assertNotNull(index);
+        Assert.assertEquals("test_user", index.getTableName(User.class.getName()));
+        Assert.assertEquals("user_utf8mb4", index.getTableName(UserWithCharset.class.getName()));
+        Assert.assertEquals(1, index.getRoots().size());
+
+        // 含有索引的根目录不再扫描
+        ScanService scanService = new ScanService(new String[]{"com.zoi7.mysql.example"}, null, false, 1);
+        scanService.setSkippedRoots(index.getRoots());
+        Assert.assertTrue(scanService.scanEntities().isEmpty());
+    }
+
+    @Test
+    public void testScan() throws Exception {
+        Set<Class<?>> classes = EntityScanner.scan(new String[]{"com.zoi7.mysql.example"}, null, false, true);
+        Assert.assertTrue(classes.contains(User.class));
+        Assert.assertFalse(classes.contains(EntityIndexTest.class));
+    }
+
+    /**
+     * 索引只记录了父包下的部分表实体 (如另一个模块生成的索引), 未生成索引的根目录中的兄弟包仍需扫描
+     */
+    @Test
+    public void testScanUnindexedSibling() throws Exception {
+        File root = File.createTempFile("entity", "");
+        root.delete();
+        File file = new File(root, EntityIndex.LOCATION);
+        file.getParentFile().mkdirs();
+        Writer writer = new OutputStreamWriter(new FileOutputStream(file), "ISO-8859-1");
+        try {
+            writer.write(User.class.getName() + "=test_user\n");
+        } finally {
+            writer.close();
+        }
+        final URL url = file.toURI().toURL();
+        ClassLoader parent = Thread.currentThread().getContextClassLoader();
+        ClassLoader classLoader = new ClassLoader(parent) {
+            @Override
+            public Enumeration<URL> getResources(String name) throws IOException {
+                if (EntityIndex.LOCATION.equals(name)) {
+                    return Collections.enumeration(Collections.singletonList(url));
+                }
+                return super.getResources(name);
+            }
+        };
+        Thread.currentThread().setContextClassLoader(classLoader);
+        try {
+            EntityIndex index = EntityIndex.load(classLoader);
+            Assert.assertEquals(Collections.singleton("file:" + root.getPath()), index.getRoots());
+            Set<Class<?>> classes = EntityScanner.scan(new String[]{"com.zoi7.mysql.example"}, null, false, true);
+            Assert.assertTrue(classes.contains(User.class));
+            Assert.assertTrue(classes.contains(User1.class));
+            Assert.assertTrue(classes.contains(UserWithCharset.class));
+        } finally {
+            Thread.currentThread().setContextClassLoader(parent);
+            file.delete();
+            file.getParentFile().delete();
+            file.getParentFile().getParentFile().delete();
+            root.delete();
+        }
+    }
+
+}
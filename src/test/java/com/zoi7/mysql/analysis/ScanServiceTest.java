@@ -0,0 +1,167 @@
+package com.zoi7.mysql.analysis;
+
+import com.zoi7.mysql.example.entity.User;
+import com.zoi7.mysql.example.entity.UserWithCharset;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+
+/**
+ * 测试多包共享的类路径扫描
+ */
+public class ScanServiceTest {
+
+    @Test
+    public void testScanDirectory() throws Exception {
+        Set<Class<?>> classes = new ScanService(new String[]{"com.zoi7.mysql.example", "com.zoi7.mysql.example.entity"},
+                null, false, 2).scanEntities();
+        Assert.assertTrue(classes.contains(User.class));
+        Assert.assertTrue(classes.contains(UserWithCharset.class));
+        Assert.assertFalse(classes.contains(ScanServiceTest.class));
+    }
+
+    @Test
+    public void testScanSamePackageInTwoDirectories() throws Exception {
+        // 同一个包位于两个目录 (如 classes 与 test-classes), 两个目录都要扫描
+        File root1 = createDirectory("scan-service-1");
+        File root2 = createDirectory("scan-service-2");
+        copyClass(User.class, root1);
+        copyClass(UserWithCharset.class, root2);
+        Thread thread = Thread.currentThread();
+        ClassLoader original = thread.getContextClassLoader();
+        URLClassLoader loader = new URLClassLoader(new URL[]{root1.toURI().toURL(), root2.toURI().toURL()}, null);
+        thread.setContextClassLoader(loader);
+        try {
+            Set<Class<?>> classes = new ScanService(new String[]{"com.zoi7.mysql.example.entity"}, null, false, 2)
+                    .scanEntities();
+            Set<String> names = new HashSet<String>();
+            for (Class<?> clazz : classes) {
+                names.add(clazz.getName());
+            }
+            Assert.assertEquals(2, names.size());
+            Assert.assertTrue(names.contains(User.class.getName()));
+            Assert.assertTrue(names.contains(UserWithCharset.class.getName()));
+        } finally {
+            thread.setContextClassLoader(original);
+            delete(root1);
+            delete(root2);
+        }
+    }
+
+    /**
+     * 损坏的 class 文件跳过, 其他文件照常扫描
+     */
+    @Test
+    public void testSkipCorruptClass() throws Exception {
+        File root = createDirectory("scan-service-corrupt");
+        copyClass(User.class, root);
+        OutputStream out = new FileOutputStream(new File(root, "com/zoi7/mysql/example/entity/Broken.class"));
+        try {
+            out.write(new byte[]{(byte) 0xCA, (byte) 0xFE, (byte) 0xBA, (byte) 0xBE, 0, 0});
+        } finally {
+            out.close();
+        }
+        Thread thread = Thread.currentThread();
+        ClassLoader original = thread.getContextClassLoader();
+        URLClassLoader loader = new URLClassLoader(new URL[]{root.toURI().toURL()}, null);
+        thread.setContextClassLoader(loader);
+        try {
+            Set<Class<?>> classes = new ScanService(new String[]{"com.zoi7.mysql.example"}, null, false, 1)
+                    .scanEntities();
+            Assert.assertEquals(1, classes.size());
+            Assert.assertEquals(User.class.getName(), classes.iterator().next().getName());
+        } finally {
+            thread.setContextClassLoader(original);
+            delete(root);
+        }
+    }
+
+    private static File createDirectory(String prefix) throws Exception {
+        File dir = File.createTempFile(prefix, "");
+        Assert.assertTrue(dir.delete() && dir.mkdirs());
+        return dir;
+    }
+
+    private static void copyClass(Class<?> clazz, File root) throws Exception {
+        String name = clazz.getName().replace('.', '/') + ".class";
+        File file = new File(root, name);
+        Assert.assertTrue(file.getParentFile().mkdirs());
+        InputStream in = clazz.getClassLoader().getResourceAsStream(name);
+        OutputStream out = new FileOutputStream(file);
+        try {
+            byte[] buffer = new byte[4096];
+            int n;
+            while ((n = in.read(buffer)) > 0) {
+                out.write(buffer, 0, n);
+            }
+        } finally {
+            in.close();
+            out.close();
+        }
+    }
+
+    private static void delete(File file) {
+        File[] files = file.listFiles();
+        if (files != null) {
+            for (File child : files) {
+                delete(child);
+            }
+        }
+        file.delete();
+    }
+
+    @Test
+    public void testScanJar() throws Exception {
+        File jar = File.createTempFile("scan-service", ".jar");
+        jar.deleteOnExit();
+        JarOutputStream out = new JarOutputStream(new FileOutputStream(jar));
+        try {
+            String name = User.class.getName().replace('.', '/') + ".class";
+            out.putNextEntry(new JarEntry("com/zoi7/mysql/example/entity/"));
+            out.closeEntry();
+            out.putNextEntry(new JarEntry(name));
+            InputStream in = User.class.getClassLoader().getResourceAsStream(name);
+            try {
+                byte[] buffer = new byte[4096];
+                int n;
+                while ((n = in.read(buffer)) > 0) {
+                    out.write(buffer, 0, n);
+                }
+            } finally {
+                in.close();
+            }
+            out.closeEntry();
+        } finally {
+            out.close();
+        }
+        Thread thread = Thread.currentThread();
+        ClassLoader original = thread.getContextClassLoader();
+        // 不委托给应用类加载器, 只能从 jar 中找到实体
+        URLClassLoader loader = new URLClassLoader(new URL[]{jar.toURI().toURL()}, null);
+        thread.setContextClassLoader(loader);
+        try {
+            // 两个包指向同一个 jar, 只遍历一次
+            Set<Class<?>> classes = new ScanService(new String[]{"com.zoi7.mysql.example", "com.zoi7.mysql.example.entity"},
+                    new String[]{"com.zoi7.mysql.example.main"}, true, 2).scanEntities();
+            Assert.assertEquals(1, classes.size());
+            Class<?> clazz = classes.iterator().next();
+            Assert.assertEquals(User.class.getName(), clazz.getName());
+            Assert.assertSame(loader, clazz.getClassLoader());
+            Assert.assertTrue(new ScanService(new String[]{"com.zoi7.mysql.example"}, null, false, 1)
+                    .scanEntities().isEmpty());
+        } finally {
+            thread.setContextClassLoader(original);
+        }
+    }
+
+}
@@ -0,0 +1,80 @@
+package com.zoi7.mysql.ddl;
+
+import com.zoi7.mysql.schema.ColumnInfo;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * 测试字段差异比对
+ */
+public class ColumnDiffTest {
+
+    private static ColumnInfo varchar(int length, long bytesPerChar) {
+        return new ColumnInfo("nick_name", 2, "varchar", "varchar(" + length + ")", true, null, "", "",
+                length, length * bytesPerChar);
+    }
+
+    @Test
+    public void testSame() {
+        Assert.assertNull(ColumnDiff.compare(new ColumnDefinition("nick_name", " VARCHAR(50) ").setNullable(true),
+                varchar(50, 4)));
+        ColumnInfo id = new ColumnInfo("id", 1, "int", "int(11)", false, null, "", "auto_increment");
+        Assert.assertNull(ColumnDiff.compare(new ColumnDefinition("id", " INTEGER ").setAutoIncrement(true), id));
+        ColumnInfo price = new ColumnInfo("price", 3, "decimal", "decimal(10,2)", false, "0.00", "", "");
+        Assert.assertNull(ColumnDiff.compare(new ColumnDefinition("price", " DECIMAL(10, 2) ").setDefaultValue("0"), price));
+    }
+
+    @Test
+    public void testVarcharExtend() {
+        // utf8mb4: 50 * 4 = 200 字节 → 60 * 4 = 240 字节, 长度字节数不变
+        ColumnDiff diff = ColumnDiff.compare(new ColumnDefinition("nick_name", " VARCHAR(60) ").setNullable(true),
+                varchar(50, 4));
+        Assert.assertEquals(ChangeType.MODIFY_VARCHAR_EXTEND, diff.getType());
+        Assert.assertFalse(diff.isRebuild());
+        // 50 * 4 = 200 字节 → 500 * 4 = 2000 字节, 长度字节由 1 变为 2
+        diff = ColumnDiff.compare(new ColumnDefinition("nick_name", " VARCHAR(500) ").setNullable(true),
+                varchar(50, 4));
+        Assert.assertEquals(ChangeType.MODIFY_TYPE, diff.getType());
+        // 缩短
+        diff = ColumnDiff.compare(new ColumnDefinition("nick_name", " VARCHAR(40) ").setNullable(true),
+                varchar(50, 1));
+        Assert.assertEquals(ChangeType.MODIFY_TYPE, diff.getType());
+    }
+
+    @Test
+    public void testTypeAndNullable() {
+        ColumnInfo id = new ColumnInfo("id", 1, "int", "int unsigned", false, null, "", "auto_increment");
+        ColumnDiff diff = ColumnDiff.compare(new ColumnDefinition("id", " BIGINT ").setUnsigned(true)
+                .setAutoIncrement(true), id);
+        Assert.assertEquals(ChangeType.MODIFY_TYPE, diff.getType());
+        Assert.assertEquals(1, diff.getDifferences().size());
+
+        diff = ColumnDiff.compare(new ColumnDefinition("nick_name", " VARCHAR(50) ").setNullable(false)
+                .setDefaultValue(""), varchar(50, 4));
+        Assert.assertEquals(ChangeType.MODIFY_NULLABLE, diff.getType());
+        Assert.assertEquals(2, diff.getDifferences().size());
+    }
+
+    @Test
+    public void testDefault() {
+        ColumnInfo sex = new ColumnInfo("sex", 3, "int", "int(11)", false, "'1'", "", "");
+        ColumnDiff diff = ColumnDiff.compare(new ColumnDefinition("sex", " INTEGER ").setDefaultValue("2"), sex);
+        Assert.assertEquals(ChangeType.MODIFY_DEFAULT, diff.getType());
+        Assert.assertNull(ColumnDiff.compare(new ColumnDefinition("sex", " INTEGER ").setDefaultValue("1"), sex));
+        // 数据库自动维护的时间默认值不比对
+        ColumnInfo time = new ColumnInfo("update_time", 4, "timestamp", "timestamp", false, "CURRENT_TIMESTAMP", "",
+                "DEFAULT_GENERATED on update CURRENT_TIMESTAMP");
+        Assert.assertNull(ColumnDiff.compare(new ColumnDefinition("update_time", " TIMESTAMP "), time));
+    }
+
+    @Test
+    public void testTextDefault() {
+        // TEXT / BLOB 不能指定默认值, 数据库中的 COLUMN_DEFAULT 为 NULL (MariaDB 为 'NULL')
+        ColumnInfo remark = new ColumnInfo("remark", 5, "text", "text", false, null, "", "");
+        Assert.assertNull(ColumnDiff.compare(new ColumnDefinition("remark", " TEXT "), remark));
+        Assert.assertNull(ColumnDiff.compare(new ColumnDefinition("remark", " TEXT ").setDefaultValue(""), remark));
+        ColumnInfo data = new ColumnInfo("data", 6, "blob", "blob", true, "NULL", "", "");
+        Assert.assertNull(ColumnDiff.compare(new ColumnDefinition("data", " BLOB ").setNullable(true), data));
+    }
+
+}
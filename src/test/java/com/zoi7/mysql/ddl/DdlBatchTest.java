@@ -0,0 +1,193 @@
+package com.zoi7.mysql.ddl;
+
+import com.zoi7.mysql.config.DataConfig;
+import com.zoi7.mysql.report.MigrationReport;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.BatchUpdateException;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 测试 DDL 批量执行
+ */
+public class DdlBatchTest {
+
+    @Test
+    public void testFlush() throws Exception {
+        DataConfig config = new DataConfig(new String[]{"com.zoi7"}, "url", "root", "root");
+        config.setBatchSize(10);
+        FakeStatement fake = new FakeStatement("CREATE TABLE b", MODE_CONTINUE);
+        MigrationReport report = new MigrationReport(null);
+        DdlBatch batch = new DdlBatch(config, new OnlineDdlExecutor(config), report);
+        DdlStatement dropA = new DdlStatement("a", "DROP TABLE IF EXISTS a");
+        DdlStatement createA = new DdlStatement("a", "CREATE TABLE a");
+        DdlStatement createB = new DdlStatement("b", "CREATE TABLE b");
+        DdlStatement alterB = new DdlStatement("b", "ALTER TABLE b", true, 0);
+        Assert.assertTrue(batch.accept(alterB));
+        batch.add(dropA);
+        batch.add(createB);
+        batch.add(alterB);
+        batch.add(createA);
+        List<TableFailure> failures = batch.flush(fake.proxy());
+
+        Assert.assertTrue(batch.isEmpty());
+        Assert.assertEquals(1, failures.size());
+        Assert.assertEquals("b", failures.get(0).getTableName());
+        Assert.assertTrue(dropA.isBatched());
+        Assert.assertTrue(createA.isBatched());
+        Assert.assertEquals(-1, createA.getElapsed());
+        // 失败的语句不重试, 不打乱执行顺序
+        Assert.assertTrue(fake.executed.isEmpty());
+        Assert.assertEquals(1, report.getBatches());
+        Assert.assertEquals(1, report.getFailedStatements().size());
+    }
+
+    @Test
+    public void testFlushStopOnError() throws Exception {
+        DataConfig config = new DataConfig(new String[]{"com.zoi7"}, "url", "root", "root");
+        config.setBatchSize(10);
+        // 驱动在失败处停止: 只返回已执行语句的 updateCounts
+        FakeStatement fake = new FakeStatement("DROP TABLE IF EXISTS a", MODE_STOP);
+        MigrationReport report = new MigrationReport(null);
+        DdlBatch batch = new DdlBatch(config, new OnlineDdlExecutor(config), report);
+        DdlStatement dropB = new DdlStatement("b", "DROP TABLE IF EXISTS b");
+        DdlStatement dropA = new DdlStatement("a", "DROP TABLE IF EXISTS a");
+        DdlStatement createA = new DdlStatement("a", "CREATE TABLE a");
+        DdlStatement createB = new DdlStatement("b", "CREATE TABLE b");
+        batch.add(dropB);
+        batch.add(dropA);
+        batch.add(createA);
+        batch.add(createB);
+        List<TableFailure> failures = batch.flush(fake.proxy());
+
+        Assert.assertEquals(1, failures.size());
+        Assert.assertEquals("a", failures.get(0).getTableName());
+        Assert.assertTrue(dropB.isBatched());
+        // 失败表的后续语句不执行, 其他表确定未执行的语句逐条执行
+        Assert.assertEquals(1, fake.executed.size());
+        Assert.assertEquals("CREATE TABLE b", fake.executed.get(0));
+        Assert.assertEquals(2, report.getFailedStatements().size());
+    }
+
+    @Test
+    public void testFlushUnknownResult() throws Exception {
+        DataConfig config = new DataConfig(new String[]{"com.zoi7"}, "url", "root", "root");
+        config.setBatchSize(10);
+        // 驱动未返回 updateCounts, 无法确定哪些语句已执行
+        FakeStatement fake = new FakeStatement(null, MODE_ERROR);
+        DdlBatch batch = new DdlBatch(config, new OnlineDdlExecutor(config));
+        batch.add(new DdlStatement("a", "ALTER TABLE a ADD COLUMN c int", true, 0));
+        batch.add(new DdlStatement("b", "ALTER TABLE b ADD COLUMN c int", true, 0));
+        List<TableFailure> failures = batch.flush(fake.proxy());
+
+        Assert.assertEquals(2, failures.size());
+        Assert.assertTrue(fake.executed.isEmpty());
+    }
+
+    /**
+     * 语句末尾的分号在合并执行前去掉, 避免驱动拼接出空语句
+     */
+    @Test
+    public void testStripSemicolon() throws Exception {
+        DataConfig config = new DataConfig(new String[]{"com.zoi7"}, "url", "root", "root");
+        config.setBatchSize(10);
+        FakeStatement fake = new FakeStatement(null, MODE_CONTINUE);
+        DdlBatch batch = new DdlBatch(config, new OnlineDdlExecutor(config));
+        DdlStatement drop = new DdlStatement("a", "DROP TABLE IF EXISTS a;");
+        DdlStatement create = new DdlStatement("a", "CREATE TABLE IF NOT EXISTS a(\n\tid INT\n) ;\n");
+        Assert.assertEquals("DROP TABLE IF EXISTS a", drop.getSql());
+        batch.add(drop);
+        batch.add(create);
+        Assert.assertTrue(batch.flush(fake.proxy()).isEmpty());
+
+        Assert.assertEquals(Arrays.asList("DROP TABLE IF EXISTS a", "CREATE TABLE IF NOT EXISTS a(\n\tid INT\n)"),
+                fake.added);
+        Assert.assertEquals("CREATE TABLE IF NOT EXISTS a(\n\tid INT\n)", create.getExecutedSql());
+    }
+
+    @Test
+    public void testAccept() {
+        DataConfig config = new DataConfig(new String[]{"com.zoi7"}, "url", "root", "root");
+        DdlBatch batch = new DdlBatch(config, new OnlineDdlExecutor(config));
+        Assert.assertFalse(batch.accept(new DdlStatement("a", "CREATE TABLE a")));
+        config.setBatchSize(10);
+        config.setOnlineDdl(true);
+        Assert.assertTrue(batch.accept(new DdlStatement("a", "CREATE TABLE a")));
+        Assert.assertFalse(batch.accept(new DdlStatement("a", "ALTER TABLE a", true, 0)));
+    }
+
+    private static final int MODE_CONTINUE = 0; // 失败后继续执行批次中的其余语句
+    private static final int MODE_STOP = 1; // 失败后停止
+    private static final int MODE_ERROR = 2; // 抛出不带 updateCounts 的异常
+
+    /**
+     * 模拟驱动: 批次中指定语句失败
+     */
+    private static class FakeStatement implements InvocationHandler {
+
+        private String failSql;
+        private int mode;
+        private List<String> batch = new ArrayList<String>();
+        private List<String> added = new ArrayList<String>(); // 加入过批次的所有语句
+        private List<String> executed = new ArrayList<String>();
+
+        FakeStatement(String failSql, int mode) {
+            this.failSql = failSql;
+            this.mode = mode;
+        }
+
+        Statement proxy() {
+            return (Statement) Proxy.newProxyInstance(getClass().getClassLoader(),
+                    new Class<?>[]{Statement.class}, this);
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            if ("addBatch".equals(name)) {
+                batch.add((String) args[0]);
+                added.add((String) args[0]);
+            } else if ("clearBatch".equals(name)) {
+                batch.clear();
+            } else if ("executeBatch".equals(name)) {
+                if (mode == MODE_ERROR) {
+                    throw new SQLException("Communications link failure", "08S01");
+                }
+                int[] counts = new int[batch.size()];
+                for (int i = 0; i < counts.length; i++) {
+                    if (batch.get(i).equals(failSql)) {
+                        counts[i] = Statement.EXECUTE_FAILED;
+                        if (mode == MODE_STOP) {
+                            counts = Arrays.copyOf(counts, i + 1);
+                            throw new BatchUpdateException("fail", "HY000", 1205, counts);
+                        }
+                    }
+                }
+                for (int count : counts) {
+                    if (count == Statement.EXECUTE_FAILED) {
+                        throw new BatchUpdateException("fail", "42S01", 1050, counts);
+                    }
+                }
+                return counts;
+            } else if ("execute".equals(name)) {
+                executed.add((String) args[0]);
+                if (args[0].equals(failSql)) {
+                    throw new SQLException("Table 'b' already exists", "42S01", 1050);
+                }
+                return false;
+            } else if ("getUpdateCount".equals(name)) {
+                return 0;
+            }
+            return null;
+        }
+    }
+
+}
@@ -0,0 +1,93 @@
+package com.zoi7.mysql.ddl;
+
+import com.zoi7.mysql.config.DataConfig;
+import org.junit.Assert;
+import org.junit.Test;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLTimeoutException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 测试执行引擎的单表超时
+ */
+public class DdlEngineTest {
+
+    @Test
+    public void testTableTimeout() throws Exception {
+        DataConfig config = new DataConfig(new String[]{"com.zoi7"}, "url", "root", "root");
+        config.setTableTimeout(1);
+        final TablePlan plan = new TablePlan("a");
+        plan.add(new DdlStatement("a", "ALTER TABLE a ADD COLUMN b INT", true, 0));
+        plan.add(new DdlStatement("a", "ALTER TABLE a ADD COLUMN c INT", true, 0));
+        TableTask task = new TableTask() {
+            @Override
+            public String getTableName() {
+                return "a";
+            }
+
+            @Override
+            public TablePlan check() {
+                return plan;
+            }
+        };
+        FakeDataSource fake = new FakeDataSource(1100);
+        List<TableFailure> failures = new DdlEngine(fake.proxy(), config).execute(Collections.singletonList(task));
+
+        // 第一条语句用完了单表的超时时间, 第二条不再执行
+        Assert.assertEquals(1, fake.executed.size());
+        Assert.assertEquals(1, (int) fake.timeouts.get(0));
+        Assert.assertEquals(1, failures.size());
+        Assert.assertTrue(failures.get(0).getCause() instanceof SQLTimeoutException);
+    }
+
+    /**
+     * 返回的连接记录执行的语句与超时时间, 每条语句耗时 sleep 毫秒
+     */
+    private static class FakeDataSource implements InvocationHandler {
+
+        private List<String> executed = new ArrayList<String>();
+        private List<Integer> timeouts = new ArrayList<Integer>();
+        private long sleep;
+        private int timeout;
+
+        FakeDataSource(long sleep) {
+            this.sleep = sleep;
+        }
+
+        DataSource proxy() {
+            return (DataSource) Proxy.newProxyInstance(getClass().getClassLoader(),
+                    new Class<?>[]{DataSource.class, Connection.class, Statement.class}, this);
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            if ("getConnection".equals(name) || "createStatement".equals(name)) {
+                return proxy;
+            }
+            if ("setQueryTimeout".equals(name)) {
+                timeout = (Integer) args[0];
+                return null;
+            }
+            if ("execute".equals(name)) {
+                executed.add((String) args[0]);
+                timeouts.add(timeout);
+                Thread.sleep(sleep);
+                return false;
+            }
+            if ("getUpdateCount".equals(name)) {
+                return 0;
+            }
+            return null;
+        }
+    }
+
+}
@@ -0,0 +1,53 @@
+package com.zoi7.mysql.ddl;
+
+import com.zoi7.mysql.schema.TableInfo;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * 测试 DDL 算法预估与迁移计划
+ */
+public class DdlEstimatorTest {
+
+    @Test
+    public void testAddColumn() {
+        TableChangeSet changeSet = new TableChangeSet("test_user");
+        changeSet.addColumn(" age INTEGER NOT NULL");
+
+        DdlStatement ddl = DdlStatement.alter(changeSet, new TableInfo("test_user"));
+        new DdlEstimator("8.0.32-log").estimate(ddl, changeSet);
+        Assert.assertEquals(DdlAlgorithm.INSTANT, ddl.getEstimatedAlgorithm());
+        Assert.assertFalse(ddl.isRebuild());
+
+        new DdlEstimator("5.7.40").estimate(ddl, changeSet);
+        Assert.assertEquals(DdlAlgorithm.INPLACE, ddl.getEstimatedAlgorithm());
+        Assert.assertTrue(ddl.isRebuild());
+
+        new DdlEstimator("10.6.12-MariaDB").estimate(ddl, changeSet);
+        Assert.assertEquals(DdlAlgorithm.INSTANT, ddl.getEstimatedAlgorithm());
+    }
+
+    @Test
+    public void testAddColumnWithIndex() {
+        TableChangeSet changeSet = new TableChangeSet("test_user");
+        changeSet.addColumn(" age INTEGER NOT NULL");
+        changeSet.addIndex("INDEX (age)");
+        DdlStatement ddl = DdlStatement.alter(changeSet, new TableInfo("test_user"));
+        new DdlEstimator("8.0.32").estimate(ddl, changeSet);
+        // 新增索引不支持 INSTANT, 整条语句以 INPLACE 执行并重建表
+        Assert.assertEquals(DdlAlgorithm.INPLACE, ddl.getEstimatedAlgorithm());
+        Assert.assertTrue(ddl.isRebuild());
+
+        MigrationPlan plan = new MigrationPlan("8.0.32");
+        TablePlan table = new TablePlan("test_user");
+        table.add(ddl);
+        plan.add(table);
+        plan.add(new TablePlan("test_empty"));
+        Assert.assertEquals(1, plan.getTables().size());
+        Assert.assertEquals(1, plan.getRebuilds().size());
+        String text = plan.format();
+        Assert.assertTrue(text.contains("algorithm: INPLACE, REBUILD"));
+        Assert.assertTrue(text.contains("ADD INDEX (age);"));
+    }
+
+}
@@ -0,0 +1,106 @@
+package com.zoi7.mysql.ddl;
+
+import com.zoi7.mysql.schema.FakeSchema;
+import com.zoi7.mysql.schema.TableInfo;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 测试索引比对与冗余索引检查
+ */
+public class IndexReconcilerTest {
+
+    @Test
+    public void testRedundancies() {
+        List<String> redundancies = IndexReconciler.findRedundancies(Arrays.asList(
+                IndexDefinition.primary("id"),
+                new IndexDefinition(null, false, "nick_name"),
+                new IndexDefinition("NICK_NAME_SEX", false, "NICK_NAME", "SEX"),
+                new IndexDefinition("username", true, "username"),
+                new IndexDefinition("username_sex", true, "username", "sex"),
+                new IndexDefinition("sex_dup", false, "sex", "nick_name"),
+                new IndexDefinition("sex_dup2", false, "SEX", "NICK_NAME")));
+        Assert.assertEquals(2, redundancies.size());
+        Assert.assertTrue(redundancies.get(0).startsWith("redundant index: INDEX[nick_name]"));
+        Assert.assertTrue(redundancies.get(1).startsWith("duplicate index: sex_dup"));
+    }
+
+    @Test
+    public void testReconcile() {
+        IndexReconciler result = IndexReconciler.reconcile(Arrays.asList(
+                IndexDefinition.primary("id"),
+                new IndexDefinition("", true, "username"),
+                new IndexDefinition("username_sex", false, "username", "sex")), new TableInfo("test_user"), true);
+        Assert.assertEquals(2, result.getMissing().size());
+        Assert.assertEquals("UNIQUE INDEX (username)", result.getMissing().get(0).toSql());
+        Assert.assertEquals("INDEX username_sex(username,sex)", result.getMissing().get(1).toSql());
+        Assert.assertTrue(result.getUndeclared().isEmpty());
+        Assert.assertTrue(result.getRedundancies().isEmpty());
+    }
+
+    private static TableInfo existing() throws Exception {
+        return new FakeSchema("8.0.32").table("test_user", 1L)
+                .index("test_user", "PRIMARY", true, "id", null, "A", null)
+                .index("test_user", "idx_name_sex", false, "nick_name", null, "A", null)
+                .index("test_user", "idx_name_sex", false, "sex", null, "A", null)
+                .index("test_user", "uk_username", true, "username", null, "A", null)
+                .index("test_user", "idx_url", false, "url", 191, "A", null)
+                .index("test_user", "idx_time", false, "create_time", null, "D", null)
+                .index("test_user", "idx_email", false, null, null, "A", "lower(`email`)")
+                .index("test_user", "idx_legacy", false, "sex", null, "A", null)
+                .index("test_user", "idx_nick", false, "nick_name", null, "A", null)
+                .load().getTable("test_user");
+    }
+
+    private static List<IndexDefinition> declared() {
+        return Arrays.asList(
+                IndexDefinition.primary("id"),
+                new IndexDefinition("NICK_NAME_SEX", false, "NICK_NAME", "SEX"),
+                new IndexDefinition(null, true, "username"),
+                new IndexDefinition("idx_url", false, "url(191)"),
+                new IndexDefinition("idx_time", false, "create_time DESC"),
+                new IndexDefinition("idx_ctime", false, "create_time"),
+                new IndexDefinition("email", false, "(LOWER(email))"),
+                new IndexDefinition("idx_legacy", false, "age"));
+    }
+
+    @Test
+    public void testLoadKeyParts() throws Exception {
+        TableInfo table = existing();
+        Assert.assertEquals("INDEX idx_url(url(191))", IndexDefinition.of(table.getIndex("idx_url")).toSql());
+        Assert.assertEquals("INDEX idx_time(create_time DESC)", IndexDefinition.of(table.getIndex("idx_time")).toSql());
+        Assert.assertEquals("INDEX idx_email((lower(`email`)))", IndexDefinition.of(table.getIndex("idx_email")).toSql());
+        Assert.assertEquals("(lower(email))", IndexDefinition.of(table.getIndex("idx_email")).getKey());
+    }
+
+    @Test
+    public void testReconcileExisting() throws Exception {
+        // 按列/前缀/排序方向/表达式匹配, 不要求索引名一致; 未声明的索引被删除, 不再与同名的新索引冲突
+        IndexReconciler result = IndexReconciler.reconcile(declared(), existing(), true);
+        Assert.assertEquals(2, result.getMissing().size());
+        Assert.assertEquals("INDEX idx_ctime(create_time)", result.getMissing().get(0).toSql());
+        Assert.assertEquals("INDEX idx_legacy(age)", result.getMissing().get(1).toSql());
+        Assert.assertEquals(2, result.getUndeclared().size());
+        Assert.assertEquals("idx_legacy", result.getUndeclared().get(0).getName());
+        Assert.assertEquals("idx_nick", result.getUndeclared().get(1).getName());
+        Assert.assertTrue(result.getConflicts().isEmpty());
+        Assert.assertTrue(result.getRedundancies().isEmpty());
+    }
+
+    @Test
+    public void testReconcileKeepUndeclared() throws Exception {
+        // 保留未声明的索引时: 同名的新索引无法新增, 保留的索引参与冗余检查
+        IndexReconciler result = IndexReconciler.reconcile(declared(), existing(), false);
+        Assert.assertEquals(1, result.getMissing().size());
+        Assert.assertEquals("INDEX idx_ctime(create_time)", result.getMissing().get(0).toSql());
+        Assert.assertEquals(2, result.getUndeclared().size());
+        Assert.assertEquals(1, result.getConflicts().size());
+        Assert.assertEquals("INDEX idx_legacy(age)", result.getConflicts().get(0).toSql());
+        Assert.assertEquals(1, result.getRedundancies().size());
+        Assert.assertTrue(result.getRedundancies().get(0).startsWith("redundant index: idx_nick[nick_name]"));
+    }
+
+}
@@ -0,0 +1,48 @@
+package com.zoi7.mysql.ddl;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+
+/**
+ * 测试索引键部分的解析与比对
+ */
+public class KeyPartTest {
+
+    @Test
+    public void testParse() {
+        KeyPart url = KeyPart.parse(" url(191) ");
+        Assert.assertEquals("url", url.getColumn());
+        Assert.assertEquals(191, url.getLength());
+        Assert.assertFalse(url.isDesc());
+
+        KeyPart time = KeyPart.parse("create_time desc");
+        Assert.assertTrue(time.isDesc());
+        Assert.assertEquals("create_time DESC", time.toSql());
+
+        KeyPart lower = KeyPart.parse("(LOWER(email)) DESC");
+        Assert.assertTrue(lower.isExpression());
+        Assert.assertEquals("LOWER(email)", lower.getExpression());
+        Assert.assertEquals("(LOWER(email)) DESC", lower.toSql());
+        // 与 STATISTICS.EXPRESSION 的格式比对
+        Assert.assertEquals(lower.getKey(), KeyPart.expression("lower(`email`)", true).getKey());
+
+        Assert.assertEquals("create_time DESC", KeyPart.parse("createTime DESC").withColumn("create_time").toSql());
+    }
+
+    @Test
+    public void testIndexKey() {
+        IndexDefinition declared = new IndexDefinition("idx_feed", false, "user_id", "create_time DESC");
+        Assert.assertEquals("INDEX idx_feed(user_id,create_time DESC)", declared.toSql());
+        Assert.assertFalse(declared.getKey().equals(new IndexDefinition("idx_feed", false, "user_id", "create_time").getKey()));
+        Assert.assertEquals(new IndexDefinition("idx_feed", false, "user_id", "create_time").getKey(),
+                declared.withoutDesc().getKey());
+        Assert.assertEquals(Arrays.asList("url", "(LOWER(email))"),
+                new IndexDefinition(null, false, "url(100)", "(LOWER(email))").getColumns());
+        // 前缀长度不同的索引不构成最左前缀
+        Assert.assertFalse(new IndexDefinition(null, false, "url(50)").isLeftPrefixOf(
+                new IndexDefinition(null, false, "url(100)", "user_id")));
+    }
+
+}
@@ -0,0 +1,100 @@
+package com.zoi7.mysql.ddl;
+
+import com.zoi7.mysql.config.DataConfig;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 测试 DDL 执行器的阻塞 DDL 行数限制
+ */
+public class OnlineDdlExecutorTest {
+
+    private static DataConfig config(boolean onlineDdl) {
+        DataConfig config = new DataConfig(new String[]{"com.zoi7"}, "url", "root", "root");
+        config.setOnlineDdl(onlineDdl);
+        config.setBlockingRowLimit(100);
+        config.setBatchSize(10);
+        return config;
+    }
+
+    private static DdlStatement alter(DdlAlgorithm estimated, long rows) {
+        DdlStatement ddl = new DdlStatement("a", "ALTER TABLE a MODIFY COLUMN name VARCHAR(20)", true, rows);
+        ddl.setEstimatedAlgorithm(estimated);
+        return ddl;
+    }
+
+    @Test
+    public void testBlockingWithoutOnlineDdl() throws Exception {
+        DataConfig config = config(false);
+        OnlineDdlExecutor executor = new OnlineDdlExecutor(config);
+        FakeStatement fake = new FakeStatement(false);
+        DdlStatement copy = alter(DdlAlgorithm.COPY, 1000);
+        Assert.assertFalse(new DdlBatch(config, executor, null).accept(copy));
+        try {
+            executor.execute(fake.proxy(), copy);
+            Assert.fail();
+        } catch (SQLException e) {
+            Assert.assertTrue(fake.executed.isEmpty());
+        }
+        // 非阻塞或未超过行数限制的语句正常执行
+        executor.execute(fake.proxy(), alter(DdlAlgorithm.INPLACE, 1000));
+        executor.execute(fake.proxy(), alter(DdlAlgorithm.COPY, 10));
+        Assert.assertEquals(2, fake.executed.size());
+        Assert.assertTrue(new DdlBatch(config, executor, null).accept(alter(DdlAlgorithm.COPY, 10)));
+    }
+
+    @Test
+    public void testBlockingWithOnlineDdl() throws Exception {
+        OnlineDdlExecutor executor = new OnlineDdlExecutor(config(true));
+        FakeStatement fake = new FakeStatement(true);
+        try {
+            executor.execute(fake.proxy(), alter(DdlAlgorithm.INPLACE, 1000));
+            Assert.fail();
+        } catch (SQLException e) {
+            // INSTANT 与 INPLACE 均不支持, 拒绝退回 COPY
+            Assert.assertEquals(2, fake.executed.size());
+        }
+    }
+
+    /**
+     * 记录执行的语句, unsupported 为 true 时拒绝 INSTANT / INPLACE
+     */
+    private static class FakeStatement implements InvocationHandler {
+
+        private List<String> executed = new ArrayList<String>();
+        private boolean unsupported;
+
+        FakeStatement(boolean unsupported) {
+            this.unsupported = unsupported;
+        }
+
+        Statement proxy() {
+            return (Statement) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{Statement.class}, this);
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            if ("execute".equals(method.getName())) {
+                String sql = (String) args[0];
+                executed.add(sql);
+                if (unsupported && (sql.contains("INSTANT") || sql.contains("INPLACE"))) {
+                    throw new SQLException("ALGORITHM is not supported", "0A000", 1846);
+                }
+                return false;
+            }
+            if ("getUpdateCount".equals(method.getName())) {
+                return 0;
+            }
+            return null;
+        }
+    }
+
+}
@@ -0,0 +1,98 @@
+package com.zoi7.mysql.ddl;
+
+import com.zoi7.mysql.comment.Entity;
+import com.zoi7.mysql.comment.Partition;
+import com.zoi7.mysql.comment.PartitionInterval;
+import com.zoi7.mysql.comment.PartitionType;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.sql.SQLException;
+import java.text.SimpleDateFormat;
+import java.util.Arrays;
+import java.util.Date;
+
+/**
+ * 测试分区子句生成与分区列检查
+ */
+public class PartitionDefinitionTest {
+
+    @Entity(tableName = "t_event", partition = @Partition(type = PartitionType.RANGE_COLUMNS, column = "create_time",
+            interval = PartitionInterval.MONTH, start = "2026-08-15", ahead = 2))
+    private static class MonthlyEvent {}
+
+    @Entity(tableName = "t_ledger", partition = @Partition(type = PartitionType.RANGE, column = "create_time",
+            interval = PartitionInterval.DAY, ahead = 1))
+    private static class DailyLedger {}
+
+    @Entity(tableName = "t_account", partition = @Partition(type = PartitionType.HASH, column = "id", partitions = 8))
+    private static class HashAccount {}
+
+    @Entity(tableName = "t_region", partition = @Partition(type = PartitionType.LIST, column = "region",
+            definitions = {"p_north VALUES IN (1, 2)", "PARTITION p_south VALUES IN (3)"}))
+    private static class ListRegion {}
+
+    @Entity(tableName = "t_bad", partition = @Partition(type = PartitionType.KEY, column = "id"))
+    private static class MissingPartitions {}
+
+    @Entity(tableName = "t_none")
+    private static class NotPartitioned {}
+
+    private static PartitionDefinition of(Class<?> clazz) throws SQLException {
+        Entity entity = clazz.getAnnotation(Entity.class);
+        return PartitionDefinition.of(entity.tableName(), entity.partition());
+    }
+
+    @Test
+    public void testRangeColumnsByMonth() throws Exception {
+        Date now = new SimpleDateFormat("yyyy-MM-dd HH:mm").parse("2026-10-17 21:20");
+        Assert.assertEquals("PARTITION BY RANGE COLUMNS(create_time) (\n" +
+                "\tPARTITION p202608 VALUES LESS THAN ('2026-09-01'),\n" +
+                "\tPARTITION p202609 VALUES LESS THAN ('2026-10-01'),\n" +
+                "\tPARTITION p202610 VALUES LESS THAN ('2026-11-01'),\n" +
+                "\tPARTITION p202611 VALUES LESS THAN ('2026-12-01'),\n" +
+                "\tPARTITION p202612 VALUES LESS THAN ('2027-01-01'),\n" +
+                "\tPARTITION pmax VALUES LESS THAN (MAXVALUE)\n" +
+                ")", of(MonthlyEvent.class).toSql(now));
+    }
+
+    @Test
+    public void testRangeByDay() throws Exception {
+        Date now = new SimpleDateFormat("yyyy-MM-dd HH:mm").parse("2026-12-31 08:00");
+        Assert.assertEquals("PARTITION BY RANGE(TO_DAYS(create_time)) (\n" +
+                "\tPARTITION p20261231 VALUES LESS THAN (TO_DAYS('2027-01-01')),\n" +
+                "\tPARTITION p20270101 VALUES LESS THAN (TO_DAYS('2027-01-02')),\n" +
+                "\tPARTITION pmax VALUES LESS THAN MAXVALUE\n" +
+                ")", of(DailyLedger.class).toSql(now));
+    }
+
+    @Test
+    public void testHashAndList() throws Exception {
+        Assert.assertEquals("PARTITION BY HASH(id) PARTITIONS 8", of(HashAccount.class).toSql(new Date()));
+        Assert.assertEquals("PARTITION BY LIST(region) (\n" +
+                "\tPARTITION p_north VALUES IN (1, 2),\n" +
+                "\tPARTITION p_south VALUES IN (3)\n" +
+                ")", of(ListRegion.class).toSql(new Date()));
+        Assert.assertNull(of(NotPartitioned.class));
+        try {
+            of(MissingPartitions.class);
+            Assert.fail();
+        } catch (SQLException e) {
+            Assert.assertTrue(e.getMessage().contains("t_bad"));
+        }
+    }
+
+    @Test
+    public void testFindViolations() throws Exception {
+        PartitionDefinition partition = of(MonthlyEvent.class);
+        Assert.assertTrue(partition.findViolations(Arrays.asList(
+                IndexDefinition.primary("id", "CREATE_TIME"),
+                new IndexDefinition("uk_order", true, "order_no", "create_time"),
+                new IndexDefinition("idx_user", false, "user_id"))).isEmpty());
+        Assert.assertEquals(2, partition.findViolations(Arrays.asList(
+                IndexDefinition.primary("id"),
+                new IndexDefinition("uk_order", true, "order_no"),
+                new IndexDefinition("idx_user", false, "user_id"))).size());
+    }
+
+}
@@ -0,0 +1,72 @@
+package com.zoi7.mysql.ddl;
+
+import com.zoi7.mysql.comment.Entity;
+import com.zoi7.mysql.comment.Partition;
+import com.zoi7.mysql.comment.PartitionInterval;
+import com.zoi7.mysql.comment.PartitionType;
+import com.zoi7.mysql.schema.PartitionInfo;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.text.SimpleDateFormat;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * 测试分区维护: 预先创建分区与过期分区
+ */
+public class PartitionMaintainerTest {
+
+    @Entity(tableName = "t_event", partition = @Partition(type = PartitionType.RANGE_COLUMNS, column = "create_time",
+            interval = PartitionInterval.MONTH, ahead = 2, retention = 2))
+    private static class MonthlyEvent {}
+
+    private static PartitionDefinition definition() throws Exception {
+        Entity entity = MonthlyEvent.class.getAnnotation(Entity.class);
+        return PartitionDefinition.of(entity.tableName(), entity.partition());
+    }
+
+    private static PartitionInfo partition(String name, String description) {
+        return new PartitionInfo(name, "RANGE COLUMNS", "`create_time`", description, 0);
+    }
+
+    @Test
+    public void testAdd() throws Exception {
+        Date now = new SimpleDateFormat("yyyy-MM-dd").parse("2026-10-17");
+        List<PartitionInfo> partitions = Arrays.asList(
+                partition("p202609", "'2026-10-01'"),
+                partition("p202610", "'2026-11-01'"));
+        Assert.assertEquals("ALTER TABLE t_event ADD PARTITION (" +
+                "PARTITION p202611 VALUES LESS THAN ('2026-12-01'), " +
+                "PARTITION p202612 VALUES LESS THAN ('2027-01-01'))",
+                PartitionMaintainer.getAddSql(definition(), partitions, now));
+        Assert.assertNull(PartitionMaintainer.getAddSql(definition(), Arrays.asList(
+                partition("p202612", "'2027-01-01'")), now));
+        Assert.assertEquals("ALTER TABLE t_event REORGANIZE PARTITION pmax INTO (" +
+                "PARTITION p202612 VALUES LESS THAN ('2027-01-01'), " +
+                "PARTITION pmax VALUES LESS THAN (MAXVALUE))",
+                PartitionMaintainer.getAddSql(definition(), Arrays.asList(
+                        partition("p202611", "'2026-12-01'"), partition("pmax", "MAXVALUE")), now));
+    }
+
+    @Test
+    public void testExpired() throws Exception {
+        Date now = new SimpleDateFormat("yyyy-MM-dd").parse("2026-10-17");
+        List<PartitionInfo> expired = PartitionMaintainer.getExpired(definition(), Arrays.asList(
+                partition("p_old", "'2020-01-01'"),
+                partition("p202606", "'2026-07-01'"),
+                partition("p202607", "'2026-08-01'"),
+                partition("p202608", "'2026-09-01'"),
+                partition("p202609", "'2026-10-01'"),
+                partition("p202610", "'2026-11-01'")), now);
+        Assert.assertEquals(2, expired.size());
+        Assert.assertEquals("p202606", expired.get(0).getName());
+        Assert.assertEquals("p202607", expired.get(1).getName());
+        // 至少保留一个分区
+        Assert.assertEquals(1, PartitionMaintainer.getExpired(definition(), Arrays.asList(
+                partition("p202601", "'2026-02-01'"),
+                partition("p202602", "'2026-03-01'")), now).size());
+    }
+
+}
@@ -0,0 +1,335 @@
+package com.zoi7.mysql.ddl;
+
+import com.zoi7.mysql.config.DataConfig;
+import com.zoi7.mysql.schema.TableInfo;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 测试影子表变更的语句生成, 分块复制, 切换重试与失败清理
+ */
+public class ShadowTableMigratorTest {
+
+    private static final List<String> KEYS = Arrays.asList("a", "b");
+    private static final List<String> COLUMNS = Arrays.asList("a", "b", "c");
+    private static final String[] TRIGGERS = {"_t_order_ins", "_t_order_upd", "_t_order_del_t"};
+
+    @Test
+    public void testAdjustChunkSize() {
+        DataConfig config = new DataConfig(new String[]{"com.zoi7"}, "url", "root", "root");
+        config.setShadowChunkMillis(500);
+        ShadowTableMigrator migrator = new ShadowTableMigrator(config);
+        // 耗时远小于目标, 最多放大一倍
+        Assert.assertEquals(2000, migrator.adjustChunkSize(1000, 10));
+        // 耗时是目标的两倍, 缩小一半
+        Assert.assertEquals(500, migrator.adjustChunkSize(1000, 1000));
+        Assert.assertEquals(1250, migrator.adjustChunkSize(1000, 400));
+        // 上下限
+        Assert.assertEquals(100, migrator.adjustChunkSize(150, 5000));
+        Assert.assertEquals(50000, migrator.adjustChunkSize(40000, 1));
+        config.setShadowChunkMillis(0);
+        Assert.assertEquals(1000, migrator.adjustChunkSize(1000, 5000));
+    }
+
+    @Test
+    public void testTriggerSql() {
+        String[] sql = ShadowTableMigrator.triggerSql("t_order", "_t_order_gho", TRIGGERS, KEYS, COLUMNS);
+        String replace = "REPLACE INTO _t_order_gho (a, b, c) VALUES (NEW.a, NEW.b, NEW.c)";
+        String delete = "DELETE IGNORE FROM _t_order_gho WHERE a <=> OLD.a AND b <=> OLD.b";
+        Assert.assertEquals("CREATE TRIGGER _t_order_ins AFTER INSERT ON t_order FOR EACH ROW " + replace, sql[0]);
+        Assert.assertEquals("CREATE TRIGGER _t_order_upd AFTER UPDATE ON t_order FOR EACH ROW BEGIN "
+                + delete + "; " + replace + "; END", sql[1]);
+        Assert.assertEquals("CREATE TRIGGER _t_order_del_t AFTER DELETE ON t_order FOR EACH ROW " + delete, sql[2]);
+    }
+
+    @Test
+    public void testChunkSql() {
+        Assert.assertEquals("SELECT a, b FROM t_order ORDER BY a, b LIMIT 1 OFFSET ?",
+                ShadowTableMigrator.boundSql("t_order", KEYS, true));
+        Assert.assertEquals("SELECT a, b FROM t_order WHERE (a, b) > (?, ?) ORDER BY a, b LIMIT 1 OFFSET ?",
+                ShadowTableMigrator.boundSql("t_order", KEYS, false));
+        Assert.assertEquals("SELECT id FROM t_user WHERE (id) > (?) ORDER BY id LIMIT 1 OFFSET ?",
+                ShadowTableMigrator.boundSql("t_user", Arrays.asList("id"), false));
+
+        String prefix = "INSERT IGNORE INTO _t_order_gho (a, b, c) SELECT a, b, c FROM t_order FORCE INDEX (PRIMARY) WHERE ";
+        Assert.assertEquals(prefix + "(a, b) <= (?, ?) LOCK IN SHARE MODE",
+                ShadowTableMigrator.copySql("t_order", "_t_order_gho", KEYS, COLUMNS, false, true));
+        Assert.assertEquals(prefix + "(a, b) > (?, ?) AND (a, b) <= (?, ?) LOCK IN SHARE MODE",
+                ShadowTableMigrator.copySql("t_order", "_t_order_gho", KEYS, COLUMNS, true, true));
+        Assert.assertEquals(prefix + "(a, b) > (?, ?) LOCK IN SHARE MODE",
+                ShadowTableMigrator.copySql("t_order", "_t_order_gho", KEYS, COLUMNS, true, false));
+        Assert.assertEquals(prefix + "1 = 1 LOCK IN SHARE MODE",
+                ShadowTableMigrator.copySql("t_order", "_t_order_gho", KEYS, COLUMNS, false, false));
+
+        Assert.assertEquals("RENAME TABLE t_order TO _t_order_del, _t_order_gho TO t_order",
+                ShadowTableMigrator.renameSql("t_order", "_t_order_gho", "_t_order_del"));
+    }
+
+    /**
+     * 复合主键分块复制, RENAME 等待元数据锁超时后重试并恢复 lock_wait_timeout
+     */
+    @Test
+    public void testMigrate() throws Exception {
+        FakeConnection fake = new FakeConnection(250);
+        fake.renameFailures = 1;
+        DdlStatement ddl = ddl();
+        new ShadowTableMigrator(config()).migrate(fake.statement(), ddl);
+
+        Assert.assertEquals(250, ddl.getRows());
+        // 每块 100 行: (, (9,9)], ((9,9), (19,9)], ((19,9), )
+        Assert.assertEquals(3, fake.copies.size());
+        Assert.assertEquals(Arrays.<Object>asList(9, 9), fake.copies.get(0));
+        Assert.assertEquals(Arrays.<Object>asList(9, 9, 19, 9), fake.copies.get(1));
+        Assert.assertEquals(Arrays.<Object>asList(19, 9), fake.copies.get(2));
+
+        List<String> executed = fake.executed;
+        // 先清理上次残留的触发器与影子表
+        Assert.assertEquals("DROP TABLE IF EXISTS _t_order_gho", executed.get(3));
+        Assert.assertEquals("CREATE TABLE _t_order_gho LIKE t_order", executed.get(4));
+        Assert.assertEquals("ALTER TABLE _t_order_gho\n\tADD COLUMN d INT", executed.get(5));
+        // 生成列 g 与影子表新增的 d 不在触发器中
+        Assert.assertTrue(executed.contains(ShadowTableMigrator.triggerSql("t_order", "_t_order_gho", TRIGGERS,
+                KEYS, COLUMNS)[0]));
+        String rename = ShadowTableMigrator.renameSql("t_order", "_t_order_gho", "_t_order_del");
+        int first = executed.indexOf(rename);
+        Assert.assertEquals("SET SESSION lock_wait_timeout = 5", executed.get(first - 1));
+        Assert.assertEquals(rename, executed.get(first + 1));
+        Assert.assertEquals("SET SESSION lock_wait_timeout = 50", executed.get(first + 2));
+        Assert.assertEquals(Arrays.asList("DROP TRIGGER IF EXISTS _t_order_ins", "DROP TRIGGER IF EXISTS _t_order_upd",
+                "DROP TRIGGER IF EXISTS _t_order_del_t", "DROP TABLE IF EXISTS _t_order_del"),
+                executed.subList(first + 3, executed.size()));
+    }
+
+    /**
+     * RENAME 多次等待元数据锁超时后放弃, 与其他步骤失败一样清理触发器与影子表
+     */
+    @Test
+    public void testCleanupOnFailure() throws Exception {
+        String[] failures = {"CREATE TRIGGER _t_order_upd", "INSERT IGNORE", "RENAME TABLE"};
+        for (String failOn : failures) {
+            FakeConnection fake = new FakeConnection(250);
+            fake.failOn = failOn;
+            fake.renameFailures = Integer.MAX_VALUE;
+            try {
+                new ShadowTableMigrator(config()).migrate(fake.statement(), ddl());
+                Assert.fail(failOn);
+            } catch (SQLException e) {
+                // 预期的失败
+            }
+            List<String> executed = fake.executed;
+            Assert.assertEquals(Arrays.asList("DROP TRIGGER IF EXISTS _t_order_ins", "DROP TRIGGER IF EXISTS _t_order_upd",
+                    "DROP TRIGGER IF EXISTS _t_order_del_t", "DROP TABLE IF EXISTS _t_order_gho"),
+                    executed.subList(executed.size() - 4, executed.size()));
+            int renames = 0;
+            for (String sql : executed) {
+                renames += sql.startsWith("RENAME TABLE") ? 1 : 0;
+            }
+            Assert.assertEquals("RENAME TABLE".equals(failOn) ? 3 : 0, renames);
+        }
+    }
+
+    private static DataConfig config() {
+        DataConfig config = new DataConfig(new String[]{"com.zoi7"}, "url", "root", "root", DataConfig.TYPE_UPDATE, false);
+        config.setShadowChunkSize(100);
+        config.setShadowChunkMillis(0);
+        return config;
+    }
+
+    private static DdlStatement ddl() {
+        TableChangeSet changeSet = new TableChangeSet("t_order");
+        changeSet.addColumn("d INT");
+        return DdlStatement.alter(changeSet, new TableInfo("t_order"));
+    }
+
+    /**
+     * 模拟复合主键 (a, b) 的 t_order 表: 字段 a, b, c 与生成列 g, 影子表增加字段 d;
+     * 记录执行的语句与每块复制的主键参数
+     */
+    private static class FakeConnection implements InvocationHandler {
+
+        private List<Object[]> rows = new ArrayList<Object[]>(); // 按主键排序
+        private List<String> executed = new ArrayList<String>();
+        private List<List<Object>> copies = new ArrayList<List<Object>>();
+        private String failOn; // 以该前缀开头的语句执行失败
+        private int renameFailures; // RENAME 等待元数据锁超时的次数
+
+        FakeConnection(int count) {
+            for (int i = 0; i < count; i++) {
+                rows.add(new Object[]{i / 10, i % 10});
+            }
+        }
+
+        Statement statement() {
+            return (Statement) Proxy.newProxyInstance(getClass().getClassLoader(),
+                    new Class<?>[]{Connection.class, Statement.class}, this);
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            if ("getConnection".equals(name) || "createStatement".equals(name)) {
+                return proxy;
+            }
+            if ("prepareStatement".equals(name)) {
+                return Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{PreparedStatement.class},
+                        new Prepared((String) args[0]));
+            }
+            if ("execute".equals(name)) {
+                String sql = (String) args[0];
+                executed.add(sql);
+                if (sql.startsWith("RENAME TABLE") && renameFailures-- > 0) {
+                    throw new SQLException("Lock wait timeout exceeded", "HY000", 1205);
+                }
+                fail(sql);
+                return false;
+            }
+            if ("executeQuery".equals(name)) {
+                List<Object[]> result = new ArrayList<Object[]>();
+                if (((String) args[0]).contains("lock_wait_timeout")) {
+                    result.add(new Object[]{50L});
+                }
+                return resultSet(result);
+            }
+            return defaultValue(method);
+        }
+
+        private void fail(String sql) throws SQLException {
+            if (failOn != null && sql.startsWith(failOn)) {
+                throw new SQLException("failed: " + sql);
+            }
+        }
+
+        /**
+         * 预编译语句: 主键与字段查询, 分块边界查询, 分块复制
+         */
+        private class Prepared implements InvocationHandler {
+
+            private String sql;
+            private Map<Integer, Object> params = new HashMap<Integer, Object>();
+
+            Prepared(String sql) {
+                this.sql = sql;
+            }
+
+            @Override
+            public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+                String name = method.getName();
+                if (name.startsWith("set")) {
+                    params.put((Integer) args[0], args[1]);
+                    return null;
+                }
+                if ("executeQuery".equals(name)) {
+                    List<Object[]> result = new ArrayList<Object[]>();
+                    if (sql.contains("INDEX_NAME = 'PRIMARY'")) {
+                        result.add(new Object[]{"a"});
+                        result.add(new Object[]{"b"});
+                    } else if (sql.contains("INFORMATION_SCHEMA.COLUMNS")) {
+                        result.add(new Object[]{"a", ""});
+                        result.add(new Object[]{"b", ""});
+                        result.add(new Object[]{"c", ""});
+                        if ("t_order".equals(params.get(1))) {
+                            result.add(new Object[]{"g", "VIRTUAL GENERATED"});
+                        } else {
+                            result.add(new Object[]{"d", ""});
+                        }
+                    } else {
+                        // 分块边界: 上一块末尾之后的第 offset+1 行
+                        int from = params.size() == 1 ? 0 : after(params.get(1), params.get(2));
+                        int index = from + (Integer) params.get(params.size());
+                        if (index < rows.size()) {
+                            result.add(rows.get(index));
+                        }
+                    }
+                    return resultSet(result);
+                }
+                if ("executeUpdate".equals(name)) {
+                    fail(sql);
+                    List<Object> values = new ArrayList<Object>();
+                    for (int i = 1; i <= params.size(); i++) {
+                        values.add(params.get(i));
+                    }
+                    copies.add(values);
+                    int from = sql.contains(" > ") ? after(params.get(1), params.get(2)) : 0;
+                    int to = rows.size();
+                    if (sql.contains(" <= ")) {
+                        int offset = sql.contains(" > ") ? 3 : 1;
+                        to = after(params.get(offset), params.get(offset + 1));
+                    }
+                    return to - from;
+                }
+                return defaultValue(method);
+            }
+        }
+
+        /**
+         * @return 第一个主键大于 (a, b) 的行的序号
+         */
+        private int after(Object a, Object b) {
+            int i = 0;
+            while (i < rows.size() && compare(rows.get(i), (Integer) a, (Integer) b) <= 0) {
+                i++;
+            }
+            return i;
+        }
+
+        private static int compare(Object[] row, int a, int b) {
+            int result = ((Integer) row[0]).compareTo(a);
+            return result != 0 ? result : ((Integer) row[1]).compareTo(b);
+        }
+
+        private static ResultSet resultSet(final List<Object[]> result) {
+            return (ResultSet) Proxy.newProxyInstance(FakeConnection.class.getClassLoader(),
+                    new Class<?>[]{ResultSet.class}, new InvocationHandler() {
+                        private int row = -1;
+
+                        @Override
+                        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+                            String name = method.getName();
+                            if ("next".equals(name)) {
+                                return ++row < result.size();
+                            }
+                            if ("getString".equals(name) || "getObject".equals(name) || "getLong".equals(name)) {
+                                return result.get(row)[(Integer) args[0] - 1];
+                            }
+                            if ("getMetaData".equals(name)) {
+                                return Proxy.newProxyInstance(FakeConnection.class.getClassLoader(),
+                                        new Class<?>[]{ResultSetMetaData.class}, new InvocationHandler() {
+                                            @Override
+                                            public Object invoke(Object proxy, Method method, Object[] args) {
+                                                return result.get(row).length;
+                                            }
+                                        });
+                            }
+                            return defaultValue(method);
+                        }
+                    });
+        }
+
+        private static Object defaultValue(Method method) {
+            Class<?> type = method.getReturnType();
+            if (type == boolean.class) {
+                return false;
+            }
+            if (type == int.class) {
+                return 0;
+            }
+            return null;
+        }
+    }
+
+}
@@ -0,0 +1,73 @@
+package com.zoi7.mysql.ddl;
+
+import com.zoi7.mysql.comment.Entity;
+import com.zoi7.mysql.comment.RowFormat;
+import com.zoi7.mysql.comment.TableOptions;
+import com.zoi7.mysql.schema.FakeSchema;
+import com.zoi7.mysql.schema.SchemaSnapshot;
+import com.zoi7.mysql.schema.TableInfo;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 测试表选项的生成与比对
+ */
+public class TableOptionsDefinitionTest {
+
+    @Entity(tableName = "t_archive", options = @TableOptions(engine = "InnoDB", rowFormat = RowFormat.COMPRESSED,
+            keyBlockSize = 8, statsPersistent = 1, statsSamplePages = 32, autoIncrement = 1000))
+    private static class Archive {}
+
+    @Entity(tableName = "t_plain")
+    private static class Plain {}
+
+    private static TableOptionsDefinition of(Class<?> clazz) {
+        return TableOptionsDefinition.of(clazz.getAnnotation(Entity.class).options());
+    }
+
+    @Test
+    public void testToSql() {
+        Assert.assertEquals("ENGINE=InnoDB ROW_FORMAT=COMPRESSED KEY_BLOCK_SIZE=8 STATS_PERSISTENT=1 " +
+                "STATS_SAMPLE_PAGES=32 AUTO_INCREMENT=1000", of(Archive.class).toSql());
+        Assert.assertEquals("", of(Plain.class).toSql());
+    }
+
+    @Test
+    public void testCompare() {
+        TableChangeSet changeSet = new TableChangeSet("t_archive");
+        List<String> differences = of(Archive.class).compare(new TableInfo("t_archive"), changeSet);
+        Assert.assertEquals(5, differences.size());
+        Assert.assertEquals(Arrays.asList(ChangeType.MODIFY_ENGINE, ChangeType.MODIFY_ROW_FORMAT,
+                ChangeType.MODIFY_ROW_FORMAT, ChangeType.MODIFY_TABLE_OPTION, ChangeType.MODIFY_TABLE_OPTION),
+                changeSet.getTypes());
+        Assert.assertTrue(changeSet.toSql().contains("ROW_FORMAT=COMPRESSED,\n\tKEY_BLOCK_SIZE=8"));
+
+        TableChangeSet plain = new TableChangeSet("t_plain");
+        Assert.assertTrue(of(Plain.class).compare(new TableInfo("t_plain"), plain).isEmpty());
+        Assert.assertTrue(plain.isEmpty());
+    }
+
+    @Test
+    public void testCompareAutoIncrement() throws Exception {
+        SchemaSnapshot snapshot = new FakeSchema("8.0.32")
+                .table("t_low", 5L).column("t_low", "id", "int(11)", "auto_increment")
+                .table("t_high", 2000L).column("t_high", "id", "int(11)", "auto_increment")
+                .table("t_none", null).column("t_none", "id", "int(11)", "")
+                .load();
+        Assert.assertNull(snapshot.getTable("t_none").getAutoIncrement());
+        Assert.assertFalse(snapshot.getTable("t_none").hasAutoIncrementColumn());
+
+        TableOptionsDefinition definition = of(Archive.class);
+        Assert.assertTrue(definition.compare(snapshot.getTable("t_low"), new TableChangeSet("t_low"))
+                .contains("auto_increment 5 → 1000"));
+        // 已超过指定值 / 没有自增字段 (AUTO_INCREMENT 为 NULL) 时不修改
+        Assert.assertFalse(definition.compare(snapshot.getTable("t_high"), new TableChangeSet("t_high"))
+                .toString().contains("auto_increment"));
+        Assert.assertFalse(definition.compare(snapshot.getTable("t_none"), new TableChangeSet("t_none"))
+                .toString().contains("auto_increment"));
+    }
+
+}
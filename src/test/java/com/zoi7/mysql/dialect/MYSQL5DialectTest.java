@@ -0,0 +1,259 @@
+package com.zoi7.mysql.dialect;
+
+import com.zoi7.mysql.comment.Entity;
+import com.zoi7.mysql.comment.Field;
+import com.zoi7.mysql.comment.HashType;
+import com.zoi7.mysql.comment.Id;
+import com.zoi7.mysql.config.Config;
+import com.zoi7.mysql.config.DataConfig;
+import com.zoi7.mysql.ddl.DdlStatement;
+import com.zoi7.mysql.ddl.IndexDefinition;
+import com.zoi7.mysql.analysis.EntityModel;
+import com.zoi7.mysql.report.MigrationPhase;
+import com.zoi7.mysql.report.MigrationReport;
+import org.junit.Assert;
+import org.junit.Test;
+
+import javax.naming.ConfigurationException;
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * 测试建表语句与索引定义
+ */
+public class MYSQL5DialectTest {
+
+    @Entity(tableName = "t_resource")
+    private static class Resource {
+        @Id(autoIncrease = false)
+        @Field(length = 500, hash = HashType.CRC32)
+        private String path;
+        @Field
+        private Integer size;
+    }
+
+    /**
+     * id 字段的哈希伴随字段在建表与索引比对中保持一致
+     */
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testHashedId() throws Exception {
+        DataConfig config = new DataConfig(new String[]{"com.zoi7"}, "url", "root", "root");
+        MYSQL5Dialect dialect = new MYSQL5Dialect(config, null);
+        Method createTable = MYSQL5Dialect.class.getDeclaredMethod("createTable", Entity.class, Class.class);
+        createTable.setAccessible(true);
+        Method getIndexDefinitions = MYSQL5Dialect.class.getDeclaredMethod("getIndexDefinitions", Class.class);
+        getIndexDefinitions.setAccessible(true);
+
+        String sql = ((DdlStatement) createTable.invoke(dialect, Resource.class.getAnnotation(Entity.class),
+                Resource.class)).getSql();
+        Assert.assertTrue(sql.contains("path_hash INT UNSIGNED GENERATED ALWAYS AS (CRC32(path)) STORED"));
+        Assert.assertTrue(sql.contains("INDEX path_hash(path_hash)"));
+
+        List<IndexDefinition> indices = (List<IndexDefinition>) getIndexDefinitions.invoke(dialect, Resource.class);
+        Assert.assertEquals(2, indices.size());
+        Assert.assertTrue(indices.get(0).isPrimary());
+        Assert.assertEquals("path_hash", indices.get(1).getName());
+    }
+
+    /**
+     * 更新类型忽略大小写, 未知的类型在加载配置时拒绝, 且不会执行任何语句
+     */
+    @Test
+    public void testUnknownType() throws Exception {
+        DataConfig config = new DataConfig(new String[]{"com.zoi7"}, "url", "root", "root", " UPDATE ");
+        Assert.assertEquals(DataConfig.TYPE_UPDATE, config.getType());
+        try {
+            config.setType("updat");
+            Assert.fail();
+        } catch (IllegalArgumentException e) {
+            Assert.assertEquals(DataConfig.TYPE_UPDATE, config.getType());
+        }
+        Properties properties = new Properties();
+        properties.setProperty("db.driver", DataConfig.DEFAULT_DRIVER);
+        properties.setProperty("db.url", "url");
+        properties.setProperty("db.username", "root");
+        properties.setProperty("db.password", "root");
+        properties.setProperty("db.packages", "com.zoi7");
+        properties.setProperty("db.auto", "creat");
+        properties.setProperty("db.showSql", "false");
+        properties.setProperty("db.uppercase", "false");
+        try {
+            Config.loadConfig(properties);
+            Assert.fail();
+        } catch (ConfigurationException e) {
+            Assert.assertTrue(e.getMessage().contains("creat"));
+        }
+
+        // 绕过校验写入的未知类型也不会落入 create
+        java.lang.reflect.Field type = DataConfig.class.getDeclaredField("type");
+        type.setAccessible(true);
+        type.set(config, "creat");
+        RecordingDataSource fake = new RecordingDataSource();
+        MigrationReport report = new MYSQL5Dialect(config, fake.proxy()).init();
+        Assert.assertTrue(report.getError() instanceof IllegalStateException);
+        Assert.assertTrue(fake.invoked.isEmpty());
+    }
+
+    /**
+     * 所有表实体的指纹均未变化时跳过同步, 分区维护仍然执行
+     */
+    @Test
+    public void testUnchangedStillMaintainsPartitions() throws Exception {
+        DataConfig config = new DataConfig(new String[]{"com.zoi7"}, "url", "root", "root");
+        config.setFingerprint(true);
+        config.setPartitionMaintain(true);
+        EntityModel model = EntityModel.of(new HashSet<Class<?>>(Collections.<Class<?>>singleton(Resource.class)), false);
+        FakeDatabase database = new FakeDatabase();
+
+        // 首次同步保存指纹
+        MigrationReport report = new MYSQL5Dialect(config, database.proxy()).init(model);
+        Assert.assertNull(report.getError());
+        Assert.assertFalse(database.executed.isEmpty());
+        Assert.assertTrue(database.fingerprints.containsKey("t_resource"));
+
+        database.executed.clear();
+        MYSQL5Dialect dialect = new MYSQL5Dialect(config, database.proxy());
+        try {
+            report = dialect.init(model);
+            Assert.assertNull(report.getError());
+            Assert.assertTrue(database.executed.isEmpty());
+            Assert.assertFalse(report.getPhases().containsKey(MigrationPhase.SYNC));
+            Assert.assertTrue(report.getPhases().containsKey(MigrationPhase.PARTITION));
+            Assert.assertNotNull(dialect.getPartitionMaintainer());
+        } finally {
+            dialect.close();
+        }
+    }
+
+    /**
+     * 模拟只有 t_resource 空表的数据库, 记录执行的语句与保存的指纹
+     */
+    private static class FakeDatabase implements InvocationHandler {
+
+        private List<String> executed = new ArrayList<String>();
+        private Map<String, String> fingerprints = new LinkedHashMap<String, String>();
+        private String[] parameters = new String[3];
+
+        DataSource proxy() {
+            return (DataSource) Proxy.newProxyInstance(getClass().getClassLoader(),
+                    new Class<?>[]{DataSource.class, Connection.class}, this);
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            if ("getConnection".equals(name)) {
+                return proxy;
+            }
+            if ("createStatement".equals(name) || "prepareStatement".equals(name)) {
+                return Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{PreparedStatement.class}, this);
+            }
+            if ("executeQuery".equals(name)) {
+                String sql = (String) args[0];
+                List<Object[]> rows = new ArrayList<Object[]>();
+                if (sql.startsWith("SELECT VERSION()")) {
+                    rows.add(new Object[]{"8.0.30"});
+                } else if (sql.contains("INFORMATION_SCHEMA.TABLES")) {
+                    rows.add(new Object[]{"t_resource"});
+                } else if (sql.contains("fingerprint FROM")) {
+                    for (Map.Entry<String, String> entry : fingerprints.entrySet()) {
+                        rows.add(new Object[]{entry.getKey(), entry.getValue()});
+                    }
+                }
+                return resultSet(rows);
+            }
+            if ("execute".equals(name) || "addBatch".equals(name) && args != null) {
+                if (!((String) args[0]).startsWith("CREATE TABLE IF NOT EXISTS table_helper_fingerprint")) {
+                    executed.add((String) args[0]);
+                }
+                return false;
+            }
+            if ("setString".equals(name)) {
+                parameters[(Integer) args[0] - 1] = (String) args[1];
+                return null;
+            }
+            if ("addBatch".equals(name)) {
+                fingerprints.put(parameters[0], parameters[2]);
+                return null;
+            }
+            if ("executeBatch".equals(name)) {
+                return new int[0];
+            }
+            if ("getUpdateCount".equals(name)) {
+                return 0;
+            }
+            return null;
+        }
+
+        /**
+         * 按列序号或列名 (只取第一列作表名) 返回各行的值
+         */
+        private ResultSet resultSet(final List<Object[]> rows) {
+            return (ResultSet) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{ResultSet.class},
+                    new InvocationHandler() {
+                        private int row = -1;
+
+                        @Override
+                        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+                            String name = method.getName();
+                            if ("next".equals(name)) {
+                                return ++row < rows.size();
+                            }
+                            if ("getString".equals(name)) {
+                                Object[] values = rows.get(row);
+                                int column = args[0] instanceof Integer ? (Integer) args[0] - 1
+                                        : "TABLE_NAME".equals(args[0]) ? 0 : -1;
+                                return column >= 0 && column < values.length ? values[column] : null;
+                            }
+                            if ("getLong".equals(name)) {
+                                return 0L;
+                            }
+                            if ("getInt".equals(name)) {
+                                return 0;
+                            }
+                            if ("wasNull".equals(name)) {
+                                return true;
+                            }
+                            return null;
+                        }
+                    });
+        }
+    }
+
+    /**
+     * 记录所有调用的数据源, 连接与语句
+     */
+    private static class RecordingDataSource implements InvocationHandler {
+
+        private List<String> invoked = new ArrayList<String>();
+
+        DataSource proxy() {
+            return (DataSource) Proxy.newProxyInstance(getClass().getClassLoader(),
+                    new Class<?>[]{DataSource.class, Connection.class, Statement.class}, this);
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            invoked.add(method.getName());
+            if ("getConnection".equals(method.getName()) || "createStatement".equals(method.getName())) {
+                return proxy;
+            }
+            return null;
+        }
+    }
+
+}
@@ -0,0 +1,213 @@
+package com.zoi7.mysql.driverManager;
+
+import com.zoi7.mysql.config.DataConfig;
+import org.junit.Assert;
+import org.junit.Test;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 测试连接池
+ */
+public class PooledDataSourceTest {
+
+    @Test
+    public void testReuse() throws Exception {
+        FakeDriver driver = new FakeDriver();
+        PooledDataSource pool = new PooledDataSource(driver.proxy(), newConfig());
+        Connection first = pool.getConnection();
+        first.close();
+        first.close();
+        Assert.assertTrue(first.isClosed());
+        Connection second = pool.getConnection();
+        Assert.assertEquals(1, driver.connections.size());
+        Assert.assertEquals(1, pool.getActive());
+        try {
+            first.createStatement();
+            Assert.fail();
+        } catch (SQLException e) {
+            // 已归还的代理连接不可再使用
+        }
+        // 普通语句的 getConnection 返回代理连接, 关闭后归还连接池
+        Statement statement = second.createStatement();
+        Assert.assertSame(second, statement.getConnection());
+        statement.getConnection().close();
+        Assert.assertEquals(0, pool.getActive());
+        Assert.assertEquals(1, pool.getIdle());
+        Assert.assertTrue(driver.connections.get(0).statementsClosed > 0);
+
+        pool.close();
+        Assert.assertTrue(driver.connections.get(0).closed);
+        try {
+            pool.getConnection();
+            Assert.fail();
+        } catch (SQLException e) {
+            // 连接池已关闭
+        }
+    }
+
+    @Test
+    public void testStatementCache() throws Exception {
+        FakeDriver driver = new FakeDriver();
+        DataConfig config = newConfig();
+        config.setPoolStatementCacheSize(1);
+        PooledDataSource pool = new PooledDataSource(driver.proxy(), config);
+        Connection connection = pool.getConnection();
+        PreparedStatement a = connection.prepareStatement("SELECT 1");
+        a.close();
+        Assert.assertTrue(a.isClosed());
+        connection.close();
+
+        connection = pool.getConnection();
+        PreparedStatement b = connection.prepareStatement("SELECT 1");
+        Assert.assertSame(a, b);
+        Assert.assertSame(connection, b.getConnection());
+        // 同一 SQL 同时打开时不复用
+        PreparedStatement c = connection.prepareStatement("SELECT 1");
+        Assert.assertNotSame(b, c);
+        c.close();
+        b.close();
+        FakeConnection physical = driver.connections.get(0);
+        Assert.assertEquals(2, physical.prepared);
+        Assert.assertEquals(1, physical.statementsClosed);
+        Assert.assertEquals(2, physical.clearParameters);
+        // 超出缓存数时关闭最久未使用的语句
+        connection.prepareStatement("SELECT 2").close();
+        Assert.assertEquals(2, physical.statementsClosed);
+        connection.close();
+        pool.close();
+    }
+
+    @Test
+    public void testMaxSizeAndValidation() throws Exception {
+        FakeDriver driver = new FakeDriver();
+        DataConfig config = newConfig();
+        config.setPoolMaxSize(1);
+        config.setThreads(1);
+        config.setPoolMaxWait(0);
+        PooledDataSource pool = new PooledDataSource(driver.proxy(), config);
+        Assert.assertEquals(2, pool.getMaxSize());
+        Connection a = pool.getConnection();
+        Connection b = pool.getConnection();
+        try {
+            pool.getConnection();
+            Assert.fail();
+        } catch (SQLException e) {
+            // 连接已全部借出
+        }
+        a.close();
+        b.close();
+        // 借出时校验失败的连接被丢弃
+        driver.connections.get(0).valid = false;
+        driver.connections.get(1).valid = false;
+        Connection c = pool.getConnection();
+        Assert.assertEquals(3, driver.connections.size());
+        Assert.assertTrue(driver.connections.get(0).closed);
+        Assert.assertTrue(driver.connections.get(1).closed);
+        Assert.assertEquals(1, pool.getActive());
+        c.close();
+        pool.close();
+    }
+
+    @Test
+    public void testMinIdle() throws Exception {
+        FakeDriver driver = new FakeDriver();
+        DataConfig config = newConfig();
+        config.setPoolMinIdle(2);
+        PooledDataSource pool = new PooledDataSource(driver.proxy(), config);
+        pool.evict();
+        Assert.assertEquals(2, pool.getIdle());
+        Assert.assertEquals(2, driver.connections.size());
+        pool.close();
+        Assert.assertEquals(0, pool.getIdle());
+    }
+
+    private static DataConfig newConfig() {
+        return new DataConfig(new String[]{"com.zoi7"}, "url", "root", "root");
+    }
+
+    /**
+     * 模拟驱动: 每次 getConnection 创建一个新的模拟物理连接
+     */
+    private static class FakeDriver implements InvocationHandler {
+
+        private List<FakeConnection> connections = new ArrayList<FakeConnection>();
+
+        DataSource proxy() {
+            return (DataSource) Proxy.newProxyInstance(getClass().getClassLoader(),
+                    new Class<?>[]{DataSource.class}, this);
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            if ("getConnection".equals(method.getName())) {
+                FakeConnection connection = new FakeConnection();
+                connections.add(connection);
+                return connection.proxy;
+            }
+            return null;
+        }
+    }
+
+    /**
+     * 模拟物理连接, 记录预编译与关闭的次数
+     */
+    private static class FakeConnection implements InvocationHandler {
+
+        private final Connection proxy;
+        private boolean valid = true;
+        private boolean closed;
+        private int prepared;
+        private int statementsClosed;
+        private int clearParameters;
+
+        FakeConnection() {
+            this.proxy = (Connection) Proxy.newProxyInstance(getClass().getClassLoader(),
+                    new Class<?>[]{Connection.class}, this);
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            if ("isValid".equals(name)) {
+                return valid;
+            } else if ("close".equals(name)) {
+                closed = true;
+            } else if ("isClosed".equals(name)) {
+                return closed;
+            } else if ("getAutoCommit".equals(name)) {
+                return true;
+            } else if ("prepareStatement".equals(name)) {
+                prepared++;
+                return statement(PreparedStatement.class);
+            } else if ("createStatement".equals(name)) {
+                return statement(Statement.class);
+            }
+            return null;
+        }
+
+        private Object statement(Class<?> type) {
+            return Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{type}, new InvocationHandler() {
+                @Override
+                public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+                    if ("close".equals(method.getName())) {
+                        statementsClosed++;
+                    } else if ("clearParameters".equals(method.getName())) {
+                        clearParameters++;
+                    }
+                    return null;
+                }
+            });
+        }
+    }
+
+}
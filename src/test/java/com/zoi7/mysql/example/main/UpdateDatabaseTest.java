@@ -57,7 +57,7 @@ public class UpdateDatabaseTest {
         TableInitializer.init(config);
     }
 
-    // 测试扫描jar包
+    // 测试扫描jar包中的表实体
     @Test
     public void testScanJar() throws IOException, ClassNotFoundException {
         // 加载Log4j配置
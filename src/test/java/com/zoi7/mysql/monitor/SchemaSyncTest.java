@@ -0,0 +1,79 @@
+package com.zoi7.mysql.monitor;
+
+import com.zoi7.mysql.TableInitializer;
+import com.zoi7.mysql.ddl.DdlStatement;
+import com.zoi7.mysql.ddl.TableFailure;
+import com.zoi7.mysql.report.MigrationPhase;
+import com.zoi7.mysql.report.MigrationReport;
+import org.junit.Assert;
+import org.junit.Test;
+
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.sql.SQLException;
+import java.util.Collections;
+
+/**
+ * 测试表结构同步的 JMX 计数与 JFR 事件
+ */
+public class SchemaSyncTest {
+
+    @Test
+    public void testFinished() throws Exception {
+        SchemaSync sync = SchemaSync.get();
+        sync.reset();
+        sync.scanned(12, 30);
+
+        MigrationReport report = new MigrationReport(null);
+        report.phase(MigrationPhase.METADATA, 8);
+        report.table("user", 3, 1, null);
+        report.table("order", 4, 0, new SQLException("table check failed"));
+        DdlStatement ddl = new DdlStatement("user", "ALTER TABLE `user` ADD COLUMN `age` int(11)");
+        ddl.setElapsed(20);
+        report.statement(ddl, null);
+        report.finish(40, Collections.singletonList(new TableFailure("order", new SQLException("table check failed"))), null);
+        sync.finished(report);
+
+        Assert.assertEquals(1, sync.getScans());
+        Assert.assertEquals(30, sync.getLastScanClasses());
+        Assert.assertEquals(1, sync.getRuns());
+        Assert.assertEquals(1, sync.getFailedRuns());
+        Assert.assertEquals(8, sync.getLastMetadataMillis());
+        Assert.assertEquals(2, sync.getTables());
+        Assert.assertEquals(1, sync.getFailedTables());
+        Assert.assertEquals(7, sync.getLastDiffMillis());
+        Assert.assertEquals(1, sync.getStatements());
+        Assert.assertEquals(20, sync.getLastDdlMillis());
+
+        // 通过 JMX 读取
+        Object runs = ManagementFactory.getPlatformMBeanServer().getAttribute(new ObjectName(SchemaSync.OBJECT_NAME), "Runs");
+        Assert.assertEquals(1L, runs);
+        sync.reset();
+    }
+
+    /**
+     * shutdown 时注销 MBean, 再次初始化时重新注册
+     */
+    @Test
+    public void testUnregister() throws Exception {
+        SchemaSync sync = SchemaSync.get();
+        ObjectName name = new ObjectName(SchemaSync.OBJECT_NAME);
+        sync.finished(new MigrationReport(null));
+        Assert.assertTrue(ManagementFactory.getPlatformMBeanServer().isRegistered(name));
+        TableInitializer.shutdown();
+        Assert.assertFalse(ManagementFactory.getPlatformMBeanServer().isRegistered(name));
+        sync.finished(new MigrationReport(null));
+        Assert.assertTrue(ManagementFactory.getPlatformMBeanServer().isRegistered(name));
+        sync.reset();
+    }
+
+    @Test
+    public void testFlightEvent() {
+        // 运行时没有 JFR 时 begin 返回 null, commit 忽略
+        Object event = FlightEvent.UPDATE_TABLE.begin();
+        Assert.assertEquals(FlightEvent.UPDATE_TABLE.isAvailable(), event != null);
+        FlightEvent.UPDATE_TABLE.commit(event, "user", 2);
+        FlightEvent.UPDATE_TABLE.commit(null, "user", 2);
+    }
+
+}
@@ -0,0 +1,77 @@
+package com.zoi7.mysql.report;
+
+import com.zoi7.mysql.ddl.DdlStatement;
+import com.zoi7.mysql.ddl.TableFailure;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 测试初始化报告
+ */
+public class MigrationReportTest {
+
+    @Test
+    public void testRecord() {
+        final List<String> events = new ArrayList<String>();
+        MigrationReport report = new MigrationReport(new MigrationListenerAdapter() {
+            @Override
+            public void onPhase(MigrationPhase phase, long elapsed) {
+                events.add("phase " + phase);
+            }
+
+            @Override
+            public void onStatement(StatementRecord statement) {
+                events.add("statement " + statement.getSql());
+            }
+
+            @Override
+            public void onFinished(MigrationReport report) {
+                events.add("finished");
+            }
+        });
+        report.phase(MigrationPhase.METADATA, 10);
+        report.table("user", 3, 2, null);
+        DdlStatement add = new DdlStatement("user", "ALTER TABLE `user` ADD COLUMN `age` int(11)");
+        add.setElapsed(20);
+        add.setRows(100);
+        report.statement(add, null);
+        DdlStatement drop = new DdlStatement("user", "ALTER TABLE `user` DROP INDEX `idx_name`");
+        report.statement(drop, new SQLException("Can't DROP 'idx_name'"));
+        report.phase(MigrationPhase.SYNC, 30);
+        report.phase(MigrationPhase.SYNC, 5);
+        report.finish(50, Collections.<TableFailure>emptyList(), null);
+
+        Assert.assertEquals(35, report.getPhase(MigrationPhase.SYNC));
+        Assert.assertEquals(0, report.getPhase(MigrationPhase.SCAN));
+        Assert.assertEquals(1, report.getTables().size());
+        Assert.assertEquals(2, report.getStatements().size());
+        Assert.assertEquals(1, report.getFailedStatements().size());
+        // 未知行数 (-1) 不计入
+        Assert.assertEquals(100, report.getRows());
+        Assert.assertTrue(report.isSuccess());
+        Assert.assertEquals(6, events.size());
+        Assert.assertEquals("finished", events.get(5));
+        Assert.assertTrue(report.format(1).contains("statement"));
+    }
+
+    @Test
+    public void testListenerFailure() {
+        MigrationReport report = new MigrationReport(new MigrationListenerAdapter() {
+            @Override
+            public void onTable(TableRecord table) {
+                throw new IllegalStateException("listener failed");
+            }
+        });
+        // 监听器的异常不影响初始化
+        report.table("user", 1, 0, new SQLException("table check failed"));
+        report.finish(1, Collections.singletonList(new TableFailure("user", new SQLException("table check failed"))), null);
+        Assert.assertEquals(1, report.getFailedTables().size());
+        Assert.assertFalse(report.isSuccess());
+    }
+
+}
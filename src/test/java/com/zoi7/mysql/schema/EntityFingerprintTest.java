@@ -0,0 +1,37 @@
+package com.zoi7.mysql.schema;
+
+import com.zoi7.mysql.example.entity.User;
+import com.zoi7.mysql.example.entity.User1;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * 表实体指纹测试
+ */
+public class EntityFingerprintTest {
+
+    @Test
+    public void testStable() {
+        String first = EntityFingerprint.compute(User.class, false);
+        Assert.assertEquals(32, first.length());
+        Assert.assertEquals(first, EntityFingerprint.compute(User.class, false));
+    }
+
+    @Test
+    public void testChanged() {
+        Assert.assertNotEquals(EntityFingerprint.compute(User.class, false), EntityFingerprint.compute(User1.class, false));
+        Assert.assertNotEquals(EntityFingerprint.compute(User.class, false), EntityFingerprint.compute(User.class, true));
+    }
+
+    @Test
+    public void testWithSettings() {
+        String fingerprint = EntityFingerprint.compute(User.class, false);
+        Assert.assertEquals(EntityFingerprint.withSettings(fingerprint, "modifyColumn=false,version=5.7.30"),
+                EntityFingerprint.withSettings(fingerprint, "modifyColumn=false,version=5.7.30"));
+        Assert.assertNotEquals(EntityFingerprint.withSettings(fingerprint, "modifyColumn=false,version=5.7.30"),
+                EntityFingerprint.withSettings(fingerprint, "modifyColumn=true,version=5.7.30"));
+        Assert.assertNotEquals(EntityFingerprint.withSettings(fingerprint, "modifyColumn=false,version=5.7.30"),
+                EntityFingerprint.withSettings(fingerprint, "modifyColumn=false,version=8.0.30"));
+    }
+
+}
@@ -0,0 +1,135 @@
+package com.zoi7.mysql.schema;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 测试用的 INFORMATION_SCHEMA: 按视图保存各行, 通过 Proxy 模拟的连接供 {@link SchemaSnapshot#load(Connection)} 读取
+ */
+public class FakeSchema implements InvocationHandler {
+
+    private String version;
+    private Map<String, List<Map<String, Object>>> views = new HashMap<String, List<Map<String, Object>>>();
+
+    public FakeSchema(String version) {
+        this.version = version;
+    }
+
+    /**
+     * @param autoIncrement INFORMATION_SCHEMA.TABLES.AUTO_INCREMENT, 没有自增字段时为 null
+     */
+    public FakeSchema table(String name, Long autoIncrement) {
+        add("TABLES", "TABLE_NAME", name, "AUTO_INCREMENT", autoIncrement);
+        return this;
+    }
+
+    public FakeSchema column(String table, String name, String columnType, String extra) {
+        String dataType = columnType.replaceAll("\\(.*", "");
+        add("COLUMNS", "TABLE_NAME", table, "COLUMN_NAME", name, "DATA_TYPE", dataType, "COLUMN_TYPE", columnType,
+                "IS_NULLABLE", "NO", "EXTRA", extra);
+        return this;
+    }
+
+    /**
+     * STATISTICS 中的一个索引字段, 按 SEQ_IN_INDEX 顺序添加
+     * @param subPart 前缀长度, 整个字段时为 null
+     * @param collation A 升序, D 降序
+     * @param expression 函数索引的表达式, 普通字段时为 null
+     */
+    public FakeSchema index(String table, String index, boolean unique, String column, Integer subPart,
+                            String collation, String expression) {
+        add("STATISTICS", "TABLE_NAME", table, "INDEX_NAME", index, "NON_UNIQUE", unique ? 0 : 1,
+                "COLUMN_NAME", column, "SUB_PART", subPart, "COLLATION", collation, "EXPRESSION", expression);
+        return this;
+    }
+
+    public SchemaSnapshot load() throws SQLException {
+        Connection connection = (Connection) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[]{Connection.class, Statement.class}, this);
+        return SchemaSnapshot.load(connection);
+    }
+
+    private void add(String view, Object... values) {
+        Map<String, Object> row = new HashMap<String, Object>();
+        for (int i = 0; i < values.length; i += 2) {
+            row.put((String) values[i], values[i + 1]);
+        }
+        List<Map<String, Object>> rows = views.get(view);
+        if (rows == null) {
+            rows = new ArrayList<Map<String, Object>>();
+            views.put(view, rows);
+        }
+        rows.add(row);
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+        String name = method.getName();
+        if ("createStatement".equals(name)) {
+            return proxy;
+        }
+        if ("executeQuery".equals(name)) {
+            String sql = (String) args[0];
+            List<Map<String, Object>> rows = new ArrayList<Map<String, Object>>();
+            if (sql.startsWith("SELECT VERSION()")) {
+                Map<String, Object> row = new HashMap<String, Object>();
+                row.put("1", version);
+                rows.add(row);
+            } else {
+                String view = sql.replaceAll("(?s).*FROM INFORMATION_SCHEMA\\.(\\w+).*", "$1");
+                if (views.containsKey(view)) {
+                    rows = views.get(view);
+                }
+            }
+            return resultSet(rows);
+        }
+        return null;
+    }
+
+    /**
+     * 按列名 (或列序号) 读取各行, NULL 值读作 0 并由 wasNull 返回 true
+     */
+    private static ResultSet resultSet(final List<Map<String, Object>> rows) {
+        return (ResultSet) Proxy.newProxyInstance(FakeSchema.class.getClassLoader(), new Class<?>[]{ResultSet.class},
+                new InvocationHandler() {
+                    private int row = -1;
+                    private boolean wasNull;
+
+                    @Override
+                    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+                        String name = method.getName();
+                        if ("next".equals(name)) {
+                            return ++row < rows.size();
+                        }
+                        if ("wasNull".equals(name)) {
+                            return wasNull;
+                        }
+                        if (name.startsWith("get") && args != null && args.length == 1) {
+                            Object value = rows.get(row).get(String.valueOf(args[0]));
+                            wasNull = value == null;
+                            if ("getString".equals(name)) {
+                                return value == null ? null : String.valueOf(value);
+                            }
+                            if ("getLong".equals(name)) {
+                                return value == null ? 0L : ((Number) value).longValue();
+                            }
+                            if ("getInt".equals(name)) {
+                                return value == null ? 0 : ((Number) value).intValue();
+                            }
+                            return value;
+                        }
+                        return null;
+                    }
+                });
+    }
+
+}
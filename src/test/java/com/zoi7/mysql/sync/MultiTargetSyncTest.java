@@ -0,0 +1,131 @@
+package com.zoi7.mysql.sync;
+
+import com.zoi7.mysql.analysis.EntityModel;
+import com.zoi7.mysql.comment.Entity;
+import com.zoi7.mysql.comment.Field;
+import com.zoi7.mysql.comment.FieldType;
+import com.zoi7.mysql.comment.Id;
+import com.zoi7.mysql.config.DataConfig;
+import org.junit.Assert;
+import org.junit.Test;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 测试多数据源同步
+ */
+public class MultiTargetSyncTest {
+
+    @Test
+    public void testBoundedParallelism() {
+        DataConfig config = new DataConfig(new String[]{"com.zoi7"}, "url", "root", "root", DataConfig.TYPE_UPDATE);
+        config.setSyncParallelism(2);
+        FakeDataSource fake = new FakeDataSource();
+        List<DataSource> dataSources = new ArrayList<DataSource>();
+        for (int i = 0; i < 5; i++) {
+            dataSources.add(fake.proxy());
+        }
+        MultiTargetSync sync = new MultiTargetSync(config, dataSources);
+        EntityModel model = EntityModel.of(new HashSet<Class<?>>(Collections.<Class<?>>singleton(Item.class)), false);
+        List<TargetResult> results = sync.execute(model);
+
+        Assert.assertEquals(5, results.size());
+        Assert.assertEquals(5, fake.calls.get());
+        Assert.assertTrue(fake.maxConcurrent.get() <= 2);
+        for (int i = 0; i < results.size(); i++) {
+            Assert.assertEquals("#" + i, results.get(i).getName());
+            Assert.assertFalse(results.get(i).isSuccess());
+            Assert.assertTrue(results.get(i).getError() instanceof SQLException);
+        }
+        SyncReport report = new SyncReport(results, 10);
+        Assert.assertEquals(5, report.getFailed().size());
+        Assert.assertTrue(report.format().startsWith("targets: 5, failed: 5"));
+    }
+
+    /**
+     * update 与 plan 以外的类型在连接任何数据源前拒绝
+     */
+    @Test
+    public void testRejectType() {
+        FakeDataSource fake = new FakeDataSource();
+        List<DataSource> dataSources = new ArrayList<DataSource>();
+        dataSources.add(fake.proxy());
+        dataSources.add(fake.proxy());
+        EntityModel model = EntityModel.of(new HashSet<Class<?>>(Collections.<Class<?>>singleton(Item.class)), false);
+        for (String type : new String[]{DataConfig.TYPE_CREATE, DataConfig.TYPE_NONE}) {
+            DataConfig config = new DataConfig(new String[]{"com.zoi7"}, "url", "root", "root", type);
+            MultiTargetSync sync = new MultiTargetSync(config, dataSources);
+            try {
+                sync.execute();
+                Assert.fail();
+            } catch (IllegalArgumentException e) {
+                Assert.assertTrue(e.getMessage().contains(type));
+            }
+            try {
+                sync.execute(model);
+                Assert.fail();
+            } catch (IllegalArgumentException e) {
+                Assert.assertTrue(e.getMessage().contains(type));
+            }
+        }
+        Assert.assertEquals(0, fake.calls.get());
+    }
+
+    @Test
+    public void testModel() {
+        EntityModel model = EntityModel.of(new HashSet<Class<?>>(Collections.<Class<?>>singleton(Item.class)), false);
+        Assert.assertEquals(1, model.getEntities().size());
+        Assert.assertEquals(32, model.getFingerprint(Item.class).length());
+    }
+
+    @Entity(tableName = "sync_item")
+    private static class Item {
+        @Id
+        private Integer id;
+        @Field(type = FieldType.VARCHAR, length = 50)
+        private String name;
+    }
+
+    /**
+     * 模拟无法连接的数据库, 记录同时获取连接的最大数量
+     */
+    private static class FakeDataSource implements InvocationHandler {
+
+        private AtomicInteger calls = new AtomicInteger();
+        private AtomicInteger concurrent = new AtomicInteger();
+        private AtomicInteger maxConcurrent = new AtomicInteger();
+
+        DataSource proxy() {
+            return (DataSource) Proxy.newProxyInstance(getClass().getClassLoader(),
+                    new Class<?>[]{DataSource.class}, this);
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            if (!"getConnection".equals(method.getName())) {
+                return null;
+            }
+            calls.incrementAndGet();
+            int current = concurrent.incrementAndGet();
+            synchronized (this) {
+                maxConcurrent.set(Math.max(maxConcurrent.get(), current));
+            }
+            try {
+                Thread.sleep(50);
+            } finally {
+                concurrent.decrementAndGet();
+            }
+            throw new SQLException("Connection refused");
+        }
+    }
+
+}
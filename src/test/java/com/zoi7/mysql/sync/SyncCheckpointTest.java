@@ -0,0 +1,65 @@
+package com.zoi7.mysql.sync;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileOutputStream;
+
+/**
+ * 测试同步检查点
+ */
+public class SyncCheckpointTest {
+
+    @Test
+    public void testResume() throws Exception {
+        File file = File.createTempFile("checkpoint", ".txt");
+        file.delete();
+        try {
+            SyncCheckpoint checkpoint = SyncCheckpoint.open(file, "abc");
+            checkpoint.complete("#0/tenant_1");
+            checkpoint.complete("#0/tenant_2");
+            checkpoint.close();
+
+            checkpoint = SyncCheckpoint.open(file, "abc");
+            Assert.assertTrue(checkpoint.isCompleted("#0/tenant_1"));
+            Assert.assertTrue(checkpoint.isCompleted("#0/tenant_2"));
+            Assert.assertFalse(checkpoint.isCompleted("#0/tenant_3"));
+            checkpoint.close();
+
+            // 模型变化后重新开始
+            checkpoint = SyncCheckpoint.open(file, "def");
+            Assert.assertEquals(0, checkpoint.getCompleted());
+            checkpoint.complete("#0/tenant_3");
+            checkpoint.close();
+            checkpoint = SyncCheckpoint.open(file, "def");
+            Assert.assertEquals(1, checkpoint.getCompleted());
+            checkpoint.close();
+        } finally {
+            file.delete();
+        }
+    }
+
+    @Test
+    public void testTruncatedLine() throws Exception {
+        File file = File.createTempFile("checkpoint", ".txt");
+        try {
+            FileOutputStream out = new FileOutputStream(file);
+            out.write("# table-helper checkpoint, model: abc\n#0/tenant_1\n#0/tenant_12".getBytes("UTF-8"));
+            out.close();
+            SyncCheckpoint checkpoint = SyncCheckpoint.open(file, "abc");
+            Assert.assertTrue(checkpoint.isCompleted("#0/tenant_1"));
+            // 中断时写了一半的行不算完成
+            Assert.assertFalse(checkpoint.isCompleted("#0/tenant_12"));
+            checkpoint.complete("#0/tenant_2");
+            checkpoint.close();
+            checkpoint = SyncCheckpoint.open(file, "abc");
+            Assert.assertTrue(checkpoint.isCompleted("#0/tenant_2"));
+            Assert.assertEquals(2, checkpoint.getCompleted());
+            checkpoint.close();
+        } finally {
+            file.delete();
+        }
+    }
+
+}
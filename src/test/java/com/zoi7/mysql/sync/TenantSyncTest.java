@@ -0,0 +1,94 @@
+package com.zoi7.mysql.sync;
+
+import com.zoi7.mysql.config.DataConfig;
+import com.zoi7.mysql.driverManager.CatalogDataSource;
+import org.junit.Assert;
+import org.junit.Test;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * 测试租户库同步
+ */
+public class TenantSyncTest {
+
+    @Test
+    public void testFilterSchemas() {
+        List<String> schemas = Arrays.asList("information_schema", "mysql", "sys", "tenant_1", "tenant_22", "tenant_x", "app");
+        Assert.assertEquals(Arrays.asList("tenant_1", "tenant_22"),
+                TenantSync.filterSchemas(schemas, Pattern.compile("tenant_\\d+")));
+        Assert.assertEquals(Arrays.asList("tenant_1", "tenant_22", "tenant_x", "app"),
+                TenantSync.filterSchemas(schemas, Pattern.compile(".*")));
+    }
+
+    /**
+     * create 在列出租户库前拒绝, 不会删除任何租户库中的表
+     */
+    @Test
+    public void testRejectCreate() {
+        final List<String> calls = new ArrayList<String>();
+        DataSource server = (DataSource) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[]{DataSource.class}, new InvocationHandler() {
+                    @Override
+                    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+                        calls.add(method.getName());
+                        return null;
+                    }
+                });
+        DataConfig config = new DataConfig(new String[]{"com.zoi7"}, "url", "root", "root", DataConfig.TYPE_CREATE);
+        config.setTenantPattern("tenant_\\d+");
+        try {
+            new TenantSync(config, Collections.singletonList(server)).execute();
+            Assert.fail();
+        } catch (IllegalArgumentException e) {
+            Assert.assertTrue(e.getMessage().contains(DataConfig.TYPE_CREATE));
+        }
+        Assert.assertTrue(calls.isEmpty());
+    }
+
+    @Test
+    public void testCatalogDataSource() throws Exception {
+        final List<String> calls = new ArrayList<String>();
+        final String[] catalog = {"app"};
+        final Connection physical = (Connection) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[]{Connection.class}, new InvocationHandler() {
+                    @Override
+                    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+                        String name = method.getName();
+                        if ("getCatalog".equals(name)) {
+                            return catalog[0];
+                        } else if ("setCatalog".equals(name)) {
+                            catalog[0] = (String) args[0];
+                            return null;
+                        } else if ("isClosed".equals(name)) {
+                            return calls.contains("close");
+                        }
+                        calls.add(name);
+                        return null;
+                    }
+                });
+        DataSource server = (DataSource) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[]{DataSource.class}, new InvocationHandler() {
+                    @Override
+                    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+                        return physical;
+                    }
+                });
+        Connection connection = new CatalogDataSource(server, "tenant_1").getConnection();
+        Assert.assertEquals("tenant_1", connection.getCatalog());
+        connection.close();
+        // 归还前恢复原来的库
+        Assert.assertEquals("app", catalog[0]);
+        Assert.assertEquals(Arrays.asList("close"), calls);
+    }
+
+}
@@ -0,0 +1,39 @@
+package com.zoi7.mysql.util.mybatis;
+
+import com.zoi7.mysql.comment.Entity;
+import com.zoi7.mysql.comment.Field;
+import com.zoi7.mysql.comment.HashType;
+import com.zoi7.mysql.comment.Id;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * 测试哈希伴随字段的查询语句生成
+ */
+public class DefaultMapperUtilsTest {
+
+    @Entity(tableName = "t_link")
+    private static class Link {
+        @Id
+        @Field
+        private Long id;
+        @Field(length = 1000, hash = HashType.CRC32)
+        private String targetUrl;
+        @Field(length = 200, hash = HashType.SHA2_64)
+        private String requestKey;
+    }
+
+    @Test
+    public void testHashFinder() {
+        String xml = DefaultMapperUtils.INSTANCE.getXmlString(Link.class, new MapperConfig("entity", "mapper", "."));
+        Assert.assertTrue(xml.contains("<select id=\"findByTargetUrl\" parameterType=\"string\" resultMap=\"resultList\">\n" +
+                "\t\tselect * from <include refid=\"table_name\"/>\n" +
+                "\t\t<where>\n" +
+                "\t\t\ttarget_url_hash = CRC32(#{param1})\n" +
+                "\t\t\tand target_url = #{param1}\n"));
+        Assert.assertTrue(xml.contains("request_key_hash = UNHEX(LEFT(SHA2(#{param1}, 256), 16))"));
+        // 生成列不参与写入
+        Assert.assertFalse(xml.contains("target_url_hash,"));
+    }
+
+}